@@ -9,6 +9,11 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
 
 @Configuration
 public class AwsS3Config {
@@ -22,13 +27,42 @@ public class AwsS3Config {
   @Value("${aws.region}")
   private String region;
 
+  // Set to use an S3-compatible store such as MinIO or LocalStack instead of AWS
+  @Value("${aws.s3.endpoint:}")
+  private String endpoint;
+
   @Bean
   public S3Client s3Client() {
-    AwsBasicCredentials awsCreds = AwsBasicCredentials.create(accessKeyId, secretKey);
+    S3ClientBuilder builder = S3Client.builder()
+        .credentialsProvider(credentialsProvider())
+        .region(Region.of(region));
+    if (hasEndpoint()) {
+      builder.endpointOverride(URI.create(endpoint))
+          .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Signs URLs with the same credentials and endpoint as {@link #s3Client()}, so they are valid for its bucket.
+   */
+  @Bean
+  public S3Presigner s3Presigner() {
+    S3Presigner.Builder builder = S3Presigner.builder()
+        .credentialsProvider(credentialsProvider())
+        .region(Region.of(region));
+    if (hasEndpoint()) {
+      builder.endpointOverride(URI.create(endpoint))
+          .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
+    }
+    return builder.build();
+  }
+
+  private StaticCredentialsProvider credentialsProvider() {
+    return StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId, secretKey));
+  }
 
-    return S3Client.builder()
-        .credentialsProvider(StaticCredentialsProvider.create(awsCreds))
-        .region(Region.of(region))
-        .build();
+  private boolean hasEndpoint() {
+    return endpoint != null && !endpoint.isBlank();
   }
 }
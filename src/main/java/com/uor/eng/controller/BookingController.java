@@ -1,30 +1,48 @@
 package com.uor.eng.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uor.eng.payload.booking.BookingPageResponse;
 import com.uor.eng.payload.booking.BookingResponseDTO;
+import com.uor.eng.payload.booking.BookingSearchCriteria;
 import com.uor.eng.payload.booking.CreateBookingDTO;
 import com.uor.eng.payload.dashboard.MonthlyBookingStatsResponse;
 import com.uor.eng.payload.other.MessageResponse;
 import com.uor.eng.payload.patient.PatientResponse;
 import com.uor.eng.service.IBookingService;
+import com.uor.eng.util.BookingGroupCommitter;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
 
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
   private final IBookingService bookingService;
+  private final BookingGroupCommitter bookingGroupCommitter;
+  private final ObjectMapper objectMapper;
 
-  public BookingController(IBookingService bookingService) {
+  public BookingController(IBookingService bookingService, BookingGroupCommitter bookingGroupCommitter,
+                           ObjectMapper objectMapper) {
     this.bookingService = bookingService;
+    this.bookingGroupCommitter = bookingGroupCommitter;
+    this.objectMapper = objectMapper;
   }
 
   @PostMapping("/create")
   public ResponseEntity<BookingResponseDTO> createBooking(@RequestBody CreateBookingDTO bookingDTO) {
-    BookingResponseDTO createdBookingDTO = bookingService.createBooking(bookingDTO);
+    BookingResponseDTO createdBookingDTO = bookingGroupCommitter.createBooking(bookingDTO);
     return new ResponseEntity<>(createdBookingDTO, HttpStatus.CREATED);
   }
 
@@ -35,6 +53,46 @@ public class BookingController {
     return new ResponseEntity<>(bookingsDTO, HttpStatus.OK);
   }
 
+  @GetMapping("/page")
+  public ResponseEntity<BookingPageResponse> getBookingsPage(
+          @RequestParam(required = false) String status,
+          @RequestParam(required = false) Long scheduleId,
+          @RequestParam(required = false) Long dentistId,
+          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+          @RequestParam(required = false) String cursor,
+          @RequestParam(defaultValue = "50") int size) {
+    BookingSearchCriteria criteria = new BookingSearchCriteria(status, scheduleId, dentistId, from, to);
+    BookingPageResponse page = bookingService.getBookingsPage(criteria, cursor, size);
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  /**
+   * Streams all matching bookings as newline-delimited JSON, one booking per line, newest first.
+   */
+  @GetMapping(value = "/export", produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> exportBookings(
+          @RequestParam(required = false) String status,
+          @RequestParam(required = false) Long scheduleId,
+          @RequestParam(required = false) Long dentistId,
+          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    BookingSearchCriteria criteria = new BookingSearchCriteria(status, scheduleId, dentistId, from, to);
+    // Criteria are validated and the first chunk is read here, so bad requests fail before the response starts
+    Stream<BookingResponseDTO> bookings = bookingService.streamBookings(criteria);
+    StreamingResponseBody body = outputStream -> {
+      try (bookings) {
+        Iterator<BookingResponseDTO> iterator = bookings.iterator();
+        while (iterator.hasNext()) {
+          outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+          outputStream.write('\n');
+        }
+      }
+      outputStream.flush();
+    };
+    return ResponseEntity.ok().contentType(NDJSON).body(body);
+  }
+
   @GetMapping("/{referenceId}/{contactNumber}")
   public ResponseEntity<BookingResponseDTO> getBookingByReferenceIdAndContactNumber(@PathVariable String referenceId,
                                                                                     @PathVariable String contactNumber) {
@@ -72,6 +130,14 @@ public class BookingController {
     return new ResponseEntity<>(stats, HttpStatus.OK);
   }
 
+  @GetMapping("/stats/monthly")
+  public ResponseEntity<List<MonthlyBookingStatsResponse>> getMonthlyBookingStats(
+          @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+          @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+    List<MonthlyBookingStatsResponse> stats = bookingService.getMonthlyBookingStats(from, to);
+    return new ResponseEntity<>(stats, HttpStatus.OK);
+  }
+
   @PostMapping("/{bookingId}/get-or-create-patient")
   public ResponseEntity<PatientResponse> getOrCreatePatientFromBooking(@PathVariable String bookingId) {
     PatientResponse patientResponse = bookingService.getOrCreatePatientFromBookingId(bookingId);
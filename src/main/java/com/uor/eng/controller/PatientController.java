@@ -1,7 +1,9 @@
 package com.uor.eng.controller;
 
 import com.uor.eng.payload.patient.CreatePatientRequest;
+import com.uor.eng.payload.patient.PatientPageResponse;
 import com.uor.eng.payload.patient.PatientResponse;
+import com.uor.eng.payload.patient.PatientSummaryResponse;
 import com.uor.eng.service.IPatientService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -38,6 +40,20 @@ public class PatientController {
     return new ResponseEntity<>(response, HttpStatus.OK);
   }
 
+  @GetMapping("/page")
+  public ResponseEntity<PatientPageResponse> getPatientSummaries(@RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "20") int size) {
+    PatientPageResponse response = patientService.getPatientSummaries(page, size);
+    return new ResponseEntity<>(response, HttpStatus.OK);
+  }
+
+  @GetMapping("/search")
+  public ResponseEntity<List<PatientSummaryResponse>> searchPatients(@RequestParam String q,
+                                                                     @RequestParam(defaultValue = "10") int limit) {
+    List<PatientSummaryResponse> response = patientService.searchPatients(q, limit);
+    return new ResponseEntity<>(response, HttpStatus.OK);
+  }
+
   @PutMapping("/{patientId}")
   public ResponseEntity<PatientResponse> updatePatient(@PathVariable Long patientId, @Valid @RequestBody CreatePatientRequest request) {
     PatientResponse response = patientService.updatePatient(patientId, request);
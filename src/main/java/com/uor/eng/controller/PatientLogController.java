@@ -33,6 +33,26 @@ public class PatientLogController {
     return new ResponseEntity<>(response, HttpStatus.OK);
   }
 
+  @GetMapping("/{patientId}/logs/timeline")
+  public ResponseEntity<PatientLogPageResponse> getPatientLogTimeline(
+      @PathVariable Long patientId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size,
+      @RequestParam(defaultValue = "false") boolean includePhotos) {
+    PatientLogPageResponse page = patientLogService.getPatientLogTimeline(patientId, cursor, size, includePhotos);
+    return new ResponseEntity<>(page, HttpStatus.OK);
+  }
+
+  @GetMapping("/logs/search")
+  public ResponseEntity<PatientLogSearchResponse> searchPatientLogs(
+      @RequestParam String q,
+      @RequestParam(required = false) Long patientId,
+      @RequestParam(required = false) Long dentistId,
+      @RequestParam(defaultValue = "20") int limit) {
+    PatientLogSearchResponse response = patientLogService.searchPatientLogs(q, patientId, dentistId, limit);
+    return new ResponseEntity<>(response, HttpStatus.OK);
+  }
+
   @GetMapping("/{patientId}/logs/{logId}")
   public ResponseEntity<PatientLogResponse> getPatientLog(
       @PathVariable Long patientId,
@@ -3,14 +3,22 @@ package com.uor.eng.controller;
 import com.uor.eng.payload.dashboard.CancelledScheduleResponse;
 import com.uor.eng.payload.dashboard.ScheduleHistoryResponse;
 import com.uor.eng.payload.dashboard.UpcomingScheduleResponse;
+import com.uor.eng.payload.schedule.CreateRecurringSchedulesDTO;
 import com.uor.eng.payload.schedule.CreateScheduleDTO;
-import com.uor.eng.payload.schedule.ScheduleGetSevenCustomResponse;
+import com.uor.eng.payload.schedule.FreeSlotResponse;
+import com.uor.eng.payload.schedule.RecurringSchedulesResponse;
 import com.uor.eng.payload.schedule.ScheduleResponseDTO;
 import com.uor.eng.service.IScheduleService;
+import com.uor.eng.util.AvailabilitySnapshotCache;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,9 +26,11 @@ import java.util.List;
 public class ScheduleController {
 
   private final IScheduleService scheduleService;
+  private final AvailabilitySnapshotCache availabilitySnapshotCache;
 
-  public ScheduleController(IScheduleService scheduleService) {
+  public ScheduleController(IScheduleService scheduleService, AvailabilitySnapshotCache availabilitySnapshotCache) {
     this.scheduleService = scheduleService;
+    this.availabilitySnapshotCache = availabilitySnapshotCache;
   }
 
   @PostMapping("/create")
@@ -29,6 +39,13 @@ public class ScheduleController {
     return new ResponseEntity<>(createdSchedule, HttpStatus.CREATED);
   }
 
+  @PostMapping("/recurring")
+  public ResponseEntity<RecurringSchedulesResponse> createRecurringSchedules(
+          @RequestBody CreateRecurringSchedulesDTO recurrence) {
+    RecurringSchedulesResponse summary = scheduleService.createRecurringSchedules(recurrence);
+    return new ResponseEntity<>(summary, HttpStatus.CREATED);
+  }
+
   @GetMapping("/all")
   public ResponseEntity<List<ScheduleResponseDTO>> getAllSchedules() {
     List<ScheduleResponseDTO> schedules = scheduleService.getAllSchedules();
@@ -53,16 +70,33 @@ public class ScheduleController {
     return new ResponseEntity<>(updatedSchedule, HttpStatus.OK);
   }
 
-  @GetMapping("/getSeven")
-  public ResponseEntity<List<ScheduleResponseDTO>> getNextSevenSchedules() {
-    List<ScheduleResponseDTO> schedules = scheduleService.getNextSevenSchedules();
-    return new ResponseEntity<>(schedules, HttpStatus.OK);
+  @GetMapping(value = "/getSeven", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> getNextSevenSchedules(
+          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return feedResponse(availabilitySnapshotCache.getSeven(), ifNoneMatch);
   }
 
-  @GetMapping("/getSevenCustom")
-  public ResponseEntity<List<ScheduleGetSevenCustomResponse>> getNextSevenSchedulesCustom() {
-    List<ScheduleGetSevenCustomResponse> schedules = scheduleService.getNextSevenSchedulesCustom();
-    return new ResponseEntity<>(schedules, HttpStatus.OK);
+  @GetMapping(value = "/getSevenCustom", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> getNextSevenSchedulesCustom(
+          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return feedResponse(availabilitySnapshotCache.getSevenCustom(), ifNoneMatch);
+  }
+
+  /**
+   * Browsers revalidate on every visit and get an empty 304 while the feed is unchanged.
+   */
+  private static ResponseEntity<byte[]> feedResponse(AvailabilitySnapshotCache.Feed feed, String ifNoneMatch) {
+    if (feed.matches(ifNoneMatch)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+              .eTag(feed.etag())
+              .cacheControl(CacheControl.noCache())
+              .build();
+    }
+    return ResponseEntity.ok()
+            .eTag(feed.etag())
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(feed.json());
   }
 
   @PutMapping("/updateStatus/{id}")
@@ -83,9 +117,21 @@ public class ScheduleController {
     return new ResponseEntity<>(upcomingSchedules, HttpStatus.OK);
   }
 
+  @GetMapping("/dentist/{dentistId}/freeSlots")
+  public ResponseEntity<List<FreeSlotResponse>> getFreeSlots(
+          @PathVariable Long dentistId,
+          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+          @RequestParam(required = false) Integer minMinutes) {
+    List<FreeSlotResponse> freeSlots = scheduleService.findFreeSlots(dentistId, from, to, minMinutes);
+    return new ResponseEntity<>(freeSlots, HttpStatus.OK);
+  }
+
   @GetMapping("/scheduleHistory")
-  public ResponseEntity<List<ScheduleHistoryResponse>> getScheduleHistory() {
-    List<ScheduleHistoryResponse> scheduleHistory = scheduleService.getScheduleHistory();
+  public ResponseEntity<List<ScheduleHistoryResponse>> getScheduleHistory(
+          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    List<ScheduleHistoryResponse> scheduleHistory = scheduleService.getScheduleHistory(from, to);
     return new ResponseEntity<>(scheduleHistory, HttpStatus.OK);
   }
 
@@ -0,0 +1,37 @@
+package com.uor.eng.controller;
+
+import com.uor.eng.payload.booking.CreateBookingDTO;
+import com.uor.eng.payload.booking.WaitlistEntryResponse;
+import com.uor.eng.service.IWaitlistService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/waitlist")
+public class WaitlistController {
+
+  private final IWaitlistService waitlistService;
+
+  public WaitlistController(IWaitlistService waitlistService) {
+    this.waitlistService = waitlistService;
+  }
+
+  @PostMapping("/join")
+  public ResponseEntity<WaitlistEntryResponse> joinWaitlist(@RequestBody CreateBookingDTO bookingDTO) {
+    WaitlistEntryResponse entry = waitlistService.joinWaitlist(bookingDTO);
+    return new ResponseEntity<>(entry, HttpStatus.CREATED);
+  }
+
+  @GetMapping("/{id}/{contactNumber}")
+  public ResponseEntity<WaitlistEntryResponse> getEntry(@PathVariable Long id, @PathVariable String contactNumber) {
+    WaitlistEntryResponse entry = waitlistService.getEntry(id, contactNumber);
+    return new ResponseEntity<>(entry, HttpStatus.OK);
+  }
+
+  @DeleteMapping("/{id}/{contactNumber}")
+  public ResponseEntity<WaitlistEntryResponse> cancelEntry(@PathVariable Long id, @PathVariable String contactNumber) {
+    WaitlistEntryResponse entry = waitlistService.cancelEntry(id, contactNumber);
+    return new ResponseEntity<>(entry, HttpStatus.OK);
+  }
+}
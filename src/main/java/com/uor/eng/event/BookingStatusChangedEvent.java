@@ -0,0 +1,47 @@
+package com.uor.eng.event;
+
+import com.uor.eng.model.Booking;
+import com.uor.eng.model.BookingStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Published whenever a booking is created, deleted or moves to another status. A {@code null}
+ * {@code previousStatus} means the booking was just created and a {@code null} {@code newStatus} means it was
+ * deleted. {@code bookingDate} is the day the booking was made and {@code appointmentDate} the date of its
+ * schedule. Listeners that keep derived state should use {@code @TransactionalEventListener} so they only see
+ * committed changes.
+ */
+public record BookingStatusChangedEvent(String referenceId,
+                                        Long scheduleId,
+                                        Long dentistId,
+                                        LocalDate bookingDate,
+                                        LocalDate appointmentDate,
+                                        BookingStatus previousStatus,
+                                        BookingStatus newStatus) {
+
+  public static BookingStatusChangedEvent created(Booking booking) {
+    return of(booking, null, booking.getStatus());
+  }
+
+  public static BookingStatusChangedEvent deleted(Booking booking) {
+    return of(booking, booking.getStatus(), null);
+  }
+
+  public static BookingStatusChangedEvent changed(Booking booking, BookingStatus previousStatus) {
+    return of(booking, previousStatus, booking.getStatus());
+  }
+
+  private static BookingStatusChangedEvent of(Booking booking, BookingStatus previousStatus, BookingStatus newStatus) {
+    Long scheduleId = booking.getSchedule() != null ? booking.getSchedule().getId() : null;
+    Long dentistId = booking.getSchedule() != null && booking.getSchedule().getDentist() != null
+        ? booking.getSchedule().getDentist().getUserId() : null;
+    LocalDate appointmentDate = booking.getSchedule() != null ? booking.getSchedule().getDate() : null;
+    return new BookingStatusChangedEvent(booking.getReferenceId(), scheduleId, dentistId, booking.getDate(),
+        appointmentDate, previousStatus, newStatus);
+  }
+
+  public boolean statusChanged() {
+    return previousStatus != newStatus;
+  }
+}
@@ -0,0 +1,7 @@
+package com.uor.eng.event;
+
+/**
+ * Published when a patient is created, updated or deleted.
+ */
+public record PatientChangedEvent(Long patientId) {
+}
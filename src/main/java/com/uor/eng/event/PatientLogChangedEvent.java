@@ -0,0 +1,7 @@
+package com.uor.eng.event;
+
+/**
+ * Published when a patient log is created, edited or deleted, or its photos change.
+ */
+public record PatientLogChangedEvent(Long logId) {
+}
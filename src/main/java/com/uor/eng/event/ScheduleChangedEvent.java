@@ -0,0 +1,8 @@
+package com.uor.eng.event;
+
+/**
+ * Published when a schedule's status, time, capacity or dentist is changed. Bookings of the schedule are not
+ * reported individually unless their own status changes too (see {@link BookingStatusChangedEvent}).
+ */
+public record ScheduleChangedEvent(Long scheduleId) {
+}
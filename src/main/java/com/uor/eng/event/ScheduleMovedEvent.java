@@ -0,0 +1,10 @@
+package com.uor.eng.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published when a schedule that has bookings is moved to another date or dentist, so state kept per
+ * appointment date can be recomputed for both days.
+ */
+public record ScheduleMovedEvent(Long scheduleId, LocalDate previousDate, LocalDate date) {
+}
@@ -0,0 +1,10 @@
+package com.uor.eng.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published when schedules are created in bulk for a dentist, on dates from {@code from} to {@code to}. The
+ * schedules are inserted without going through the persistence context, so their IDs are not reported.
+ */
+public record SchedulesCreatedEvent(Long dentistId, LocalDate from, LocalDate to) {
+}
@@ -0,0 +1,15 @@
+package com.uor.eng.event;
+
+import com.uor.eng.model.BookingStatus;
+import com.uor.eng.model.ScheduleStatus;
+
+import java.util.List;
+
+/**
+ * Published once per chunk when a scheduled job moves schedules to {@code scheduleStatus} with bulk updates. When
+ * {@code bookingStatus} is not null their non-cancelled bookings were moved to it as well. Neither change is
+ * reported through {@link ScheduleChangedEvent} or {@link BookingStatusChangedEvent}.
+ */
+public record SchedulesTransitionedEvent(List<Long> scheduleIds, ScheduleStatus scheduleStatus,
+                                         BookingStatus bookingStatus) {
+}
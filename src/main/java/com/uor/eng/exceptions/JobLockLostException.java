@@ -0,0 +1,11 @@
+package com.uor.eng.exceptions;
+
+/**
+ * Thrown when a scheduled job finds that its lease was taken over by another node, so its current transaction is
+ * rolled back rather than committed alongside the new holder's work.
+ */
+public class JobLockLostException extends RuntimeException {
+  public JobLockLostException(String message) {
+    super(message);
+  }
+}
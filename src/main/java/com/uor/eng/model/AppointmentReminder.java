@@ -0,0 +1,48 @@
+package com.uor.eng.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Ledger row recording that the day-before reminder for a booking has been queued. It is written in the same
+ * transaction as the {@link EmailOutbox} row, and the unique booking reference keeps the hourly reminder job
+ * from queueing a second one, even when two nodes run it at once.
+ */
+@Entity
+@Table(name = "appointment_reminders",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_appointment_reminders_booking", columnNames = "booking_reference_id")
+    },
+    indexes = {
+        @Index(name = "idx_appointment_reminders_date", columnList = "appointment_date")
+    })
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AppointmentReminder {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "booking_reference_id", nullable = false)
+  private String bookingReferenceId;
+
+  @Column(name = "appointment_date", nullable = false)
+  private LocalDate appointmentDate;
+
+  @Column(nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = LocalDateTime.now();
+  }
+}
@@ -1,26 +1,30 @@
 package com.uor.eng.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.uor.eng.util.ReferenceIdGenerator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings",
+    indexes = {
+        @Index(name = "idx_bookings_date_status", columnList = "date, status"),
+        @Index(name = "idx_bookings_created_at", columnList = "createdAt, referenceId")
+    })
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-public class Booking {
+public class Booking implements Persistable<String> {
 
   @Id
   @Column(nullable = false, unique = true)
@@ -61,15 +65,45 @@ public class Booking {
   @Column(nullable = false)
   private LocalDateTime createdAt;
 
+  /**
+   * Set when this cancelled booking's appointment number has been handed to a waitlisted patient, so deleting or
+   * reactivating it must not free or reuse that slot again.
+   */
+  @Column(nullable = false)
+  private boolean slotReleased;
+
   @ManyToOne(fetch = FetchType.EAGER)
   @JoinColumn(name = "schedule_id", nullable = false)
   @JsonBackReference
   private Schedule schedule;
 
+  /**
+   * Reference IDs are assigned before the first save, so Spring Data cannot tell new bookings from existing ones by
+   * the id. Tracking it here lets {@code save} persist new bookings directly instead of merging, which would first
+   * SELECT the row.
+   */
+  @Transient
+  @JsonIgnore
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private boolean persisted;
+
+  @Override
+  @JsonIgnore
+  public String getId() {
+    return referenceId;
+  }
+
+  @Override
+  @JsonIgnore
+  public boolean isNew() {
+    return !persisted;
+  }
+
   @PrePersist
   public void prePersist() {
     if (this.referenceId == null || this.referenceId.isEmpty()) {
-      this.referenceId = generateRandomAlphanumeric();
+      this.referenceId = ReferenceIdGenerator.random();
     }
     if (this.status == null) {
       this.status = BookingStatus.PENDING;
@@ -77,17 +111,12 @@ public class Booking {
     this.date = LocalDate.now();
     this.dayOfWeek = this.date.getDayOfWeek().toString();
     this.createdAt = LocalDateTime.now();
+    // Set here rather than in @PostPersist, which only runs at flush for assigned ids
+    this.persisted = true;
   }
 
-
-  private String generateRandomAlphanumeric() {
-    String characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-    StringBuilder referenceId = new StringBuilder();
-
-    for (int i = 0; i < 8; i++) {
-      int index = (int) (Math.random() * characters.length());
-      referenceId.append(characters.charAt(index));
-    }
-    return referenceId.toString();
+  @PostLoad
+  void markPersisted() {
+    this.persisted = true;
   }
 }
@@ -0,0 +1,49 @@
+package com.uor.eng.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Booking counts for one dentist on one appointment date, kept current by
+ * {@link com.uor.eng.util.DailyBookingStatsRollup} so dashboard history reads one row per dentist and day instead
+ * of the bookings behind it. {@code created} counts every booking on the day; the other columns count the
+ * bookings currently in that status.
+ */
+@Entity
+@Table(name = "daily_booking_stats",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_booking_stats_date_dentist", columnNames = {"stat_date", "dentist_id"})
+    })
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyBookingStats {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "stat_date", nullable = false)
+  private LocalDate statDate;
+
+  @Column(name = "dentist_id", nullable = false)
+  private Long dentistId;
+
+  private int created;
+
+  private int pending;
+
+  private int active;
+
+  private int finished;
+
+  private int cancelled;
+
+  private int absent;
+}
@@ -0,0 +1,72 @@
+package com.uor.eng.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An email written in the same transaction as the change that triggered it and delivered later by
+ * {@link com.uor.eng.util.EmailOutboxDispatcher}. Subject and body are rendered up front, so a queued
+ * message does not depend on the booking or contact it was created for.
+ */
+@Entity
+@Table(name = "email_outbox",
+    indexes = {
+        @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at")
+    })
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmailOutbox {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 32)
+  private EmailType type;
+
+  @Column(nullable = false)
+  private String recipient;
+
+  @Column(nullable = false)
+  private String subject;
+
+  @Lob
+  @Column(nullable = false)
+  private String body;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  @Builder.Default
+  private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+
+  @Column(nullable = false)
+  @Builder.Default
+  private int attempts = 0;
+
+  @Column(name = "next_attempt_at", nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @Column(length = 1000)
+  private String lastError;
+
+  @Column(nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  private LocalDateTime sentAt;
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = LocalDateTime.now();
+    if (nextAttemptAt == null) {
+      nextAttemptAt = createdAt;
+    }
+  }
+}
@@ -0,0 +1,7 @@
+package com.uor.eng.model;
+
+public enum EmailOutboxStatus {
+  PENDING,
+  SENT,
+  DEAD
+}
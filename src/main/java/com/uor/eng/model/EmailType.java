@@ -0,0 +1,10 @@
+package com.uor.eng.model;
+
+public enum EmailType {
+  BOOKING_CONFIRMATION,
+  BOOKING_CANCELLATION,
+  BOOKING_ACTIVATION,
+  APPOINTMENT_REMINDER,
+  CONTACT_REPLY,
+  PASSWORD_RESET
+}
@@ -0,0 +1,60 @@
+package com.uor.eng.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * The lease on one scheduled job, shared by all backend nodes through the database, see
+ * {@link com.uor.eng.util.JobLockManager}. The token is raised on every acquisition and serves as the fencing
+ * token of the lease.
+ */
+@Entity
+@Table(name = "job_locks")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobLock implements Persistable<String> {
+
+  @Id
+  @Column(length = 64)
+  private String name;
+
+  @Column(length = 128)
+  private String lockedBy;
+
+  private LocalDateTime lockedAt;
+
+  private LocalDateTime lockedUntil;
+
+  @Column(nullable = false)
+  private long token;
+
+  /**
+   * The name is assigned, so without this {@code save} would merge a row another node has just created and
+   * overwrite its lease instead of failing on the duplicate key.
+   */
+  @Transient
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private boolean persisted;
+
+  @Override
+  public String getId() {
+    return name;
+  }
+
+  @Override
+  public boolean isNew() {
+    return !persisted;
+  }
+
+  @PostPersist
+  @PostLoad
+  void markPersisted() {
+    this.persisted = true;
+  }
+}
@@ -9,6 +9,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.List;
 
@@ -45,6 +46,7 @@ public class Patient {
   @NotEmpty(message = "Contact number is required")
   @Column(name = "patient_contact_number")
   @ElementCollection
+  @BatchSize(size = 100)
   @Size(min = 1, max = 3)
   private List<
       @NotBlank(message = "Contact number cannot be blank")
@@ -52,6 +54,7 @@ public class Patient {
           String> contactNumbers;
 
   @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
+  @BatchSize(size = 100)
   private List<PatientLog> patientLogs;
 
 }
@@ -7,12 +7,16 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "patient_logs")
+@Table(name = "patient_logs",
+    indexes = {
+        @Index(name = "idx_patient_logs_patient_timestamp", columnList = "patient_id, timestamp, log_id")
+    })
 @Data
 @NoArgsConstructor
 @Builder
@@ -41,6 +45,7 @@ public class PatientLog {
   private LocalDateTime timestamp;
 
   @OneToMany(mappedBy = "patientLog", cascade = CascadeType.ALL, orphanRemoval = true)
+  @BatchSize(size = 100)
   private List<PatientLogPhoto> patientLogPhotos;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,24 @@
+package com.uor.eng.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * The highest booking reference tick one node has reserved, see {@link com.uor.eng.util.ReferenceIdGenerator}.
+ * A restarted node resumes above it, so neither a restart nor a clock stepping back reissues a reference ID.
+ */
+@Entity
+@Table(name = "reference_id_blocks")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReferenceIdBlock {
+
+  @Id
+  @Column(name = "node_id")
+  private Integer nodeId;
+
+  @Column(name = "reserved_until", nullable = false)
+  private long reservedUntil;
+}
@@ -16,7 +16,11 @@ import java.time.LocalTime;
 import java.util.List;
 
 @Entity
-@Table(name = "schedules")
+@Table(name = "schedules",
+    indexes = {
+        @Index(name = "idx_schedules_status_date", columnList = "status, date"),
+        @Index(name = "idx_schedules_dentist_date", columnList = "dentist_id, date")
+    })
 @Data
 @Builder
 @NoArgsConstructor
@@ -1,5 +1,7 @@
 package com.uor.eng.model;
 
+import java.util.List;
+
 public enum ScheduleStatus {
   AVAILABLE,
   UNAVAILABLE,
@@ -7,5 +9,10 @@ public enum ScheduleStatus {
   ON_GOING,
   CANCELLED,
   FULL,
-  FINISHED
+  FINISHED;
+
+  /**
+   * Statuses that are moved to {@link #FINISHED} once the schedule's end time has passed.
+   */
+  public static final List<ScheduleStatus> FINISHABLE = List.of(AVAILABLE, UNAVAILABLE, ACTIVE);
 }
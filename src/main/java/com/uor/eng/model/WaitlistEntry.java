@@ -0,0 +1,70 @@
+package com.uor.eng.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A patient queued for a FULL schedule. The oldest WAITING entry is turned into a booking when a slot on the
+ * schedule is freed, and the booking's reference ID is recorded here so the patient can look it up.
+ */
+@Entity
+@Table(name = "waitlist_entries",
+    indexes = {
+        @Index(name = "idx_waitlist_schedule_status", columnList = "schedule_id, status, id")
+    })
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class WaitlistEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "schedule_id", nullable = false)
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  private Schedule schedule;
+
+  @NotBlank(message = "Name is required")
+  private String name;
+
+  @NotBlank(message = "NIC is required")
+  @Pattern(regexp = "^(\\d{9}[VXvx]|\\d{12})$", message = "NIC should be in the correct format: 9 digits followed by V or X, or 12 digits")
+  private String nic;
+
+  @NotBlank(message = "Contact number is required")
+  @Pattern(regexp = "\\d{10}", message = "Contact number should be 10 digits")
+  private String contactNumber;
+
+  @NotBlank(message = "Email is required")
+  @Email(message = "Please provide a valid email address")
+  private String email;
+
+  @NotBlank(message = "Address is required")
+  private String address;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  @Builder.Default
+  private WaitlistStatus status = WaitlistStatus.WAITING;
+
+  @Column(nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  private LocalDateTime promotedAt;
+
+  private String bookingReferenceId;
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = LocalDateTime.now();
+  }
+}
@@ -0,0 +1,8 @@
+package com.uor.eng.model;
+
+public enum WaitlistStatus {
+  WAITING,
+  PROMOTED,
+  CANCELLED,
+  EXPIRED
+}
@@ -0,0 +1,21 @@
+package com.uor.eng.payload.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of bookings, newest first. Pass {@code nextCursor} back as {@code cursor} to read the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingPageResponse {
+  private List<BookingResponseDTO> items;
+  private String nextCursor;
+  private boolean hasMore;
+}
@@ -1,7 +1,9 @@
 package com.uor.eng.payload.booking;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.uor.eng.model.Booking;
 import com.uor.eng.model.BookingStatus;
+import com.uor.eng.model.Schedule;
 import com.uor.eng.model.ScheduleStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -37,4 +39,30 @@ public class BookingResponseDTO {
 
   @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "HH:mm:ss")
   private LocalDateTime createdAt;
+
+  /**
+   * Builds the response from a booking and the schedule it belongs to. The field order of the all-args
+   * constructor is also relied on by the {@code SELECT new} projections in {@code BookingRepository}.
+   */
+  public static BookingResponseDTO from(Booking booking, Schedule schedule) {
+    return BookingResponseDTO.builder()
+        .referenceId(booking.getReferenceId())
+        .appointmentNumber(booking.getAppointmentNumber())
+        .name(booking.getName())
+        .nic(booking.getNic())
+        .contactNumber(booking.getContactNumber())
+        .email(booking.getEmail())
+        .address(booking.getAddress())
+        .scheduleId(schedule.getId())
+        .scheduleDate(schedule.getDate())
+        .scheduleDayOfWeek(schedule.getDayOfWeek())
+        .scheduleStatus(schedule.getStatus())
+        .scheduleStartTime(schedule.getStartTime())
+        .doctorName(schedule.getDentist() != null ? schedule.getDentist().getFirstName() : null)
+        .status(booking.getStatus())
+        .date(booking.getDate())
+        .dayOfWeek(schedule.getDayOfWeek())
+        .createdAt(booking.getCreatedAt())
+        .build();
+  }
 }
@@ -0,0 +1,24 @@
+package com.uor.eng.payload.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters for the booking listing endpoints. Unset fields do not filter; the date range applies to the
+ * day the booking was made and is inclusive on both ends.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingSearchCriteria {
+  private String status;
+  private Long scheduleId;
+  private Long dentistId;
+  private LocalDate from;
+  private LocalDate to;
+}
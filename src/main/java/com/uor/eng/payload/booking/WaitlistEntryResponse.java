@@ -0,0 +1,35 @@
+package com.uor.eng.payload.booking;
+
+import com.uor.eng.model.WaitlistStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WaitlistEntryResponse {
+
+  private Long id;
+  private String name;
+  private String contactNumber;
+  private Long scheduleId;
+  private LocalDate scheduleDate;
+  private LocalTime scheduleStartTime;
+  private WaitlistStatus status;
+  /**
+   * 1-based place in the queue while WAITING, otherwise null.
+   */
+  private Long position;
+  /**
+   * Reference ID of the booking the entry was promoted to, once PROMOTED.
+   */
+  private String bookingReferenceId;
+  private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.uor.eng.payload.dashboard;
+
+import java.time.LocalDate;
+
+/**
+ * The daily rollup summed over all dentists for one date.
+ */
+public interface DailyBookingTotals {
+  LocalDate getStatDate();
+
+  Long getCreated();
+
+  Long getFinished();
+
+  Long getCancelled();
+
+  Long getAbsent();
+}
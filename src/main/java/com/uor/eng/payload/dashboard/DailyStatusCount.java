@@ -0,0 +1,18 @@
+package com.uor.eng.payload.dashboard;
+
+import com.uor.eng.model.BookingStatus;
+
+import java.time.LocalDate;
+
+/**
+ * One row of the bookings-per-appointment-date, dentist and status aggregate the daily rollup is built from.
+ */
+public interface DailyStatusCount {
+  LocalDate getStatDate();
+
+  Long getDentistId();
+
+  BookingStatus getBookingStatus();
+
+  Long getTotal();
+}
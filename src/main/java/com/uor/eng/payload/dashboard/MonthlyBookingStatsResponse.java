@@ -11,6 +11,7 @@ import lombok.NoArgsConstructor;
 @Builder
 public class MonthlyBookingStatsResponse {
   private String month;
+  private int year;
   private int totalBookings;
   private int finishedBookings;
   private int cancelledBookings;
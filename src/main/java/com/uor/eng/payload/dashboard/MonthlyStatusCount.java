@@ -0,0 +1,16 @@
+package com.uor.eng.payload.dashboard;
+
+import com.uor.eng.model.BookingStatus;
+
+/**
+ * One row of the bookings-per-month-and-status aggregate.
+ */
+public interface MonthlyStatusCount {
+  Integer getBookingYear();
+
+  Integer getBookingMonth();
+
+  BookingStatus getBookingStatus();
+
+  Long getTotal();
+}
@@ -12,4 +12,7 @@ import lombok.NoArgsConstructor;
 public class ScheduleHistoryResponse {
   private String date;
   private Integer appointmentCount;
+  private Integer finishedCount;
+  private Integer cancelledCount;
+  private Integer absentCount;
 }
@@ -0,0 +1,7 @@
+package com.uor.eng.payload.patient;
+
+public interface PatientContactNumber {
+  Long getPatientId();
+
+  String getContactNumber();
+}
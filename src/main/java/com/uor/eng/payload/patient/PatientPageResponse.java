@@ -0,0 +1,23 @@
+package com.uor.eng.payload.patient;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of patient summaries, ordered by ID.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientPageResponse {
+  private List<PatientSummaryResponse> items;
+  private int page;
+  private int size;
+  private long totalElements;
+  private int totalPages;
+}
@@ -0,0 +1,14 @@
+package com.uor.eng.payload.patient;
+
+/**
+ * The searchable fields of a patient, without the contact numbers.
+ */
+public interface PatientSearchEntry {
+  Long getId();
+
+  String getName();
+
+  String getEmail();
+
+  String getNic();
+}
@@ -0,0 +1,23 @@
+package com.uor.eng.payload.patient;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A patient without their logs, for listings. Fetch {@link PatientResponse} by ID for the clinical history.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSummaryResponse {
+  private Long id;
+  private String name;
+  private String email;
+  private String nic;
+  private List<String> contactNumbers;
+}
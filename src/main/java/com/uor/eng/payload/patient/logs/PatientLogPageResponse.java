@@ -0,0 +1,22 @@
+package com.uor.eng.payload.patient.logs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a patient's logs, newest first. Pass {@code nextCursor} back as {@code cursor} to read the following
+ * page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PatientLogPageResponse {
+  private List<PatientLogResponse> items;
+  private String nextCursor;
+  private boolean hasMore;
+}
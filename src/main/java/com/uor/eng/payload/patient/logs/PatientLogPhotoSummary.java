@@ -0,0 +1,12 @@
+package com.uor.eng.payload.patient.logs;
+
+/**
+ * How many photos a patient log has, and the S3 key of its first one.
+ */
+public interface PatientLogPhotoSummary {
+  Long getLogId();
+
+  Long getPhotoCount();
+
+  String getCoverS3Key();
+}
@@ -18,5 +18,8 @@ public class PatientLogResponse {
   private String description;
   private LocalDateTime timestamp;
   private String dentistName;
+  private int photoCount;
+  // Timeline pages read without photos carry the first photo's URL and leave photos null
+  private String coverPhotoUrl;
   private List<PatientLogPhotoResponse> photos;
 }
@@ -0,0 +1,20 @@
+package com.uor.eng.payload.patient.logs;
+
+import java.time.LocalDateTime;
+
+/**
+ * The searchable fields of a patient log.
+ */
+public interface PatientLogSearchEntry {
+  Long getId();
+
+  Long getPatientId();
+
+  Long getDentistId();
+
+  String getActionType();
+
+  String getDescription();
+
+  LocalDateTime getTimestamp();
+}
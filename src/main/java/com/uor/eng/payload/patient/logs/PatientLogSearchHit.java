@@ -0,0 +1,22 @@
+package com.uor.eng.payload.patient.logs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientLogSearchHit {
+  private Long id;
+  private Long patientId;
+  private Long dentistId;
+  private String dentistName;
+  private String actionType;
+  private String description;
+  private LocalDateTime timestamp;
+}
@@ -0,0 +1,20 @@
+package com.uor.eng.payload.patient.logs;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The newest matching logs, and how many logs matched in all.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientLogSearchResponse {
+  private long total;
+  private List<PatientLogSearchHit> items;
+}
@@ -0,0 +1,33 @@
+package com.uor.eng.payload.schedule;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * A weekly recurrence, e.g. every Monday and Wednesday from 16:00 to 20:00 for 12 weeks. The dates run from
+ * {@code startDate} to {@code endDate} inclusive, or for {@code weeks} weeks when no end date is given.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreateRecurringSchedulesDTO {
+  private Long dentistId;
+  private Set<DayOfWeek> daysOfWeek;
+  private LocalDate startDate;
+  private LocalDate endDate;
+  private Integer weeks;
+  private LocalTime startTime;
+  private LocalTime endTime;
+  private Integer capacity;
+  private String status;
+  // Leave out dates that clash with existing schedules instead of rejecting the request
+  private boolean skipConflicts;
+}
@@ -0,0 +1,20 @@
+package com.uor.eng.payload.schedule;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FreeSlotResponse {
+  private LocalDate date;
+  private LocalTime startTime;
+  private LocalTime endTime;
+  private Long duration;
+}
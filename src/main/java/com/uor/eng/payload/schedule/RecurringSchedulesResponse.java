@@ -0,0 +1,21 @@
+package com.uor.eng.payload.schedule;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurringSchedulesResponse {
+  private Long dentistId;
+  private Integer createdCount;
+  private LocalDate firstDate;
+  private LocalDate lastDate;
+  private List<LocalDate> skippedDates;
+}
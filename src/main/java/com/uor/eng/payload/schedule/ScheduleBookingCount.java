@@ -0,0 +1,14 @@
+package com.uor.eng.payload.schedule;
+
+import com.uor.eng.model.BookingStatus;
+
+/**
+ * One row of the bookings-per-schedule-and-status aggregate.
+ */
+public interface ScheduleBookingCount {
+  Long getScheduleId();
+
+  BookingStatus getBookingStatus();
+
+  Long getTotal();
+}
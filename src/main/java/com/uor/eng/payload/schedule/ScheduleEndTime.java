@@ -0,0 +1,15 @@
+package com.uor.eng.payload.schedule;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * When a schedule ends, for the transition timer.
+ */
+public interface ScheduleEndTime {
+  Long getId();
+
+  LocalDate getDate();
+
+  LocalTime getEndTime();
+}
@@ -0,0 +1,19 @@
+package com.uor.eng.payload.schedule;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * When a schedule takes up its dentist's time, for the dentist schedule index.
+ */
+public interface ScheduleInterval {
+  Long getId();
+
+  Long getDentistId();
+
+  LocalDate getDate();
+
+  LocalTime getStartTime();
+
+  LocalTime getEndTime();
+}
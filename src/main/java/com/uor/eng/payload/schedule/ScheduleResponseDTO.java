@@ -2,6 +2,7 @@ package com.uor.eng.payload.schedule;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.uor.eng.model.Booking;
+import com.uor.eng.model.Schedule;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -33,4 +34,24 @@ public class ScheduleResponseDTO {
   @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
   private LocalDateTime createdAt;
 
+  /**
+   * Builds a listing entry from the schedule's own columns and a booking count, leaving {@code bookings} unset so
+   * the lazy collection is never initialized.
+   */
+  public static ScheduleResponseDTO from(Schedule schedule, int numberOfBookings) {
+    return ScheduleResponseDTO.builder()
+        .id(schedule.getId())
+        .date(schedule.getDate())
+        .dayOfWeek(schedule.getDayOfWeek())
+        .status(schedule.getStatus() != null ? schedule.getStatus().name() : null)
+        .numberOfBookings(numberOfBookings)
+        .startTime(schedule.getStartTime())
+        .endTime(schedule.getEndTime())
+        .duration(schedule.getDuration())
+        .dentistId(schedule.getDentist() != null ? schedule.getDentist().getUserId() : null)
+        .capacity(schedule.getCapacity())
+        .availableSlots(schedule.getAvailableSlots())
+        .createdAt(schedule.getCreatedAt())
+        .build();
+  }
 }
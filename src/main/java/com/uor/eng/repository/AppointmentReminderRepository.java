@@ -0,0 +1,20 @@
+package com.uor.eng.repository;
+
+import com.uor.eng.model.AppointmentReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Repository
+public interface AppointmentReminderRepository extends JpaRepository<AppointmentReminder, Long> {
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM AppointmentReminder r WHERE r.appointmentDate < :date")
+  int deleteByAppointmentDateBefore(@Param("date") LocalDate date);
+}
@@ -1,9 +1,26 @@
 package com.uor.eng.repository;
 
 import com.uor.eng.model.Booking;
+import com.uor.eng.model.BookingStatus;
+import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.payload.booking.BookingResponseDTO;
+import com.uor.eng.payload.dashboard.DailyStatusCount;
+import com.uor.eng.payload.dashboard.MonthlyStatusCount;
+import com.uor.eng.payload.schedule.ScheduleBookingCount;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +29,118 @@ public interface BookingRepository extends JpaRepository<Booking, String> {
   Optional<Booking> findByReferenceIdAndContactNumber(String referenceId, String contactNumber);
 
   List<Booking> findByScheduleId(Long id);
+
+  String RESPONSE_PROJECTION = "SELECT new com.uor.eng.payload.booking.BookingResponseDTO(" +
+          "b.referenceId, b.appointmentNumber, b.name, b.nic, b.contactNumber, b.email, b.address, " +
+          "s.id, s.date, s.dayOfWeek, s.status, s.startTime, d.firstName, b.status, b.date, s.dayOfWeek, b.createdAt) " +
+          "FROM Booking b JOIN b.schedule s JOIN s.dentist d ";
+
+  @Query(RESPONSE_PROJECTION + "ORDER BY b.createdAt DESC")
+  List<BookingResponseDTO> findAllResponses();
+
+  @Query(RESPONSE_PROJECTION + "WHERE b.referenceId = :referenceId AND b.contactNumber = :contactNumber")
+  Optional<BookingResponseDTO> findResponseByReferenceIdAndContactNumber(@Param("referenceId") String referenceId,
+                                                                        @Param("contactNumber") String contactNumber);
+
+  /**
+   * Keyset page of bookings ordered newest first. Pass the {@code createdAt} and {@code referenceId} of the last
+   * row of the previous page as the {@code after*} parameters (both null for the first page); null filters match
+   * everything. Only the page size of {@code pageable} is used.
+   */
+  @Query(RESPONSE_PROJECTION +
+          "WHERE (:status IS NULL OR b.status = :status) " +
+          "AND (:scheduleId IS NULL OR s.id = :scheduleId) " +
+          "AND (:dentistId IS NULL OR d.userId = :dentistId) " +
+          "AND (:fromDate IS NULL OR b.date >= :fromDate) " +
+          "AND (:toDate IS NULL OR b.date <= :toDate) " +
+          "AND (:afterCreatedAt IS NULL OR b.createdAt < :afterCreatedAt " +
+          "OR (b.createdAt = :afterCreatedAt AND b.referenceId < :afterReferenceId)) " +
+          "ORDER BY b.createdAt DESC, b.referenceId DESC")
+  List<BookingResponseDTO> findResponsesPage(@Param("status") BookingStatus status,
+                                             @Param("scheduleId") Long scheduleId,
+                                             @Param("dentistId") Long dentistId,
+                                             @Param("fromDate") LocalDate fromDate,
+                                             @Param("toDate") LocalDate toDate,
+                                             @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                             @Param("afterReferenceId") String afterReferenceId,
+                                             Pageable pageable);
+
+  @Query(RESPONSE_PROJECTION + "WHERE s.date = :date AND b.status IN :statuses ORDER BY s.id, b.appointmentNumber")
+  List<BookingResponseDTO> findResponsesByScheduleDateAndStatusIn(@Param("date") LocalDate date,
+                                                                  @Param("statuses") Collection<BookingStatus> statuses);
+
+  /**
+   * Bookings on schedules of {@code date} whose reminder has not been queued yet, see
+   * {@link com.uor.eng.model.AppointmentReminder}.
+   */
+  @Query(RESPONSE_PROJECTION + "WHERE s.date = :date AND b.status IN :statuses " +
+          "AND NOT EXISTS (SELECT 1 FROM AppointmentReminder r WHERE r.bookingReferenceId = b.referenceId) " +
+          "ORDER BY s.id, b.appointmentNumber")
+  List<BookingResponseDTO> findResponsesWithoutReminder(@Param("date") LocalDate date,
+                                                        @Param("statuses") Collection<BookingStatus> statuses);
+
+  @Query("SELECT YEAR(b.date) AS bookingYear, MONTH(b.date) AS bookingMonth, b.status AS bookingStatus, COUNT(b) AS total " +
+          "FROM Booking b WHERE b.date >= :from AND b.date < :to " +
+          "GROUP BY YEAR(b.date), MONTH(b.date), b.status")
+  List<MonthlyStatusCount> countByMonthAndStatus(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+  /**
+   * Bookings per appointment date, dentist and status, the source of the {@code daily_booking_stats} rollup.
+   */
+  @Query("SELECT s.date AS statDate, d.userId AS dentistId, b.status AS bookingStatus, COUNT(b) AS total " +
+          "FROM Booking b JOIN b.schedule s JOIN s.dentist d WHERE s.date BETWEEN :from AND :to " +
+          "GROUP BY s.date, d.userId, b.status")
+  List<DailyStatusCount> countByAppointmentDateAndDentist(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+  /**
+   * Bookings per schedule and status for the given schedules, so schedule listings can show counts without
+   * loading booking rows.
+   */
+  @Query("SELECT b.schedule.id AS scheduleId, b.status AS bookingStatus, COUNT(b) AS total FROM Booking b " +
+          "WHERE b.schedule.id IN :scheduleIds GROUP BY b.schedule.id, b.status")
+  List<ScheduleBookingCount> countByScheduleIdsAndStatus(@Param("scheduleIds") Collection<Long> scheduleIds);
+
+  boolean existsByScheduleId(Long scheduleId);
+
+  @Query(RESPONSE_PROJECTION + "WHERE s.id IN :scheduleIds AND s.status = :scheduleStatus " +
+          "AND b.status <> com.uor.eng.model.BookingStatus.CANCELLED ORDER BY s.id, b.appointmentNumber")
+  List<BookingResponseDTO> findOpenResponsesByScheduleIds(@Param("scheduleIds") Collection<Long> scheduleIds,
+                                                          @Param("scheduleStatus") ScheduleStatus scheduleStatus);
+
+  /**
+   * Cancels the booking unless it is cancelled already. The guard makes concurrent cancels of one booking safe: only
+   * the one that returns 1 may hand its slot on.
+   *
+   * @return 1 if the booking was cancelled by this call, else 0
+   */
+  /**
+   * Waits for a concurrent cancellation to commit, so {@link Booking#isSlotReleased()} is read after it.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints({@QueryHint(name = "jakarta.persistence.lock.timeout", value = "1000")})
+  @Query("SELECT b FROM Booking b WHERE b.referenceId = :referenceId")
+  Optional<Booking> findByIdWithLock(@Param("referenceId") String referenceId);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Booking b SET b.status = com.uor.eng.model.BookingStatus.CANCELLED " +
+          "WHERE b.referenceId = :referenceId AND b.status <> com.uor.eng.model.BookingStatus.CANCELLED")
+  int cancel(@Param("referenceId") String referenceId);
+
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Booking b SET b.slotReleased = true WHERE b.referenceId = :referenceId")
+  int markSlotReleased(@Param("referenceId") String referenceId);
+
+  /**
+   * Moves the bookings of those given schedules that are now in {@code scheduleStatus} to {@code status}, leaving
+   * cancelled bookings alone.
+   *
+   * @return the number of bookings moved
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Booking b SET b.status = :status " +
+          "WHERE b.status <> com.uor.eng.model.BookingStatus.CANCELLED AND b.status <> :status " +
+          "AND b.schedule.id IN (SELECT s.id FROM Schedule s WHERE s.id IN :scheduleIds AND s.status = :scheduleStatus)")
+  int transitionStatusBySchedules(@Param("scheduleIds") Collection<Long> scheduleIds,
+                                  @Param("scheduleStatus") ScheduleStatus scheduleStatus,
+                                  @Param("status") BookingStatus status);
 }
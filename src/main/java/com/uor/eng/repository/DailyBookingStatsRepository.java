@@ -0,0 +1,45 @@
+package com.uor.eng.repository;
+
+import com.uor.eng.model.DailyBookingStats;
+import com.uor.eng.payload.dashboard.DailyBookingTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyBookingStatsRepository extends JpaRepository<DailyBookingStats, Long> {
+
+  @Query("SELECT s.statDate AS statDate, SUM(s.created) AS created, SUM(s.finished) AS finished, " +
+          "SUM(s.cancelled) AS cancelled, SUM(s.absent) AS absent FROM DailyBookingStats s " +
+          "WHERE s.statDate BETWEEN :from AND :to GROUP BY s.statDate")
+  List<DailyBookingTotals> sumByDate(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+  /**
+   * Adds the given deltas to a dentist's row for the day. Returns 0 when the row does not exist yet.
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE DailyBookingStats s SET s.created = s.created + :created, s.pending = s.pending + :pending, " +
+          "s.active = s.active + :active, s.finished = s.finished + :finished, " +
+          "s.cancelled = s.cancelled + :cancelled, s.absent = s.absent + :absent " +
+          "WHERE s.statDate = :date AND s.dentistId = :dentistId")
+  int addCounts(@Param("date") LocalDate date,
+                @Param("dentistId") Long dentistId,
+                @Param("created") int created,
+                @Param("pending") int pending,
+                @Param("active") int active,
+                @Param("finished") int finished,
+                @Param("cancelled") int cancelled,
+                @Param("absent") int absent);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM DailyBookingStats s WHERE s.statDate BETWEEN :from AND :to")
+  int deleteByStatDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,9 +1,26 @@
 package com.uor.eng.repository;
 
 import com.uor.eng.model.Dentist;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface DentistRepository extends JpaRepository<Dentist, Long> {
+
+  /**
+   * Loads a dentist and locks their row until the transaction ends, so that schedule writes for the same dentist
+   * check for overlaps one at a time.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints({@QueryHint(name = "jakarta.persistence.lock.timeout", value = "1000")})
+  @Query("SELECT d FROM Dentist d WHERE d.userId = :id")
+  Optional<Dentist> findByIdWithLock(@Param("id") Long id);
 }
@@ -0,0 +1,55 @@
+package com.uor.eng.repository;
+
+import com.uor.eng.model.EmailOutbox;
+import com.uor.eng.model.EmailOutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+  @Query("SELECT e.id FROM EmailOutbox e " +
+          "WHERE e.status = com.uor.eng.model.EmailOutboxStatus.PENDING AND e.nextAttemptAt <= :now " +
+          "ORDER BY e.nextAttemptAt ASC")
+  List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+  /**
+   * Claims a due message for one delivery attempt by pushing its next attempt out to {@code leaseUntil}.
+   * Returns 0 when another worker got there first; a claim left behind by a crashed node simply expires.
+   */
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("UPDATE EmailOutbox e SET e.attempts = e.attempts + 1, e.nextAttemptAt = :leaseUntil " +
+          "WHERE e.id = :id AND e.status = com.uor.eng.model.EmailOutboxStatus.PENDING AND e.nextAttemptAt <= :now")
+  int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE EmailOutbox e SET e.status = com.uor.eng.model.EmailOutboxStatus.SENT, e.sentAt = :sentAt, e.lastError = NULL " +
+          "WHERE e.id = :id")
+  int markSent(@Param("id") Long id, @Param("sentAt") LocalDateTime sentAt);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE EmailOutbox e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.lastError = :error " +
+          "WHERE e.id = :id")
+  int markFailed(@Param("id") Long id,
+                 @Param("status") EmailOutboxStatus status,
+                 @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                 @Param("error") String error);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM EmailOutbox e WHERE e.status = com.uor.eng.model.EmailOutboxStatus.SENT AND e.sentAt < :cutoff")
+  int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+
+  long countByStatus(EmailOutboxStatus status);
+}
@@ -0,0 +1,47 @@
+package com.uor.eng.repository;
+
+import com.uor.eng.model.JobLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+  /**
+   * Takes a free or expired lease, provided nobody took it since its token was read. Returns 0 when another node
+   * holds it or got there first.
+   */
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("UPDATE JobLock l SET l.lockedBy = :owner, l.lockedAt = :now, l.lockedUntil = :until, l.token = l.token + 1 " +
+          "WHERE l.name = :name AND l.token = :token AND (l.lockedUntil IS NULL OR l.lockedUntil <= :now)")
+  int acquire(@Param("name") String name,
+              @Param("token") long token,
+              @Param("owner") String owner,
+              @Param("now") LocalDateTime now,
+              @Param("until") LocalDateTime until);
+
+  /**
+   * Shortens a lease to {@code until}, unless it has changed hands in the meantime.
+   */
+  @Transactional
+  @Modifying(clearAutomatically = true)
+  @Query("UPDATE JobLock l SET l.lockedUntil = :until WHERE l.name = :name AND l.token = :token")
+  int release(@Param("name") String name, @Param("token") long token, @Param("until") LocalDateTime until);
+
+  /**
+   * Reads a lease and locks its row until the surrounding transaction ends, which holds off any acquisition.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT l FROM JobLock l WHERE l.name = :name")
+  Optional<JobLock> findForUpdate(@Param("name") String name);
+}
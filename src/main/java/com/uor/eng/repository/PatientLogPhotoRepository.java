@@ -1,10 +1,13 @@
 package com.uor.eng.repository;
 
 import com.uor.eng.model.PatientLogPhoto;
+import com.uor.eng.payload.patient.logs.PatientLogPhotoSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +17,13 @@ public interface PatientLogPhotoRepository extends JpaRepository<PatientLogPhoto
 
   List<PatientLogPhoto> findByPatientLogId(Long id);
 
+  /**
+   * The photo count and first photo of each of the given logs that has photos.
+   */
+  @Query("SELECT p.patientLog.id AS logId, " +
+      "(SELECT COUNT(c) FROM PatientLogPhoto c WHERE c.patientLog = p.patientLog) AS photoCount, " +
+      "p.s3Key AS coverS3Key FROM PatientLogPhoto p WHERE p.patientLog.id IN :logIds " +
+      "AND p.id = (SELECT MIN(f.id) FROM PatientLogPhoto f WHERE f.patientLog = p.patientLog)")
+  List<PatientLogPhotoSummary> findSummariesByPatientLogIdIn(@Param("logIds") Collection<Long> logIds);
+
 }
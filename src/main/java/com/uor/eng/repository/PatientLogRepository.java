@@ -1,9 +1,16 @@
 package com.uor.eng.repository;
 
 import com.uor.eng.model.PatientLog;
+import com.uor.eng.payload.patient.logs.PatientLogSearchEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +21,36 @@ public interface PatientLogRepository extends JpaRepository<PatientLog, Long> {
   Optional<Object> findByIdAndPatientId(Long logId, Long id);
 
   List<PatientLog> findByDentistUserId(Long userId);
+
+  @EntityGraph(attributePaths = "dentist")
+  List<PatientLog> findWithDentistByIdIn(Collection<Long> ids);
+
+  /**
+   * A patient's logs with their dentists, newest first, keyset-paginated: pass the timestamp and ID of the last log of
+   * the previous page as the {@code after*} parameters (both null for the first page). Only the page size of
+   * {@code pageable} is used.
+   */
+  @EntityGraph(attributePaths = "dentist")
+  @Query("SELECT l FROM PatientLog l WHERE l.patient.id = :patientId " +
+      "AND (:afterTimestamp IS NULL OR l.timestamp < :afterTimestamp " +
+      "OR (l.timestamp = :afterTimestamp AND l.id < :afterId)) " +
+      "ORDER BY l.timestamp DESC, l.id DESC")
+  List<PatientLog> findTimelinePage(@Param("patientId") Long patientId,
+                                    @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
+  @Query("SELECT l.id FROM PatientLog l WHERE l.patient.id = :patientId")
+  List<Long> findIdsByPatientId(@Param("patientId") Long patientId);
+
+  @Query("SELECT l.id AS id, l.patient.id AS patientId, l.dentist.userId AS dentistId, l.actionType AS actionType, " +
+      "l.description AS description, l.timestamp AS timestamp FROM PatientLog l WHERE l.id = :id")
+  Optional<PatientLogSearchEntry> findSearchEntry(@Param("id") Long id);
+
+  /**
+   * The next {@code pageable.getPageSize()} logs after {@code afterId} in ID order, for reading every log in chunks.
+   */
+  @Query("SELECT l.id AS id, l.patient.id AS patientId, l.dentist.userId AS dentistId, l.actionType AS actionType, " +
+      "l.description AS description, l.timestamp AS timestamp FROM PatientLog l WHERE l.id > :afterId ORDER BY l.id")
+  List<PatientLogSearchEntry> findSearchEntriesAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -1,18 +1,43 @@
 package com.uor.eng.repository;
 
 import com.uor.eng.model.Patient;
+import com.uor.eng.payload.patient.PatientContactNumber;
+import com.uor.eng.payload.patient.PatientSearchEntry;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
   Optional<Patient> findByEmail(String email);
 
+  /**
+   * The patient with its logs and their dentists in one query. Contact numbers and log photos are batch-fetched on
+   * first access, as the two lists cannot be joined in the same query.
+   */
+  @EntityGraph(attributePaths = {"patientLogs", "patientLogs.dentist"})
+  Optional<Patient> findDetailedById(Long id);
+
   boolean existsByEmail(String email);
 
   Optional<Patient> findByNic(String nic);
 
   boolean existsByNic(String nic);
+
+  @Query("SELECT p.id AS id, p.name AS name, p.email AS email, p.nic AS nic FROM Patient p")
+  List<PatientSearchEntry> findSearchEntries();
+
+  @Query("SELECT p.id AS id, p.name AS name, p.email AS email, p.nic AS nic FROM Patient p WHERE p.id = :id")
+  Optional<PatientSearchEntry> findSearchEntry(@Param("id") Long id);
+
+  @Query("SELECT p.id AS patientId, c AS contactNumber FROM Patient p JOIN p.contactNumbers c")
+  List<PatientContactNumber> findAllContactNumbers();
+
+  @Query("SELECT c FROM Patient p JOIN p.contactNumbers c WHERE p.id = :id")
+  List<String> findContactNumbers(@Param("id") Long id);
 }
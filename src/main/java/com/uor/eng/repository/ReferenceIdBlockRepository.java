@@ -0,0 +1,43 @@
+package com.uor.eng.repository;
+
+import com.uor.eng.model.ReferenceIdBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Every method runs in its own transaction, so a reservation is committed before any ID from it is handed out,
+ * whatever becomes of the booking that asked for the ID.
+ */
+@Repository
+public interface ReferenceIdBlockRepository extends JpaRepository<ReferenceIdBlock, Integer> {
+
+  @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+  @Query("SELECT b.reservedUntil FROM ReferenceIdBlock b WHERE b.nodeId = :nodeId")
+  Optional<Long> findReservedUntil(@Param("nodeId") Integer nodeId);
+
+  /**
+   * Records the first reservation of a node. Fails on the duplicate key if another instance got there first.
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  @Modifying
+  @Query(value = "INSERT INTO reference_id_blocks (node_id, reserved_until) VALUES (:nodeId, :until)",
+          nativeQuery = true)
+  int create(@Param("nodeId") Integer nodeId, @Param("until") long until);
+
+  /**
+   * Extends a reservation, provided it still ends at {@code expected}. Returns 0 when another instance running
+   * with the same node id has moved it.
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  @Modifying(clearAutomatically = true)
+  @Query("UPDATE ReferenceIdBlock b SET b.reservedUntil = :until " +
+          "WHERE b.nodeId = :nodeId AND b.reservedUntil = :expected")
+  int advance(@Param("nodeId") Integer nodeId, @Param("expected") long expected, @Param("until") long until);
+}
@@ -0,0 +1,54 @@
+package com.uor.eng.repository;
+
+import com.uor.eng.model.Schedule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Inserts schedules with JDBC batches. Schedules use IDENTITY keys, which make Hibernate send one INSERT per
+ * entity, so bulk creation goes around the persistence context. Runs in the caller's transaction.
+ */
+@Repository
+public class ScheduleBatchRepository {
+
+  private static final String INSERT_SQL = "INSERT INTO schedules (date, day_of_week, status, start_time, end_time, " +
+          "duration, created_at, capacity, available_slots, dentist_id, version) " +
+          "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int batchSize;
+
+  public ScheduleBatchRepository(JdbcTemplate jdbcTemplate,
+                                 @Value("${app.schedule.batch-insert-size:100}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  /**
+   * @return the number of rows inserted
+   */
+  public int insertAll(List<Schedule> schedules) {
+    int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, schedules, batchSize, (ps, schedule) -> {
+      ps.setObject(1, schedule.getDate());
+      ps.setString(2, schedule.getDayOfWeek());
+      ps.setString(3, schedule.getStatus().name());
+      ps.setObject(4, schedule.getStartTime());
+      ps.setObject(5, schedule.getEndTime());
+      ps.setLong(6, schedule.getDuration());
+      ps.setObject(7, schedule.getCreatedAt());
+      ps.setInt(8, schedule.getCapacity());
+      ps.setInt(9, schedule.getAvailableSlots());
+      ps.setLong(10, schedule.getDentist().getUserId());
+    });
+    // Drivers that rewrite a batch into one statement report SUCCESS_NO_INFO per row
+    return Arrays.stream(counts)
+            .flatMapToInt(Arrays::stream)
+            .map(count -> count == Statement.SUCCESS_NO_INFO ? 1 : count)
+            .sum();
+  }
+}
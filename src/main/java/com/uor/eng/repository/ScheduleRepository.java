@@ -2,12 +2,15 @@ package com.uor.eng.repository;
 
 import com.uor.eng.model.Schedule;
 import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.payload.schedule.ScheduleEndTime;
+import com.uor.eng.payload.schedule.ScheduleInterval;
 import jakarta.persistence.LockModeType;
 import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
@@ -15,28 +18,133 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
-  @Query(nativeQuery = true, value = "SELECT * FROM schedules WHERE date <= :today AND end_time < :nowTime AND status NOT IN (:excludedStatuses)")
-  List<Schedule> findSchedulesToFinish(@Param("today") LocalDate today,
-                                       @Param("nowTime") LocalTime nowTime,
-                                       @Param("excludedStatuses") List<ScheduleStatus> excludedStatuses);
+  /**
+   * IDs of schedules in one of {@code statuses} that ended before {@code nowTime} today or on an earlier day, in ID
+   * order so the caller can work through them a page at a time.
+   */
+  @Query("SELECT s.id FROM Schedule s " +
+          "WHERE (s.date < :today OR (s.date = :today AND s.endTime < :nowTime)) AND s.status IN :statuses " +
+          "ORDER BY s.id")
+  List<Long> findIdsToFinish(@Param("today") LocalDate today,
+                             @Param("nowTime") LocalTime nowTime,
+                             @Param("statuses") Collection<ScheduleStatus> statuses,
+                             Pageable page);
+
+  @Query("SELECT DISTINCT s.date FROM Schedule s WHERE s.id IN :ids")
+  List<LocalDate> findDatesByIds(@Param("ids") Collection<Long> ids);
+
+  @Query("SELECT MIN(s.date) FROM Schedule s")
+  Optional<LocalDate> findFirstDate();
+
+  @Query("SELECT MAX(s.date) FROM Schedule s")
+  Optional<LocalDate> findLastDate();
+
+  @Query("SELECT s.id AS id, s.date AS date, s.endTime AS endTime FROM Schedule s " +
+          "WHERE s.date BETWEEN :from AND :to AND s.status IN :statuses")
+  List<ScheduleEndTime> findEndTimes(@Param("from") LocalDate from,
+                                     @Param("to") LocalDate to,
+                                     @Param("statuses") Collection<ScheduleStatus> statuses);
+
+  @Query("SELECT s.id AS id, s.dentist.userId AS dentistId, s.date AS date, s.startTime AS startTime, " +
+          "s.endTime AS endTime FROM Schedule s WHERE s.dentist.userId = :dentistId AND s.status <> :excluded")
+  List<ScheduleInterval> findIntervalsByDentist(@Param("dentistId") Long dentistId,
+                                                @Param("excluded") ScheduleStatus excluded);
+
+  @Query("SELECT s.id AS id, s.dentist.userId AS dentistId, s.date AS date, s.startTime AS startTime, " +
+          "s.endTime AS endTime FROM Schedule s WHERE s.id = :id AND s.status <> :excluded")
+  Optional<ScheduleInterval> findInterval(@Param("id") Long id, @Param("excluded") ScheduleStatus excluded);
+
+  @Query("SELECT DISTINCT s.date FROM Schedule s WHERE s.dentist.userId = :dentistId " +
+          "AND s.date BETWEEN :from AND :to AND s.startTime < :endTime AND s.endTime > :startTime " +
+          "AND s.status <> :excluded")
+  List<LocalDate> findOverlappingDates(@Param("dentistId") Long dentistId,
+                                       @Param("from") LocalDate from,
+                                       @Param("to") LocalDate to,
+                                       @Param("startTime") LocalTime startTime,
+                                       @Param("endTime") LocalTime endTime,
+                                       @Param("excluded") ScheduleStatus excluded);
+
+  /**
+   * Whether another schedule of the dentist, other than {@code excludeId}, overlaps the given time on that date.
+   */
+  @Query("SELECT COUNT(s) > 0 FROM Schedule s WHERE s.dentist.userId = :dentistId AND s.date = :date " +
+          "AND s.startTime < :endTime AND s.endTime > :startTime AND s.status <> :excluded " +
+          "AND (:excludeId IS NULL OR s.id <> :excludeId)")
+  boolean existsOverlapping(@Param("dentistId") Long dentistId,
+                            @Param("date") LocalDate date,
+                            @Param("startTime") LocalTime startTime,
+                            @Param("endTime") LocalTime endTime,
+                            @Param("excluded") ScheduleStatus excluded,
+                            @Param("excludeId") Long excludeId);
+
+  @Query("SELECT s.id FROM Schedule s " +
+          "WHERE s.date = :date AND s.startTime < :startBefore AND s.status IN :statuses ORDER BY s.id")
+  List<Long> findIdsStartedBy(@Param("date") LocalDate date,
+                              @Param("startBefore") LocalTime startBefore,
+                              @Param("statuses") Collection<ScheduleStatus> statuses,
+                              Pageable page);
+
+  @Query("SELECT s.id FROM Schedule s WHERE s.date = :date AND s.status IN :statuses ORDER BY s.id")
+  List<Long> findIdsByDate(@Param("date") LocalDate date,
+                           @Param("statuses") Collection<ScheduleStatus> statuses,
+                           Pageable page);
 
   List<Schedule> findTop7ByDateGreaterThanAndStatusOrderByDateAsc(LocalDate today, ScheduleStatus scheduleStatus);
 
 
   Page<Schedule> findByStatus(ScheduleStatus scheduleStatus, Pageable topTen);
 
-  List<Schedule> findByDateBetweenAndStatusNot(LocalDate startDate, LocalDate today, ScheduleStatus scheduleStatus);
-
   List<Schedule> findByDate(LocalDate tomorrow);
 
   @Lock(LockModeType.PESSIMISTIC_WRITE)
   @QueryHints({@QueryHint(name = "jakarta.persistence.lock.timeout", value = "1000")})
   @Query("SELECT s FROM Schedule s WHERE s.id = :id")
   Optional<Schedule> findByIdWithLock(@Param("id") Long id);
-}
 
+  /**
+   * Takes one slot of an AVAILABLE schedule in a single guarded statement and flips it to FULL when the last slot
+   * goes. The status assignment comes first because MySQL evaluates SET clauses left to right.
+   *
+   * @return 1 when a slot was taken, 0 when the schedule is missing, full or not bookable
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Schedule s SET " +
+          "s.status = CASE WHEN s.availableSlots <= 1 THEN com.uor.eng.model.ScheduleStatus.FULL ELSE s.status END, " +
+          "s.availableSlots = s.availableSlots - 1, " +
+          "s.version = s.version + 1 " +
+          "WHERE s.id = :id AND s.availableSlots > 0 AND s.status = com.uor.eng.model.ScheduleStatus.AVAILABLE")
+  int decrementAvailableSlots(@Param("id") Long id);
+
+  /**
+   * Gives one slot back and reopens a FULL schedule.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Schedule s SET " +
+          "s.status = CASE WHEN s.status = com.uor.eng.model.ScheduleStatus.FULL THEN com.uor.eng.model.ScheduleStatus.AVAILABLE ELSE s.status END, " +
+          "s.availableSlots = s.availableSlots + 1, " +
+          "s.version = s.version + 1 " +
+          "WHERE s.id = :id")
+  int incrementAvailableSlots(@Param("id") Long id);
+
+  /**
+   * Moves the given schedules to {@code status} in one statement, skipping any that have left {@code fromStatuses}
+   * since their IDs were read.
+   *
+   * @return the number of schedules moved
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE Schedule s SET s.status = :status, s.version = s.version + 1 " +
+          "WHERE s.id IN :ids AND s.status IN :fromStatuses")
+  int transitionStatus(@Param("ids") Collection<Long> ids,
+                       @Param("fromStatuses") Collection<ScheduleStatus> fromStatuses,
+                       @Param("status") ScheduleStatus status);
+
+  @Query("SELECT s.availableSlots FROM Schedule s WHERE s.id = :id")
+  Optional<Integer> findAvailableSlotsById(@Param("id") Long id);
+}
@@ -0,0 +1,58 @@
+package com.uor.eng.repository;
+
+import com.uor.eng.model.WaitlistEntry;
+import com.uor.eng.model.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+  Optional<WaitlistEntry> findFirstByScheduleIdAndStatusOrderByIdAsc(Long scheduleId, WaitlistStatus status);
+
+  Optional<WaitlistEntry> findByIdAndContactNumber(Long id, String contactNumber);
+
+  long countByScheduleIdAndStatus(Long scheduleId, WaitlistStatus status);
+
+  long countByScheduleIdAndStatusAndIdLessThan(Long scheduleId, WaitlistStatus status, Long id);
+
+  boolean existsByScheduleIdAndNicAndStatus(Long scheduleId, String nic, WaitlistStatus status);
+
+  /**
+   * Claims a WAITING entry for promotion. Returns 0 when the entry was promoted or cancelled concurrently, in which
+   * case the caller moves on to the next one.
+   */
+  @Modifying(flushAutomatically = true)
+  @Query("UPDATE WaitlistEntry w SET w.status = com.uor.eng.model.WaitlistStatus.PROMOTED, " +
+          "w.bookingReferenceId = :referenceId, w.promotedAt = :now " +
+          "WHERE w.id = :id AND w.status = com.uor.eng.model.WaitlistStatus.WAITING")
+  int markPromoted(@Param("id") Long id, @Param("referenceId") String referenceId, @Param("now") LocalDateTime now);
+
+  /**
+   * Cancels a WAITING entry. Returns 0 when it has already left the queue.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("UPDATE WaitlistEntry w SET w.status = com.uor.eng.model.WaitlistStatus.CANCELLED " +
+          "WHERE w.id = :id AND w.status = com.uor.eng.model.WaitlistStatus.WAITING")
+  int markCancelled(@Param("id") Long id);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE WaitlistEntry w SET w.status = com.uor.eng.model.WaitlistStatus.EXPIRED " +
+          "WHERE w.schedule.id = :scheduleId AND w.status = com.uor.eng.model.WaitlistStatus.WAITING")
+  int expireWaiting(@Param("scheduleId") Long scheduleId);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE WaitlistEntry w SET w.status = com.uor.eng.model.WaitlistStatus.EXPIRED " +
+          "WHERE w.schedule.id IN :scheduleIds AND w.status = com.uor.eng.model.WaitlistStatus.WAITING")
+  int expireWaitingBySchedules(@Param("scheduleIds") Collection<Long> scheduleIds);
+}
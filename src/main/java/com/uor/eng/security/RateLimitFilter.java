@@ -0,0 +1,297 @@
+package com.uor.eng.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uor.eng.util.TokenBucketLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Rate limits the unauthenticated write endpoints before they reach Spring Security or a database connection.
+ * <p>
+ * Every limited endpoint has a token bucket per client IP, and the booking endpoints also one per patient NIC read
+ * from the JSON body, so one client cannot flood a schedule by rotating NICs or rotate IPs for one NIC. Limits are
+ * set per endpoint under {@code app.rate-limit.<endpoint>.ip|nic.capacity|refill-per-minute}. On top of that, at
+ * most {@code app.rate-limit.max-concurrent} limited requests are processed at once; callers beyond that are
+ * turned away with 429 straight away instead of queueing for a Tomcat thread and the schedule row lock.
+ * <p>
+ * As this runs ahead of Spring Security's CORS handling, rejections carry the CORS headers themselves, so that a
+ * cross-origin page can read the 429 and its {@code Retry-After}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  // Booking payloads are a few hundred bytes; anything larger on these endpoints is refused rather than buffered
+  private static final int MAX_INSPECTED_BODY_BYTES = 16 * 1024;
+
+  private final ObjectMapper objectMapper;
+  private final CorsConfigurationSource corsConfigurationSource;
+  private final boolean enabled;
+  private final Semaphore concurrency;
+  private final Map<String, Endpoint> endpoints = new HashMap<>();
+  private final Counter shedCounter;
+
+  public RateLimitFilter(ObjectMapper objectMapper, MeterRegistry registry, Environment environment,
+                         CorsConfigurationSource corsConfigurationSource) {
+    this.objectMapper = objectMapper;
+    this.corsConfigurationSource = corsConfigurationSource;
+    this.enabled = environment.getProperty("app.rate-limit.enabled", Boolean.class, true);
+    int maxConcurrent = environment.getProperty("app.rate-limit.max-concurrent", Integer.class, 64);
+    int maxKeys = environment.getProperty("app.rate-limit.max-keys", Integer.class, 10_000);
+    this.concurrency = new Semaphore(maxConcurrent);
+
+    endpoints.put("/api/bookings/create", Endpoint.of("bookings", environment, maxKeys, 10, 20, 3, 5));
+    endpoints.put("/api/waitlist/join", Endpoint.of("waitlist", environment, maxKeys, 5, 10, 2, 3));
+    endpoints.put("/api/contacts/submit", Endpoint.of("contacts", environment, maxKeys, 5, 5, 0, 0));
+    endpoints.put("/api/feedback/submit", Endpoint.of("feedback", environment, maxKeys, 5, 5, 0, 0));
+
+    Gauge.builder("app.rate-limit.in-flight", concurrency, semaphore -> maxConcurrent - semaphore.availablePermits())
+        .description("Rate limited requests currently being processed")
+        .register(registry);
+    this.shedCounter = rejectionCounter(registry, "all", "concurrency");
+    endpoints.values().forEach(endpoint -> endpoint.registerMeters(registry));
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !enabled
+        || !HttpMethod.POST.matches(request.getMethod())
+        || !endpoints.containsKey(request.getServletPath());
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    Endpoint endpoint = endpoints.get(request.getServletPath());
+
+    if (!endpoint.ipLimiter.tryAcquire(request.getRemoteAddr())) {
+      endpoint.ipRejected.increment();
+      reject(request, response, "Too many requests. Please wait a moment and try again.");
+      return;
+    }
+    if (!concurrency.tryAcquire()) {
+      shedCounter.increment();
+      reject(request, response, "The system is busy. Please try again shortly.");
+      return;
+    }
+    try {
+      HttpServletRequest forwarded = request;
+      if (endpoint.nicLimiter != null && isJson(request)) {
+        byte[] body = request.getInputStream().readNBytes(MAX_INSPECTED_BODY_BYTES + 1);
+        if (body.length > MAX_INSPECTED_BODY_BYTES) {
+          addCorsHeaders(request, response);
+          response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+          return;
+        }
+        String nic = readNic(body);
+        if (nic != null && !endpoint.nicLimiter.tryAcquire(nic)) {
+          endpoint.nicRejected.increment();
+          reject(request, response, "Too many requests for this NIC. Please wait a moment and try again.");
+          return;
+        }
+        forwarded = new CachedBodyRequest(request, body);
+      }
+      filterChain.doFilter(forwarded, response);
+    } finally {
+      concurrency.release();
+    }
+  }
+
+  private static boolean isJson(HttpServletRequest request) {
+    String contentType = request.getContentType();
+    return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json");
+  }
+
+  private String readNic(byte[] body) {
+    try {
+      JsonNode nic = objectMapper.readTree(body).get("nic");
+      return nic != null && nic.isTextual() && !nic.asText().isBlank() ? nic.asText().trim().toUpperCase(Locale.ROOT) : null;
+    } catch (IOException e) {
+      // Malformed bodies are rejected by the controller; there is no NIC to limit on
+      return null;
+    }
+  }
+
+  private void reject(HttpServletRequest request, HttpServletResponse response, String message) throws IOException {
+    log.debug("Rate limited {} from {}", request.getServletPath(), request.getRemoteAddr());
+    addCorsHeaders(request, response);
+    response.setStatus(429);
+    response.setHeader("Retry-After", "1");
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+    Map<String, Object> body = new HashMap<>();
+    body.put("status", 429);
+    body.put("error", "Too Many Requests");
+    body.put("message", message);
+    body.put("path", request.getServletPath());
+    objectMapper.writeValue(response.getOutputStream(), body);
+  }
+
+  /**
+   * The headers Spring Security's CORS filter would have added for an allowed origin, plus {@code Retry-After},
+   * which browsers otherwise hide from scripts.
+   */
+  private void addCorsHeaders(HttpServletRequest request, HttpServletResponse response) {
+    String origin = request.getHeader(HttpHeaders.ORIGIN);
+    CorsConfiguration config = origin != null ? corsConfigurationSource.getCorsConfiguration(request) : null;
+    String allowedOrigin = config != null ? config.checkOrigin(origin) : null;
+    if (allowedOrigin == null) {
+      return;
+    }
+    response.addHeader(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+    response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, allowedOrigin);
+    if (Boolean.TRUE.equals(config.getAllowCredentials())) {
+      response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+    }
+    response.setHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaders.RETRY_AFTER);
+  }
+
+  private static Counter rejectionCounter(MeterRegistry registry, String endpoint, String reason) {
+    return Counter.builder("app.rate-limit.rejected")
+        .description("Requests rejected with 429 by the rate limiter")
+        .tag("endpoint", endpoint)
+        .tag("reason", reason)
+        .register(registry);
+  }
+
+  private static final class Endpoint {
+    private final String name;
+    private final TokenBucketLimiter ipLimiter;
+    private final TokenBucketLimiter nicLimiter;
+    private Counter ipRejected;
+    private Counter nicRejected;
+
+    private Endpoint(String name, TokenBucketLimiter ipLimiter, TokenBucketLimiter nicLimiter) {
+      this.name = name;
+      this.ipLimiter = ipLimiter;
+      this.nicLimiter = nicLimiter;
+    }
+
+    /**
+     * A NIC capacity of 0 turns the per-NIC bucket off, which is the default for endpoints without a NIC.
+     */
+    private static Endpoint of(String name, Environment environment, int maxKeys,
+                               int ipCapacity, int ipRefillPerMinute, int nicCapacity, int nicRefillPerMinute) {
+      String prefix = "app.rate-limit." + name + ".";
+      TokenBucketLimiter ip = new TokenBucketLimiter(
+          environment.getProperty(prefix + "ip.capacity", Integer.class, ipCapacity),
+          environment.getProperty(prefix + "ip.refill-per-minute", Integer.class, ipRefillPerMinute),
+          maxKeys);
+      int nicBurst = environment.getProperty(prefix + "nic.capacity", Integer.class, nicCapacity);
+      TokenBucketLimiter nic = nicBurst > 0
+          ? new TokenBucketLimiter(nicBurst,
+              environment.getProperty(prefix + "nic.refill-per-minute", Integer.class, nicRefillPerMinute), maxKeys)
+          : null;
+      return new Endpoint(name, ip, nic);
+    }
+
+    private void registerMeters(MeterRegistry registry) {
+      ipRejected = rejectionCounter(registry, name, "ip");
+      Gauge.builder("app.rate-limit.buckets", ipLimiter, TokenBucketLimiter::size)
+          .description("Token buckets currently tracked")
+          .tag("endpoint", name)
+          .tag("key", "ip")
+          .register(registry);
+      if (nicLimiter != null) {
+        nicRejected = rejectionCounter(registry, name, "nic");
+        Gauge.builder("app.rate-limit.buckets", nicLimiter, TokenBucketLimiter::size)
+            .description("Token buckets currently tracked")
+            .tag("endpoint", name)
+            .tag("key", "nic")
+            .register(registry);
+      }
+    }
+  }
+
+  /**
+   * Replays a JSON body that was already read for inspection, so the controller can still bind it.
+   */
+  private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+    private final byte[] body;
+
+    private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+      super(request);
+      this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      ByteArrayInputStream in = new ByteArrayInputStream(body);
+      return new ServletInputStream() {
+        @Override
+        public boolean isFinished() {
+          return in.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+          throw new UnsupportedOperationException("Asynchronous reads are not supported");
+        }
+
+        @Override
+        public int read() {
+          return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+          return in.read(b, off, len);
+        }
+      };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+      String encoding = getCharacterEncoding();
+      return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+          encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int getContentLength() {
+      return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      return body.length;
+    }
+  }
+}
@@ -106,7 +106,9 @@ public class WebSecurityConfig {
                             .requestMatchers("/images/**").permitAll()
                             .requestMatchers("/api/bookings/create").permitAll()
                             .requestMatchers("/api/bookings/{referenceId}/{contactNumber}").permitAll()
-                            .requestMatchers("/api/schedules/{id}").permitAll()
+                            .requestMatchers("/api/waitlist/join").permitAll()
+                            .requestMatchers("/api/waitlist/{id}/{contactNumber}").permitAll()
+                            .requestMatchers(HttpMethod.GET, "/api/schedules/{id}").permitAll()
                             .requestMatchers("/api/schedules/getSeven").permitAll()
                             .requestMatchers("/api/feedback/submit").permitAll()
                             .requestMatchers("/api/contacts/submit").permitAll()
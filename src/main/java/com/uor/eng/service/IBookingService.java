@@ -1,19 +1,41 @@
 package com.uor.eng.service;
 
 import com.uor.eng.model.Booking;
+import com.uor.eng.payload.booking.BookingPageResponse;
 import com.uor.eng.payload.booking.BookingResponseDTO;
+import com.uor.eng.payload.booking.BookingSearchCriteria;
 import com.uor.eng.payload.booking.CreateBookingDTO;
 import com.uor.eng.payload.dashboard.MonthlyBookingStatsResponse;
 import com.uor.eng.payload.patient.PatientResponse;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.YearMonth;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface IBookingService {
   BookingResponseDTO createBooking(CreateBookingDTO bookingDTO);
 
+  /**
+   * Books a group of requests for one schedule in a single transaction, in list order. Returns one response per
+   * admitted request; requests beyond the schedule's free slots are not booked and have no response.
+   */
+  List<BookingResponseDTO> createBookingBatch(Long scheduleId, List<CreateBookingDTO> bookingDTOs);
+
   List<BookingResponseDTO> getAllBookings();
 
+  /**
+   * Returns up to {@code size} bookings matching {@code criteria}, newest first, starting after {@code cursor}
+   * (null for the first page).
+   */
+  BookingPageResponse getBookingsPage(BookingSearchCriteria criteria, String cursor, int size);
+
+  /**
+   * Streams every booking matching {@code criteria}, newest first. Rows are read from the database in fixed-size
+   * keyset chunks as the stream is consumed, so memory use does not grow with the result. Close the stream when done.
+   */
+  Stream<BookingResponseDTO> streamBookings(BookingSearchCriteria criteria);
+
   BookingResponseDTO getBookingByReferenceIdAndContactNumber(String referenceId, String contactNumber);
 
   BookingResponseDTO getBookingById(String id);
@@ -26,6 +48,8 @@ public interface IBookingService {
 
   MonthlyBookingStatsResponse getCurrentMonthBookingStats();
 
+  List<MonthlyBookingStatsResponse> getMonthlyBookingStats(YearMonth from, YearMonth to);
+
   PatientResponse getOrCreatePatientFromBookingId(String bookingId);
 
   PatientResponse getOrCreatePatientFromBooking(Booking booking);
@@ -1,7 +1,9 @@
 package com.uor.eng.service;
 
 import com.uor.eng.payload.patient.CreatePatientRequest;
+import com.uor.eng.payload.patient.PatientPageResponse;
 import com.uor.eng.payload.patient.PatientResponse;
+import com.uor.eng.payload.patient.PatientSummaryResponse;
 import jakarta.validation.Valid;
 
 import java.util.List;
@@ -11,6 +13,10 @@ public interface IPatientService {
 
   List<PatientResponse> getAllPatients();
 
+  PatientPageResponse getPatientSummaries(int page, int size);
+
+  List<PatientSummaryResponse> searchPatients(String query, int limit);
+
   PatientResponse getPatientById(Long patientId);
 
   PatientResponse updatePatient(Long patientId, @Valid CreatePatientRequest request);
@@ -3,15 +3,24 @@ package com.uor.eng.service;
 import com.uor.eng.payload.dashboard.CancelledScheduleResponse;
 import com.uor.eng.payload.dashboard.ScheduleHistoryResponse;
 import com.uor.eng.payload.dashboard.UpcomingScheduleResponse;
+import com.uor.eng.payload.schedule.CreateRecurringSchedulesDTO;
 import com.uor.eng.payload.schedule.CreateScheduleDTO;
+import com.uor.eng.payload.schedule.FreeSlotResponse;
+import com.uor.eng.payload.schedule.RecurringSchedulesResponse;
 import com.uor.eng.payload.schedule.ScheduleGetSevenCustomResponse;
 import com.uor.eng.payload.schedule.ScheduleResponseDTO;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface IScheduleService {
   ScheduleResponseDTO createSchedule(CreateScheduleDTO scheduleDTO);
 
+  /**
+   * Creates a dentist's schedules for every matching day of a weekly recurrence in one transaction.
+   */
+  RecurringSchedulesResponse createRecurringSchedules(CreateRecurringSchedulesDTO recurrence);
+
   List<ScheduleResponseDTO> getAllSchedules();
 
   ScheduleResponseDTO getScheduleById(Long id);
@@ -30,7 +39,17 @@ public interface IScheduleService {
 
   List<UpcomingScheduleResponse> getUpcomingSchedules();
 
-  List<ScheduleHistoryResponse> getScheduleHistory();
+  /**
+   * Bookings per appointment date from {@code to} back to {@code from}, both inclusive. Defaults to the 90 days
+   * ending today.
+   */
+  List<ScheduleHistoryResponse> getScheduleHistory(LocalDate from, LocalDate to);
+
+  /**
+   * Free time of at least {@code minMinutes} between the dentist's schedules within working hours. Defaults to
+   * the seven days from today and 30 minutes.
+   */
+  List<FreeSlotResponse> findFreeSlots(Long dentistId, LocalDate from, LocalDate to, Integer minMinutes);
 
   void updateExpiredSchedules();
 
@@ -0,0 +1,20 @@
+package com.uor.eng.service;
+
+import com.uor.eng.model.Schedule;
+import com.uor.eng.payload.booking.CreateBookingDTO;
+import com.uor.eng.payload.booking.WaitlistEntryResponse;
+
+public interface IWaitlistService {
+  WaitlistEntryResponse joinWaitlist(CreateBookingDTO bookingDTO);
+
+  WaitlistEntryResponse getEntry(Long id, String contactNumber);
+
+  WaitlistEntryResponse cancelEntry(Long id, String contactNumber);
+
+  /**
+   * Books the oldest waiting patient into a slot freed on {@code schedule}, in the caller's transaction.
+   *
+   * @return true when an entry was promoted and the slot is taken, false when the slot is still free
+   */
+  boolean promoteNext(Schedule schedule, Integer appointmentNumber);
+}
@@ -10,8 +10,17 @@ public interface PatientLogService {
 
   List<PatientLogResponse> getPatientLogs(Long patientId);
 
+  /**
+   * Returns up to {@code size} of a patient's logs, newest first, starting after {@code cursor} (null for the first
+   * page). Without {@code includePhotos} each log carries its photo count and first photo only; its full photo list
+   * is read with {@link #getPhotos}.
+   */
+  PatientLogPageResponse getPatientLogTimeline(Long patientId, String cursor, int size, boolean includePhotos);
+
   PatientLogResponse getPatientLog(Long patientId, Long logId);
 
+  PatientLogSearchResponse searchPatientLogs(String query, Long patientId, Long dentistId, int limit);
+
   void deletePatientLog(Long patientId, Long logId);
 
   PatientLogResponse updatePatientLog(Long patientId, Long logId, @Valid PatientLogUpdateRequest request);
@@ -1,9 +1,13 @@
 package com.uor.eng.service.impl;
 
+import com.uor.eng.event.BookingStatusChangedEvent;
+import com.uor.eng.event.PatientChangedEvent;
 import com.uor.eng.exceptions.BadRequestException;
 import com.uor.eng.exceptions.ResourceNotFoundException;
 import com.uor.eng.model.*;
+import com.uor.eng.payload.booking.BookingPageResponse;
 import com.uor.eng.payload.booking.BookingResponseDTO;
+import com.uor.eng.payload.booking.BookingSearchCriteria;
 import com.uor.eng.payload.booking.CreateBookingDTO;
 import com.uor.eng.payload.dashboard.MonthlyBookingStatsResponse;
 import com.uor.eng.payload.patient.PatientResponse;
@@ -11,29 +15,45 @@ import com.uor.eng.repository.BookingRepository;
 import com.uor.eng.repository.PatientRepository;
 import com.uor.eng.repository.ScheduleRepository;
 import com.uor.eng.service.IBookingService;
+import com.uor.eng.service.IWaitlistService;
+import com.uor.eng.util.BookingLookupCache;
+import com.uor.eng.util.BookingStatsCache;
 import com.uor.eng.util.EmailService;
+import com.uor.eng.util.ReferenceIdGenerator;
+import com.uor.eng.util.ScheduleSlotAllocator;
+import com.uor.eng.util.TransactionHooks;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.hibernate.StaleObjectStateException;
 import org.modelmapper.Conditions;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.PessimisticLockingFailureException;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class BookingServiceImpl implements IBookingService {
 
+  private static final int MAX_STATS_MONTHS = 120;
+  private static final int MAX_PAGE_SIZE = 200;
+  private static final int STREAM_CHUNK_SIZE = 500;
+
   private final Counter createBookingCounter;
   private final Counter createBookingErrorCounter;
   private final Timer createBookingTimer;
@@ -42,6 +62,12 @@ public class BookingServiceImpl implements IBookingService {
   private final ScheduleRepository scheduleRepository;
   private final EmailService emailService;
   private final PatientRepository patientRepository;
+  private final ScheduleSlotAllocator slotAllocator;
+  private final ApplicationEventPublisher eventPublisher;
+  private final BookingStatsCache bookingStatsCache;
+  private final ReferenceIdGenerator referenceIdGenerator;
+  private final BookingLookupCache bookingLookupCache;
+  private final IWaitlistService waitlistService;
 
   public BookingServiceImpl(Counter createBookingCounter,
                             Counter createBookingErrorCounter,
@@ -50,7 +76,13 @@ public class BookingServiceImpl implements IBookingService {
                             ModelMapper modelMapper,
                             ScheduleRepository scheduleRepository,
                             EmailService emailService,
-                            PatientRepository patientRepository) {
+                            PatientRepository patientRepository,
+                            ScheduleSlotAllocator slotAllocator,
+                            ApplicationEventPublisher eventPublisher,
+                            BookingStatsCache bookingStatsCache,
+                            ReferenceIdGenerator referenceIdGenerator,
+                            BookingLookupCache bookingLookupCache,
+                            IWaitlistService waitlistService) {
     this.createBookingCounter = createBookingCounter;
     this.createBookingErrorCounter = createBookingErrorCounter;
     this.createBookingTimer = createBookingTimer;
@@ -59,6 +91,12 @@ public class BookingServiceImpl implements IBookingService {
     this.scheduleRepository = scheduleRepository;
     this.emailService = emailService;
     this.patientRepository = patientRepository;
+    this.slotAllocator = slotAllocator;
+    this.eventPublisher = eventPublisher;
+    this.bookingStatsCache = bookingStatsCache;
+    this.referenceIdGenerator = referenceIdGenerator;
+    this.bookingLookupCache = bookingLookupCache;
+    this.waitlistService = waitlistService;
   }
 
   @Override
@@ -66,103 +104,35 @@ public class BookingServiceImpl implements IBookingService {
   public BookingResponseDTO createBooking(CreateBookingDTO bookingDTO) {
     Timer.Sample sample = Timer.start();
     try {
-      // First perform a quick check without locking
-      Schedule schedule = scheduleRepository.findById(bookingDTO.getScheduleId())
+      Long scheduleId = bookingDTO.getScheduleId();
+
+      // Admit against the in-memory slot counter so callers for an exhausted schedule never reach the database
+      ScheduleSlotAllocator.Permit permit = slotAllocator.tryAcquire(scheduleId, () -> scheduleRepository.findAvailableSlotsById(scheduleId)
               .orElseThrow(() -> {
                 createBookingErrorCounter.increment();
-                return new ResourceNotFoundException("Schedule with ID " + bookingDTO.getScheduleId() + " not found.");
-              });
-
-      // Initial validation
-      if (schedule.getAvailableSlots() <= 0 || schedule.getStatus() == ScheduleStatus.FULL) {
+                return new ResourceNotFoundException("Schedule with ID " + scheduleId + " not found.");
+              }));
+      if (permit == null) {
         createBookingErrorCounter.increment();
         throw new BadRequestException("Cannot create booking. The selected schedule is currently full.");
-      } else if (schedule.getStatus() == ScheduleStatus.UNAVAILABLE ||
-              schedule.getStatus() == ScheduleStatus.CANCELLED ||
-              schedule.getStatus() == ScheduleStatus.FINISHED ||
-              schedule.getStatus() == ScheduleStatus.ON_GOING ||
-              schedule.getStatus() == ScheduleStatus.ACTIVE) {
-        createBookingErrorCounter.increment();
-        throw new BadRequestException("Cannot create booking. The selected schedule is currently unavailable.");
       }
+      boolean releasedOnRollback = TransactionHooks.onRollback(permit::release);
 
-      // Prepare the booking object
-      Booking booking = modelMapper.map(bookingDTO, Booking.class);
-
-      // Use optimistic locking with retries
-      int maxRetries = 3;
-
-      for (int attempt = 0; attempt < maxRetries; attempt++) {
-        try {
-          // Get a fresh copy of the schedule with a pessimistic lock
-          schedule = scheduleRepository.findByIdWithLock(bookingDTO.getScheduleId())
-                  .orElseThrow(() -> new ResourceNotFoundException("Schedule no longer exists"));
-
-          // Revalidate with latest data
-          if (schedule.getAvailableSlots() <= 0 || schedule.getStatus() != ScheduleStatus.AVAILABLE) {
-            createBookingErrorCounter.increment();
-            throw new BadRequestException("Schedule is no longer available");
-          }
-
-          // Update the schedule
-          schedule.setAvailableSlots(schedule.getAvailableSlots() - 1);
-          booking.setSchedule(schedule);
-          booking.setAppointmentNumber(schedule.getCapacity() - schedule.getAvailableSlots());
-
-          if (schedule.getAvailableSlots() == 0) {
-            schedule.setStatus(ScheduleStatus.FULL);
-          }
-
-          // Save both entities
-          scheduleRepository.save(schedule);
-          Booking savedBooking = bookingRepository.save(booking);
-
-          // Process confirmation
-          BookingResponseDTO response = mapToResponse(savedBooking);
-          emailService.sendBookingConfirmation(response);
-          createBookingCounter.increment();
-
-          return response;
-
-        } catch (ObjectOptimisticLockingFailureException | StaleObjectStateException e) {
-          log.info("Concurrent booking detected, attempt {}/{}", attempt + 1, maxRetries);
-
-          if (attempt >= maxRetries - 1) {
-            createBookingErrorCounter.increment();
-            throw new BadRequestException("System is currently busy. Please try again shortly.");
-          }
-
-          // Add a delay before retry
-          try {
-            Thread.sleep((long) Math.pow(2, (double) attempt + 1) * 50);
-          } catch (InterruptedException ie) {
-            // Properly handle thread interruption by preserving the interrupt status
-            Thread.currentThread().interrupt();
-            throw new BadRequestException("Booking process was interrupted.");
-          }
-        } catch (PessimisticLockingFailureException e) {
-          log.warn("Lock acquisition failure, attempt {}/{}", attempt + 1, maxRetries);
-
-          if (attempt >= maxRetries - 1) {
-            createBookingErrorCounter.increment();
-            throw new BadRequestException("System is experiencing high demand. Please try again.");
-          }
-
-          try {
-            Thread.sleep((long) Math.pow(2, (double) attempt + 1) * 100);
-          } catch (InterruptedException ie) {
-            // Properly handle thread interruption by preserving the interrupt status
-            Thread.currentThread().interrupt();
-            throw new BadRequestException("Booking process was interrupted.");
-          }
+      try {
+        return reserveAndSave(bookingDTO);
+      } catch (RuntimeException e) {
+        if (!releasedOnRollback) {
+          permit.release();
         }
+        throw e;
       }
 
-      createBookingErrorCounter.increment();
-      throw new BadRequestException("Unable to process booking request after multiple attempts.");
-
     } catch (BadRequestException | ResourceNotFoundException e) {
       throw e;
+    } catch (PessimisticLockingFailureException e) {
+      createBookingErrorCounter.increment();
+      log.warn("Lock acquisition failure while reserving a slot for schedule {}", bookingDTO.getScheduleId());
+      throw new BadRequestException("System is experiencing high demand. Please try again.");
     } catch (Exception e) {
       createBookingErrorCounter.increment();
       log.error("Unexpected error during booking creation", e);
@@ -172,23 +142,201 @@ public class BookingServiceImpl implements IBookingService {
     }
   }
 
+  private BookingResponseDTO reserveAndSave(CreateBookingDTO bookingDTO) {
+    Long scheduleId = bookingDTO.getScheduleId();
+
+    // One guarded UPDATE takes the slot (and flips the schedule to FULL on the last one) without a lock wait or retry
+    if (scheduleRepository.decrementAvailableSlots(scheduleId) == 0) {
+      createBookingErrorCounter.increment();
+      throw slotUnavailable(scheduleId);
+    }
+
+    // Our update holds the row lock until commit, so the post-update slot count identifies this booking's number
+    Schedule schedule = getSchedule(scheduleId);
+    Booking booking = modelMapper.map(bookingDTO, Booking.class);
+    booking.setReferenceId(referenceIdGenerator.next());
+    booking.setSchedule(schedule);
+    booking.setAppointmentNumber(schedule.getCapacity() - schedule.getAvailableSlots());
+    Booking savedBooking = bookingRepository.save(booking);
+    eventPublisher.publishEvent(BookingStatusChangedEvent.created(savedBooking));
+
+    BookingResponseDTO response = mapToResponse(savedBooking);
+    emailService.sendBookingConfirmation(response);
+    createBookingCounter.increment();
+    return response;
+  }
+
+  private RuntimeException slotUnavailable(Long scheduleId) {
+    // The counter admitted us but the row disagrees, so let the next caller re-seed it
+    slotAllocator.evict(scheduleId);
+    Optional<Schedule> schedule = scheduleRepository.findById(scheduleId);
+    if (schedule.isEmpty()) {
+      return new ResourceNotFoundException("Schedule with ID " + scheduleId + " not found.");
+    }
+    if (schedule.get().getAvailableSlots() <= 0 || schedule.get().getStatus() == ScheduleStatus.FULL) {
+      return new BadRequestException("Cannot create booking. The selected schedule is currently full.");
+    }
+    return new BadRequestException("Cannot create booking. The selected schedule is currently unavailable.");
+  }
+
+  @Override
+  @Transactional
+  public List<BookingResponseDTO> createBookingBatch(Long scheduleId, List<CreateBookingDTO> bookingDTOs) {
+    Timer.Sample sample = Timer.start();
+    try {
+      // One row lock and one schedule update cover the whole batch
+      Schedule schedule = scheduleRepository.findByIdWithLock(scheduleId)
+              .orElseThrow(() -> new ResourceNotFoundException("Schedule with ID " + scheduleId + " not found."));
+      if (schedule.getAvailableSlots() <= 0 || schedule.getStatus() == ScheduleStatus.FULL) {
+        throw new BadRequestException("Cannot create booking. The selected schedule is currently full.");
+      }
+      if (schedule.getStatus() != ScheduleStatus.AVAILABLE) {
+        throw new BadRequestException("Cannot create booking. The selected schedule is currently unavailable.");
+      }
+
+      int granted = Math.min(bookingDTOs.size(), schedule.getAvailableSlots());
+      int firstAppointmentNumber = schedule.getCapacity() - schedule.getAvailableSlots() + 1;
+      schedule.setAvailableSlots(schedule.getAvailableSlots() - granted);
+      if (schedule.getAvailableSlots() == 0) {
+        schedule.setStatus(ScheduleStatus.FULL);
+      }
+      scheduleRepository.save(schedule);
+
+      // Appointment numbers follow arrival order; requests past the last free slot are left to the caller
+      List<Booking> bookings = new ArrayList<>(granted);
+      for (int i = 0; i < granted; i++) {
+        Booking booking = modelMapper.map(bookingDTOs.get(i), Booking.class);
+        booking.setReferenceId(referenceIdGenerator.next());
+        booking.setSchedule(schedule);
+        booking.setAppointmentNumber(firstAppointmentNumber + i);
+        bookings.add(booking);
+      }
+      List<Booking> savedBookings = bookingRepository.saveAll(bookings);
+
+      List<BookingResponseDTO> responses = new ArrayList<>(savedBookings.size());
+      for (Booking savedBooking : savedBookings) {
+        eventPublisher.publishEvent(BookingStatusChangedEvent.created(savedBooking));
+        BookingResponseDTO response = mapToResponse(savedBooking, schedule);
+        emailService.sendBookingConfirmation(response);
+        responses.add(response);
+      }
+      createBookingCounter.increment(responses.size());
+      return responses;
+
+    } catch (BadRequestException | ResourceNotFoundException e) {
+      createBookingErrorCounter.increment(bookingDTOs.size());
+      throw e;
+    } catch (PessimisticLockingFailureException e) {
+      createBookingErrorCounter.increment(bookingDTOs.size());
+      log.warn("Lock acquisition failure while reserving {} slots for schedule {}", bookingDTOs.size(), scheduleId);
+      throw new BadRequestException("System is experiencing high demand. Please try again.");
+    } finally {
+      sample.stop(createBookingTimer);
+    }
+  }
+
   @Override
   public List<BookingResponseDTO> getAllBookings() {
-    List<Booking> bookings = bookingRepository.findAll();
+    List<BookingResponseDTO> bookings = bookingRepository.findAllResponses();
     if (bookings.isEmpty()) {
       throw new ResourceNotFoundException("No bookings found. Please create a booking to view the list.");
     }
+    return bookings;
+  }
+
+  @Override
+  public BookingPageResponse getBookingsPage(BookingSearchCriteria criteria, String cursor, int size) {
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+    }
+    BookingStatus status = parseSearchCriteria(criteria);
+    // Read one extra row to learn whether another page follows without a COUNT query
+    List<BookingResponseDTO> rows = findPage(criteria, status, decodeCursor(cursor), size + 1);
+    boolean hasMore = rows.size() > size;
+    List<BookingResponseDTO> items = hasMore ? rows.subList(0, size) : rows;
+    return BookingPageResponse.builder()
+            .items(items)
+            .hasMore(hasMore)
+            .nextCursor(hasMore ? encodeCursor(items.get(items.size() - 1)) : null)
+            .build();
+  }
+
+  @Override
+  public Stream<BookingResponseDTO> streamBookings(BookingSearchCriteria criteria) {
+    BookingStatus status = parseSearchCriteria(criteria);
+    List<BookingResponseDTO> firstChunk = findPage(criteria, status, null, STREAM_CHUNK_SIZE);
+    return Stream.iterate(firstChunk, chunk -> !chunk.isEmpty(),
+                    chunk -> chunk.size() < STREAM_CHUNK_SIZE
+                            ? List.of()
+                            : findPage(criteria, status, chunk.get(chunk.size() - 1), STREAM_CHUNK_SIZE))
+            .flatMap(List::stream);
+  }
 
-    return bookings.stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+  private List<BookingResponseDTO> findPage(BookingSearchCriteria criteria, BookingStatus status,
+                                            BookingResponseDTO after, int limit) {
+    return bookingRepository.findResponsesPage(
+            status,
+            criteria.getScheduleId(),
+            criteria.getDentistId(),
+            criteria.getFrom(),
+            criteria.getTo(),
+            after != null ? after.getCreatedAt() : null,
+            after != null ? after.getReferenceId() : null,
+            PageRequest.of(0, limit));
+  }
+
+  private BookingStatus parseSearchCriteria(BookingSearchCriteria criteria) {
+    if (criteria.getFrom() != null && criteria.getTo() != null && criteria.getFrom().isAfter(criteria.getTo())) {
+      throw new BadRequestException("Invalid date range. The start date must not be after the end date.");
+    }
+    if (criteria.getStatus() == null || criteria.getStatus().isBlank()) {
+      return null;
+    }
+    try {
+      return BookingStatus.valueOf(criteria.getStatus().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Invalid status. Please select a valid status.");
+    }
+  }
+
+  /**
+   * Cursors are the sort key of the last row returned, {@code createdAt|referenceId}, URL-safe Base64 encoded.
+   */
+  private static String encodeCursor(BookingResponseDTO last) {
+    String key = last.getCreatedAt() + "|" + last.getReferenceId();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static BookingResponseDTO decodeCursor(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = key.indexOf('|');
+      if (separator <= 0 || separator == key.length() - 1) {
+        throw new IllegalArgumentException("Malformed cursor");
+      }
+      return BookingResponseDTO.builder()
+              .createdAt(LocalDateTime.parse(key.substring(0, separator)))
+              .referenceId(key.substring(separator + 1))
+              .build();
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new BadRequestException("Invalid cursor. Please restart from the first page.");
+    }
   }
 
   @Override
   public BookingResponseDTO getBookingByReferenceIdAndContactNumber(String referenceId, String contactNumber) {
-    return bookingRepository.findByReferenceIdAndContactNumber(referenceId, contactNumber)
-            .map(this::mapToResponse)
-            .orElseThrow(() -> new ResourceNotFoundException("Booking not found with reference ID " + referenceId + " and contact number " + contactNumber + ". Please verify the details and try again."));
+    Supplier<ResourceNotFoundException> notFound = () -> new ResourceNotFoundException("Booking not found with reference ID " + referenceId + " and contact number " + contactNumber + ". Please verify the details and try again.");
+    // A current-format ID with a wrong check character is a typo; reject it without a query. Older 8-character IDs
+    // carry no check character and always go to the database.
+    if (referenceId.length() == ReferenceIdGenerator.LENGTH && !ReferenceIdGenerator.isWellFormed(referenceId.toUpperCase())) {
+      throw notFound.get();
+    }
+    return bookingLookupCache.get(referenceId, contactNumber,
+                    () -> bookingRepository.findResponseByReferenceIdAndContactNumber(referenceId, contactNumber))
+            .orElseThrow(notFound);
   }
 
   @Override
@@ -204,15 +352,28 @@ public class BookingServiceImpl implements IBookingService {
   @Override
   @Transactional
   public void deleteBooking(String id) {
-    Optional<Booking> booking = bookingRepository.findById(id);
+    Optional<Booking> booking;
+    try {
+      // A cancellation may be handing this booking's slot on right now
+      booking = bookingRepository.findByIdWithLock(id);
+    } catch (PessimisticLockingFailureException e) {
+      log.warn("Lock acquisition failure while deleting booking {}", id);
+      throw new BadRequestException("System is experiencing high demand. Please try again.");
+    }
     if (booking.isPresent()) {
-      bookingRepository.deleteById(id);
       Schedule schedule = booking.get().getSchedule();
-      schedule.setAvailableSlots(schedule.getAvailableSlots() + 1);
-      if (schedule.getStatus() == ScheduleStatus.FULL) {
-        schedule.setStatus(ScheduleStatus.AVAILABLE);
+      Long scheduleId = schedule.getId();
+      bookingRepository.deleteById(id);
+      eventPublisher.publishEvent(BookingStatusChangedEvent.deleted(booking.get()));
+      if (booking.get().isSlotReleased()) {
+        // Cancelled earlier and its appointment number already went to the waitlist
+        return;
+      }
+      // The next waiting patient takes over the appointment number; only an empty waitlist gives the slot back
+      if (!waitlistService.promoteNext(schedule, booking.get().getAppointmentNumber())) {
+        scheduleRepository.incrementAvailableSlots(scheduleId);
+        TransactionHooks.afterCommit(() -> slotAllocator.release(scheduleId));
       }
-      scheduleRepository.save(schedule);
     } else {
       throw new ResourceNotFoundException("Booking with ID " + id + " does not exist. Unable to delete.");
     }
@@ -225,6 +386,7 @@ public class BookingServiceImpl implements IBookingService {
             .orElseThrow(() -> new ResourceNotFoundException("Booking with ID " + id + " not found. Please check the ID and try again."));
     modelMapper.map(bookingDTO, booking);
     Booking updatedBooking = bookingRepository.save(booking);
+    TransactionHooks.afterCommit(() -> bookingLookupCache.evict(id));
     return mapToResponse(updatedBooking);
   }
 
@@ -239,42 +401,66 @@ public class BookingServiceImpl implements IBookingService {
     } catch (IllegalArgumentException | NullPointerException e) {
       throw new BadRequestException("Invalid status. Please select a valid status.");
     }
+    if (updatedStatus == BookingStatus.CANCELLED) {
+      return cancelBooking(booking);
+    }
+    if (booking.getStatus() == BookingStatus.CANCELLED && booking.isSlotReleased()) {
+      throw new BadRequestException("This booking's appointment has been given to another patient. Please make a new booking.");
+    }
+    BookingStatus previousStatus = booking.getStatus();
     booking.setStatus(updatedStatus);
     Booking updatedBooking = bookingRepository.save(booking);
+    eventPublisher.publishEvent(BookingStatusChangedEvent.changed(updatedBooking, previousStatus));
     return mapToResponse(updatedBooking);
   }
 
+  /**
+   * A cancelled booking keeps its slot, so it is handed straight to the waitlist. The booking is marked once that has
+   * happened, so a later delete does not free the slot a second time.
+   */
+  private BookingResponseDTO cancelBooking(Booking booking) {
+    String id = booking.getReferenceId();
+    BookingStatus previousStatus = booking.getStatus();
+    if (bookingRepository.cancel(id) == 0) {
+      // Already cancelled, possibly by a concurrent request that has handed the slot on
+      return bookingRepository.findById(id).map(this::mapToResponse).orElseThrow(() ->
+              new ResourceNotFoundException("Booking with ID " + id + " not found. Please check the ID and try again."));
+    }
+    booking.setStatus(BookingStatus.CANCELLED);
+    eventPublisher.publishEvent(BookingStatusChangedEvent.changed(booking, previousStatus));
+    if (waitlistService.promoteNext(booking.getSchedule(), booking.getAppointmentNumber())) {
+      bookingRepository.markSlotReleased(id);
+      booking.setSlotReleased(true);
+    }
+    return mapToResponse(booking);
+  }
+
   @Override
   public MonthlyBookingStatsResponse getCurrentMonthBookingStats() {
-    LocalDate now = LocalDate.now();
-    String currentMonth = String.valueOf(now.getMonth());
-    int currentYear = now.getYear();
-
-    List<Booking> currentMonthBookings = bookingRepository.findAll().stream()
-            .filter(booking -> {
-              LocalDate bookingDate = booking.getDate();
-              return Objects.equals(String.valueOf(bookingDate.getMonth()), currentMonth) &&
-                      bookingDate.getYear() == currentYear;
-            })
-            .toList();
+    return toStatsResponse(bookingStatsCache.getMonth(YearMonth.now()));
+  }
 
-    int total = currentMonthBookings.size();
-    int finished = (int) currentMonthBookings.stream()
-            .filter(booking -> booking.getStatus() == BookingStatus.FINISHED)
-            .count();
-    int cancelled = (int) currentMonthBookings.stream()
-            .filter(booking -> booking.getStatus() == BookingStatus.CANCELLED)
-            .count();
-    int pending = (int) currentMonthBookings.stream()
-            .filter(booking -> booking.getStatus() == BookingStatus.PENDING)
-            .count();
+  @Override
+  public List<MonthlyBookingStatsResponse> getMonthlyBookingStats(YearMonth from, YearMonth to) {
+    if (from == null || to == null || from.isAfter(to)) {
+      throw new BadRequestException("Invalid month range. 'from' must not be after 'to'.");
+    }
+    if (ChronoUnit.MONTHS.between(from, to) >= MAX_STATS_MONTHS) {
+      throw new BadRequestException("Month range is too large. Please request at most " + MAX_STATS_MONTHS + " months.");
+    }
+    return bookingStatsCache.getRange(from, to).stream()
+            .map(this::toStatsResponse)
+            .toList();
+  }
 
+  private MonthlyBookingStatsResponse toStatsResponse(BookingStatsCache.MonthSnapshot stats) {
     return MonthlyBookingStatsResponse.builder()
-            .month(currentMonth)
-            .totalBookings(total)
-            .finishedBookings(finished)
-            .cancelledBookings(cancelled)
-            .pendingBookings(pending)
+            .month(String.valueOf(stats.month().getMonth()))
+            .year(stats.month().getYear())
+            .totalBookings((int) stats.total())
+            .finishedBookings((int) stats.count(BookingStatus.FINISHED))
+            .cancelledBookings((int) stats.count(BookingStatus.CANCELLED))
+            .pendingBookings((int) stats.count(BookingStatus.PENDING))
             .build();
   }
 
@@ -311,6 +497,7 @@ public class BookingServiceImpl implements IBookingService {
       patient.setPatientLogs(Collections.emptyList());
 
       patient = patientRepository.save(patient);
+      eventPublisher.publishEvent(new PatientChangedEvent(patient.getId()));
       log.info("Created new patient: ID={}, NIC={}, Name={}", patient.getId(), nic, booking.getName());
     }
 
@@ -331,15 +518,10 @@ public class BookingServiceImpl implements IBookingService {
   }
 
   private BookingResponseDTO mapToResponse(Booking booking) {
-    BookingResponseDTO bookingResponseDTO = modelMapper.map(booking, BookingResponseDTO.class);
-    Long scheduleId = booking.getSchedule().getId();
-    Schedule schedule = getSchedule(scheduleId);
-    bookingResponseDTO.setScheduleDate(schedule.getDate());
-    bookingResponseDTO.setScheduleDayOfWeek(schedule.getDayOfWeek());
-    bookingResponseDTO.setScheduleStartTime(schedule.getStartTime());
-    bookingResponseDTO.setDayOfWeek(schedule.getDayOfWeek());
-    bookingResponseDTO.setDoctorName(schedule.getDentist().getFirstName());
-    bookingResponseDTO.setScheduleStatus(schedule.getStatus());
-    return bookingResponseDTO;
+    return mapToResponse(booking, booking.getSchedule());
+  }
+
+  private BookingResponseDTO mapToResponse(Booking booking, Schedule schedule) {
+    return BookingResponseDTO.from(booking, schedule);
   }
 }
\ No newline at end of file
@@ -9,23 +9,14 @@ import com.uor.eng.payload.auth.ResetPasswordRequest;
 import com.uor.eng.repository.PasswordResetTokenRepository;
 import com.uor.eng.repository.UserRepository;
 import com.uor.eng.service.PasswordResetService;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.uor.eng.util.EmailService;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
@@ -42,16 +33,16 @@ public class PasswordResetServiceImpl implements PasswordResetService {
   private final PasswordResetTokenRepository tokenRepository;
   private final UserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
-  private final JavaMailSender mailSender;
+  private final EmailService emailService;
 
   public PasswordResetServiceImpl(PasswordResetTokenRepository tokenRepository,
                                   UserRepository userRepository,
                                   PasswordEncoder passwordEncoder,
-                                  JavaMailSender mailSender) {
+                                  EmailService emailService) {
     this.tokenRepository = tokenRepository;
     this.userRepository = userRepository;
     this.passwordEncoder = passwordEncoder;
-    this.mailSender = mailSender;
+    this.emailService = emailService;
   }
 
   @Override
@@ -99,46 +90,20 @@ public class PasswordResetServiceImpl implements PasswordResetService {
 
     try {
       sendPasswordResetEmail(user.getEmail(), token);
-      log.info("Password reset email sent to user: {}", user.getEmail());
-    } catch (MailException e) {
-      log.error("Error sending password reset email to user: {}", user.getEmail(), e);
+      log.info("Password reset email queued for user: {}", user.getEmail());
+    } catch (EmailSendingException e) {
+      log.error("Error queueing password reset email to user: {}", user.getEmail(), e);
       throw new EmailSendingException("Failed to send password reset email. Please try again later.");
     } catch (Exception e) {
-      log.error("Unexpected error while sending password reset email to user: {}", user.getEmail(), e);
+      log.error("Unexpected error while queueing password reset email to user: {}", user.getEmail(), e);
       throw new APIException("An unexpected error occurred while sending the email. Please try again later.");
     }
   }
 
 
   public void sendPasswordResetEmail(String toEmail, String token) {
-    log.info("Sending password reset email to: {}", toEmail);
-
-    String resetLink = resetPasswordLink + token;
-
-    try {
-      ClassPathResource templateResource = new ClassPathResource("templates/passwordReset.html");
-      String htmlTemplate = IOUtils.toString(templateResource.getInputStream(), StandardCharsets.UTF_8);
-
-      String htmlContent = htmlTemplate
-              .replace("{{resetLink}}", resetLink)
-              .replace("{{expirationMinutes}}", String.valueOf(EXPIRATION_MINUTES))
-              .replace("{{currentYear}}", String.valueOf(LocalDate.now().getYear()));
-
-      MimeMessage mimeMessage = mailSender.createMimeMessage();
-      MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-      helper.setTo(toEmail);
-      helper.setSubject("Password Reset Request");
-      helper.setText(htmlContent, true);
-
-      mailSender.send(mimeMessage);
-      log.info("Password reset email sent successfully to: {}", toEmail);
-    } catch (IOException e) {
-      log.error("Failed to load email template", e);
-      throw new APIException("Failed to send password reset email");
-    } catch (MessagingException e) {
-      log.error("Failed to send password reset email to: {}", toEmail, e);
-      throw new APIException("Failed to send password reset email");
-    }
+    log.info("Queueing password reset email to: {}", toEmail);
+    emailService.sendPasswordReset(toEmail, resetPasswordLink + token, EXPIRATION_MINUTES);
   }
 
   @Override
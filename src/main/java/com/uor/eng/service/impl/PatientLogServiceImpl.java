@@ -1,5 +1,7 @@
 package com.uor.eng.service.impl;
 
+import com.uor.eng.event.PatientLogChangedEvent;
+import com.uor.eng.exceptions.BadRequestException;
 import com.uor.eng.exceptions.ResourceNotFoundException;
 import com.uor.eng.exceptions.UnauthorizedAccessException;
 import com.uor.eng.model.Dentist;
@@ -12,36 +14,58 @@ import com.uor.eng.repository.PatientLogPhotoRepository;
 import com.uor.eng.repository.PatientLogRepository;
 import com.uor.eng.repository.PatientRepository;
 import com.uor.eng.service.PatientLogService;
+import com.uor.eng.util.PatientLogSearchIndex;
+import com.uor.eng.util.PhotoUrlCache;
 import com.uor.eng.util.S3Service;
 import jakarta.validation.Valid;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class PatientLogServiceImpl implements PatientLogService {
 
+  private static final int MAX_SEARCH_RESULTS = 100;
+  private static final int MAX_PAGE_SIZE = 100;
+
   private final PatientRepository patientRepository;
   private final PatientLogRepository patientLogRepository;
   private final PatientLogPhotoRepository patientLogPhotoRepository;
   private final DentistRepository dentistRepository;
   private final S3Service s3Service;
+  private final PhotoUrlCache photoUrls;
+  private final PatientLogSearchIndex searchIndex;
+  private final ApplicationEventPublisher eventPublisher;
 
   public PatientLogServiceImpl(PatientRepository patientRepository,
                                PatientLogRepository patientLogRepository,
                                PatientLogPhotoRepository patientLogPhotoRepository,
                                DentistRepository dentistRepository,
-                               S3Service s3Service) {
+                               S3Service s3Service,
+                               PhotoUrlCache photoUrls,
+                               PatientLogSearchIndex searchIndex,
+                               ApplicationEventPublisher eventPublisher) {
     this.patientRepository = patientRepository;
     this.patientLogRepository = patientLogRepository;
     this.patientLogPhotoRepository = patientLogPhotoRepository;
     this.dentistRepository = dentistRepository;
     this.s3Service = s3Service;
+    this.photoUrls = photoUrls;
+    this.searchIndex = searchIndex;
+    this.eventPublisher = eventPublisher;
   }
 
   @Transactional
@@ -60,6 +84,7 @@ public class PatientLogServiceImpl implements PatientLogService {
     patientLog.setDescription(request.getDescription());
     patientLog.setTimestamp(LocalDateTime.now());
     patientLog = patientLogRepository.save(patientLog);
+    eventPublisher.publishEvent(new PatientLogChangedEvent(patientLog.getId()));
     return mapToResponse(patientLog);
   }
 
@@ -76,6 +101,122 @@ public class PatientLogServiceImpl implements PatientLogService {
             .collect(Collectors.toList());
   }
 
+  @Override
+  @Transactional(readOnly = true)
+  public PatientLogPageResponse getPatientLogTimeline(Long patientId, String cursor, int size, boolean includePhotos) {
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+    }
+    PatientLog after = decodeCursor(cursor);
+    if (!patientRepository.existsById(patientId)) {
+      throw new ResourceNotFoundException("Patient not found with id: " + patientId);
+    }
+    // Read one extra row to learn whether another page follows without a COUNT query
+    List<PatientLog> rows = patientLogRepository.findTimelinePage(
+            patientId,
+            after != null ? after.getTimestamp() : null,
+            after != null ? after.getId() : null,
+            PageRequest.of(0, size + 1));
+    boolean hasMore = rows.size() > size;
+    List<PatientLog> logs = hasMore ? rows.subList(0, size) : rows;
+    List<PatientLogResponse> items = includePhotos
+            ? logs.stream().map(this::mapToResponse).toList()
+            : mapToTimelineResponses(logs);
+    return PatientLogPageResponse.builder()
+            .items(items)
+            .hasMore(hasMore)
+            .nextCursor(hasMore ? encodeCursor(logs.get(logs.size() - 1)) : null)
+            .build();
+  }
+
+  /**
+   * Maps logs without their photo lists: one query reads every log's photo count and first photo key.
+   */
+  private List<PatientLogResponse> mapToTimelineResponses(List<PatientLog> logs) {
+    if (logs.isEmpty()) {
+      return List.of();
+    }
+    Map<Long, PatientLogPhotoSummary> photos = patientLogPhotoRepository
+            .findSummariesByPatientLogIdIn(logs.stream().map(PatientLog::getId).toList()).stream()
+            .collect(Collectors.toMap(PatientLogPhotoSummary::getLogId, Function.identity()));
+    return logs.stream()
+            .map(log -> {
+              PatientLogPhotoSummary summary = photos.get(log.getId());
+              return PatientLogResponse.builder()
+                      .id(log.getId())
+                      .actionType(log.getActionType())
+                      .description(log.getDescription())
+                      .timestamp(log.getTimestamp())
+                      .dentistName(log.getDentist().getFirstName())
+                      .photoCount(summary != null ? summary.getPhotoCount().intValue() : 0)
+                      .coverPhotoUrl(summary != null ? photoUrls.getUrl(summary.getCoverS3Key()) : null)
+                      .build();
+            })
+            .toList();
+  }
+
+  /**
+   * Cursors are the sort key of the last log returned, {@code timestamp|id}, URL-safe Base64 encoded.
+   */
+  private static String encodeCursor(PatientLog last) {
+    String key = last.getTimestamp() + "|" + last.getId();
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static PatientLog decodeCursor(String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return null;
+    }
+    try {
+      String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = key.indexOf('|');
+      if (separator <= 0 || separator == key.length() - 1) {
+        throw new IllegalArgumentException("Malformed cursor");
+      }
+      return PatientLog.builder()
+              .timestamp(LocalDateTime.parse(key.substring(0, separator)))
+              .id(Long.parseLong(key.substring(separator + 1)))
+              .build();
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new BadRequestException("Invalid cursor. Please restart from the first page.");
+    }
+  }
+
+  /**
+   * Finds the matching log IDs in {@link PatientLogSearchIndex} and loads only the page of logs returned.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public PatientLogSearchResponse searchPatientLogs(String query, Long patientId, Long dentistId, int limit) {
+    if (query == null || query.isBlank()) {
+      throw new BadRequestException("Search text is required.");
+    }
+    if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+      throw new BadRequestException("Result limit must be between 1 and " + MAX_SEARCH_RESULTS + ".");
+    }
+    PatientLogSearchIndex.Hits hits = searchIndex.search(query, patientId, dentistId, limit);
+    if (hits.logIds().isEmpty()) {
+      return PatientLogSearchResponse.builder().total(hits.total()).items(List.of()).build();
+    }
+    Map<Long, PatientLog> logs = patientLogRepository.findWithDentistByIdIn(hits.logIds()).stream()
+            .collect(Collectors.toMap(PatientLog::getId, Function.identity()));
+    // Keep the index's order; a log deleted since the index saw it is left out
+    List<PatientLogSearchHit> items = hits.logIds().stream()
+            .map(logs::get)
+            .filter(Objects::nonNull)
+            .map(log -> PatientLogSearchHit.builder()
+                    .id(log.getId())
+                    .patientId(log.getPatient().getId())
+                    .dentistId(log.getDentist().getUserId())
+                    .dentistName(log.getDentist().getFirstName())
+                    .actionType(log.getActionType())
+                    .description(log.getDescription())
+                    .timestamp(log.getTimestamp())
+                    .build())
+            .toList();
+    return PatientLogSearchResponse.builder().total(hits.total()).items(items).build();
+  }
+
   @Override
   @Transactional
   public PatientLogResponse getPatientLog(Long patientId, Long logId) {
@@ -101,10 +242,12 @@ public class PatientLogServiceImpl implements PatientLogService {
     List<PatientLogPhoto> photos = patientLogPhotoRepository.findByPatientLogId(patientLog.getId());
     for (PatientLogPhoto photo : photos) {
       s3Service.deleteFile(photo.getS3Key());
+      photoUrls.evict(photo.getS3Key());
     }
 
     patientLogPhotoRepository.deleteAll(photos);
     patientLogRepository.delete(patientLog);
+    eventPublisher.publishEvent(new PatientLogChangedEvent(logId));
   }
 
   @Override
@@ -127,6 +270,7 @@ public class PatientLogServiceImpl implements PatientLogService {
         if (photoOpt.isPresent() && photoOpt.get().getPatientLog().getId().equals(logId)) {
           PatientLogPhoto photo = photoOpt.get();
           s3Service.deleteFile(photo.getS3Key());
+          photoUrls.evict(photo.getS3Key());
           patientLogPhotoRepository.delete(photo);
         } else {
           throw new ResourceNotFoundException("Photo not found with id: " + photoId);
@@ -147,6 +291,7 @@ public class PatientLogServiceImpl implements PatientLogService {
 
     log.setTimestamp(LocalDateTime.now());
     patientLogRepository.save(log);
+    eventPublisher.publishEvent(new PatientLogChangedEvent(logId));
 
     // Return a fresh response with all the updated data
     return mapToResponse(log);
@@ -155,7 +300,7 @@ public class PatientLogServiceImpl implements PatientLogService {
   private PatientLogPhotoResponse mapToPhotoResponse(PatientLogPhoto photo) {
     PatientLogPhotoResponse response = new PatientLogPhotoResponse();
     response.setId(photo.getId());
-    response.setUrl(s3Service.getFileUrl(photo.getS3Key()));
+    response.setUrl(photoUrls.getUrl(photo.getS3Key()));
     response.setDescription(photo.getDescription());
     response.setTimestamp(photo.getTimestamp());
     return response;
@@ -193,7 +338,7 @@ public class PatientLogServiceImpl implements PatientLogService {
 
       PatientLogPhotoResponse response = new PatientLogPhotoResponse();
       response.setId(photo.getId());
-      response.setUrl(s3Service.getFileUrl(s3Key));
+      response.setUrl(photoUrls.getUrl(s3Key));
       response.setDescription(photo.getDescription());
       response.setTimestamp(photo.getTimestamp());
 
@@ -202,6 +347,7 @@ public class PatientLogServiceImpl implements PatientLogService {
 
     patientLog.setTimestamp(LocalDateTime.now());
     patientLogRepository.save(patientLog);
+    eventPublisher.publishEvent(new PatientLogChangedEvent(logId));
 
     return photoResponses;
   }
@@ -238,9 +384,11 @@ public class PatientLogServiceImpl implements PatientLogService {
     }
 
     s3Service.deleteFile(photo.getS3Key());
+    photoUrls.evict(photo.getS3Key());
     patientLogPhotoRepository.delete(photo);
     patientLog.setTimestamp(LocalDateTime.now());
     patientLogRepository.save(patientLog);
+    eventPublisher.publishEvent(new PatientLogChangedEvent(logId));
   }
 
   private PatientLogResponse mapToResponse(PatientLog log) {
@@ -256,12 +404,13 @@ public class PatientLogServiceImpl implements PatientLogService {
       for (PatientLogPhoto photo : log.getPatientLogPhotos()) {
         PatientLogPhotoResponse photoResponse = new PatientLogPhotoResponse();
         photoResponse.setId(photo.getId());
-        photoResponse.setUrl(s3Service.getFileUrl(photo.getS3Key()));
+        photoResponse.setUrl(photoUrls.getUrl(photo.getS3Key()));
         photoResponse.setDescription(photo.getDescription());
         photoResponse.setTimestamp(photo.getTimestamp());
         photoResponses.add(photoResponse);
       }
     }
+    response.setPhotoCount(photoResponses.size());
     response.setPhotos(photoResponses);
     return response;
   }
@@ -1,6 +1,7 @@
 package com.uor.eng.service.impl;
 
 import com.uor.eng.exceptions.BadRequestException;
+import com.uor.eng.event.PatientChangedEvent;
 import com.uor.eng.exceptions.ResourceNotFoundException;
 import com.uor.eng.model.Patient;
 import com.uor.eng.model.PatientLog;
@@ -8,12 +9,18 @@ import com.uor.eng.model.PatientLogPhoto;
 import com.uor.eng.payload.patient.CreatePatientRequest;
 import com.uor.eng.payload.patient.logs.PatientLogPhotoResponse;
 import com.uor.eng.payload.patient.logs.PatientLogResponse;
+import com.uor.eng.payload.patient.PatientPageResponse;
 import com.uor.eng.payload.patient.PatientResponse;
+import com.uor.eng.payload.patient.PatientSummaryResponse;
 import com.uor.eng.repository.PatientRepository;
 import com.uor.eng.service.IPatientService;
-import com.uor.eng.util.S3Service;
+import com.uor.eng.util.PatientSearchIndex;
+import com.uor.eng.util.PhotoUrlCache;
 import org.modelmapper.ModelMapper;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,16 +32,25 @@ import java.util.stream.Collectors;
 @Service
 public class PatientServiceImpl implements IPatientService {
 
+  private static final int MAX_PAGE_SIZE = 100;
+  private static final int MAX_SEARCH_RESULTS = 50;
+
   private final ModelMapper modelMapper;
   private final PatientRepository patientRepository;
-  private final S3Service s3Service;
+  private final PhotoUrlCache photoUrls;
+  private final PatientSearchIndex searchIndex;
+  private final ApplicationEventPublisher eventPublisher;
 
   public PatientServiceImpl(ModelMapper modelMapper,
                             PatientRepository patientRepository,
-                            S3Service s3Service) {
+                            PhotoUrlCache photoUrls,
+                            PatientSearchIndex searchIndex,
+                            ApplicationEventPublisher eventPublisher) {
     this.modelMapper = modelMapper;
     this.patientRepository = patientRepository;
-    this.s3Service = s3Service;
+    this.photoUrls = photoUrls;
+    this.searchIndex = searchIndex;
+    this.eventPublisher = eventPublisher;
   }
 
   @Override
@@ -54,6 +70,7 @@ public class PatientServiceImpl implements IPatientService {
     patient.setContactNumbers(request.getContactNumbers());
 
     Patient savedPatient = patientRepository.save(patient);
+    eventPublisher.publishEvent(new PatientChangedEvent(savedPatient.getId()));
 
     return mapToResponse(savedPatient);
   }
@@ -67,10 +84,46 @@ public class PatientServiceImpl implements IPatientService {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Costs three queries whatever the page size: the page, its count and one batch for the contact numbers.
+   */
+  @Transactional(readOnly = true)
+  @Override
+  public PatientPageResponse getPatientSummaries(int page, int size) {
+    if (page < 0) {
+      throw new BadRequestException("Page number cannot be negative.");
+    }
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+    }
+    Page<Patient> patients = patientRepository.findAll(PageRequest.of(page, size, Sort.by("id")));
+    return PatientPageResponse.builder()
+        .items(patients.stream().map(this::mapToSummary).collect(Collectors.toList()))
+        .page(page)
+        .size(size)
+        .totalElements(patients.getTotalElements())
+        .totalPages(patients.getTotalPages())
+        .build();
+  }
+
+  /**
+   * Served from {@link PatientSearchIndex} without touching the database.
+   */
+  @Override
+  public List<PatientSummaryResponse> searchPatients(String query, int limit) {
+    if (query == null || query.isBlank()) {
+      throw new BadRequestException("Search text is required.");
+    }
+    if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+      throw new BadRequestException("Result limit must be between 1 and " + MAX_SEARCH_RESULTS + ".");
+    }
+    return searchIndex.search(query, limit);
+  }
+
   @Transactional(readOnly = true)
   @Override
   public PatientResponse getPatientById(Long patientId) {
-    Patient patient = patientRepository.findById(patientId)
+    Patient patient = patientRepository.findDetailedById(patientId)
         .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + patientId));
     return mapToResponse(patient);
   }
@@ -106,6 +159,7 @@ public class PatientServiceImpl implements IPatientService {
     }
 
     Patient updatedPatient = patientRepository.save(patient);
+    eventPublisher.publishEvent(new PatientChangedEvent(patientId));
     return mapToResponse(updatedPatient);
   }
 
@@ -116,6 +170,17 @@ public class PatientServiceImpl implements IPatientService {
         .orElseThrow(() -> new ResourceNotFoundException("Patient not found with id: " + patientId));
 
     patientRepository.delete(patient);
+    eventPublisher.publishEvent(new PatientChangedEvent(patientId));
+  }
+
+  private PatientSummaryResponse mapToSummary(Patient patient) {
+    return PatientSummaryResponse.builder()
+        .id(patient.getId())
+        .name(patient.getName())
+        .email(patient.getEmail())
+        .nic(patient.getNic())
+        .contactNumbers(new ArrayList<>(patient.getContactNumbers()))
+        .build();
   }
 
   private PatientResponse mapToResponse(Patient patient) {
@@ -134,7 +199,7 @@ public class PatientServiceImpl implements IPatientService {
           for (PatientLogPhoto photo : photos) {
             PatientLogPhotoResponse photoResponse = new PatientLogPhotoResponse();
             photoResponse.setId(photo.getId());
-            photoResponse.setUrl(s3Service.getFileUrl(photo.getS3Key()));
+            photoResponse.setUrl(photoUrls.getUrl(photo.getS3Key()));
             photoResponse.setDescription(photo.getDescription());
             photoResponse.setTimestamp(photo.getTimestamp());
             photoResponses.add(photoResponse);
@@ -1,60 +1,138 @@
 package com.uor.eng.service.impl;
 
+import com.uor.eng.event.BookingStatusChangedEvent;
+import com.uor.eng.event.ScheduleChangedEvent;
+import com.uor.eng.event.ScheduleMovedEvent;
+import com.uor.eng.event.SchedulesCreatedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
 import com.uor.eng.exceptions.BadRequestException;
+import com.uor.eng.exceptions.EmailSendingException;
 import com.uor.eng.exceptions.ResourceNotFoundException;
 import com.uor.eng.model.*;
 import com.uor.eng.payload.booking.BookingResponseDTO;
 import com.uor.eng.payload.dashboard.CancelledScheduleResponse;
+import com.uor.eng.payload.dashboard.DailyBookingTotals;
 import com.uor.eng.payload.dashboard.ScheduleHistoryResponse;
 import com.uor.eng.payload.dashboard.UpcomingScheduleResponse;
+import com.uor.eng.payload.schedule.CreateRecurringSchedulesDTO;
 import com.uor.eng.payload.schedule.CreateScheduleDTO;
+import com.uor.eng.payload.schedule.FreeSlotResponse;
+import com.uor.eng.payload.schedule.RecurringSchedulesResponse;
+import com.uor.eng.payload.schedule.ScheduleBookingCount;
 import com.uor.eng.payload.schedule.ScheduleGetSevenCustomResponse;
 import com.uor.eng.payload.schedule.ScheduleResponseDTO;
+import com.uor.eng.repository.AppointmentReminderRepository;
 import com.uor.eng.repository.BookingRepository;
+import com.uor.eng.repository.DailyBookingStatsRepository;
 import com.uor.eng.repository.DentistRepository;
+import com.uor.eng.repository.ScheduleBatchRepository;
 import com.uor.eng.repository.ScheduleRepository;
 import com.uor.eng.service.IScheduleService;
+import com.uor.eng.util.DentistScheduleIndex;
 import com.uor.eng.util.EmailService;
+import com.uor.eng.util.JobLockManager;
+import com.uor.eng.util.ScheduleSlotAllocator;
+import com.uor.eng.util.TransactionHooks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class ScheduleServiceImpl implements IScheduleService {
 
+  // Keeps the IN list of the grouped booking count well inside database parameter limits
+  private static final int COUNT_BATCH_SIZE = 1000;
+  private static final int DEFAULT_HISTORY_DAYS = 90;
+  private static final int MAX_HISTORY_DAYS = 3660;
+  private static final int DEFAULT_FREE_SLOT_DAYS = 7;
+  private static final int MAX_FREE_SLOT_DAYS = 92;
+  private static final int DEFAULT_FREE_SLOT_MINUTES = 30;
+  private static final int MAX_RECURRENCE_DAYS = 366;
+
   private final ScheduleRepository scheduleRepository;
   private final ModelMapper modelMapper;
   private final DentistRepository dentistRepository;
   private final EmailService emailService;
   private final BookingRepository bookingRepository;
+  private final AppointmentReminderRepository reminderRepository;
+  private final DailyBookingStatsRepository dailyStatsRepository;
+  private final ScheduleBatchRepository scheduleBatchRepository;
+  private final ScheduleSlotAllocator slotAllocator;
+  private final DentistScheduleIndex scheduleIndex;
+  private final ApplicationEventPublisher eventPublisher;
+  private final JobLockManager jobLocks;
+  private final MeterRegistry meterRegistry;
+  private final TransactionTemplate transactionTemplate;
+  private final int jobChunkSize;
 
   public ScheduleServiceImpl(ScheduleRepository scheduleRepository,
                              ModelMapper modelMapper,
                              DentistRepository dentistRepository,
                              EmailService emailService,
-                             BookingRepository bookingRepository) {
+                             BookingRepository bookingRepository,
+                             AppointmentReminderRepository reminderRepository,
+                             DailyBookingStatsRepository dailyStatsRepository,
+                             ScheduleBatchRepository scheduleBatchRepository,
+                             ScheduleSlotAllocator slotAllocator,
+                             DentistScheduleIndex scheduleIndex,
+                             ApplicationEventPublisher eventPublisher,
+                             JobLockManager jobLocks,
+                             MeterRegistry meterRegistry,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.schedule.jobs.chunk-size:500}") int jobChunkSize) {
     this.scheduleRepository = scheduleRepository;
     this.modelMapper = modelMapper;
     this.dentistRepository = dentistRepository;
     this.emailService = emailService;
     this.bookingRepository = bookingRepository;
+    this.reminderRepository = reminderRepository;
+    this.dailyStatsRepository = dailyStatsRepository;
+    this.scheduleBatchRepository = scheduleBatchRepository;
+    this.slotAllocator = slotAllocator;
+    this.scheduleIndex = scheduleIndex;
+    this.eventPublisher = eventPublisher;
+    this.jobLocks = jobLocks;
+    this.meterRegistry = meterRegistry;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.jobChunkSize = jobChunkSize;
   }
 
   @Override
-  @Transactional
+  @Transactional(isolation = Isolation.READ_COMMITTED)
   public ScheduleResponseDTO createSchedule(CreateScheduleDTO scheduleDTO) {
     if (scheduleDTO == null) {
       throw new BadRequestException("Schedule data cannot be null.");
@@ -65,12 +143,10 @@ public class ScheduleServiceImpl implements IScheduleService {
       throw new BadRequestException("Schedule date cannot be null.");
     }
 
-    String dayOfWeek = date.getDayOfWeek().toString();
-    dayOfWeek = dayOfWeek.charAt(0) + dayOfWeek.substring(1).toLowerCase();
+    String dayOfWeek = dayName(date);
 
     Long dentistId = scheduleDTO.getDentistId();
-    Dentist dentist = dentistRepository.findById(dentistId)
-            .orElseThrow(() -> new BadRequestException("Dentist with ID " + dentistId + " not found."));
+    Dentist dentist = lockDentist(dentistId);
 
     ScheduleStatus status;
     try {
@@ -85,6 +161,8 @@ public class ScheduleServiceImpl implements IScheduleService {
               ". Allowed statuses: AVAILABLE, UNAVAILABLE");
     }
 
+    ensureNoOverlap(dentistId, date, scheduleDTO.getStartTime(), scheduleDTO.getEndTime(), null);
+
     Schedule schedule = new Schedule();
     schedule.setDate(date);
     schedule.setDayOfWeek(dayOfWeek);
@@ -96,12 +174,114 @@ public class ScheduleServiceImpl implements IScheduleService {
     schedule.setAvailableSlots(scheduleDTO.getCapacity());
 
     Schedule savedSchedule = scheduleRepository.save(schedule);
-    ScheduleResponseDTO responseDTO = modelMapper.map(savedSchedule, ScheduleResponseDTO.class);
+    scheduleChanged(savedSchedule.getId());
+    return ScheduleResponseDTO.from(savedSchedule, 0);
+  }
 
-    responseDTO.setDentistId(dentist.getUserId());
-    responseDTO.setNumberOfBookings(savedSchedule.getBookings() != null ? savedSchedule.getBookings().size() : 0);
+  @Override
+  @Transactional(isolation = Isolation.READ_COMMITTED)
+  public RecurringSchedulesResponse createRecurringSchedules(CreateRecurringSchedulesDTO recurrence) {
+    if (recurrence == null) {
+      throw new BadRequestException("Recurrence data cannot be null.");
+    }
+    Set<DayOfWeek> days = recurrence.getDaysOfWeek();
+    if (days == null || days.isEmpty()) {
+      throw new BadRequestException("At least one day of the week is required.");
+    }
+    LocalDate startDate = recurrence.getStartDate();
+    if (startDate == null) {
+      throw new BadRequestException("Start date cannot be null.");
+    }
+    if (startDate.isBefore(LocalDate.now())) {
+      throw new BadRequestException("Recurring schedules cannot start in the past.");
+    }
+    LocalDate endDate = recurrence.getEndDate();
+    if (endDate == null && recurrence.getWeeks() != null && recurrence.getWeeks() > 0) {
+      endDate = startDate.plusWeeks(recurrence.getWeeks()).minusDays(1);
+    }
+    if (endDate == null || endDate.isBefore(startDate)) {
+      throw new BadRequestException("A recurrence needs an end date on or after its start date, or a number of weeks.");
+    }
+    if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_RECURRENCE_DAYS) {
+      throw new BadRequestException("Recurrence is too long. Please request at most " + MAX_RECURRENCE_DAYS + " days.");
+    }
+    LocalTime startTime = recurrence.getStartTime();
+    LocalTime endTime = recurrence.getEndTime();
+    if (startTime == null || endTime == null || !startTime.isBefore(endTime)) {
+      throw new BadRequestException("Schedule start time must be before its end time.");
+    }
+    Integer capacity = recurrence.getCapacity();
+    if (capacity == null || capacity < 1) {
+      throw new BadRequestException("Capacity must be at least 1.");
+    }
+    ScheduleStatus status;
+    try {
+      status = recurrence.getStatus() == null ? ScheduleStatus.AVAILABLE
+              : ScheduleStatus.valueOf(recurrence.getStatus().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Invalid schedule status: " + recurrence.getStatus() +
+              ". Allowed statuses: AVAILABLE, UNAVAILABLE");
+    }
+    if (status != ScheduleStatus.AVAILABLE && status != ScheduleStatus.UNAVAILABLE) {
+      throw new BadRequestException("Cannot create a schedule with status " + status +
+              ". Allowed statuses: AVAILABLE, UNAVAILABLE");
+    }
+
+    Long dentistId = recurrence.getDentistId();
+    Dentist dentist = lockDentist(dentistId);
+
+    List<LocalDate> dates = startDate.datesUntil(endDate.plusDays(1))
+            .filter(date -> days.contains(date.getDayOfWeek()))
+            .toList();
+    if (dates.isEmpty()) {
+      throw new BadRequestException("No dates between " + startDate + " and " + endDate +
+              " fall on the given days of the week.");
+    }
 
-    return responseDTO;
+    // One range query covers schedules this node's index has not seen yet
+    Set<LocalDate> conflicts = new HashSet<>(scheduleRepository.findOverlappingDates(
+            dentistId, startDate, endDate, startTime, endTime, ScheduleStatus.CANCELLED));
+    dates.stream()
+            .filter(date -> scheduleIndex.findConflict(dentistId, date, startTime, endTime, null).isPresent())
+            .forEach(conflicts::add);
+    List<LocalDate> skipped = dates.stream().filter(conflicts::contains).toList();
+    if (!skipped.isEmpty() && !recurrence.isSkipConflicts()) {
+      throw new BadRequestException("Dentist with ID " + dentistId + " already has a schedule between " + startTime +
+              " and " + endTime + " on " + skipped + ".");
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    long duration = Duration.between(startTime, endTime).toMinutes();
+    List<Schedule> schedules = dates.stream()
+            .filter(date -> !conflicts.contains(date))
+            .map(date -> Schedule.builder()
+                    .date(date)
+                    .dayOfWeek(dayName(date))
+                    .status(status)
+                    .startTime(startTime)
+                    .endTime(endTime)
+                    .duration(duration)
+                    .createdAt(now)
+                    .capacity(capacity)
+                    .availableSlots(capacity)
+                    .dentist(dentist)
+                    .build())
+            .toList();
+
+    int created = schedules.isEmpty() ? 0 : scheduleBatchRepository.insertAll(schedules);
+    if (created > 0) {
+      eventPublisher.publishEvent(new SchedulesCreatedEvent(dentistId, startDate, endDate));
+    }
+    log.info("Created {} recurring schedules for dentist {} from {} to {}, skipped {}",
+            created, dentistId, startDate, endDate, skipped.size());
+
+    return RecurringSchedulesResponse.builder()
+            .dentistId(dentistId)
+            .createdCount(created)
+            .firstDate(schedules.isEmpty() ? null : schedules.get(0).getDate())
+            .lastDate(schedules.isEmpty() ? null : schedules.get(schedules.size() - 1).getDate())
+            .skippedDates(skipped)
+            .build();
   }
 
   @Override
@@ -110,11 +290,7 @@ public class ScheduleServiceImpl implements IScheduleService {
     if (schedules.isEmpty()) {
       throw new ResourceNotFoundException("No schedules found.");
     }
-    return schedules.stream().map(schedule -> {
-      ScheduleResponseDTO scheduleDTO = modelMapper.map(schedule, ScheduleResponseDTO.class);
-      scheduleDTO.setNumberOfBookings(schedule.getBookings() != null ? schedule.getBookings().size() : 0);
-      return scheduleDTO;
-    }).collect(Collectors.toList());
+    return toResponses(schedules);
   }
 
   @Override
@@ -127,17 +303,18 @@ public class ScheduleServiceImpl implements IScheduleService {
   @Override
   @Transactional
   public void deleteSchedule(Long id) {
-    Schedule schedule = scheduleRepository.findById(id)
+    scheduleRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Schedule with ID " + id + " not found."));
-    if (schedule.getBookings() != null && !schedule.getBookings().isEmpty()) {
+    if (bookingRepository.existsByScheduleId(id)) {
       throw new BadRequestException("Cannot delete schedule with ID " + id + " because it has bookings.");
     } else {
       scheduleRepository.deleteById(id);
+      scheduleChanged(id);
     }
   }
 
   @Override
-  @Transactional
+  @Transactional(isolation = Isolation.READ_COMMITTED)
   public ScheduleResponseDTO updateSchedule(Long id, CreateScheduleDTO scheduleDTO) {
     Schedule schedule = scheduleRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Schedule with ID " + id + " not found."));
@@ -157,6 +334,11 @@ public class ScheduleServiceImpl implements IScheduleService {
     // Check if the status transition is allowed
     validateStatusTransition(currentStatus, requestedStatus);
 
+    LocalDate previousDate = schedule.getDate();
+    LocalTime previousStartTime = schedule.getStartTime();
+    LocalTime previousEndTime = schedule.getEndTime();
+    Long previousDentistId = schedule.getDentist() != null ? schedule.getDentist().getUserId() : null;
+
     // Update date if provided
     LocalDate date = scheduleDTO.getDate();
     if (date != null) {
@@ -183,10 +365,26 @@ public class ScheduleServiceImpl implements IScheduleService {
       schedule.setDentist(dentist);
     }
 
+    // Only a moved or reassigned schedule can collide with the dentist's other schedules
+    boolean moved = !Objects.equals(previousDate, schedule.getDate())
+            || !Objects.equals(previousStartTime, schedule.getStartTime())
+            || !Objects.equals(previousEndTime, schedule.getEndTime())
+            || !Objects.equals(previousDentistId, schedule.getDentist().getUserId());
+    if (requestedStatus != ScheduleStatus.CANCELLED && moved) {
+      lockDentist(schedule.getDentist().getUserId());
+      ensureNoOverlap(schedule.getDentist().getUserId(), schedule.getDate(), schedule.getStartTime(),
+              schedule.getEndTime(), id);
+    }
+
     Schedule updatedSchedule = scheduleRepository.save(schedule);
-    ScheduleResponseDTO responseDTO = modelMapper.map(updatedSchedule, ScheduleResponseDTO.class);
-    responseDTO.setNumberOfBookings(updatedSchedule.getBookings() != null ? updatedSchedule.getBookings().size() : 0);
-    return responseDTO;
+    scheduleChanged(id);
+    Long dentistId = updatedSchedule.getDentist() != null ? updatedSchedule.getDentist().getUserId() : null;
+    if ((!Objects.equals(previousDate, updatedSchedule.getDate()) || !Objects.equals(previousDentistId, dentistId))
+            && bookingRepository.existsByScheduleId(id)) {
+      // Its bookings now count towards another day or dentist in the daily rollup
+      eventPublisher.publishEvent(new ScheduleMovedEvent(id, previousDate, updatedSchedule.getDate()));
+    }
+    return toResponses(List.of(updatedSchedule)).get(0);
   }
 
   private void validateStatusTransition(ScheduleStatus currentStatus, ScheduleStatus requestedStatus) {
@@ -211,6 +409,7 @@ public class ScheduleServiceImpl implements IScheduleService {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public List<ScheduleResponseDTO> getNextSevenSchedules() {
     LocalDate today = LocalDate.now();
     List<Schedule> schedules = scheduleRepository.findTop7ByDateGreaterThanAndStatusOrderByDateAsc(
@@ -219,11 +418,7 @@ public class ScheduleServiceImpl implements IScheduleService {
     if (schedules.isEmpty()) {
       throw new ResourceNotFoundException("No schedules found for the next 7 days.");
     }
-    return schedules.stream().map(schedule -> {
-      ScheduleResponseDTO scheduleDTO = modelMapper.map(schedule, ScheduleResponseDTO.class);
-      scheduleDTO.setNumberOfBookings(schedule.getBookings() != null ? schedule.getBookings().size() : 0);
-      return scheduleDTO;
-    }).collect(Collectors.toList());
+    return toResponses(schedules);
   }
 
   @Override
@@ -247,132 +442,192 @@ public class ScheduleServiceImpl implements IScheduleService {
   }
 
   @Override
-  @Transactional
   public void updateExpiredSchedules() {
     LocalDate today = LocalDate.now();
     LocalTime nowTime = LocalTime.now();
-    List<ScheduleStatus> excludedStatuses = List.of(
-            ScheduleStatus.ON_GOING,
-            ScheduleStatus.FULL,
-            ScheduleStatus.FINISHED,
-            ScheduleStatus.CANCELLED
-    );
 
     log.info("Updating expired schedules for date: {} and time: {}", today, nowTime);
-    List<Schedule> expiredSchedules = scheduleRepository.findSchedulesToFinish(today, nowTime, excludedStatuses);
+    int finished = transitionInChunks("finish-expired",
+            page -> scheduleRepository.findIdsToFinish(today, nowTime, ScheduleStatus.FINISHABLE, page),
+            ScheduleStatus.FINISHABLE, ScheduleStatus.FINISHED, BookingStatus.FINISHED, null);
 
-    if (!expiredSchedules.isEmpty()) {
-      for (Schedule schedule : expiredSchedules) {
-        processExpiredSchedule(schedule);
-      }
-      scheduleRepository.saveAll(expiredSchedules);
-      log.info("Updated {} schedules to FINISHED", expiredSchedules.size());
+    if (finished > 0) {
+      log.info("Updated {} schedules to FINISHED", finished);
     } else {
       log.debug("No schedules to update at this time.");
     }
   }
 
   @Override
-  @Transactional
   public void initialUpdaterScheduleOnStartup() {
     LocalDate today = LocalDate.now();
     LocalTime nowTime = LocalTime.now();
 
-    // Find schedules that are still AVAILABLE but should be cancelled
-    List<Schedule> schedules = scheduleRepository.findByDate(today);
-    List<Schedule> expiredSchedules = schedules.stream()
-            .filter(schedule -> schedule.getStatus() == ScheduleStatus.AVAILABLE && schedule.getStartTime().isBefore(nowTime))
-            .toList();
+    // Schedules of today that are still AVAILABLE although they have already started were missed while we were down
+    List<ScheduleStatus> missable = List.of(ScheduleStatus.AVAILABLE);
+    int cancelled = transitionInChunks("cancel-missed",
+            page -> scheduleRepository.findIdsStartedBy(today, nowTime, missable, page),
+            missable, ScheduleStatus.CANCELLED, BookingStatus.CANCELLED, this::sendCancellations);
 
-    log.info("Found {} expired schedules that need to be cancelled", expiredSchedules.size());
-
-    if (!expiredSchedules.isEmpty()) {
-      for (Schedule schedule : expiredSchedules) {
-        log.info("Cancelling expired schedule ID: {}, scheduled for {} at {}",
-                schedule.getId(), schedule.getDate(), schedule.getStartTime());
-
-        schedule.setStatus(ScheduleStatus.CANCELLED);
-
-        // Update any associated bookings
-        if (schedule.getBookings() != null && !schedule.getBookings().isEmpty()) {
-          for (Booking booking : schedule.getBookings()) {
-            booking.setStatus(BookingStatus.CANCELLED);
-            bookingRepository.save(booking);
-            try {
-              BookingResponseDTO bookingResponseDTO = mapToResponse(booking);
-              emailService.sendBookingCancellation(bookingResponseDTO);
-              log.info("Sent cancellation email for booking ID: {}", booking.getReferenceId());
-            } catch (Exception e) {
-              log.error("Failed to send cancellation email for booking ID: {}", booking.getReferenceId(), e);
-            }
-          }
-        }
-        scheduleRepository.save(schedule);
-      }
-      log.info("Successfully cancelled {} expired schedules", expiredSchedules.size());
+    if (cancelled > 0) {
+      log.info("Successfully cancelled {} expired schedules", cancelled);
     } else {
       log.debug("No expired schedules found to cancel");
     }
   }
 
-  private void processExpiredSchedule(Schedule schedule) {
-    schedule.setStatus(ScheduleStatus.FINISHED);
-
-    if (schedule.getBookings() != null && !schedule.getBookings().isEmpty()) {
-      for (Booking booking : schedule.getBookings()) {
-        if (booking.getStatus() != BookingStatus.CANCELLED) {
-          booking.setStatus(BookingStatus.FINISHED);
-          bookingRepository.save(booking);
-          log.debug("Booking ID {} marked as FINISHED", booking.getReferenceId());
-        }
+  private void sendCancellations(List<Long> scheduleIds) {
+    for (BookingResponseDTO booking : bookingRepository.findOpenResponsesByScheduleIds(scheduleIds, ScheduleStatus.CANCELLED)) {
+      booking.setStatus(BookingStatus.CANCELLED);
+      try {
+        emailService.sendBookingCancellation(booking);
+        log.info("Sent cancellation email for booking ID: {}", booking.getReferenceId());
+      } catch (Exception e) {
+        log.error("Failed to send cancellation email for booking ID: {}", booking.getReferenceId(), e);
       }
     }
-    log.debug("Schedule ID {} marked as FINISHED", schedule.getId());
   }
 
   @Override
-  @Transactional
   public void processDailySchedules() {
     LocalDate today = LocalDate.now();
-    // Process schedules for the day
-    List<Schedule> todaySchedules = scheduleRepository.findByDate(today);
-
     log.info("Processing daily schedules for date: {}", today);
 
-    // Add any daily processing logic here
-    // For example, you could check for schedules that need to be activated
-    for (Schedule schedule : todaySchedules) {
-      if (schedule.getStatus() == ScheduleStatus.UNAVAILABLE &&
-              schedule.getDate().isEqual(today)) {
-        // Mark as available if it's today and was unavailable
-        schedule.setStatus(ScheduleStatus.AVAILABLE);
-        scheduleRepository.save(schedule);
-        log.debug("Schedule ID {} activated for today", schedule.getId());
-      }
+    // Schedules held back as UNAVAILABLE open for booking on their own day
+    List<ScheduleStatus> unavailable = List.of(ScheduleStatus.UNAVAILABLE);
+    int activated = transitionInChunks("open-today",
+            page -> scheduleRepository.findIdsByDate(today, unavailable, page),
+            unavailable, ScheduleStatus.AVAILABLE, null, null);
+    log.debug("{} schedules activated for today", activated);
+  }
+
+  /**
+   * Moves every schedule that {@code dueIds} returns from one of {@code fromStatuses} to {@code status}, up to
+   * {@code app.schedule.jobs.chunk-size} schedules per transaction: one guarded UPDATE for the schedules and, when
+   * {@code bookingStatus} is set, one for their non-cancelled bookings. {@code beforeBookings} runs between the two
+   * while the bookings still have their old status. Each chunk is fenced by the job's lease when it runs under one.
+   * Moved rows and the run time are recorded per job.
+   *
+   * @return the number of schedules moved
+   */
+  private int transitionInChunks(String job,
+                                 Function<Pageable, List<Long>> dueIds,
+                                 List<ScheduleStatus> fromStatuses,
+                                 ScheduleStatus status,
+                                 BookingStatus bookingStatus,
+                                 Consumer<List<Long>> beforeBookings) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    // Moved schedules drop out of the due set, so the first page is always the next chunk
+    Pageable nextChunk = PageRequest.of(0, jobChunkSize);
+    int schedules = 0;
+    int bookings = 0;
+    ChunkResult chunk;
+    do {
+      chunk = transactionTemplate.execute(tx -> {
+        jobLocks.fence();
+        List<Long> ids = dueIds.apply(nextChunk);
+        if (ids.isEmpty()) {
+          return new ChunkResult(0, 0, 0);
+        }
+        int movedSchedules = scheduleRepository.transitionStatus(ids, fromStatuses, status);
+        int movedBookings = 0;
+        if (movedSchedules > 0) {
+          if (beforeBookings != null) {
+            beforeBookings.accept(ids);
+          }
+          if (bookingStatus != null) {
+            movedBookings = bookingRepository.transitionStatusBySchedules(ids, status, bookingStatus);
+          }
+          TransactionHooks.afterCommit(() -> ids.forEach(slotAllocator::evict));
+          eventPublisher.publishEvent(new SchedulesTransitionedEvent(ids, status, bookingStatus));
+        }
+        return new ChunkResult(ids.size(), movedSchedules, movedBookings);
+      });
+      schedules += chunk.schedules();
+      bookings += chunk.bookings();
+      // A chunk in which nothing moved was changed under us; the next run picks it up rather than spinning on it
+    } while (chunk.due() == jobChunkSize && chunk.schedules() > 0);
+
+    sample.stop(Timer.builder("app.schedule.job.time").tag("job", job).register(meterRegistry));
+    transitionCounter(job, "schedule").increment(schedules);
+    transitionCounter(job, "booking").increment(bookings);
+    if (schedules > 0) {
+      log.info("Job {} moved {} schedules to {} and {} bookings to {}", job, schedules, status, bookings, bookingStatus);
     }
+    return schedules;
+  }
+
+  private Counter transitionCounter(String job, String entity) {
+    return Counter.builder("app.schedule.job.transitioned.count")
+            .description("Rows moved to a new status by the schedule jobs")
+            .tag("job", job)
+            .tag("entity", entity)
+            .register(meterRegistry);
   }
 
+  private record ChunkResult(int due, int schedules, int bookings) {
+  }
+
+  /**
+   * Queues the day-before reminders for tomorrow's ACTIVE and PENDING bookings. Bookings already in the
+   * {@link AppointmentReminder} ledger are skipped, so each hourly run only picks up bookings made since the last
+   * one. Ledger rows and outbox emails are written together, {@code app.schedule.jobs.chunk-size} bookings per
+   * transaction, and the SMTP work is left to the outbox dispatcher.
+   */
   @Override
-  @Transactional
   public void sendAppointmentReminders() {
-    LocalDate tomorrow = LocalDate.now().plusDays(1);
-    List<Schedule> tomorrowSchedules = scheduleRepository.findByDate(tomorrow);
-
-    log.info("Sending appointment reminders for date: {}", tomorrow);
-
-    for (Schedule schedule : tomorrowSchedules) {
-      for (Booking booking : schedule.getBookings()) {
-        if (booking.getStatus() == BookingStatus.ACTIVE || booking.getStatus() == BookingStatus.PENDING) {
-          try {
-            BookingResponseDTO bookingDTO = mapToResponse(booking);
-            emailService.sendAppointmentReminder(bookingDTO);
-            log.debug("Sent reminder for booking ID: {}", booking.getReferenceId());
-          } catch (Exception e) {
-            log.error("Failed to send reminder for booking ID: {}", booking.getReferenceId(), e);
-          }
-        }
+    LocalDate today = LocalDate.now();
+    LocalDate tomorrow = today.plusDays(1);
+    reminderRepository.deleteByAppointmentDateBefore(today);
+
+    List<BookingResponseDTO> bookings = bookingRepository.findResponsesWithoutReminder(
+            tomorrow, List.of(BookingStatus.ACTIVE, BookingStatus.PENDING));
+    if (bookings.isEmpty()) {
+      log.debug("No new appointment reminders for {}", tomorrow);
+      return;
+    }
+
+    int queued = 0;
+    for (int from = 0; from < bookings.size(); from += jobChunkSize) {
+      List<BookingResponseDTO> chunk = bookings.subList(from, Math.min(from + jobChunkSize, bookings.size()));
+      try {
+        queued += Objects.requireNonNull(transactionTemplate.execute(tx -> queueReminders(chunk, tomorrow)));
+      } catch (DataIntegrityViolationException e) {
+        // Another node queued some of these first; whatever it did not cover is picked up on the next run
+        reminderCounter("conflict").increment(chunk.size());
+        log.warn("Skipped {} appointment reminders already being queued elsewhere", chunk.size());
       }
     }
+    reminderCounter("queued").increment(queued);
+    log.info("Queued {} appointment reminders for {}", queued, tomorrow);
+  }
+
+  private int queueReminders(List<BookingResponseDTO> bookings, LocalDate date) {
+    jobLocks.fence();
+    int queued = 0;
+    for (BookingResponseDTO booking : bookings) {
+      try {
+        emailService.sendAppointmentReminder(booking);
+      } catch (EmailSendingException e) {
+        // Left out of the ledger so the next run tries again
+        reminderCounter("failed").increment();
+        log.error("Failed to queue reminder for booking ID: {}", booking.getReferenceId(), e);
+        continue;
+      }
+      reminderRepository.save(AppointmentReminder.builder()
+              .bookingReferenceId(booking.getReferenceId())
+              .appointmentDate(date)
+              .build());
+      queued++;
+    }
+    return queued;
+  }
+
+  private Counter reminderCounter(String result) {
+    return Counter.builder("app.schedule.reminders.count")
+            .description("Appointment reminders handled by the reminder job")
+            .tag("result", result)
+            .register(meterRegistry);
   }
 
   @Override
@@ -396,9 +651,8 @@ public class ScheduleServiceImpl implements IScheduleService {
 
     scheduleUpdateTriggerActions(schedule, requestedStatus, schedule.getCapacity());
     Schedule updatedSchedule = scheduleRepository.save(schedule);
-    ScheduleResponseDTO responseDTO = modelMapper.map(updatedSchedule, ScheduleResponseDTO.class);
-    responseDTO.setNumberOfBookings(updatedSchedule.getBookings() != null ? updatedSchedule.getBookings().size() : 0);
-    return responseDTO;
+    scheduleChanged(id);
+    return toResponses(List.of(updatedSchedule)).get(0);
   }
 
   @Override
@@ -428,87 +682,164 @@ public class ScheduleServiceImpl implements IScheduleService {
       throw new ResourceNotFoundException("No upcoming schedules found.");
     }
 
+    Map<Long, Integer> bookingCounts = countBookings(upcomingSchedules.getContent());
     return upcomingSchedules.getContent().stream()
             .map(schedule -> UpcomingScheduleResponse.builder()
                     .startTime(String.valueOf(schedule.getStartTime()))
                     .endTime(String.valueOf(schedule.getEndTime()))
                     .date(String.valueOf(schedule.getDate()))
-                    .appointmentCount(schedule.getBookings().size())
+                    .appointmentCount(bookingCounts.getOrDefault(schedule.getId(), 0))
                     .build())
             .collect(Collectors.toList());
   }
 
   @Override
-  public List<ScheduleHistoryResponse> getScheduleHistory() {
-    LocalDate today = LocalDate.now();
-    LocalDate startDate = today.minusDays(89);
-
-    List<Schedule> scheduleHistory = scheduleRepository.findByDateBetweenAndStatusNot(
-            startDate, today, ScheduleStatus.AVAILABLE);
+  public List<ScheduleHistoryResponse> getScheduleHistory(LocalDate from, LocalDate to) {
+    LocalDate end = to != null ? to : LocalDate.now();
+    LocalDate start = from != null ? from : end.minusDays(DEFAULT_HISTORY_DAYS - 1L);
+    if (start.isAfter(end)) {
+      throw new BadRequestException("Invalid date range. 'from' must not be after 'to'.");
+    }
+    if (ChronoUnit.DAYS.between(start, end) >= MAX_HISTORY_DAYS) {
+      throw new BadRequestException("Date range is too large. Please request at most " + MAX_HISTORY_DAYS + " days.");
+    }
 
-    Map<LocalDate, Integer> bookingCountByDate = scheduleHistory.stream()
-            .collect(Collectors.groupingBy(
-                    Schedule::getDate,
-                    Collectors.summingInt(schedule -> schedule.getBookings().size())
-            ));
+    Map<LocalDate, DailyBookingTotals> totalsByDate = dailyStatsRepository.sumByDate(start, end).stream()
+            .collect(Collectors.toMap(DailyBookingTotals::getStatDate, Function.identity()));
 
     List<ScheduleHistoryResponse> result = new ArrayList<>();
-    for (int i = 0; i < 90; i++) {
-      LocalDate date = today.minusDays(i);
-      int bookingCount = bookingCountByDate.getOrDefault(date, 0);
-      result.add(new ScheduleHistoryResponse(date.toString(), bookingCount));
+    for (LocalDate date = end; !date.isBefore(start); date = date.minusDays(1)) {
+      DailyBookingTotals totals = totalsByDate.get(date);
+      result.add(ScheduleHistoryResponse.builder()
+              .date(date.toString())
+              .appointmentCount(totals != null ? totals.getCreated().intValue() : 0)
+              .finishedCount(totals != null ? totals.getFinished().intValue() : 0)
+              .cancelledCount(totals != null ? totals.getCancelled().intValue() : 0)
+              .absentCount(totals != null ? totals.getAbsent().intValue() : 0)
+              .build());
     }
 
     return result;
   }
 
+  @Override
+  public List<FreeSlotResponse> findFreeSlots(Long dentistId, LocalDate from, LocalDate to, Integer minMinutes) {
+    if (!dentistRepository.existsById(dentistId)) {
+      throw new ResourceNotFoundException("Dentist with ID " + dentistId + " not found.");
+    }
+    LocalDate start = from != null ? from : LocalDate.now();
+    LocalDate end = to != null ? to : start.plusDays(DEFAULT_FREE_SLOT_DAYS - 1L);
+    if (start.isAfter(end)) {
+      throw new BadRequestException("Invalid date range. 'from' must not be after 'to'.");
+    }
+    if (ChronoUnit.DAYS.between(start, end) >= MAX_FREE_SLOT_DAYS) {
+      throw new BadRequestException("Date range is too large. Please request at most " + MAX_FREE_SLOT_DAYS + " days.");
+    }
+    int minutes = minMinutes != null ? minMinutes : DEFAULT_FREE_SLOT_MINUTES;
+    if (minutes < 1) {
+      throw new BadRequestException("Minimum free time must be at least 1 minute.");
+    }
+    return scheduleIndex.findFreeSlots(dentistId, start, end, Duration.ofMinutes(minutes));
+  }
+
+  /**
+   * Loads the dentist and locks their row until the transaction ends. Schedule writes take this lock before checking
+   * for overlaps, so two of them for the same dentist cannot both pass the check and both insert; they run at
+   * READ_COMMITTED so that the check sees what the previous lock holder committed.
+   */
+  private Dentist lockDentist(Long dentistId) {
+    try {
+      return dentistRepository.findByIdWithLock(dentistId)
+              .orElseThrow(() -> new BadRequestException("Dentist with ID " + dentistId + " not found."));
+    } catch (PessimisticLockingFailureException e) {
+      log.warn("Lock acquisition failure while writing schedules of dentist {}", dentistId);
+      throw new BadRequestException("System is experiencing high demand. Please try again.");
+    }
+  }
+
+  /**
+   * Rejects a schedule that would overlap another of the dentist's. The index answers from memory; the query
+   * also sees schedules written by other nodes that have not reached this node's index yet.
+   */
+  private void ensureNoOverlap(Long dentistId, LocalDate date, LocalTime startTime, LocalTime endTime, Long scheduleId) {
+    if (startTime == null || endTime == null || !startTime.isBefore(endTime)) {
+      throw new BadRequestException("Schedule start time must be before its end time.");
+    }
+    Long conflict = scheduleIndex.findConflict(dentistId, date, startTime, endTime, scheduleId).orElse(null);
+    if (conflict != null || scheduleRepository.existsOverlapping(
+            dentistId, date, startTime, endTime, ScheduleStatus.CANCELLED, scheduleId)) {
+      throw new BadRequestException("Dentist with ID " + dentistId + " already has a schedule between " + startTime +
+              " and " + endTime + " on " + date + (conflict != null ? " (schedule " + conflict + ")." : "."));
+    }
+  }
+
   private void scheduleUpdateTriggerActions(Schedule schedule, ScheduleStatus updatedStatus, Integer capacity) {
     schedule.setStatus(updatedStatus);
 
-    List<Booking> bookings = schedule.getBookings();
     if (updatedStatus == ScheduleStatus.CANCELLED) {
       schedule.setAvailableSlots(0);
-      bookings.forEach(booking -> {
-        booking.setStatus(BookingStatus.CANCELLED);
-        BookingResponseDTO bookingResponseDTO = mapToResponse(booking);
+      schedule.getBookings().forEach(booking -> {
+        changeBookingStatus(booking, BookingStatus.CANCELLED);
+        BookingResponseDTO bookingResponseDTO = mapToResponse(booking, schedule);
         emailService.sendBookingCancellation(bookingResponseDTO);
       });
     } else if (updatedStatus == ScheduleStatus.FINISHED) {
       schedule.setAvailableSlots(0);
-      bookings.forEach(booking -> booking.setStatus(BookingStatus.FINISHED));
+      schedule.getBookings().forEach(booking -> changeBookingStatus(booking, BookingStatus.FINISHED));
     } else if (updatedStatus == ScheduleStatus.FULL) {
       schedule.setAvailableSlots(0);
     } else if (updatedStatus == ScheduleStatus.ACTIVE) {
       schedule.setAvailableSlots(0);
-      bookings.forEach(booking -> {
-        booking.setStatus(BookingStatus.ACTIVE);
-        BookingResponseDTO bookingResponseDTO = mapToResponse(booking);
+      schedule.getBookings().forEach(booking -> {
+        changeBookingStatus(booking, BookingStatus.ACTIVE);
+        BookingResponseDTO bookingResponseDTO = mapToResponse(booking, schedule);
         emailService.sendBookingActivation(bookingResponseDTO);
       });
     } else {
-      schedule.setAvailableSlots(capacity - bookings.size());
+      schedule.setAvailableSlots(capacity - countBookings(List.of(schedule)).getOrDefault(schedule.getId(), 0));
     }
   }
 
-  private Schedule getSchedule(Long scheduleId) {
-    return scheduleRepository.findById(scheduleId)
-            .orElseThrow(() -> new ResourceNotFoundException("Schedule with ID " + scheduleId + " not found. Please select a valid schedule."));
+  private List<ScheduleResponseDTO> toResponses(List<Schedule> schedules) {
+    Map<Long, Integer> bookingCounts = countBookings(schedules);
+    return schedules.stream()
+            .map(schedule -> ScheduleResponseDTO.from(schedule, bookingCounts.getOrDefault(schedule.getId(), 0)))
+            .collect(Collectors.toList());
   }
 
-  private BookingResponseDTO mapToResponse(Booking booking) {
-    BookingResponseDTO bookingResponseDTO = modelMapper.map(booking, BookingResponseDTO.class);
-    Long scheduleId = booking.getSchedule().getId();
-    Schedule schedule = getSchedule(scheduleId);
+  /**
+   * Bookings per schedule from one grouped count per {@value #COUNT_BATCH_SIZE} schedules, instead of initializing
+   * each schedule's bookings collection.
+   */
+  private Map<Long, Integer> countBookings(Collection<Schedule> schedules) {
+    List<Long> ids = schedules.stream().map(Schedule::getId).filter(Objects::nonNull).distinct().toList();
+    Map<Long, Integer> counts = new HashMap<>();
+    for (int from = 0; from < ids.size(); from += COUNT_BATCH_SIZE) {
+      List<Long> batch = ids.subList(from, Math.min(from + COUNT_BATCH_SIZE, ids.size()));
+      for (ScheduleBookingCount row : bookingRepository.countByScheduleIdsAndStatus(batch)) {
+        counts.merge(row.getScheduleId(), row.getTotal().intValue(), Integer::sum);
+      }
+    }
+    return counts;
+  }
 
-    // Set the fields properly
-    bookingResponseDTO.setScheduleId(scheduleId);
-    bookingResponseDTO.setScheduleDate(schedule.getDate());
-    bookingResponseDTO.setScheduleDayOfWeek(schedule.getDayOfWeek());
-    bookingResponseDTO.setScheduleStartTime(schedule.getStartTime());
-    bookingResponseDTO.setDoctorName(schedule.getDentist().getFirstName());
-    bookingResponseDTO.setScheduleStatus(schedule.getStatus());
-    bookingResponseDTO.setDayOfWeek(schedule.getDayOfWeek());
+  private void scheduleChanged(Long scheduleId) {
+    TransactionHooks.afterCommit(() -> slotAllocator.evict(scheduleId));
+    eventPublisher.publishEvent(new ScheduleChangedEvent(scheduleId));
+  }
+
+  private static String dayName(LocalDate date) {
+    String dayOfWeek = date.getDayOfWeek().toString();
+    return dayOfWeek.charAt(0) + dayOfWeek.substring(1).toLowerCase();
+  }
+
+  private void changeBookingStatus(Booking booking, BookingStatus status) {
+    BookingStatus previousStatus = booking.getStatus();
+    booking.setStatus(status);
+    eventPublisher.publishEvent(BookingStatusChangedEvent.changed(booking, previousStatus));
+  }
 
-    return bookingResponseDTO;
+  private BookingResponseDTO mapToResponse(Booking booking, Schedule schedule) {
+    return BookingResponseDTO.from(booking, schedule);
   }
 }
\ No newline at end of file
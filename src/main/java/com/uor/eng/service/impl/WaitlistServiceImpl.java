@@ -0,0 +1,205 @@
+package com.uor.eng.service.impl;
+
+import com.uor.eng.event.BookingStatusChangedEvent;
+import com.uor.eng.event.ScheduleChangedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
+import com.uor.eng.exceptions.BadRequestException;
+import com.uor.eng.exceptions.ResourceNotFoundException;
+import com.uor.eng.model.*;
+import com.uor.eng.payload.booking.BookingResponseDTO;
+import com.uor.eng.payload.booking.CreateBookingDTO;
+import com.uor.eng.payload.booking.WaitlistEntryResponse;
+import com.uor.eng.repository.BookingRepository;
+import com.uor.eng.repository.ScheduleRepository;
+import com.uor.eng.repository.WaitlistEntryRepository;
+import com.uor.eng.service.IWaitlistService;
+import com.uor.eng.util.EmailService;
+import com.uor.eng.util.ReferenceIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Queues patients for FULL schedules so they do not have to keep retrying the booking endpoint. Entries are
+ * promoted in the same transaction that frees the slot, and expire once the schedule can no longer be booked.
+ */
+@Service
+@Slf4j
+public class WaitlistServiceImpl implements IWaitlistService {
+
+  private static final Set<ScheduleStatus> PROMOTABLE = EnumSet.of(ScheduleStatus.AVAILABLE, ScheduleStatus.FULL);
+  private static final Set<ScheduleStatus> CLOSED = EnumSet.of(
+          ScheduleStatus.ACTIVE, ScheduleStatus.ON_GOING, ScheduleStatus.CANCELLED, ScheduleStatus.FINISHED);
+  private static final int MAX_CLAIM_ATTEMPTS = 5;
+
+  private final WaitlistEntryRepository waitlistRepository;
+  private final ScheduleRepository scheduleRepository;
+  private final BookingRepository bookingRepository;
+  private final EmailService emailService;
+  private final ReferenceIdGenerator referenceIdGenerator;
+  private final ApplicationEventPublisher eventPublisher;
+  private final int maxSize;
+
+  public WaitlistServiceImpl(WaitlistEntryRepository waitlistRepository,
+                             ScheduleRepository scheduleRepository,
+                             BookingRepository bookingRepository,
+                             EmailService emailService,
+                             ReferenceIdGenerator referenceIdGenerator,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${app.booking.waitlist.max-size:50}") int maxSize) {
+    this.waitlistRepository = waitlistRepository;
+    this.scheduleRepository = scheduleRepository;
+    this.bookingRepository = bookingRepository;
+    this.emailService = emailService;
+    this.referenceIdGenerator = referenceIdGenerator;
+    this.eventPublisher = eventPublisher;
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  @Transactional
+  public WaitlistEntryResponse joinWaitlist(CreateBookingDTO bookingDTO) {
+    Long scheduleId = bookingDTO.getScheduleId();
+    Schedule schedule = scheduleRepository.findById(scheduleId)
+            .orElseThrow(() -> new ResourceNotFoundException("Schedule with ID " + scheduleId + " not found. Please select a valid schedule."));
+    if (schedule.getStatus() == ScheduleStatus.AVAILABLE) {
+      throw new BadRequestException("The selected schedule still has free slots. Please book it directly.");
+    }
+    if (schedule.getStatus() != ScheduleStatus.FULL) {
+      throw new BadRequestException("The waitlist is only open for full schedules.");
+    }
+    if (waitlistRepository.existsByScheduleIdAndNicAndStatus(scheduleId, bookingDTO.getNic(), WaitlistStatus.WAITING)) {
+      throw new BadRequestException("Patient with NIC " + bookingDTO.getNic() + " is already on the waitlist for this schedule.");
+    }
+    if (waitlistRepository.countByScheduleIdAndStatus(scheduleId, WaitlistStatus.WAITING) >= maxSize) {
+      throw new BadRequestException("The waitlist for the selected schedule is full.");
+    }
+
+    WaitlistEntry entry = waitlistRepository.save(WaitlistEntry.builder()
+            .schedule(schedule)
+            .name(bookingDTO.getName())
+            .nic(bookingDTO.getNic())
+            .contactNumber(bookingDTO.getContactNumber())
+            .email(bookingDTO.getEmail())
+            .address(bookingDTO.getAddress())
+            .build());
+    log.info("Patient joined the waitlist for schedule {} as entry {}", scheduleId, entry.getId());
+    return mapToResponse(entry);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public WaitlistEntryResponse getEntry(Long id, String contactNumber) {
+    return mapToResponse(findEntry(id, contactNumber));
+  }
+
+  @Override
+  @Transactional
+  public WaitlistEntryResponse cancelEntry(Long id, String contactNumber) {
+    findEntry(id, contactNumber);
+    if (waitlistRepository.markCancelled(id) == 0) {
+      throw new BadRequestException("Waitlist entry " + id + " is no longer waiting and cannot be cancelled.");
+    }
+    return mapToResponse(findEntry(id, contactNumber));
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public boolean promoteNext(Schedule schedule, Integer appointmentNumber) {
+    if (!PROMOTABLE.contains(schedule.getStatus())) {
+      return false;
+    }
+    // The claim is a guarded UPDATE, so a concurrent cancel or promotion of the head entry just moves us to the next
+    for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+      Optional<WaitlistEntry> head = waitlistRepository.findFirstByScheduleIdAndStatusOrderByIdAsc(schedule.getId(), WaitlistStatus.WAITING);
+      if (head.isEmpty()) {
+        return false;
+      }
+      WaitlistEntry entry = head.get();
+      String referenceId = referenceIdGenerator.next();
+      if (waitlistRepository.markPromoted(entry.getId(), referenceId, LocalDateTime.now()) == 1) {
+        book(entry, schedule, referenceId, appointmentNumber);
+        return true;
+      }
+    }
+    log.warn("Gave up promoting the waitlist of schedule {} after {} contended claims", schedule.getId(), MAX_CLAIM_ATTEMPTS);
+    return false;
+  }
+
+  private void book(WaitlistEntry entry, Schedule schedule, String referenceId, Integer appointmentNumber) {
+    Booking booking = Booking.builder()
+            .referenceId(referenceId)
+            .appointmentNumber(appointmentNumber)
+            .name(entry.getName())
+            .nic(entry.getNic())
+            .contactNumber(entry.getContactNumber())
+            .email(entry.getEmail())
+            .address(entry.getAddress())
+            .schedule(schedule)
+            .build();
+    Booking savedBooking = bookingRepository.save(booking);
+    eventPublisher.publishEvent(BookingStatusChangedEvent.created(savedBooking));
+    BookingResponseDTO response = BookingResponseDTO.from(savedBooking, schedule);
+    emailService.sendBookingConfirmation(response);
+    log.info("Promoted waitlist entry {} to booking {} on schedule {}", entry.getId(), referenceId, schedule.getId());
+  }
+
+  /**
+   * Expires the queue of a schedule that has been cancelled, started or finished, before the change commits.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onScheduleChanged(ScheduleChangedEvent event) {
+    scheduleRepository.findById(event.scheduleId())
+            .filter(schedule -> CLOSED.contains(schedule.getStatus()))
+            .ifPresent(schedule -> {
+              int expired = waitlistRepository.expireWaiting(schedule.getId());
+              if (expired > 0) {
+                log.info("Expired {} waitlist entries of {} schedule {}", expired, schedule.getStatus(), schedule.getId());
+              }
+            });
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onSchedulesTransitioned(SchedulesTransitionedEvent event) {
+    if (CLOSED.contains(event.scheduleStatus())) {
+      int expired = waitlistRepository.expireWaitingBySchedules(event.scheduleIds());
+      if (expired > 0) {
+        log.info("Expired {} waitlist entries of {} {} schedules", expired, event.scheduleIds().size(), event.scheduleStatus());
+      }
+    }
+  }
+
+  private WaitlistEntry findEntry(Long id, String contactNumber) {
+    return waitlistRepository.findByIdAndContactNumber(id, contactNumber)
+            .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry not found with ID " + id + " and contact number " + contactNumber + ". Please verify the details and try again."));
+  }
+
+  private WaitlistEntryResponse mapToResponse(WaitlistEntry entry) {
+    Schedule schedule = entry.getSchedule();
+    Long position = entry.getStatus() == WaitlistStatus.WAITING
+            ? waitlistRepository.countByScheduleIdAndStatusAndIdLessThan(schedule.getId(), WaitlistStatus.WAITING, entry.getId()) + 1
+            : null;
+    return WaitlistEntryResponse.builder()
+            .id(entry.getId())
+            .name(entry.getName())
+            .contactNumber(entry.getContactNumber())
+            .scheduleId(schedule.getId())
+            .scheduleDate(schedule.getDate())
+            .scheduleStartTime(schedule.getStartTime())
+            .status(entry.getStatus())
+            .position(position)
+            .bookingReferenceId(entry.getBookingReferenceId())
+            .createdAt(entry.getCreatedAt())
+            .build();
+  }
+}
@@ -0,0 +1,240 @@
+package com.uor.eng.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uor.eng.event.BookingStatusChangedEvent;
+import com.uor.eng.event.ScheduleChangedEvent;
+import com.uor.eng.event.SchedulesCreatedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
+import com.uor.eng.exceptions.ResourceNotFoundException;
+import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.payload.schedule.ScheduleGetSevenCustomResponse;
+import com.uor.eng.payload.schedule.ScheduleResponseDTO;
+import com.uor.eng.service.IScheduleService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The public "next seven schedules" feeds, held as serialized JSON with an ETag so a request is a memory read.
+ * <p>
+ * The snapshot is built from one query on first use. Committed booking creations and deletions on a listed
+ * schedule are applied to it in place; anything that can change which schedules are listed (a schedule change, a
+ * listed schedule filling up, a deletion on an unlisted one) drops it to be rebuilt by the next reader. It is also
+ * rebuilt when the date changes and after {@code app.schedule.availability.ttl-ms} as a safety net for changes made
+ * outside the services.
+ */
+@Component
+@Slf4j
+public class AvailabilitySnapshotCache {
+
+  private final IScheduleService scheduleService;
+  private final ObjectMapper objectMapper;
+  private final long ttlNanos;
+  private final Object buildLock = new Object();
+  private volatile Snapshot snapshot;
+  private long version;
+
+  public AvailabilitySnapshotCache(IScheduleService scheduleService,
+                                   ObjectMapper objectMapper,
+                                   @Value("${app.schedule.availability.ttl-ms:300000}") long ttlMs) {
+    this.scheduleService = scheduleService;
+    this.objectMapper = objectMapper;
+    this.ttlNanos = ttlMs * 1_000_000L;
+  }
+
+  /**
+   * Feed for {@code /api/schedules/getSeven}.
+   */
+  public Feed getSeven() {
+    return current().seven();
+  }
+
+  /**
+   * Feed for {@code /api/schedules/getSevenCustom}.
+   */
+  public Feed getSevenCustom() {
+    return current().custom();
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot;
+    if (current == null || !current.isFresh(ttlNanos)) {
+      synchronized (buildLock) {
+        current = snapshot;
+        if (current == null || !current.isFresh(ttlNanos)) {
+          current = rebuild();
+        }
+      }
+    }
+    if (current.schedules().isEmpty()) {
+      throw new ResourceNotFoundException("No schedules found for the next 7 days.");
+    }
+    return current;
+  }
+
+  private Snapshot rebuild() {
+    long startVersion;
+    synchronized (this) {
+      startVersion = version;
+    }
+    List<ScheduleResponseDTO> schedules;
+    try {
+      schedules = scheduleService.getNextSevenSchedules().stream().map(AvailabilitySnapshotCache::copy).toList();
+    } catch (ResourceNotFoundException e) {
+      schedules = List.of();
+    }
+    Snapshot built = Snapshot.of(schedules, objectMapper);
+    synchronized (this) {
+      // A change committed while we were reading may be missing from the result; serve it once but do not keep it
+      if (version == startVersion) {
+        snapshot = built;
+      }
+    }
+    log.debug("Rebuilt availability snapshot with {} schedules", schedules.size());
+    return built;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onBookingStatusChanged(BookingStatusChangedEvent event) {
+    int delta = event.previousStatus() == null ? 1 : event.newStatus() == null ? -1 : 0;
+    if (delta == 0) {
+      // A status change keeps the booking counted and its slot taken
+      return;
+    }
+    version++;
+    Snapshot current = snapshot;
+    if (current == null) {
+      return;
+    }
+    int index = current.indexOf(event.scheduleId());
+    if (index < 0) {
+      // A new booking elsewhere cannot change the list, but a deletion may reopen a schedule that belongs in it
+      if (delta < 0) {
+        snapshot = null;
+      }
+      return;
+    }
+    ScheduleResponseDTO changed = copy(current.schedules().get(index));
+    changed.setNumberOfBookings(changed.getNumberOfBookings() + delta);
+    changed.setAvailableSlots(changed.getAvailableSlots() - delta);
+    if (changed.getAvailableSlots() <= 0) {
+      // The schedule is FULL now and the next one takes its place
+      snapshot = null;
+      return;
+    }
+    List<ScheduleResponseDTO> schedules = new ArrayList<>(current.schedules());
+    schedules.set(index, changed);
+    snapshot = Snapshot.of(List.copyOf(schedules), objectMapper, current.builtOn(), current.builtAt());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onScheduleChanged(ScheduleChangedEvent event) {
+    version++;
+    snapshot = null;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSchedulesTransitioned(SchedulesTransitionedEvent event) {
+    evict();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSchedulesCreated(SchedulesCreatedEvent event) {
+    evict();
+  }
+
+  public synchronized void evict() {
+    version++;
+    snapshot = null;
+  }
+
+  /**
+   * A feed body and its strong ETag (quoted, as sent in the header).
+   */
+  public record Feed(byte[] json, String etag) {
+
+    static Feed of(Object body, ObjectMapper objectMapper) {
+      try {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        return new Feed(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+      } catch (JsonProcessingException e) {
+        throw new IllegalStateException("Could not serialize availability snapshot", e);
+      }
+    }
+
+    public boolean matches(String ifNoneMatch) {
+      if (ifNoneMatch == null) {
+        return false;
+      }
+      for (String tag : ifNoneMatch.split(",")) {
+        String candidate = tag.trim();
+        if (candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private record Snapshot(List<ScheduleResponseDTO> schedules, Feed seven, Feed custom, LocalDate builtOn, long builtAt) {
+
+    static Snapshot of(List<ScheduleResponseDTO> schedules, ObjectMapper objectMapper) {
+      return of(schedules, objectMapper, LocalDate.now(), System.nanoTime());
+    }
+
+    static Snapshot of(List<ScheduleResponseDTO> schedules, ObjectMapper objectMapper, LocalDate builtOn, long builtAt) {
+      List<ScheduleGetSevenCustomResponse> custom = schedules.stream()
+              .filter(schedule -> ScheduleStatus.AVAILABLE.name().equals(schedule.getStatus()))
+              .map(schedule -> {
+                ScheduleGetSevenCustomResponse response = new ScheduleGetSevenCustomResponse();
+                response.setId(schedule.getId());
+                response.setDate(schedule.getDate());
+                response.setDayOfWeek(schedule.getDayOfWeek());
+                response.setStartTime(schedule.getStartTime());
+                return response;
+              })
+              .toList();
+      return new Snapshot(schedules, Feed.of(schedules, objectMapper), Feed.of(custom, objectMapper), builtOn, builtAt);
+    }
+
+    boolean isFresh(long ttlNanos) {
+      return builtOn.equals(LocalDate.now()) && System.nanoTime() - builtAt < ttlNanos;
+    }
+
+    int indexOf(Long scheduleId) {
+      for (int i = 0; i < schedules.size(); i++) {
+        if (schedules.get(i).getId().equals(scheduleId)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * Copies everything the feed shows. Booking rows are left out: the feed is public and only needs the count.
+   */
+  private static ScheduleResponseDTO copy(ScheduleResponseDTO schedule) {
+    return ScheduleResponseDTO.builder()
+            .id(schedule.getId())
+            .date(schedule.getDate())
+            .dayOfWeek(schedule.getDayOfWeek())
+            .status(schedule.getStatus())
+            .numberOfBookings(schedule.getNumberOfBookings() != null ? schedule.getNumberOfBookings() : 0)
+            .startTime(schedule.getStartTime())
+            .endTime(schedule.getEndTime())
+            .duration(schedule.getDuration())
+            .dentistId(schedule.getDentistId())
+            .capacity(schedule.getCapacity())
+            .availableSlots(schedule.getAvailableSlots() != null ? schedule.getAvailableSlots() : 0)
+            .createdAt(schedule.getCreatedAt())
+            .build();
+  }
+}
@@ -0,0 +1,266 @@
+package com.uor.eng.util;
+
+import com.uor.eng.exceptions.BadRequestException;
+import com.uor.eng.exceptions.ResourceNotFoundException;
+import com.uor.eng.payload.booking.BookingResponseDTO;
+import com.uor.eng.payload.booking.CreateBookingDTO;
+import com.uor.eng.repository.ScheduleRepository;
+import com.uor.eng.service.IBookingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group commit for booking creation. Concurrent requests for the same schedule are collected for at most
+ * {@code max-linger-ms} (or until {@code max-batch-size} requests have arrived) and booked together through
+ * {@link IBookingService#createBookingBatch}, so a burst pays for one row lock and one commit instead of one each.
+ * <p>
+ * The first request of a batch leads it: its thread waits out the linger window and runs the batch, while the
+ * other callers block until their own result is ready. A caller still waiting for its batch to start after
+ * {@code await-timeout-ms} withdraws its request and is asked to retry; once the batch has started it waits for the
+ * real outcome, so a retry can never book twice. No extra threads are involved. If a batch fails for any reason
+ * other than the schedule itself, its requests are retried one by one so that one bad request fails only its own
+ * caller. Off unless {@code app.booking.group-commit.enabled} is set, as every request pays the linger window.
+ */
+@Component
+@Slf4j
+public class BookingGroupCommitter {
+
+  private final IBookingService bookingService;
+  private final ScheduleRepository scheduleRepository;
+  private final ScheduleSlotAllocator slotAllocator;
+  private final ConcurrentHashMap<Long, Batch> openBatches = new ConcurrentHashMap<>();
+
+  private final boolean enabled;
+  private final int maxBatchSize;
+  private final long maxLingerNanos;
+  private final long awaitTimeoutNanos;
+
+  private final DistributionSummary batchSizeSummary;
+  private final Counter rejectedCounter;
+
+  public BookingGroupCommitter(IBookingService bookingService,
+                               ScheduleRepository scheduleRepository,
+                               ScheduleSlotAllocator slotAllocator,
+                               MeterRegistry registry,
+                               @Value("${app.booking.group-commit.enabled:false}") boolean enabled,
+                               @Value("${app.booking.group-commit.max-batch-size:32}") int maxBatchSize,
+                               @Value("${app.booking.group-commit.max-linger-ms:5}") long maxLingerMs,
+                               @Value("${app.booking.group-commit.await-timeout-ms:10000}") long awaitTimeoutMs) {
+    this.bookingService = bookingService;
+    this.scheduleRepository = scheduleRepository;
+    this.slotAllocator = slotAllocator;
+    this.enabled = enabled;
+    this.maxBatchSize = Math.max(maxBatchSize, 1);
+    this.maxLingerNanos = TimeUnit.MILLISECONDS.toNanos(maxLingerMs);
+    this.awaitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(awaitTimeoutMs);
+
+    this.batchSizeSummary = DistributionSummary.builder("app.booking.group-commit.batch.size")
+        .description("Number of booking requests committed together")
+        .register(registry);
+    this.rejectedCounter = Counter.builder("app.booking.group-commit.rejected.count")
+        .description("Number of booking requests rejected before joining a batch because the schedule is full")
+        .register(registry);
+  }
+
+  public BookingResponseDTO createBooking(CreateBookingDTO bookingDTO) {
+    Long scheduleId = bookingDTO.getScheduleId();
+    if (!enabled || scheduleId == null) {
+      return bookingService.createBooking(bookingDTO);
+    }
+
+    ScheduleSlotAllocator.Permit permit = slotAllocator.tryAcquire(scheduleId, () -> scheduleRepository.findAvailableSlotsById(scheduleId)
+            .orElseThrow(() -> new ResourceNotFoundException("Schedule with ID " + scheduleId + " not found.")));
+    if (permit == null) {
+      rejectedCounter.increment();
+      throw new BadRequestException("Cannot create booking. The selected schedule is currently full.");
+    }
+
+    Request request = new Request(bookingDTO, permit);
+    Batch batch = join(scheduleId, request);
+    if (batch.isLeader(request)) {
+      List<Request> requests = batch.close(maxLingerNanos);
+      openBatches.remove(scheduleId, batch);
+      flush(scheduleId, requests);
+    }
+    return request.await(awaitTimeoutNanos);
+  }
+
+  private Batch join(Long scheduleId, Request request) {
+    while (true) {
+      Batch batch = openBatches.computeIfAbsent(scheduleId, id -> new Batch());
+      if (batch.add(request, maxBatchSize)) {
+        return batch;
+      }
+      // The batch filled up and its leader is committing it; start the next one
+      openBatches.remove(scheduleId, batch);
+    }
+  }
+
+  private void flush(Long scheduleId, List<Request> batch) {
+    // Callers that gave up while the batch was lingering are left out
+    List<Request> requests = batch.stream().filter(Request::claim).toList();
+    if (requests.isEmpty()) {
+      return;
+    }
+    batchSizeSummary.record(requests.size());
+    List<CreateBookingDTO> bookingDTOs = requests.stream().map(Request::bookingDTO).toList();
+    try {
+      List<BookingResponseDTO> created = bookingService.createBookingBatch(scheduleId, bookingDTOs);
+      if (created.size() < requests.size()) {
+        // The slot counter admitted more requests than the row had room for, so have it re-read the row
+        slotAllocator.evict(scheduleId);
+      }
+      for (int i = 0; i < requests.size(); i++) {
+        if (i < created.size()) {
+          requests.get(i).future.complete(created.get(i));
+        } else {
+          requests.get(i).fail(new BadRequestException("Cannot create booking. The selected schedule is currently full."));
+        }
+      }
+    } catch (BadRequestException | ResourceNotFoundException e) {
+      requests.forEach(request -> request.fail(e));
+    } catch (Exception e) {
+      log.warn("Committing {} bookings for schedule {} failed; booking them one by one", requests.size(), scheduleId, e);
+      requests.forEach(this::createAlone);
+    }
+  }
+
+  /**
+   * Books a request of a failed batch through the single-booking path, which takes its own slot.
+   */
+  private void createAlone(Request request) {
+    request.permit.release();
+    try {
+      request.future.complete(bookingService.createBooking(request.bookingDTO));
+    } catch (RuntimeException e) {
+      request.future.completeExceptionally(e);
+    }
+  }
+
+  private static final class Batch {
+    private final List<Request> requests = new ArrayList<>();
+    private boolean closed;
+
+    synchronized boolean add(Request request, int maxBatchSize) {
+      if (closed) {
+        return false;
+      }
+      requests.add(request);
+      if (requests.size() >= maxBatchSize) {
+        closed = true;
+        notifyAll();
+      }
+      return true;
+    }
+
+    synchronized boolean isLeader(Request request) {
+      return requests.get(0) == request;
+    }
+
+    /**
+     * Waits until the batch is full or the linger window has passed, then stops it from taking new requests.
+     */
+    synchronized List<Request> close(long lingerNanos) {
+      long deadline = System.nanoTime() + lingerNanos;
+      long remaining = lingerNanos;
+      while (!closed && remaining > 0) {
+        try {
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        }
+        remaining = deadline - System.nanoTime();
+      }
+      closed = true;
+      return List.copyOf(requests);
+    }
+  }
+
+  private record Request(CreateBookingDTO bookingDTO, ScheduleSlotAllocator.Permit permit,
+                         CompletableFuture<BookingResponseDTO> future, AtomicBoolean decided) {
+
+    Request(CreateBookingDTO bookingDTO, ScheduleSlotAllocator.Permit permit) {
+      this(bookingDTO, permit, new CompletableFuture<>(), new AtomicBoolean());
+    }
+
+    /**
+     * Taken by the leader before booking the request. Fails if the caller has already withdrawn it.
+     */
+    boolean claim() {
+      return decided.compareAndSet(false, true);
+    }
+
+    /**
+     * Taken by a caller that stopped waiting. Fails if the leader is already booking the request.
+     */
+    boolean withdraw() {
+      if (!decided.compareAndSet(false, true)) {
+        return false;
+      }
+      permit.release();
+      return true;
+    }
+
+    void fail(RuntimeException e) {
+      permit.release();
+      future.completeExceptionally(e);
+    }
+
+    BookingResponseDTO await(long timeoutNanos) {
+      try {
+        return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+      } catch (ExecutionException e) {
+        throw unwrap(e);
+      } catch (TimeoutException | InterruptedException e) {
+        if (e instanceof InterruptedException) {
+          Thread.currentThread().interrupt();
+        }
+        if (withdraw()) {
+          throw new BadRequestException("System is experiencing high demand. Please try again.");
+        }
+        // The leader is already booking it, so only its outcome tells the caller whether to retry
+        return awaitOutcome();
+      }
+    }
+
+    private BookingResponseDTO awaitOutcome() {
+      boolean interrupted = false;
+      try {
+        while (true) {
+          try {
+            return future.get();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          } catch (ExecutionException e) {
+            throw unwrap(e);
+          }
+        }
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        return cause;
+      }
+      return new IllegalStateException(e.getCause());
+    }
+  }
+}
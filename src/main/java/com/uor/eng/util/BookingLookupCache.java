@@ -0,0 +1,84 @@
+package com.uor.eng.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uor.eng.event.BookingStatusChangedEvent;
+import com.uor.eng.event.ScheduleChangedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
+import com.uor.eng.payload.booking.BookingResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, time-limited cache of the public booking lookup, keyed by reference ID.
+ * <p>
+ * Entries are dropped after commit when the booking is changed or deleted, or when its schedule changes, and
+ * otherwise expire after {@code app.booking.lookup-cache.ttl-ms}. Loads go through Caffeine's per-key compute, so
+ * an eviction that races with a load waits for it and removes the loaded value rather than being overwritten by it.
+ * Only found bookings are cached. Hit, miss and eviction counts are exported as the {@code cache.*} meters tagged
+ * {@code cache=booking.lookup}.
+ */
+@Component
+public class BookingLookupCache {
+
+  private final Cache<String, BookingResponseDTO> cache;
+
+  public BookingLookupCache(MeterRegistry registry,
+                            @Value("${app.booking.lookup-cache.max-size:10000}") long maxSize,
+                            @Value("${app.booking.lookup-cache.ttl-ms:60000}") long ttlMs) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMillis(ttlMs))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(registry, cache, "booking.lookup");
+  }
+
+  /**
+   * Returns the booking with the given reference ID if its contact number matches, loading it on a miss. The
+   * returned object is shared between callers and must not be modified.
+   */
+  public Optional<BookingResponseDTO> get(String referenceId, String contactNumber,
+                                          Supplier<Optional<BookingResponseDTO>> loader) {
+    BookingResponseDTO booking = cache.get(referenceId, key -> loader.get().orElse(null));
+    if (booking == null || !Objects.equals(booking.getContactNumber(), contactNumber)) {
+      return Optional.empty();
+    }
+    return Optional.of(booking);
+  }
+
+  public void evict(String referenceId) {
+    cache.invalidate(referenceId);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+    evict(event.referenceId());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onScheduleChanged(ScheduleChangedEvent event) {
+    // Schedule changes are rare next to lookups, so a scan beats keeping a schedule-to-bookings index current
+    cache.asMap().values().removeIf(booking -> Objects.equals(booking.getScheduleId(), event.scheduleId()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSchedulesTransitioned(SchedulesTransitionedEvent event) {
+    Set<Long> scheduleIds = Set.copyOf(event.scheduleIds());
+    cache.asMap().values().removeIf(booking -> scheduleIds.contains(booking.getScheduleId()));
+  }
+
+  long size() {
+    cache.cleanUp();
+    return cache.estimatedSize();
+  }
+}
@@ -0,0 +1,157 @@
+package com.uor.eng.util;
+
+import com.uor.eng.event.BookingStatusChangedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
+import com.uor.eng.model.BookingStatus;
+import com.uor.eng.payload.dashboard.MonthlyStatusCount;
+import com.uor.eng.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-month booking counts by status, keyed by the month the booking was made in.
+ * <p>
+ * A month is loaded with one {@code GROUP BY} query the first time it is asked for and is then kept current from
+ * committed {@link BookingStatusChangedEvent}s, so dashboard reads do not touch the bookings table. Entries are
+ * reloaded after {@code app.booking.stats.ttl-ms} to correct any drift from changes made outside the services
+ * (e.g. manual SQL) or from an event that raced with the initial load.
+ */
+@Component
+@Slf4j
+public class BookingStatsCache {
+
+  private static final BookingStatus[] STATUSES = BookingStatus.values();
+
+  private final BookingRepository bookingRepository;
+  private final ConcurrentHashMap<YearMonth, MonthCounts> months = new ConcurrentHashMap<>();
+  private final long ttlNanos;
+
+  public BookingStatsCache(BookingRepository bookingRepository,
+                           @Value("${app.booking.stats.ttl-ms:600000}") long ttlMs) {
+    this.bookingRepository = bookingRepository;
+    this.ttlNanos = ttlMs * 1_000_000L;
+  }
+
+  /**
+   * Returns one snapshot per month from {@code from} to {@code to}, both inclusive, in calendar order.
+   */
+  public List<MonthSnapshot> getRange(YearMonth from, YearMonth to) {
+    long now = System.nanoTime();
+    YearMonth firstMissing = null;
+    YearMonth lastMissing = null;
+    for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+      MonthCounts counts = months.get(month);
+      if (counts == null || now - counts.loadedAt >= ttlNanos) {
+        if (firstMissing == null) {
+          firstMissing = month;
+        }
+        lastMissing = month;
+      }
+    }
+    Map<YearMonth, MonthCounts> loaded = firstMissing != null ? load(firstMissing, lastMissing) : Map.of();
+
+    List<MonthSnapshot> snapshots = new ArrayList<>();
+    for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+      MonthCounts counts = loaded.get(month);
+      if (counts == null) {
+        counts = months.get(month);
+      }
+      if (counts == null) {
+        // Evicted while this read was in progress
+        counts = load(month, month).get(month);
+      }
+      snapshots.add(counts.snapshot(month));
+    }
+    return snapshots;
+  }
+
+  public MonthSnapshot getMonth(YearMonth month) {
+    return getRange(month, month).get(0);
+  }
+
+  public void evictAll() {
+    months.clear();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+    if (event.bookingDate() == null || !event.statusChanged()) {
+      return;
+    }
+    // Months that are not cached yet will pick the change up when they are loaded
+    MonthCounts counts = months.get(YearMonth.from(event.bookingDate()));
+    if (counts != null) {
+      counts.add(event.previousStatus(), -1);
+      counts.add(event.newStatus(), 1);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSchedulesTransitioned(SchedulesTransitionedEvent event) {
+    if (event.bookingStatus() != null) {
+      // A bulk update does not say which months its bookings were made in
+      evictAll();
+    }
+  }
+
+  private Map<YearMonth, MonthCounts> load(YearMonth from, YearMonth to) {
+    List<MonthlyStatusCount> rows = bookingRepository.countByMonthAndStatus(from.atDay(1), to.plusMonths(1).atDay(1));
+    Map<YearMonth, MonthCounts> loaded = new HashMap<>();
+    for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+      loaded.put(month, new MonthCounts());
+    }
+    for (MonthlyStatusCount row : rows) {
+      MonthCounts counts = loaded.get(YearMonth.of(row.getBookingYear(), row.getBookingMonth()));
+      if (counts != null) {
+        counts.add(row.getBookingStatus(), row.getTotal());
+      }
+    }
+    months.putAll(loaded);
+    log.debug("Loaded booking stats for {} to {} ({} rows)", from, to, rows.size());
+    return loaded;
+  }
+
+  public record MonthSnapshot(YearMonth month, long[] countsByStatus) {
+
+    public long count(BookingStatus status) {
+      return countsByStatus[status.ordinal()];
+    }
+
+    public long total() {
+      long total = 0;
+      for (long count : countsByStatus) {
+        total += count;
+      }
+      return total;
+    }
+  }
+
+  private static final class MonthCounts {
+    private final AtomicLongArray counts = new AtomicLongArray(STATUSES.length);
+    private final long loadedAt = System.nanoTime();
+
+    private void add(BookingStatus status, long delta) {
+      if (status != null) {
+        counts.addAndGet(status.ordinal(), delta);
+      }
+    }
+
+    private MonthSnapshot snapshot(YearMonth month) {
+      long[] values = new long[STATUSES.length];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = Math.max(counts.get(i), 0);
+      }
+      return new MonthSnapshot(month, values);
+    }
+  }
+}
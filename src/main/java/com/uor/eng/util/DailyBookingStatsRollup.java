@@ -0,0 +1,186 @@
+package com.uor.eng.util;
+
+import com.uor.eng.event.BookingStatusChangedEvent;
+import com.uor.eng.event.ScheduleMovedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
+import com.uor.eng.model.BookingStatus;
+import com.uor.eng.model.DailyBookingStats;
+import com.uor.eng.payload.dashboard.DailyStatusCount;
+import com.uor.eng.repository.BookingRepository;
+import com.uor.eng.repository.DailyBookingStatsRepository;
+import com.uor.eng.repository.ScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Maintains the {@code daily_booking_stats} rollup, one row per appointment date and dentist.
+ * <p>
+ * Single booking writes add their deltas to the row in the same transaction, creating it first if needed. Bulk
+ * status transitions and moved schedules recompute the affected days from the bookings table, and
+ * {@link #rebuild(LocalDate, LocalDate)} does the same for any range, {@code app.booking.stats.rebuild-chunk-days}
+ * days per transaction; it backfills the table and corrects drift from concurrent recomputes or manual SQL.
+ */
+@Component
+@Slf4j
+public class DailyBookingStatsRollup {
+
+  private final DailyBookingStatsRepository statsRepository;
+  private final BookingRepository bookingRepository;
+  private final ScheduleRepository scheduleRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate newTransactionTemplate;
+  private final int rebuildChunkDays;
+
+  public DailyBookingStatsRollup(DailyBookingStatsRepository statsRepository,
+                                 BookingRepository bookingRepository,
+                                 ScheduleRepository scheduleRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.booking.stats.rebuild-chunk-days:31}") int rebuildChunkDays) {
+    this.statsRepository = statsRepository;
+    this.bookingRepository = bookingRepository;
+    this.scheduleRepository = scheduleRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.rebuildChunkDays = Math.max(1, rebuildChunkDays);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+    if (event.appointmentDate() == null || event.dentistId() == null || !event.statusChanged()) {
+      return;
+    }
+    int[] deltas = new int[Column.values().length];
+    if (event.previousStatus() == null) {
+      deltas[Column.CREATED.ordinal()]++;
+    } else {
+      deltas[Column.of(event.previousStatus()).ordinal()]--;
+    }
+    if (event.newStatus() == null) {
+      deltas[Column.CREATED.ordinal()]--;
+    } else {
+      deltas[Column.of(event.newStatus()).ordinal()]++;
+    }
+    add(event.appointmentDate(), event.dentistId(), deltas);
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onSchedulesTransitioned(SchedulesTransitionedEvent event) {
+    if (event.bookingStatus() != null) {
+      scheduleRepository.findDatesByIds(event.scheduleIds()).forEach(date -> rebuild(date, date));
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onScheduleMoved(ScheduleMovedEvent event) {
+    for (LocalDate date : new TreeSet<>(List.of(event.previousDate(), event.date()))) {
+      rebuild(date, date);
+    }
+  }
+
+  /**
+   * Recomputes the rows for {@code from} to {@code to}, both inclusive. Joins the caller's transaction if there
+   * is one.
+   *
+   * @return the number of rows written
+   */
+  public int rebuild(LocalDate from, LocalDate to) {
+    int rows = 0;
+    for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(rebuildChunkDays)) {
+      LocalDate chunkFrom = start;
+      LocalDate chunkEnd = start.plusDays(rebuildChunkDays - 1L);
+      LocalDate chunkTo = chunkEnd.isAfter(to) ? to : chunkEnd;
+      rows += Objects.requireNonNull(transactionTemplate.execute(tx -> rebuildChunk(chunkFrom, chunkTo)));
+    }
+    log.debug("Rebuilt {} daily booking stats rows for {} to {}", rows, from, to);
+    return rows;
+  }
+
+  /**
+   * Builds the rollup for every date that has schedules, if it has never been built.
+   */
+  public void backfillIfEmpty() {
+    if (statsRepository.count() > 0) {
+      return;
+    }
+    LocalDate first = scheduleRepository.findFirstDate().orElse(null);
+    LocalDate last = scheduleRepository.findLastDate().orElse(null);
+    if (first != null && last != null) {
+      int rows = rebuild(first, last);
+      log.info("Backfilled {} daily booking stats rows for {} to {}", rows, first, last);
+    }
+  }
+
+  private int rebuildChunk(LocalDate from, LocalDate to) {
+    statsRepository.deleteByStatDateBetween(from, to);
+    Map<String, DailyBookingStats> rows = new LinkedHashMap<>();
+    for (DailyStatusCount count : bookingRepository.countByAppointmentDateAndDentist(from, to)) {
+      DailyBookingStats row = rows.computeIfAbsent(count.getStatDate() + "/" + count.getDentistId(),
+          key -> DailyBookingStats.builder().statDate(count.getStatDate()).dentistId(count.getDentistId()).build());
+      int total = count.getTotal().intValue();
+      row.setCreated(row.getCreated() + total);
+      Column.of(count.getBookingStatus()).add(row, total);
+    }
+    statsRepository.saveAll(rows.values());
+    return rows.size();
+  }
+
+  private void add(LocalDate date, Long dentistId, int[] deltas) {
+    if (addCounts(date, dentistId, deltas) > 0) {
+      return;
+    }
+    try {
+      // Committed on its own, so a concurrent booking that loses the race for the insert can still add to the row
+      newTransactionTemplate.executeWithoutResult(tx -> statsRepository.saveAndFlush(
+          DailyBookingStats.builder().statDate(date).dentistId(dentistId).build()));
+    } catch (DataIntegrityViolationException e) {
+      log.debug("Daily booking stats row for {} and dentist {} was created concurrently", date, dentistId);
+    }
+    addCounts(date, dentistId, deltas);
+  }
+
+  private int addCounts(LocalDate date, Long dentistId, int[] deltas) {
+    return statsRepository.addCounts(date, dentistId,
+        deltas[Column.CREATED.ordinal()], deltas[Column.PENDING.ordinal()], deltas[Column.ACTIVE.ordinal()],
+        deltas[Column.FINISHED.ordinal()], deltas[Column.CANCELLED.ordinal()], deltas[Column.ABSENT.ordinal()]);
+  }
+
+  private enum Column {
+    CREATED, PENDING, ACTIVE, FINISHED, CANCELLED, ABSENT;
+
+    static Column of(BookingStatus status) {
+      return switch (status) {
+        case PENDING -> PENDING;
+        case ACTIVE -> ACTIVE;
+        case FINISHED -> FINISHED;
+        case CANCELLED -> CANCELLED;
+        case ABSENT -> ABSENT;
+      };
+    }
+
+    void add(DailyBookingStats row, int count) {
+      switch (this) {
+        case CREATED -> row.setCreated(row.getCreated() + count);
+        case PENDING -> row.setPending(row.getPending() + count);
+        case ACTIVE -> row.setActive(row.getActive() + count);
+        case FINISHED -> row.setFinished(row.getFinished() + count);
+        case CANCELLED -> row.setCancelled(row.getCancelled() + count);
+        case ABSENT -> row.setAbsent(row.getAbsent() + count);
+      }
+    }
+  }
+}
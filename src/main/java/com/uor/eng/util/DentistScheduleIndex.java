@@ -0,0 +1,243 @@
+package com.uor.eng.util;
+
+import com.uor.eng.event.ScheduleChangedEvent;
+import com.uor.eng.event.SchedulesCreatedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
+import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.payload.schedule.FreeSlotResponse;
+import com.uor.eng.payload.schedule.ScheduleInterval;
+import com.uor.eng.repository.ScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The time each dentist's schedules take up, for overlap checks and free-time search without going to the
+ * schedules table.
+ * <p>
+ * A dentist's timeline is loaded with one query on first use and holds every schedule that is not cancelled,
+ * ordered by start. Schedules never span midnight, so the intervals overlapping a range all start within the
+ * longest schedule's length before it; an overlap check is one seek into the ordered set. Committed schedule
+ * changes are applied in place, and a timeline is reloaded after {@code app.schedule.index.ttl-ms} to pick up
+ * changes made on other nodes or outside the services.
+ */
+@Component
+@Slf4j
+public class DentistScheduleIndex {
+
+  private static final Comparator<Interval> BY_START =
+      Comparator.comparing(Interval::start).thenComparing(Interval::scheduleId);
+
+  private final ScheduleRepository scheduleRepository;
+  private final long ttlNanos;
+  private final LocalTime workdayStart;
+  private final LocalTime workdayEnd;
+  private final Map<Long, Timeline> timelines = new ConcurrentHashMap<>();
+  private long version;
+
+  public DentistScheduleIndex(ScheduleRepository scheduleRepository,
+                              @Value("${app.schedule.index.ttl-ms:300000}") long ttlMs,
+                              @Value("${app.schedule.working-hours.start:08:00}") String workdayStart,
+                              @Value("${app.schedule.working-hours.end:20:00}") String workdayEnd) {
+    this.scheduleRepository = scheduleRepository;
+    this.ttlNanos = ttlMs * 1_000_000L;
+    this.workdayStart = LocalTime.parse(workdayStart);
+    this.workdayEnd = LocalTime.parse(workdayEnd);
+  }
+
+  /**
+   * The dentist's schedule overlapping {@code start} to {@code end} on {@code date}, if any, other than
+   * {@code ignoredScheduleId}.
+   */
+  public Optional<Long> findConflict(Long dentistId, LocalDate date, LocalTime start, LocalTime end,
+                                     Long ignoredScheduleId) {
+    Timeline timeline = timeline(dentistId);
+    LocalDateTime from = LocalDateTime.of(date, start);
+    LocalDateTime to = LocalDateTime.of(date, end);
+    synchronized (this) {
+      return timeline.overlapping(from, to).stream()
+          .map(Interval::scheduleId)
+          .filter(id -> !id.equals(ignoredScheduleId))
+          .findFirst();
+    }
+  }
+
+  /**
+   * Gaps of at least {@code minimum}, which must be positive, between the dentist's schedules within working hours
+   * from {@code from} to {@code to} inclusive, leaving out time that has already passed.
+   */
+  public List<FreeSlotResponse> findFreeSlots(Long dentistId, LocalDate from, LocalDate to, Duration minimum) {
+    Timeline timeline = timeline(dentistId);
+    LocalDateTime now = LocalDateTime.now();
+    List<FreeSlotResponse> slots = new ArrayList<>();
+    for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+      LocalDateTime dayEnd = LocalDateTime.of(date, workdayEnd);
+      LocalDateTime free = LocalDateTime.of(date, workdayStart);
+      if (free.isBefore(now)) {
+        free = now.withSecond(0).withNano(0);
+      }
+      List<Interval> busy;
+      synchronized (this) {
+        busy = timeline.overlapping(free, dayEnd);
+      }
+      for (Interval interval : busy) {
+        addSlot(slots, free, interval.start(), minimum);
+        if (interval.end().isAfter(free)) {
+          free = interval.end();
+        }
+      }
+      addSlot(slots, free, dayEnd, minimum);
+    }
+    return slots;
+  }
+
+  /**
+   * Moves a changed schedule on its dentist's timeline, or takes it off once cancelled or deleted.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onScheduleChanged(ScheduleChangedEvent event) {
+    TransactionHooks.readBeforeCommit(
+        () -> scheduleRepository.findInterval(event.scheduleId(), ScheduleStatus.CANCELLED).orElse(null),
+        interval -> apply(event.scheduleId(), interval));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSchedulesTransitioned(SchedulesTransitionedEvent event) {
+    if (event.scheduleStatus() == ScheduleStatus.CANCELLED) {
+      event.scheduleIds().forEach(scheduleId -> apply(scheduleId, null));
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onSchedulesCreated(SchedulesCreatedEvent event) {
+    // Bulk inserts carry no IDs; the next lookup reloads the dentist
+    version++;
+    timelines.remove(event.dentistId());
+  }
+
+  int size(Long dentistId) {
+    Timeline timeline = timelines.get(dentistId);
+    return timeline != null ? timeline.byId.size() : 0;
+  }
+
+  private synchronized void apply(Long scheduleId, ScheduleInterval interval) {
+    version++;
+    timelines.values().forEach(timeline -> timeline.remove(scheduleId));
+    if (interval != null) {
+      Timeline timeline = timelines.get(interval.getDentistId());
+      if (timeline != null) {
+        timeline.add(Interval.of(interval));
+      }
+    }
+  }
+
+  private Timeline timeline(Long dentistId) {
+    Timeline current = timelines.get(dentistId);
+    if (current != null && System.nanoTime() - current.loadedAt < ttlNanos) {
+      return current;
+    }
+    long startVersion;
+    synchronized (this) {
+      startVersion = version;
+    }
+    Timeline loaded = new Timeline(System.nanoTime());
+    scheduleRepository.findIntervalsByDentist(dentistId, ScheduleStatus.CANCELLED)
+        .forEach(interval -> loaded.add(Interval.of(interval)));
+    synchronized (this) {
+      // A change committed while we were reading may be missing from the result; use it once but do not keep it
+      if (version == startVersion) {
+        timelines.put(dentistId, loaded);
+      }
+    }
+    log.debug("Loaded {} schedules of dentist {}", loaded.byId.size(), dentistId);
+    return loaded;
+  }
+
+  private static void addSlot(List<FreeSlotResponse> slots, LocalDateTime start, LocalDateTime end,
+                              Duration minimum) {
+    Duration length = Duration.between(start, end);
+    if (length.compareTo(minimum) < 0) {
+      return;
+    }
+    slots.add(FreeSlotResponse.builder()
+        .date(start.toLocalDate())
+        .startTime(start.toLocalTime())
+        .endTime(end.toLocalTime())
+        .duration(length.toMinutes())
+        .build());
+  }
+
+  private record Interval(Long scheduleId, LocalDateTime start, LocalDateTime end) {
+
+    static Interval of(ScheduleInterval interval) {
+      return new Interval(interval.getId(), LocalDateTime.of(interval.getDate(), interval.getStartTime()),
+          LocalDateTime.of(interval.getDate(), interval.getEndTime()));
+    }
+
+    Duration length() {
+      return Duration.between(start, end);
+    }
+  }
+
+  /**
+   * One dentist's schedules. Callers hold the index's lock.
+   */
+  private static final class Timeline {
+
+    private final NavigableSet<Interval> byStart = new TreeSet<>(BY_START);
+    private final Map<Long, Interval> byId = new HashMap<>();
+    private final long loadedAt;
+    // Only grows until the next reload, which keeps the lookback in overlapping() safe
+    private Duration longest = Duration.ZERO;
+
+    Timeline(long loadedAt) {
+      this.loadedAt = loadedAt;
+    }
+
+    void add(Interval interval) {
+      remove(interval.scheduleId());
+      byStart.add(interval);
+      byId.put(interval.scheduleId(), interval);
+      if (interval.length().compareTo(longest) > 0) {
+        longest = interval.length();
+      }
+    }
+
+    void remove(Long scheduleId) {
+      Interval previous = byId.remove(scheduleId);
+      if (previous != null) {
+        byStart.remove(previous);
+      }
+    }
+
+    /**
+     * Intervals overlapping {@code from} to {@code to}, ordered by start.
+     */
+    List<Interval> overlapping(LocalDateTime from, LocalDateTime to) {
+      if (!from.isBefore(to)) {
+        return List.of();
+      }
+      Interval lowest = new Interval(Long.MIN_VALUE, from.minus(longest), from.minus(longest));
+      Interval highest = new Interval(Long.MIN_VALUE, to, to);
+      return byStart.subSet(lowest, true, highest, false).stream()
+          .filter(interval -> interval.end().isAfter(from))
+          .toList();
+    }
+  }
+}
@@ -0,0 +1,227 @@
+package com.uor.eng.util;
+
+import com.uor.eng.model.EmailOutbox;
+import com.uor.eng.model.EmailOutboxStatus;
+import com.uor.eng.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the {@code email_outbox} table on a small worker pool. Due messages are handed out in batches of
+ * {@code app.email.outbox.send-batch-size}, and each batch is sent over one SMTP connection. Every message is
+ * claimed with a lease before it is sent, failed sends are retried with exponential backoff, and a message that
+ * keeps failing is parked as {@link EmailOutboxStatus#DEAD} for manual follow-up.
+ */
+@Component
+@Slf4j
+public class EmailOutboxDispatcher {
+
+  private final EmailOutboxRepository outboxRepository;
+  private final EmailService emailService;
+  private final ThreadPoolExecutor workers;
+  private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger lastBacklog = new AtomicInteger();
+
+  private final int batchSize;
+  private final int sendBatchSize;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+  private final Duration lease;
+  private final Duration retention;
+
+  private final Counter sentCounter;
+  private final Counter retryCounter;
+  private final Counter deadCounter;
+  private final Timer deliveryTimer;
+  private final DistributionSummary sendBatchSummary;
+
+  public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                               EmailService emailService,
+                               MeterRegistry registry,
+                               @Value("${app.email.outbox.threads:4}") int threads,
+                               @Value("${app.email.outbox.batch-size:50}") int batchSize,
+                               @Value("${app.email.outbox.send-batch-size:10}") int sendBatchSize,
+                               @Value("${app.email.outbox.max-attempts:6}") int maxAttempts,
+                               @Value("${app.email.outbox.initial-backoff-ms:30000}") long initialBackoffMs,
+                               @Value("${app.email.outbox.max-backoff-ms:3600000}") long maxBackoffMs,
+                               @Value("${app.email.outbox.lease-ms:300000}") long leaseMs,
+                               @Value("${app.email.outbox.retention-days:30}") int retentionDays) {
+    this.outboxRepository = outboxRepository;
+    this.emailService = emailService;
+    this.batchSize = batchSize;
+    this.sendBatchSize = Math.max(1, sendBatchSize);
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+    this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+    this.lease = Duration.ofMillis(leaseMs);
+    this.retention = Duration.ofDays(retentionDays);
+
+    AtomicInteger threadCount = new AtomicInteger();
+    this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+      Thread thread = new Thread(runnable, "email-outbox-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    this.sentCounter = Counter.builder("app.email.outbox.sent.count")
+        .description("Number of queued emails delivered")
+        .register(registry);
+    this.retryCounter = Counter.builder("app.email.outbox.retry.count")
+        .description("Number of failed email deliveries scheduled for retry")
+        .register(registry);
+    this.deadCounter = Counter.builder("app.email.outbox.dead.count")
+        .description("Number of emails moved to the dead-letter state")
+        .register(registry);
+    this.deliveryTimer = Timer.builder("app.email.outbox.delivery.time")
+        .description("Time taken to deliver a batch of queued emails over one SMTP connection")
+        .register(registry);
+    this.sendBatchSummary = DistributionSummary.builder("app.email.outbox.send-batch.size")
+        .description("Emails sent per SMTP connection")
+        .register(registry);
+    Gauge.builder("app.email.outbox.backlog", lastBacklog, AtomicInteger::get)
+        .description("Due emails seen on the last outbox poll")
+        .register(registry);
+    Gauge.builder("app.email.outbox.in-flight", queued, Set::size)
+        .description("Emails handed to the dispatcher pool and not yet finished")
+        .register(registry);
+  }
+
+  /**
+   * Picks up due messages and hands them to the worker pool. Messages still queued from an earlier poll are
+   * skipped, so a slow SMTP server cannot make the queue grow without bound.
+   */
+  @Scheduled(fixedDelayString = "${app.email.outbox.poll-ms:2000}")
+  public void poll() {
+    int capacity = batchSize - queued.size();
+    if (capacity <= 0) {
+      return;
+    }
+    try {
+      List<Long> dueIds = outboxRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, capacity));
+      lastBacklog.set(dueIds.size());
+      List<Long> fresh = dueIds.stream().filter(queued::add).toList();
+      for (int from = 0; from < fresh.size(); from += sendBatchSize) {
+        List<Long> batch = fresh.subList(from, Math.min(from + sendBatchSize, fresh.size()));
+        workers.execute(() -> {
+          try {
+            dispatch(batch);
+          } finally {
+            batch.forEach(queued::remove);
+          }
+        });
+      }
+    } catch (Exception e) {
+      log.error("Error polling the email outbox", e);
+    }
+  }
+
+  /**
+   * Removes delivered messages once they are past the retention window. Dead messages are kept.
+   */
+  @Scheduled(cron = "0 30 0 * * *") // Daily at 00:30
+  public void purgeSent() {
+    int deleted = outboxRepository.deleteSentBefore(LocalDateTime.now().minus(retention));
+    if (deleted > 0) {
+      log.info("Purged {} delivered emails from the outbox", deleted);
+    }
+  }
+
+  void dispatch(List<Long> ids) {
+    List<Long> claimed = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      LocalDateTime now = LocalDateTime.now();
+      if (outboxRepository.claim(id, now, now.plus(lease)) > 0) {
+        claimed.add(id);
+      }
+    }
+    if (claimed.isEmpty()) {
+      return;
+    }
+    List<EmailOutbox> emails = outboxRepository.findAllById(claimed);
+    if (emails.isEmpty()) {
+      return;
+    }
+
+    Map<Long, Exception> failures;
+    Timer.Sample sample = Timer.start();
+    try {
+      failures = emailService.deliver(emails);
+    } catch (Exception e) {
+      failures = new HashMap<>();
+      for (EmailOutbox email : emails) {
+        failures.put(email.getId(), e);
+      }
+    }
+    sample.stop(deliveryTimer);
+    sendBatchSummary.record(emails.size());
+
+    for (EmailOutbox email : emails) {
+      Exception failure = failures.get(email.getId());
+      if (failure == null) {
+        outboxRepository.markSent(email.getId(), LocalDateTime.now());
+        sentCounter.increment();
+      } else {
+        handleFailure(email, failure);
+      }
+    }
+  }
+
+  private void handleFailure(EmailOutbox email, Exception e) {
+    String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+    if (email.getAttempts() >= maxAttempts) {
+      outboxRepository.markFailed(email.getId(), EmailOutboxStatus.DEAD, LocalDateTime.now(), error);
+      deadCounter.increment();
+      log.error("Giving up on {} email {} to {} after {} attempts: {}",
+          email.getType(), email.getId(), email.getRecipient(), email.getAttempts(), error);
+    } else {
+      Duration delay = backoff(email.getAttempts());
+      outboxRepository.markFailed(email.getId(), EmailOutboxStatus.PENDING, LocalDateTime.now().plus(delay), error);
+      retryCounter.increment();
+      log.warn("Failed to send {} email {} to {} (attempt {}), retrying in {}s: {}",
+          email.getType(), email.getId(), email.getRecipient(), email.getAttempts(), delay.toSeconds(), error);
+    }
+  }
+
+  Duration backoff(int attempts) {
+    long factor = 1L << Math.min(Math.max(attempts - 1, 0), 20);
+    Duration delay = initialBackoff.multipliedBy(factor);
+    return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+  }
+
+  private static String truncate(String error) {
+    return error.length() > 1000 ? error.substring(0, 1000) : error;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    workers.shutdown();
+    try {
+      if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+        workers.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      workers.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
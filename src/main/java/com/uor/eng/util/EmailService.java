@@ -1,12 +1,17 @@
 package com.uor.eng.util;
 
 import com.uor.eng.exceptions.EmailSendingException;
+import com.uor.eng.model.EmailOutbox;
+import com.uor.eng.model.EmailType;
 import com.uor.eng.payload.booking.BookingResponseDTO;
 import com.uor.eng.payload.other.ContactDTO;
+import com.uor.eng.repository.EmailOutboxRepository;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
@@ -18,30 +23,39 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Renders the application's emails and queues them in the {@code email_outbox} table. The {@code send*}
+ * methods only write the outbox row, so they join the caller's transaction and never wait on SMTP;
+ * {@link EmailOutboxDispatcher} delivers the rows in batches through {@link #deliver(List)}.
+ */
 @Service
 public class EmailService {
 
   private final JavaMailSender mailSender;
+  private final EmailOutboxRepository outboxRepository;
 
-  public EmailService(JavaMailSender mailSender) {
+  public EmailService(JavaMailSender mailSender, EmailOutboxRepository outboxRepository) {
     this.mailSender = mailSender;
+    this.outboxRepository = outboxRepository;
   }
 
   @Value("${spring.mail.username}")
   private String fromEmail;
 
   public void sendBookingConfirmation(BookingResponseDTO bookingDetails) {
-    sendEmail("templates/booking-confirmation.html", "Appointment Confirmation - Reference ID: " + bookingDetails.getReferenceId(), bookingDetails);
+    sendEmail(EmailType.BOOKING_CONFIRMATION, "templates/booking-confirmation.html", "Appointment Confirmation - Reference ID: " + bookingDetails.getReferenceId(), bookingDetails);
   }
 
   public void sendBookingCancellation(BookingResponseDTO bookingDetails) {
-    sendEmail("templates/booking-cancellation.html", "Appointment Cancellation - Reference ID: " + bookingDetails.getReferenceId(), bookingDetails);
+    sendEmail(EmailType.BOOKING_CANCELLATION, "templates/booking-cancellation.html", "Appointment Cancellation - Reference ID: " + bookingDetails.getReferenceId(), bookingDetails);
   }
 
   public void sendBookingActivation(BookingResponseDTO bookingDetails) {
-    sendEmail("templates/booking-activation.html", "Appointment Activation - Reference ID: " + bookingDetails.getReferenceId(), bookingDetails);
+    sendEmail(EmailType.BOOKING_ACTIVATION, "templates/booking-activation.html", "Appointment Activation - Reference ID: " + bookingDetails.getReferenceId(), bookingDetails);
   }
 
   public void sendResponseForContactUs(ContactDTO contactDTO, String reply) {
@@ -49,26 +63,79 @@ public class EmailService {
   }
 
   public void sendAppointmentReminder(BookingResponseDTO bookingDetails) {
-    sendEmail("templates/appointment-reminder.html", "Appointment Reminder - Tomorrow", bookingDetails);
+    sendEmail(EmailType.APPOINTMENT_REMINDER, "templates/appointment-reminder.html", "Appointment Reminder - Tomorrow", bookingDetails);
   }
 
-  void sendEmail(String templatePath, String subject, BookingResponseDTO bookingDetails) {
+  public void sendPasswordReset(String toEmail, String resetLink, int expirationMinutes) {
     try {
-      String template = loadTemplate(templatePath);
-      String htmlContent = populateTemplate(template, bookingDetails);
+      String htmlContent = loadTemplate("templates/passwordReset.html")
+              .replace("{{resetLink}}", resetLink)
+              .replace("{{expirationMinutes}}", String.valueOf(expirationMinutes))
+              .replace("{{currentYear}}", String.valueOf(LocalDate.now().getYear()));
+      enqueue(EmailType.PASSWORD_RESET, toEmail, "Password Reset Request", htmlContent);
+    } catch (IOException e) {
+      System.err.println("Failed to queue email (Password Reset Request) to " + toEmail + ": " + e.getMessage());
+      throw new EmailSendingException("Failed to send email to " + toEmail);
+    }
+  }
+
+  /**
+   * Sends queued messages over a single SMTP connection and returns the failures by outbox id; an empty map means
+   * every message went out. Failures are left to the dispatcher, which decides between a retry and the
+   * dead-letter state.
+   */
+  public Map<Long, Exception> deliver(List<EmailOutbox> emails) {
+    Map<Long, Exception> failures = new HashMap<>();
+    Map<MimeMessage, EmailOutbox> messages = new LinkedHashMap<>();
+    for (EmailOutbox email : emails) {
+      try {
+        messages.put(toMimeMessage(email), email);
+      } catch (MessagingException e) {
+        failures.put(email.getId(), e);
+      }
+    }
+    if (messages.isEmpty()) {
+      return failures;
+    }
+
+    try {
+      mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+    } catch (MailSendException e) {
+      if (e.getFailedMessages().isEmpty()) {
+        messages.values().forEach(email -> failures.put(email.getId(), e));
+      } else {
+        // The rest of the batch was accepted by the server
+        e.getFailedMessages().forEach((message, cause) -> {
+          EmailOutbox email = messages.get(message);
+          if (email != null) {
+            failures.put(email.getId(), cause);
+          }
+        });
+      }
+    } catch (MailException e) {
+      messages.values().forEach(email -> failures.put(email.getId(), e));
+    }
+    return failures;
+  }
 
-      MimeMessage message = mailSender.createMimeMessage();
-      MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+  private MimeMessage toMimeMessage(EmailOutbox email) throws MessagingException {
+    MimeMessage message = mailSender.createMimeMessage();
+    MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
-      helper.setFrom(fromEmail);
-      helper.setTo(bookingDetails.getEmail());
-      helper.setSubject(subject);
-      helper.setText(htmlContent, true);
+    helper.setFrom(fromEmail);
+    helper.setTo(email.getRecipient());
+    helper.setSubject(email.getSubject());
+    helper.setText(email.getBody(), true);
+    return message;
+  }
 
-      mailSender.send(message);
-      System.out.println("Email sent successfully to " + bookingDetails.getEmail() + " with subject: " + subject);
-    } catch (MessagingException | IOException e) {
-      System.err.println("Failed to send email (" + subject + ") to " + bookingDetails.getEmail() + ": " + e.getMessage());
+  void sendEmail(EmailType type, String templatePath, String subject, BookingResponseDTO bookingDetails) {
+    try {
+      String template = loadTemplate(templatePath);
+      String htmlContent = populateTemplate(template, bookingDetails);
+      enqueue(type, bookingDetails.getEmail(), subject, htmlContent);
+    } catch (IOException e) {
+      System.err.println("Failed to queue email (" + subject + ") to " + bookingDetails.getEmail() + ": " + e.getMessage());
       throw new EmailSendingException("Failed to send email to " + bookingDetails.getEmail());
     }
   }
@@ -77,23 +144,22 @@ public class EmailService {
     try {
       String template = loadTemplate("templates/contact-us-reply.html");
       String htmlContent = populateTemplate(template, contactDTO, reply);
-
-      MimeMessage message = mailSender.createMimeMessage();
-      MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-      helper.setFrom(fromEmail);
-      helper.setTo(contactDTO.getEmail());
-      helper.setSubject("Contact Us Reply");
-      helper.setText(htmlContent, true);
-
-      mailSender.send(message);
-      System.out.println("Email sent successfully to " + contactDTO.getEmail() + " with subject: " + "Contact Us Reply");
-    } catch (MessagingException | IOException e) {
-      System.err.println("Failed to send email (" + "Contact Us Reply" + ") to " + contactDTO.getEmail() + ": " + e.getMessage());
+      enqueue(EmailType.CONTACT_REPLY, contactDTO.getEmail(), "Contact Us Reply", htmlContent);
+    } catch (IOException e) {
+      System.err.println("Failed to queue email (" + "Contact Us Reply" + ") to " + contactDTO.getEmail() + ": " + e.getMessage());
       throw new EmailSendingException("Failed to send email to " + contactDTO.getEmail());
     }
   }
 
+  private void enqueue(EmailType type, String recipient, String subject, String htmlContent) {
+    outboxRepository.save(EmailOutbox.builder()
+            .type(type)
+            .recipient(recipient)
+            .subject(subject)
+            .body(htmlContent)
+            .build());
+  }
+
   String loadTemplate(String templatePath) throws IOException {
     ClassPathResource classPathResource = new ClassPathResource(templatePath);
     try (InputStream inputStream = classPathResource.getInputStream();
@@ -0,0 +1,182 @@
+package com.uor.eng.util;
+
+import com.uor.eng.exceptions.JobLockLostException;
+import com.uor.eng.model.JobLock;
+import com.uor.eng.repository.JobLockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs a scheduled job on one node at a time, using a lease row per job in the {@code job_locks} table.
+ * <p>
+ * A node takes the lease with a guarded UPDATE, so the check works the same on MySQL and H2. The lease is held
+ * for at most {@code app.jobs.lock.at-most-for-ms}, after which another node may take it even if the holder died
+ * without releasing it, and for at least {@code app.jobs.lock.at-least-for-ms}, so a node whose clock runs slightly
+ * behind does not run the same cron tick again. Every acquisition raises the lease's token; jobs call
+ * {@link #fence()} in each transaction they commit, which fails once the token has moved on, so a holder that
+ * outlived its lease cannot write after the next one has started.
+ */
+@Component
+@Slf4j
+public class JobLockManager {
+
+  private final JobLockRepository lockRepository;
+  private final MeterRegistry registry;
+  private final String nodeId;
+  private final Duration atMostFor;
+  private final Duration atLeastFor;
+  private final Set<String> held = ConcurrentHashMap.newKeySet();
+  private final ThreadLocal<Lease> current = new ThreadLocal<>();
+
+  public JobLockManager(JobLockRepository lockRepository,
+                        MeterRegistry registry,
+                        @Value("${app.jobs.node-id:}") String nodeId,
+                        @Value("${app.jobs.lock.at-most-for-ms:900000}") long atMostForMs,
+                        @Value("${app.jobs.lock.at-least-for-ms:30000}") long atLeastForMs) {
+    this.lockRepository = lockRepository;
+    this.registry = registry;
+    this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+    this.atMostFor = Duration.ofMillis(atMostForMs);
+    this.atLeastFor = Duration.ofMillis(atLeastForMs);
+  }
+
+  /**
+   * Runs {@code task} if this node can take the lease on {@code job}, with the configured lease bounds.
+   *
+   * @return whether the task ran
+   */
+  public boolean runLocked(String job, Runnable task) {
+    return runLocked(job, atLeastFor, task);
+  }
+
+  /**
+   * Same as {@link #runLocked(String, Runnable)} with a job-specific minimum hold; jobs triggered by events rather
+   * than a cron tick pass {@link Duration#ZERO}.
+   */
+  public boolean runLocked(String job, Duration minimumHold, Runnable task) {
+    Gauge.builder("app.job.lock.held", held, locks -> locks.contains(job) ? 1 : 0)
+        .description("1 while this node holds the job's lease")
+        .tag("job", job)
+        .register(registry);
+
+    LocalDateTime now = LocalDateTime.now();
+    Lease lease = acquire(job, now);
+    if (lease == null) {
+      Counter.builder("app.job.lock.skipped.count")
+          .description("Job runs skipped because another node held the lease")
+          .tag("job", job)
+          .register(registry)
+          .increment();
+      log.debug("Skipping job {}: the lease is held by another node", job);
+      return false;
+    }
+
+    held.add(job);
+    current.set(lease);
+    Timer.Sample sample = Timer.start(registry);
+    String outcome = "success";
+    try {
+      task.run();
+      return true;
+    } catch (JobLockLostException e) {
+      outcome = "lost";
+      throw e;
+    } catch (RuntimeException e) {
+      outcome = "error";
+      throw e;
+    } finally {
+      sample.stop(Timer.builder("app.job.run.time")
+          .description("Time taken by job runs that held the lease")
+          .tag("job", job)
+          .tag("outcome", outcome)
+          .register(registry));
+      current.remove();
+      held.remove(job);
+      release(lease, now.plus(minimumHold));
+    }
+  }
+
+  /**
+   * When a node, this one or another, last took the lease on {@code job}; empty if the job never ran.
+   */
+  public Optional<LocalDateTime> lastAcquiredAt(String job) {
+    return lockRepository.findById(job).map(JobLock::getLockedAt);
+  }
+
+  /**
+   * Checks, inside the caller's transaction, that the lease the current thread runs under is still its own, and
+   * keeps the lease row locked until that transaction ends. Does nothing outside {@link #runLocked}, e.g. when an
+   * admin triggers a job by hand.
+   *
+   * @throws JobLockLostException if another node has taken the lease since
+   */
+  public void fence() {
+    Lease lease = current.get();
+    if (lease == null) {
+      return;
+    }
+    long token = lockRepository.findForUpdate(lease.job()).map(JobLock::getToken).orElse(-1L);
+    if (token != lease.token()) {
+      throw new JobLockLostException("Lease on job " + lease.job() + " was taken over (token " + lease.token()
+          + ", now " + token + ")");
+    }
+  }
+
+  private Lease acquire(String job, LocalDateTime now) {
+    JobLock lock = lockRepository.findById(job).orElseGet(() -> create(job));
+    if (lock.getLockedUntil() != null && lock.getLockedUntil().isAfter(now)) {
+      return null;
+    }
+    if (lockRepository.acquire(job, lock.getToken(), nodeId, now, now.plus(atMostFor)) == 0) {
+      return null;
+    }
+    return new Lease(job, lock.getToken() + 1);
+  }
+
+  private JobLock create(String job) {
+    try {
+      return lockRepository.saveAndFlush(JobLock.builder().name(job).token(0).build());
+    } catch (DataIntegrityViolationException e) {
+      // Another node created it first
+      return lockRepository.findById(job).orElseThrow(() -> e);
+    }
+  }
+
+  private void release(Lease lease, LocalDateTime heldUntil) {
+    LocalDateTime now = LocalDateTime.now();
+    try {
+      lockRepository.release(lease.job(), lease.token(), heldUntil.isAfter(now) ? heldUntil : now);
+    } catch (Exception e) {
+      // The lease then simply runs out at its upper bound
+      log.error("Failed to release the lease on job {}", lease.job(), e);
+    }
+  }
+
+  private static String defaultNodeId() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      host = "node";
+    }
+    return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  private record Lease(String job, long token) {
+  }
+}
@@ -0,0 +1,270 @@
+package com.uor.eng.util;
+
+import com.uor.eng.event.PatientChangedEvent;
+import com.uor.eng.event.PatientLogChangedEvent;
+import com.uor.eng.payload.patient.logs.PatientLogSearchEntry;
+import com.uor.eng.repository.PatientLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Full-text search over patient logs' action types and descriptions, held in memory.
+ * <p>
+ * An inverted index maps every word to the ascending numbers of the documents containing it, and every patient and
+ * dentist to theirs, so a query is an intersection of sorted lists. Documents are append-only: an edited log is
+ * added again under a new number and its old document marked deleted, and a rebuild drops the dead ones. Only log
+ * IDs and timestamps are kept; callers load the matching rows. The index is built at startup, kept in step with
+ * committed log changes and rebuilt every {@code app.patient-log.search.refresh-ms} to pick up changes made on other
+ * nodes, reading {@code app.patient-log.search.rebuild-chunk-size} logs per query.
+ */
+@Component
+@Slf4j
+public class PatientLogSearchIndex {
+
+  private static final String PATIENT_KEY = "\u0001p";
+  private static final String DENTIST_KEY = "\u0001d";
+
+  private final PatientLogRepository logRepository;
+  private final int rebuildChunkSize;
+  private final RebuildableIndex<Index> index = new RebuildableIndex<>(new Index());
+
+  public PatientLogSearchIndex(PatientLogRepository logRepository,
+                               @Value("${app.patient-log.search.rebuild-chunk-size:5000}") int rebuildChunkSize) {
+    this.logRepository = logRepository;
+    this.rebuildChunkSize = Math.max(1, rebuildChunkSize);
+  }
+
+  /**
+   * The IDs of the newest {@code limit} logs containing every word of {@code query}, optionally only those of one
+   * patient and/or written by one dentist, and how many logs matched in all.
+   */
+  public Hits search(String query, Long patientId, Long dentistId, int limit) {
+    List<String> keys = new ArrayList<>(words(query).stream().distinct().toList());
+    if (keys.isEmpty()) {
+      return new Hits(0, List.of());
+    }
+    if (patientId != null) {
+      keys.add(PATIENT_KEY + patientId);
+    }
+    if (dentistId != null) {
+      keys.add(DENTIST_KEY + dentistId);
+    }
+    return index.read(current -> current.search(keys, limit));
+  }
+
+  /**
+   * Replaces the index with one read from the database.
+   */
+  public void rebuild() {
+    Index loaded = index.rebuild(this::load);
+    log.info("Indexed {} patient logs for search", loaded.size());
+  }
+
+  @Scheduled(fixedDelayString = "${app.patient-log.search.refresh-ms:3600000}",
+      initialDelayString = "${app.patient-log.search.refresh-ms:3600000}")
+  public void refresh() {
+    try {
+      rebuild();
+    } catch (Exception e) {
+      log.error("Error rebuilding the patient log search index", e);
+    }
+  }
+
+  /**
+   * Indexes a new or edited log under a fresh document, or drops a deleted one.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onPatientLogChanged(PatientLogChangedEvent event) {
+    Long logId = event.logId();
+    TransactionHooks.readBeforeCommit(() -> logRepository.findSearchEntry(logId).orElse(null),
+        entry -> index.apply(current -> current.put(logId, entry)));
+  }
+
+  /**
+   * Drops the logs of a deleted patient, which go with it without a log event of their own.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onPatientChanged(PatientChangedEvent event) {
+    Long patientId = event.patientId();
+    TransactionHooks.readBeforeCommit(() -> new HashSet<>(logRepository.findIdsByPatientId(patientId)),
+        remaining -> index.apply(current -> current.retainPatientLogs(patientId, remaining)));
+  }
+
+  int size() {
+    return index.read(Index::size);
+  }
+
+  private Index load() {
+    Index loaded = new Index();
+    long afterId = 0;
+    List<PatientLogSearchEntry> chunk;
+    do {
+      chunk = logRepository.findSearchEntriesAfter(afterId, PageRequest.of(0, rebuildChunkSize));
+      for (PatientLogSearchEntry entry : chunk) {
+        loaded.put(entry.getId(), entry);
+        afterId = entry.getId();
+      }
+    } while (chunk.size() == rebuildChunkSize);
+    return loaded;
+  }
+
+  static List<String> words(String text) {
+    if (text == null) {
+      return List.of();
+    }
+    return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+        .filter(word -> !word.isEmpty())
+        .toList();
+  }
+
+  /**
+   * Matching log IDs, newest first, and the number of logs that matched.
+   */
+  public record Hits(long total, List<Long> logIds) {
+  }
+
+  /**
+   * Document numbers in ascending order.
+   */
+  private static final class Postings {
+
+    private int[] docs = new int[2];
+    private int size;
+
+    void add(int doc) {
+      if (size == docs.length) {
+        docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+      }
+      docs[size++] = doc;
+    }
+
+    /**
+     * Whether {@code doc} is in the list, looking only from {@code cursor[0]} on and moving it past smaller entries.
+     */
+    boolean contains(int doc, int[] cursor) {
+      int found = Arrays.binarySearch(docs, cursor[0], size, doc);
+      cursor[0] = found >= 0 ? found : -found - 1;
+      return found >= 0;
+    }
+  }
+
+  /**
+   * The documents and postings. Only touched under the {@link RebuildableIndex}'s lock once it is published.
+   */
+  private static final class Index {
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docByLog = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private long[] logIds = new long[1024];
+    private long[] times = new long[1024];
+    private int docCount;
+
+    int size() {
+      return docByLog.size();
+    }
+
+    void put(Long logId, PatientLogSearchEntry entry) {
+      remove(logId);
+      if (entry == null) {
+        return;
+      }
+      if (docCount == logIds.length) {
+        logIds = Arrays.copyOf(logIds, docCount * 2);
+        times = Arrays.copyOf(times, docCount * 2);
+      }
+      int doc = docCount++;
+      logIds[doc] = logId;
+      times[doc] = entry.getTimestamp() == null ? 0 : entry.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+      docByLog.put(logId, doc);
+
+      Set<String> keys = new HashSet<>(words(entry.getActionType()));
+      keys.addAll(words(entry.getDescription()));
+      keys.add(PATIENT_KEY + entry.getPatientId());
+      keys.add(DENTIST_KEY + entry.getDentistId());
+      for (String key : keys) {
+        postings.computeIfAbsent(key, k -> new Postings()).add(doc);
+      }
+    }
+
+    void remove(Long logId) {
+      Integer doc = docByLog.remove(logId);
+      if (doc != null) {
+        deleted.set(doc);
+      }
+    }
+
+    void retainPatientLogs(Long patientId, Set<Long> remaining) {
+      Postings patientDocs = postings.get(PATIENT_KEY + patientId);
+      if (patientDocs == null) {
+        return;
+      }
+      for (int i = 0; i < patientDocs.size; i++) {
+        int doc = patientDocs.docs[i];
+        if (!deleted.get(doc) && !remaining.contains(logIds[doc])) {
+          remove(logIds[doc]);
+        }
+      }
+    }
+
+    Hits search(List<String> keys, int limit) {
+      List<Postings> lists = new ArrayList<>(keys.size());
+      for (String key : keys) {
+        Postings list = postings.get(key);
+        if (list == null) {
+          return new Hits(0, List.of());
+        }
+        lists.add(list);
+      }
+      // Walk the shortest list and look the others up from where the last lookup ended
+      lists.sort(Comparator.comparingInt(list -> list.size));
+      Postings shortest = lists.get(0);
+      int[][] cursors = new int[lists.size()][1];
+      Comparator<Integer> newestLast = Comparator.<Integer>comparingLong(doc -> times[doc])
+          .thenComparingLong(doc -> logIds[doc]);
+      PriorityQueue<Integer> newest = new PriorityQueue<>(newestLast);
+      long total = 0;
+      for (int i = 0; i < shortest.size; i++) {
+        int doc = shortest.docs[i];
+        if (deleted.get(doc) || !inAll(lists, cursors, doc)) {
+          continue;
+        }
+        total++;
+        newest.add(doc);
+        if (newest.size() > limit) {
+          newest.poll();
+        }
+      }
+      List<Integer> top = new ArrayList<>(newest);
+      top.sort(newestLast.reversed());
+      return new Hits(total, top.stream().map(doc -> logIds[doc]).toList());
+    }
+
+    private static boolean inAll(List<Postings> lists, int[][] cursors, int doc) {
+      for (int i = 1; i < lists.size(); i++) {
+        if (!lists.get(i).contains(doc, cursors[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
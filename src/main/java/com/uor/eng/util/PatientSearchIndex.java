@@ -0,0 +1,292 @@
+package com.uor.eng.util;
+
+import com.uor.eng.event.PatientChangedEvent;
+import com.uor.eng.payload.patient.PatientSearchEntry;
+import com.uor.eng.payload.patient.PatientSummaryResponse;
+import com.uor.eng.repository.PatientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Typeahead search over patients' names, emails, NICs and contact numbers, held in memory.
+ * <p>
+ * Each patient is indexed under its words (name words, the email and its parts, the NIC, the contact numbers) and
+ * their trigrams. A query term of three or more characters is looked up by intersecting its trigrams' postings and
+ * checked against the words; a shorter term matches word prefixes only. Every term of the query must match. The
+ * index is built at startup, kept in step with committed patient changes and rebuilt every
+ * {@code app.patient.search.refresh-ms} to pick up changes made on other nodes.
+ */
+@Component
+@Slf4j
+public class PatientSearchIndex {
+
+  private static final int GRAM = 3;
+  private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+      .thenComparing(match -> match.patient().name(), String.CASE_INSENSITIVE_ORDER)
+      .thenComparing(match -> match.patient().id());
+
+  private final PatientRepository patientRepository;
+  private final RebuildableIndex<Index> index = new RebuildableIndex<>(new Index());
+
+  public PatientSearchIndex(PatientRepository patientRepository) {
+    this.patientRepository = patientRepository;
+  }
+
+  /**
+   * Up to {@code limit} patients matching every word of {@code query}, best first: a term equal to one of the
+   * patient's words scores highest, then a term starting one, then a term found inside one.
+   */
+  public List<PatientSummaryResponse> search(String query, int limit) {
+    List<String> terms = Arrays.stream(normalize(query).split("\\s+"))
+        .filter(term -> !term.isEmpty())
+        .distinct()
+        .toList();
+    if (terms.isEmpty()) {
+      return List.of();
+    }
+    return index.read(current -> current.search(terms)).stream()
+        .sorted(RANKING)
+        .limit(limit)
+        .map(match -> match.patient().toSummary())
+        .toList();
+  }
+
+  /**
+   * Replaces the index with one read from the database.
+   */
+  public void rebuild() {
+    Index loaded = index.rebuild(this::load);
+    log.info("Indexed {} patients for search", loaded.patients.size());
+  }
+
+  @Scheduled(fixedDelayString = "${app.patient.search.refresh-ms:600000}",
+      initialDelayString = "${app.patient.search.refresh-ms:600000}")
+  public void refresh() {
+    try {
+      rebuild();
+    } catch (Exception e) {
+      log.error("Error rebuilding the patient search index", e);
+    }
+  }
+
+  /**
+   * Re-indexes a changed patient, or drops a deleted one.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onPatientChanged(PatientChangedEvent event) {
+    Long patientId = event.patientId();
+    TransactionHooks.readBeforeCommit(
+        () -> patientRepository.findSearchEntry(patientId)
+            .map(entry -> IndexedPatient.of(entry, patientRepository.findContactNumbers(patientId)))
+            .orElse(null),
+        patient -> index.apply(current -> current.put(patientId, patient)));
+  }
+
+  int size() {
+    return index.read(current -> current.patients.size());
+  }
+
+  private Index load() {
+    Map<Long, List<String>> contactNumbers = new HashMap<>();
+    patientRepository.findAllContactNumbers().forEach(number -> contactNumbers
+        .computeIfAbsent(number.getPatientId(), id -> new ArrayList<>())
+        .add(number.getContactNumber()));
+    Index loaded = new Index();
+    for (PatientSearchEntry entry : patientRepository.findSearchEntries()) {
+      loaded.add(IndexedPatient.of(entry, contactNumbers.getOrDefault(entry.getId(), List.of())));
+    }
+    return loaded;
+  }
+
+  private static String normalize(String text) {
+    return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static List<String> grams(String word) {
+    List<String> grams = new ArrayList<>(Math.max(0, word.length() - GRAM + 1));
+    for (int i = 0; i + GRAM <= word.length(); i++) {
+      grams.add(word.substring(i, i + GRAM));
+    }
+    return grams;
+  }
+
+  private record Match(IndexedPatient patient, int score) {
+  }
+
+  private record IndexedPatient(Long id, String name, String email, String nic, List<String> contactNumbers,
+                                Set<String> words) {
+
+    static IndexedPatient of(PatientSearchEntry entry, List<String> contactNumbers) {
+      Set<String> words = new LinkedHashSet<>();
+      addWords(words, entry.getName());
+      String email = normalize(entry.getEmail());
+      if (!email.isEmpty()) {
+        words.add(email);
+        addWords(words, email);
+      }
+      String nic = normalize(entry.getNic());
+      if (!nic.isEmpty()) {
+        words.add(nic);
+      }
+      for (String number : contactNumbers) {
+        String digits = number == null ? "" : number.replaceAll("\\D", "");
+        if (!digits.isEmpty()) {
+          words.add(digits);
+        }
+      }
+      return new IndexedPatient(entry.getId(), entry.getName() == null ? "" : entry.getName(), entry.getEmail(),
+          entry.getNic(), List.copyOf(contactNumbers), words);
+    }
+
+    private static void addWords(Set<String> words, String text) {
+      for (String word : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+        if (!word.isEmpty()) {
+          words.add(word);
+        }
+      }
+    }
+
+    /**
+     * 3 if a word equals {@code term}, 2 if one starts with it, 1 if one contains it, else 0.
+     */
+    int score(String term) {
+      int best = 0;
+      for (String word : words) {
+        if (word.equals(term)) {
+          return 3;
+        }
+        if (word.startsWith(term)) {
+          best = 2;
+        } else if (best == 0 && word.contains(term)) {
+          best = 1;
+        }
+      }
+      return best;
+    }
+
+    PatientSummaryResponse toSummary() {
+      return PatientSummaryResponse.builder()
+          .id(id)
+          .name(name)
+          .email(email)
+          .nic(nic)
+          .contactNumbers(contactNumbers)
+          .build();
+    }
+  }
+
+  /**
+   * The postings. Only touched under the {@link RebuildableIndex}'s lock once it is published.
+   */
+  private static final class Index {
+
+    private final Map<Long, IndexedPatient> patients = new HashMap<>();
+    private final Map<String, Set<Long>> byGram = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> byWord = new TreeMap<>();
+
+    void add(IndexedPatient patient) {
+      remove(patient.id());
+      patients.put(patient.id(), patient);
+      for (String word : patient.words()) {
+        byWord.computeIfAbsent(word, key -> new HashSet<>()).add(patient.id());
+        for (String gram : grams(word)) {
+          byGram.computeIfAbsent(gram, key -> new HashSet<>()).add(patient.id());
+        }
+      }
+    }
+
+    void remove(Long patientId) {
+      IndexedPatient previous = patients.remove(patientId);
+      if (previous == null) {
+        return;
+      }
+      for (String word : previous.words()) {
+        removePosting(byWord, word, patientId);
+        for (String gram : grams(word)) {
+          removePosting(byGram, gram, patientId);
+        }
+      }
+    }
+
+    void put(Long patientId, IndexedPatient patient) {
+      if (patient == null) {
+        remove(patientId);
+      } else {
+        add(patient);
+      }
+    }
+
+    List<Match> search(List<String> terms) {
+      // Narrow down with the most selective term first
+      List<Set<Long>> candidates = terms.stream().map(this::candidates)
+          .sorted(Comparator.comparingInt(Set::size))
+          .toList();
+      List<Match> matches = new ArrayList<>();
+      for (Long patientId : candidates.get(0)) {
+        if (!candidates.stream().allMatch(set -> set.contains(patientId))) {
+          continue;
+        }
+        IndexedPatient patient = patients.get(patientId);
+        int score = 0;
+        for (String term : terms) {
+          int termScore = patient.score(term);
+          if (termScore == 0) {
+            // A trigram false positive
+            score = 0;
+            break;
+          }
+          score += termScore;
+        }
+        if (score > 0) {
+          matches.add(new Match(patient, score));
+        }
+      }
+      return matches;
+    }
+
+    private Set<Long> candidates(String term) {
+      if (term.length() < GRAM) {
+        Set<Long> ids = new HashSet<>();
+        byWord.subMap(term, true, term + Character.MAX_VALUE, false).values().forEach(ids::addAll);
+        return ids;
+      }
+      List<Set<Long>> postings = new ArrayList<>();
+      for (String gram : grams(term)) {
+        Set<Long> ids = byGram.get(gram);
+        if (ids == null) {
+          return Set.of();
+        }
+        postings.add(ids);
+      }
+      postings.sort(Comparator.comparingInt(Set::size));
+      Set<Long> ids = new HashSet<>(postings.get(0));
+      for (int i = 1; i < postings.size() && !ids.isEmpty(); i++) {
+        ids.retainAll(postings.get(i));
+      }
+      return ids;
+    }
+
+    private static void removePosting(Map<String, Set<Long>> postings, String key, Long patientId) {
+      Set<Long> ids = postings.get(key);
+      if (ids != null && ids.remove(patientId) && ids.isEmpty()) {
+        postings.remove(key);
+      }
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.uor.eng.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Presigned download URLs for photos in S3, cached by S3 key.
+ * <p>
+ * A URL is signed to stay valid for {@code app.photo-url-cache.validity-ms} and handed out again until only
+ * {@code app.photo-url-cache.min-remaining-ms} of that is left, so every URL returned stays usable at least that long.
+ * At most {@code app.photo-url-cache.max-size} URLs are kept; beyond that Caffeine evicts the least useful ones. Hit,
+ * miss, load and eviction counts are exported as the {@code cache.*} meters tagged {@code cache=s3.photo-url}.
+ */
+@Component
+public class PhotoUrlCache {
+
+  private final S3Service s3Service;
+  private final Duration validity;
+  private final Cache<String, String> cache;
+
+  @Autowired
+  public PhotoUrlCache(S3Service s3Service,
+                       MeterRegistry registry,
+                       @Value("${app.photo-url-cache.max-size:100000}") long maxSize,
+                       @Value("${app.photo-url-cache.validity-ms:3600000}") long validityMs,
+                       @Value("${app.photo-url-cache.min-remaining-ms:600000}") long minRemainingMs) {
+    this(s3Service, registry, maxSize, validityMs, minRemainingMs, Ticker.systemTicker());
+  }
+
+  PhotoUrlCache(S3Service s3Service, MeterRegistry registry, long maxSize, long validityMs, long minRemainingMs,
+                Ticker ticker) {
+    if (minRemainingMs >= validityMs) {
+      throw new IllegalArgumentException("Photo URLs must stay valid for longer than they are reused.");
+    }
+    this.s3Service = s3Service;
+    this.validity = Duration.ofMillis(validityMs);
+    // The entry is written just after signing, so it expires before the URL does
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMillis(validityMs - minRemainingMs))
+        .ticker(ticker)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(registry, cache, "s3.photo-url");
+  }
+
+  /**
+   * A presigned GET URL for the photo stored under {@code s3Key}.
+   */
+  public String getUrl(String s3Key) {
+    return cache.get(s3Key, key -> s3Service.generatePresignedDownloadUrl(key, validity));
+  }
+
+  public void evict(String s3Key) {
+    cache.invalidate(s3Key);
+  }
+
+  long size() {
+    cache.cleanUp();
+    return cache.estimatedSize();
+  }
+}
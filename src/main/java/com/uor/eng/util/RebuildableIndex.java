@@ -0,0 +1,64 @@
+package com.uor.eng.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holder for an in-memory index that is kept in step with committed changes and replaced by a full rebuild from
+ * time to time. A change that commits while a rebuild is reading may be missing from what the rebuild read, so it
+ * is recorded and replayed onto the rebuilt index before that is published. The index is only ever touched under
+ * this holder's lock.
+ */
+final class RebuildableIndex<I> {
+
+  private final Object rebuildLock = new Object();
+  private I index;
+  // Changes applied while a rebuild is reading; null when no rebuild is running
+  private List<Consumer<I>> changedDuringRebuild;
+
+  RebuildableIndex(I empty) {
+    this.index = empty;
+  }
+
+  synchronized <R> R read(Function<I, R> reader) {
+    return reader.apply(index);
+  }
+
+  /**
+   * Replaces the index with the one {@code loader} reads. Rebuilds run one at a time.
+   *
+   * @return the new index
+   */
+  I rebuild(Supplier<I> loader) {
+    synchronized (rebuildLock) {
+      synchronized (this) {
+        changedDuringRebuild = new ArrayList<>();
+      }
+      I loaded;
+      try {
+        loaded = loader.get();
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          changedDuringRebuild = null;
+        }
+        throw e;
+      }
+      synchronized (this) {
+        changedDuringRebuild.forEach(change -> change.accept(loaded));
+        changedDuringRebuild = null;
+        index = loaded;
+      }
+      return loaded;
+    }
+  }
+
+  synchronized void apply(Consumer<I> change) {
+    change.accept(index);
+    if (changedDuringRebuild != null) {
+      changedDuringRebuild.add(change);
+    }
+  }
+}
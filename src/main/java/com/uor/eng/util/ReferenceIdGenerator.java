@@ -0,0 +1,235 @@
+package com.uor.eng.util;
+
+import com.uor.eng.repository.ReferenceIdBlockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates booking reference IDs: nine Crockford base-32 characters followed by a Luhn mod 32 check character,
+ * which catches any single mistyped character and most swapped neighbours before a lookup reaches the database.
+ * <p>
+ * {@link #next()} packs seconds since 2024-01-01 (30 bits), a per-second sequence (10 bits) and the node id
+ * ({@code app.booking.reference.node-id}, 0-31, 5 bits) into 45 bits and permutes them with a Feistel network
+ * keyed by {@code app.booking.reference.secret}, so IDs do not read as a running number and cannot be predicted
+ * from one another without the secret. A node that issues more than 1024 IDs in one second borrows sequence
+ * numbers from the following seconds. Each node reserves its ticks a minute at a time in
+ * {@code reference_id_blocks} and resumes above its reservation after a restart. Nodes sharing a database must
+ * be given distinct node ids and the same secret; the booking table's primary key remains the final guard.
+ */
+@Component
+@Slf4j
+public class ReferenceIdGenerator {
+
+  public static final int LENGTH = 10;
+
+  private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+  private static final int[] VALUES = new int[128];
+  private static final int BASE = 32;
+  private static final int BODY_LENGTH = LENGTH - 1;
+  private static final int NODE_BITS = 5;
+  private static final int SEQUENCE_BITS = 10;
+  private static final long MASK = (1L << 45) - 1;
+  private static final long EPOCH_SECONDS = 1_704_067_200L; // 2024-01-01T00:00:00Z
+  private static final long BLOCK_TICKS = 60L << SEQUENCE_BITS;
+  private static final int HALF_BITS = 23;
+  private static final long HALF_MASK = (1L << HALF_BITS) - 1;
+  private static final int ROUNDS = 4;
+  private static final String DEFAULT_SECRET = "dn-dental-clinic-booking-reference";
+
+  static {
+    Arrays.fill(VALUES, -1);
+    for (int i = 0; i < ALPHABET.length; i++) {
+      VALUES[ALPHABET[i]] = i;
+    }
+  }
+
+  private final int nodeId;
+  private final ReferenceIdBlockRepository blockRepository;
+  private final ThreadLocal<Mac> roundFunction;
+  private final AtomicLong lastTick = new AtomicLong();
+
+  /**
+   * Ticks below this are reserved for this node, -1 until the stored reservation has been read.
+   */
+  private volatile long reservedUntil = -1;
+  private boolean stored;
+
+  public ReferenceIdGenerator(@Value("${app.booking.reference.node-id:0}") int nodeId,
+                              @Value("${app.booking.reference.secret:}") String secret,
+                              ReferenceIdBlockRepository blockRepository) {
+    if (nodeId < 0 || nodeId >= 1 << NODE_BITS) {
+      throw new IllegalArgumentException("app.booking.reference.node-id must be between 0 and " + ((1 << NODE_BITS) - 1));
+    }
+    if (secret == null || secret.isBlank()) {
+      log.warn("app.booking.reference.secret is not set, booking reference IDs can be predicted from one another");
+      secret = DEFAULT_SECRET;
+    }
+    SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    this.nodeId = nodeId;
+    this.blockRepository = blockRepository;
+    this.roundFunction = ThreadLocal.withInitial(() -> {
+      try {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(key);
+        return mac;
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException("HmacSHA256 is not available", e);
+      }
+    });
+    log.info("Booking reference IDs are generated with node id {}", nodeId);
+  }
+
+  /**
+   * Returns a reference ID this node has not issued before, provided no other instance runs with the same node id.
+   */
+  public String next() {
+    long tick = nextTick(System.currentTimeMillis() / 1000 - EPOCH_SECONDS);
+    return encode(scramble((tick << NODE_BITS) | nodeId));
+  }
+
+  long nextTick(long epochSecond) {
+    if (reservedUntil < 0) {
+      resume();
+    }
+    long floor = epochSecond << SEQUENCE_BITS;
+    long tick;
+    while (true) {
+      long previous = lastTick.get();
+      tick = Math.max(previous + 1, floor);
+      if (lastTick.compareAndSet(previous, tick)) {
+        break;
+      }
+    }
+    if (tick >= reservedUntil) {
+      reserve(tick);
+    }
+    return tick;
+  }
+
+  /**
+   * Continues above the ticks reserved before the last restart, which may lie ahead of the clock.
+   */
+  private synchronized void resume() {
+    if (reservedUntil >= 0) {
+      return;
+    }
+    long until = blockRepository.findReservedUntil(nodeId).orElse(0L);
+    stored = until > 0;
+    lastTick.accumulateAndGet(until - 1, Math::max);
+    reservedUntil = until;
+  }
+
+  /**
+   * Stores a reservation covering {@code tick} and the following minute before the tick is handed out.
+   */
+  private synchronized void reserve(long tick) {
+    if (tick < reservedUntil) {
+      return;
+    }
+    long until = tick + BLOCK_TICKS;
+    boolean taken;
+    if (stored) {
+      taken = blockRepository.advance(nodeId, reservedUntil, until) == 0;
+    } else {
+      try {
+        blockRepository.create(nodeId, until);
+        taken = false;
+      } catch (DataIntegrityViolationException e) {
+        taken = true;
+      }
+    }
+    if (taken) {
+      throw new IllegalStateException("Another instance is issuing booking reference IDs with node id " + nodeId);
+    }
+    stored = true;
+    reservedUntil = until;
+  }
+
+  /**
+   * Returns a random reference ID in the same format, for bookings persisted without going through the generator.
+   */
+  public static String random() {
+    return encode(ThreadLocalRandom.current().nextLong() & MASK);
+  }
+
+  /**
+   * Returns whether {@code referenceId} has the current format and a matching check character. IDs issued before
+   * the check character was introduced are eight characters long and are not well-formed.
+   */
+  public static boolean isWellFormed(String referenceId) {
+    if (referenceId == null || referenceId.length() != LENGTH) {
+      return false;
+    }
+    int sum = 0;
+    for (int i = 0; i < LENGTH; i++) {
+      int value = valueOf(referenceId.charAt(LENGTH - 1 - i));
+      if (value < 0) {
+        return false;
+      }
+      sum += luhnAddend(value, i % 2 == 1);
+    }
+    return sum % BASE == 0;
+  }
+
+  private static String encode(long value) {
+    char[] chars = new char[LENGTH];
+    for (int i = BODY_LENGTH - 1; i >= 0; i--) {
+      chars[i] = ALPHABET[(int) (value & (BASE - 1))];
+      value >>>= 5;
+    }
+    int sum = 0;
+    for (int i = 0; i < BODY_LENGTH; i++) {
+      // Positions are counted from the right with the check character at position 0, so the body starts doubled
+      sum += luhnAddend(valueOf(chars[BODY_LENGTH - 1 - i]), i % 2 == 0);
+    }
+    chars[BODY_LENGTH] = ALPHABET[(BASE - sum % BASE) % BASE];
+    return new String(chars);
+  }
+
+  private static int luhnAddend(int value, boolean doubled) {
+    int addend = doubled ? value * 2 : value;
+    return addend / BASE + addend % BASE;
+  }
+
+  private static int valueOf(char c) {
+    return c < VALUES.length ? VALUES[c] : -1;
+  }
+
+  /**
+   * Keyed permutation of the 45-bit values: a balanced Feistel network over 46 bits, reapplied while the result
+   * falls outside 45 bits, so distinct inputs stay distinct.
+   */
+  long scramble(long value) {
+    do {
+      value = feistel(value);
+    } while (value > MASK);
+    return value;
+  }
+
+  private long feistel(long value) {
+    long left = value >>> HALF_BITS;
+    long right = value & HALF_MASK;
+    Mac mac = roundFunction.get();
+    for (int round = 0; round < ROUNDS; round++) {
+      mac.update((byte) round);
+      mac.update((byte) (right >>> 16));
+      mac.update((byte) (right >>> 8));
+      mac.update((byte) right);
+      byte[] digest = mac.doFinal();
+      long mixed = left ^ (((digest[0] & 0xFFL) << 16 | (digest[1] & 0xFFL) << 8 | (digest[2] & 0xFFL)) & HALF_MASK);
+      left = right;
+      right = mixed;
+    }
+    return (left << HALF_BITS) | right;
+  }
+}
@@ -3,15 +3,13 @@ package com.uor.eng.util;
 import com.uor.eng.exceptions.FileStorageException;
 import com.uor.eng.payload.patient.logs.PresignedUrlRequest;
 import com.uor.eng.payload.patient.logs.PresignedUrlResponse;
-import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
-import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
@@ -25,16 +23,14 @@ public class S3Service {
 
   private final S3Client s3Client;
 
-  private S3Presigner presigner;
+  private final S3Presigner presigner;
 
   @Value("${aws.s3.bucket}")
   private String bucketName;
 
-  @Value("${aws.region}")
-  private String region;
-
-  public S3Service(S3Client s3Client) {
+  public S3Service(S3Client s3Client, S3Presigner presigner) {
     this.s3Client = s3Client;
+    this.presigner = presigner;
   }
 
   public String uploadFile(MultipartFile file) {
@@ -85,21 +81,27 @@ public class S3Service {
     return response;
   }
 
-  public String generateUniqueKey(String originalFilename) {
-    String uuid = UUID.randomUUID().toString();
-    return uuid + "_" + originalFilename.replace(" ", "_");
-  }
+  /**
+   * A presigned GET URL for {@code key}, valid for {@code validity}. Signing is done locally, without a request to S3;
+   * callers should go through {@link PhotoUrlCache} rather than sign the same key again.
+   */
+  public String generatePresignedDownloadUrl(String key, Duration validity) {
+    GetObjectRequest objectRequest = GetObjectRequest.builder()
+        .bucket(bucketName)
+        .key(key)
+        .build();
 
-  @PostConstruct
-  void initializePresigner() {
-    this.presigner = S3Presigner.builder()
-        .region(Region.of(region))
-        .credentialsProvider(DefaultCredentialsProvider.create())
+    GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+        .signatureDuration(validity)
+        .getObjectRequest(objectRequest)
         .build();
+
+    return presigner.presignGetObject(presignRequest).url().toString();
   }
 
-  public String getFileUrl(String key) {
-    return String.format("https://%s.s3.%s.amazonaws.com/%s", bucketName, region, key);
+  public String generateUniqueKey(String originalFilename) {
+    String uuid = UUID.randomUUID().toString();
+    return uuid + "_" + originalFilename.replace(" ", "_");
   }
 
   public void deleteFile(String key) {
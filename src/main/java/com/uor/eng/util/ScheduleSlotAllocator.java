@@ -0,0 +1,117 @@
+package com.uor.eng.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * In-memory admission counters for schedule slots, keyed by schedule id.
+ * <p>
+ * Each counter is seeded from {@code Schedule.availableSlots} the first time a schedule is touched and is
+ * decremented with a CAS loop, so callers for a full schedule are rejected without touching the database.
+ * The {@code schedules} row stays the source of truth: a permit only admits a caller to the guarded database
+ * write, and permits are returned when that write fails or its transaction rolls back.
+ */
+@Component
+@Slf4j
+public class ScheduleSlotAllocator {
+
+  private final ConcurrentHashMap<Long, SlotCounter> counters = new ConcurrentHashMap<>();
+  private final long resyncIntervalNanos;
+
+  public ScheduleSlotAllocator(@Value("${app.booking.slot-allocator.resync-ms:5000}") long resyncIntervalMs) {
+    this.resyncIntervalNanos = resyncIntervalMs * 1_000_000L;
+  }
+
+  /**
+   * Tries to take one slot of the given schedule.
+   *
+   * @param scheduleId the schedule to book
+   * @param seed       supplies the current {@code availableSlots} from the database, only called on a cache miss
+   * @return a permit for the taken slot, or {@code null} when the schedule has no free slot
+   */
+  public Permit tryAcquire(Long scheduleId, IntSupplier seed) {
+    SlotCounter counter = counters.computeIfAbsent(scheduleId, id -> new SlotCounter(seed.getAsInt()));
+    if (counter.tryDecrement()) {
+      return new Permit(counter);
+    }
+
+    // An exhausted counter may be stale (e.g. slots freed by an admin edit); re-read the row at most once per interval
+    if (System.nanoTime() - counter.seededAt >= resyncIntervalNanos && counters.remove(scheduleId, counter)) {
+      SlotCounter reseeded = counters.computeIfAbsent(scheduleId, id -> new SlotCounter(seed.getAsInt()));
+      if (reseeded.tryDecrement()) {
+        return new Permit(reseeded);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns one slot to the schedule, e.g. after a booking was deleted.
+   */
+  public void release(Long scheduleId) {
+    SlotCounter counter = counters.get(scheduleId);
+    if (counter != null) {
+      counter.available.incrementAndGet();
+    }
+  }
+
+  /**
+   * Drops the counter so it is re-seeded from the database on next use. Called whenever a schedule's
+   * capacity, status or slots are changed outside the booking path.
+   */
+  public void evict(Long scheduleId) {
+    if (counters.remove(scheduleId) != null) {
+      log.debug("Evicted slot counter for schedule {}", scheduleId);
+    }
+  }
+
+  public int trackedSchedules() {
+    return counters.size();
+  }
+
+  public static final class Permit {
+    private final SlotCounter counter;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(SlotCounter counter) {
+      this.counter = counter;
+    }
+
+    /**
+     * Gives the slot back to the counter it was taken from. Safe to call more than once; a permit taken from a
+     * counter that has since been evicted is simply dropped with it.
+     */
+    public void release() {
+      if (released.compareAndSet(false, true)) {
+        counter.available.incrementAndGet();
+      }
+    }
+  }
+
+  private static final class SlotCounter {
+    private final AtomicInteger available;
+    private final long seededAt;
+
+    private SlotCounter(int available) {
+      this.available = new AtomicInteger(Math.max(available, 0));
+      this.seededAt = System.nanoTime();
+    }
+
+    private boolean tryDecrement() {
+      int current;
+      do {
+        current = available.get();
+        if (current <= 0) {
+          return false;
+        }
+      } while (!available.compareAndSet(current, current - 1));
+      return true;
+    }
+  }
+}
@@ -2,29 +2,50 @@ package com.uor.eng.util;
 
 import com.uor.eng.service.IScheduleService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+/**
+ * Cron jobs of the schedule module. Each runs under a {@link JobLockManager} lease, so with several backend nodes
+ * only one of them does the work per tick.
+ */
 @Component
 @Slf4j
 public class ScheduleTaskScheduler {
 
   private final IScheduleService scheduleService;
+  private final ScheduleTransitionTimer transitionTimer;
+  private final JobLockManager jobLocks;
+  private final DailyBookingStatsRollup bookingStats;
+  private final int statsReconcileDays;
 
-  public ScheduleTaskScheduler(IScheduleService scheduleService) {
+  public ScheduleTaskScheduler(IScheduleService scheduleService,
+                               ScheduleTransitionTimer transitionTimer,
+                               JobLockManager jobLocks,
+                               DailyBookingStatsRollup bookingStats,
+                               @Value("${app.booking.stats.reconcile-days:31}") int statsReconcileDays) {
     this.scheduleService = scheduleService;
+    this.transitionTimer = transitionTimer;
+    this.jobLocks = jobLocks;
+    this.bookingStats = bookingStats;
+    this.statsReconcileDays = statsReconcileDays;
   }
 
   /**
-   * Runs every 15 minutes to check and update schedule statuses
+   * Reconciliation sweep behind {@link ScheduleTransitionTimer}, which finishes schedules as they end: catches
+   * anything it missed and reloads its end times. Hourly by default. Every node reloads its own timer.
    */
-  @Scheduled(cron = "0 */15 * * * *") // Every 15 minutes
+  @Scheduled(cron = "${app.schedule.transitions.sweep-cron:0 0 * * * *}")
   public void updateScheduleStatuses() {
     log.info("Starting scheduled task to update schedule statuses at {}", LocalDateTime.now());
     try {
-      scheduleService.updateExpiredSchedules();
+      jobLocks.runLocked(ScheduleTransitionTimer.FINISH_JOB, Duration.ZERO, scheduleService::updateExpiredSchedules);
+      transitionTimer.reload();
       log.info("Successfully completed schedule status update");
     } catch (Exception e) {
       log.error("Error updating schedule statuses", e);
@@ -38,7 +59,7 @@ public class ScheduleTaskScheduler {
   public void processDailySchedules() {
     log.info("Starting daily schedule processing at {}", LocalDateTime.now());
     try {
-      scheduleService.processDailySchedules();
+      jobLocks.runLocked("daily-schedules", scheduleService::processDailySchedules);
       log.info("Successfully completed daily schedule processing");
     } catch (Exception e) {
       log.error("Error processing daily schedules", e);
@@ -52,10 +73,27 @@ public class ScheduleTaskScheduler {
   public void sendScheduleReminders() {
     log.info("Starting schedule reminder task at {}", LocalDateTime.now());
     try {
-      scheduleService.sendAppointmentReminders();
+      jobLocks.runLocked("appointment-reminders", scheduleService::sendAppointmentReminders);
       log.info("Successfully sent all reminders");
     } catch (Exception e) {
       log.error("Error sending reminders", e);
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Rebuilds the daily booking stats for {@code app.booking.stats.reconcile-days} either side of today, the days
+   * that still change, nightly.
+   */
+  @Scheduled(cron = "${app.booking.stats.reconcile-cron:0 15 1 * * *}")
+  public void reconcileBookingStats() {
+    log.info("Starting daily booking stats reconciliation at {}", LocalDateTime.now());
+    try {
+      LocalDate today = LocalDate.now();
+      jobLocks.runLocked("booking-stats-rebuild",
+          () -> bookingStats.rebuild(today.minusDays(statsReconcileDays), today.plusDays(statsReconcileDays)));
+      log.info("Successfully reconciled daily booking stats");
+    } catch (Exception e) {
+      log.error("Error reconciling daily booking stats", e);
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package com.uor.eng.util;
+
+import com.uor.eng.event.ScheduleChangedEvent;
+import com.uor.eng.event.SchedulesCreatedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
+import com.uor.eng.model.Schedule;
+import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.payload.schedule.ScheduleEndTime;
+import com.uor.eng.repository.ScheduleRepository;
+import com.uor.eng.service.IScheduleService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finishes schedules when they end instead of on the next poll.
+ * <p>
+ * The end instants of finishable schedules within {@code app.schedule.transitions.horizon-hours} sit in a
+ * {@link DelayQueue} drained by one daemon thread. When entries come due the thread runs
+ * {@link IScheduleService#updateExpiredSchedules()}, which finishes whatever has ended with bulk updates, so a stale
+ * or missing entry can only delay a transition, never apply a wrong one. The queue is loaded at startup, reloaded by
+ * the reconciliation sweep in {@link ScheduleTaskScheduler}, and kept in step with committed schedule changes.
+ * Entries that are moved or dropped stay in the queue and are skipped when they come due.
+ * <p>
+ * Every node keeps its own queue, and the run goes through the {@link #FINISH_JOB} lease so that only one of them
+ * does the work. A node that finds the lease taken tries again shortly, since the holder may have started before
+ * the entries came due.
+ */
+@Component
+@Slf4j
+public class ScheduleTransitionTimer {
+
+  /**
+   * Lease shared by every caller of {@link IScheduleService#updateExpiredSchedules()}.
+   */
+  public static final String FINISH_JOB = "finish-expired";
+
+  private static final long LEASE_RETRY_MILLIS = 5000;
+
+  private final IScheduleService scheduleService;
+  private final ScheduleRepository scheduleRepository;
+  private final JobLockManager jobLocks;
+  private final Duration horizon;
+  private final long graceMillis;
+  private final DelayQueue<Due> queue = new DelayQueue<>();
+  private final ConcurrentHashMap<Long, Due> pending = new ConcurrentHashMap<>();
+  private final Timer lagTimer;
+  private final Thread worker;
+
+  public ScheduleTransitionTimer(IScheduleService scheduleService,
+                                 ScheduleRepository scheduleRepository,
+                                 JobLockManager jobLocks,
+                                 MeterRegistry registry,
+                                 @Value("${app.schedule.transitions.horizon-hours:48}") long horizonHours,
+                                 @Value("${app.schedule.transitions.grace-ms:1000}") long graceMillis) {
+    this.scheduleService = scheduleService;
+    this.scheduleRepository = scheduleRepository;
+    this.jobLocks = jobLocks;
+    this.horizon = Duration.ofHours(horizonHours);
+    // Firing a little after the end time keeps the finish query's "ended before now" true despite clock skew
+    this.graceMillis = graceMillis;
+
+    this.lagTimer = Timer.builder("app.schedule.transitions.lag")
+        .description("Delay between a schedule's end time and the transition that finished it")
+        .register(registry);
+    Gauge.builder("app.schedule.transitions.pending", pending, ConcurrentHashMap::size)
+        .description("Schedules waiting for their end time")
+        .register(registry);
+
+    this.worker = new Thread(this::run, "schedule-transitions");
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  /**
+   * Replaces the tracked schedules with the finishable ones ending within the horizon.
+   */
+  public void reload() {
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime until = now.plus(horizon);
+    List<ScheduleEndTime> upcoming = scheduleRepository.findEndTimes(
+        now.toLocalDate(), until.toLocalDate(), ScheduleStatus.FINISHABLE);
+
+    Set<Long> tracked = new HashSet<>();
+    for (ScheduleEndTime schedule : upcoming) {
+      LocalDateTime end = LocalDateTime.of(schedule.getDate(), schedule.getEndTime());
+      if (!end.isAfter(until)) {
+        track(schedule.getId(), end);
+        tracked.add(schedule.getId());
+      }
+    }
+    pending.keySet().retainAll(tracked);
+    log.info("Tracking {} schedule end times up to {}", tracked.size(), until);
+  }
+
+  /**
+   * Follows a changed schedule's new end time, or stops tracking it once it can no longer finish within the horizon.
+   */
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+  public void onScheduleChanged(ScheduleChangedEvent event) {
+    Long scheduleId = event.scheduleId();
+    TransactionHooks.readBeforeCommit(
+        () -> scheduleRepository.findById(scheduleId)
+            .filter(schedule -> ScheduleStatus.FINISHABLE.contains(schedule.getStatus()))
+            .map(ScheduleTransitionTimer::endOf)
+            .filter(time -> !time.isAfter(LocalDateTime.now().plus(horizon)))
+            .orElse(null),
+        end -> {
+          if (end != null) {
+            track(scheduleId, end);
+          } else {
+            pending.remove(scheduleId);
+          }
+        });
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSchedulesTransitioned(SchedulesTransitionedEvent event) {
+    if (!ScheduleStatus.FINISHABLE.contains(event.scheduleStatus())) {
+      event.scheduleIds().forEach(pending::remove);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSchedulesCreated(SchedulesCreatedEvent event) {
+    if (!event.from().isAfter(LocalDateTime.now().plus(horizon).toLocalDate())) {
+      reload();
+    }
+  }
+
+  int pendingCount() {
+    return pending.size();
+  }
+
+  private void track(Long scheduleId, LocalDateTime end) {
+    Due due = new Due(scheduleId, end.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + graceMillis);
+    if (!due.equals(pending.put(scheduleId, due))) {
+      queue.add(due);
+    }
+  }
+
+  private void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        List<Due> batch = new ArrayList<>();
+        batch.add(queue.take());
+        queue.drainTo(batch);
+        List<Due> live = batch.stream().filter(due -> pending.remove(due.scheduleId(), due)).toList();
+        if (live.isEmpty()) {
+          continue;
+        }
+        log.debug("{} schedules reached their end time", live.size());
+        if (!jobLocks.runLocked(FINISH_JOB, Duration.ZERO, scheduleService::updateExpiredSchedules)) {
+          long retryAt = System.currentTimeMillis() + LEASE_RETRY_MILLIS;
+          live.forEach(due -> retry(new Due(due.scheduleId(), retryAt)));
+          continue;
+        }
+        long now = System.currentTimeMillis();
+        live.forEach(due -> lagTimer.record(Math.max(0, now - due.dueAt() + graceMillis), TimeUnit.MILLISECONDS));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        // The entries are gone; the reconciliation sweep finishes whatever this run missed
+        log.error("Error finishing schedules at their end time", e);
+      }
+    }
+  }
+
+  /**
+   * Puts an entry back for a later attempt unless it was re-tracked in the meantime.
+   */
+  private void retry(Due retry) {
+    if (pending.putIfAbsent(retry.scheduleId(), retry) == null) {
+      queue.add(retry);
+    }
+  }
+
+  private static LocalDateTime endOf(Schedule schedule) {
+    return LocalDateTime.of(schedule.getDate(), schedule.getEndTime());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    worker.interrupt();
+  }
+
+  private record Due(Long scheduleId, long dueAt) implements Delayed {
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(dueAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(dueAt, ((Due) other).dueAt);
+    }
+  }
+}
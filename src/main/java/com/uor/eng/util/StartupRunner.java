@@ -2,28 +2,77 @@ package com.uor.eng.util;
 
 import com.uor.eng.service.IScheduleService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Catches up on schedule transitions missed while no node was running, builds the daily booking stats on first start
+ * and loads this node's patient and patient log search indexes. Several nodes starting together take turns through
+ * {@link JobLockManager}; the one that finds the lease taken leaves the work to its holder.
+ * <p>
+ * The catch-up cancels today's schedules that have started but are still available, and emails their patients. It
+ * is skipped if any node has taken the {@link ScheduleTransitionTimer#FINISH_JOB} lease within
+ * {@code app.schedule.startup-catch-up.idle-ms} (65 minutes by default, as the hourly sweep takes it on every tick),
+ * so a node joining or restarting while others are running leaves those schedules alone.
+ */
 @Component
 @Slf4j
 public class StartupRunner implements CommandLineRunner {
 
   private final IScheduleService scheduleService;
+  private final ScheduleTransitionTimer transitionTimer;
+  private final JobLockManager jobLocks;
+  private final DailyBookingStatsRollup bookingStats;
+  private final PatientSearchIndex patientSearch;
+  private final PatientLogSearchIndex patientLogSearch;
+  private final Duration catchUpIdle;
 
-  public StartupRunner(IScheduleService scheduleService) {
+  public StartupRunner(IScheduleService scheduleService,
+                       ScheduleTransitionTimer transitionTimer,
+                       JobLockManager jobLocks,
+                       DailyBookingStatsRollup bookingStats,
+                       PatientSearchIndex patientSearch,
+                       PatientLogSearchIndex patientLogSearch,
+                       @Value("${app.schedule.startup-catch-up.idle-ms:3900000}") long catchUpIdleMs) {
     this.scheduleService = scheduleService;
+    this.transitionTimer = transitionTimer;
+    this.jobLocks = jobLocks;
+    this.bookingStats = bookingStats;
+    this.patientSearch = patientSearch;
+    this.patientLogSearch = patientLogSearch;
+    this.catchUpIdle = Duration.ofMillis(catchUpIdleMs);
   }
 
   @Override
   public void run(String... args) throws Exception {
     log.info("Running startup tasks...");
     try {
-      scheduleService.initialUpdaterScheduleOnStartup();
-      scheduleService.updateExpiredSchedules();
+      LocalDateTime lastSweep = jobLocks.lastAcquiredAt(ScheduleTransitionTimer.FINISH_JOB).orElse(null);
+      if (lastSweep != null && lastSweep.isAfter(LocalDateTime.now().minus(catchUpIdle))) {
+        log.info("Skipping the missed schedule catch-up: another node swept schedules at {}", lastSweep);
+      } else {
+        jobLocks.runLocked("cancel-missed", scheduleService::initialUpdaterScheduleOnStartup);
+      }
+      jobLocks.runLocked(ScheduleTransitionTimer.FINISH_JOB, Duration.ZERO, scheduleService::updateExpiredSchedules);
+      transitionTimer.reload();
+      jobLocks.runLocked("booking-stats-backfill", bookingStats::backfillIfEmpty);
       log.info("Startup tasks completed successfully");
     } catch (Exception e) {
       log.error("Error running startup tasks", e);
     }
+    try {
+      patientSearch.rebuild();
+    } catch (Exception e) {
+      log.error("Error building the patient search index", e);
+    }
+    try {
+      patientLogSearch.rebuild();
+    } catch (Exception e) {
+      log.error("Error building the patient log search index", e);
+    }
   }
 }
\ No newline at end of file
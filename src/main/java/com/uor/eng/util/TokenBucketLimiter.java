@@ -0,0 +1,97 @@
+package com.uor.eng.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token buckets keyed by an arbitrary string (client IP, NIC), each holding up to {@code capacity} tokens and
+ * refilling at {@code refillPerMinute}.
+ * <p>
+ * Buckets live in a fixed number of stripes, each an access-ordered map behind its own lock, so callers for
+ * different keys rarely contend. A stripe drops its least recently used bucket once it holds more than its share
+ * of {@code maxKeys}, and drops any bucket that has been idle long enough to refill completely, since a missing
+ * bucket behaves exactly like a full one. Memory stays bounded however many distinct keys a client sends.
+ */
+public class TokenBucketLimiter {
+
+  private static final int STRIPES = 64;
+
+  private final double capacity;
+  private final double tokensPerNano;
+  private final long fullRefillNanos;
+  private final Stripe[] stripes = new Stripe[STRIPES];
+
+  public TokenBucketLimiter(int capacity, int refillPerMinute, int maxKeys) {
+    if (capacity < 1 || refillPerMinute < 1 || maxKeys < 1) {
+      throw new IllegalArgumentException("Rate limit capacity, refill rate and key bound must be positive");
+    }
+    this.capacity = capacity;
+    this.tokensPerNano = refillPerMinute / 60_000_000_000d;
+    this.fullRefillNanos = (long) Math.ceil(capacity / tokensPerNano);
+    int perStripe = Math.max(1, maxKeys / STRIPES);
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe(perStripe);
+    }
+  }
+
+  public boolean tryAcquire(String key) {
+    return tryAcquire(key, System.nanoTime());
+  }
+
+  boolean tryAcquire(String key, long now) {
+    Stripe stripe = stripes[Math.floorMod(key.hashCode() * 0x9E3779B9, STRIPES)];
+    synchronized (stripe) {
+      stripe.now = now;
+      Bucket bucket = stripe.buckets.get(key);
+      if (bucket == null) {
+        bucket = new Bucket(capacity, now);
+        stripe.buckets.put(key, bucket);
+      } else {
+        bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * tokensPerNano);
+        bucket.updatedAt = now;
+      }
+      if (bucket.tokens < 1) {
+        return false;
+      }
+      bucket.tokens -= 1;
+      return true;
+    }
+  }
+
+  /**
+   * Number of buckets currently held, for the gauge.
+   */
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.buckets.size();
+      }
+    }
+    return size;
+  }
+
+  private static final class Bucket {
+    private double tokens;
+    private long updatedAt;
+
+    private Bucket(double tokens, long updatedAt) {
+      this.tokens = tokens;
+      this.updatedAt = updatedAt;
+    }
+  }
+
+  private final class Stripe {
+    private final Map<String, Bucket> buckets;
+    private long now;
+
+    private Stripe(int maxSize) {
+      this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+          return size() > maxSize || now - eldest.getValue().updatedAt >= fullRefillNanos;
+        }
+      };
+    }
+  }
+}
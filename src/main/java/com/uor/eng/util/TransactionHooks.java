@@ -0,0 +1,60 @@
+package com.uor.eng.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Small helpers for running in-memory side effects only once the surrounding database transaction has finished.
+ * Without an active transaction (e.g. plain unit tests) the actions run immediately / never respectively.
+ */
+public final class TransactionHooks {
+
+  private TransactionHooks() {
+  }
+
+  public static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  /**
+   * Reads through {@code read} now and hands the result to {@code apply} once the transaction commits. Called from
+   * a {@code BEFORE_COMMIT} listener, the read still sees the transaction's own changes, while an in-memory copy
+   * updated by {@code apply} never shows data that is later rolled back.
+   */
+  public static <T> void readBeforeCommit(Supplier<T> read, Consumer<T> apply) {
+    T value = read.get();
+    afterCommit(() -> apply.accept(value));
+  }
+
+  /**
+   * Registers {@code action} to run if the current transaction does not commit.
+   *
+   * @return {@code false} when there is no transaction to attach to, so the caller has to clean up itself
+   */
+  public static boolean onRollback(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return false;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          action.run();
+        }
+      }
+    });
+    return true;
+  }
+}
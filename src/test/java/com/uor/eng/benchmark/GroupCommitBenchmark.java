@@ -0,0 +1,152 @@
+package com.uor.eng.benchmark;
+
+import com.uor.eng.BackendApplication;
+import com.uor.eng.model.Dentist;
+import com.uor.eng.model.Schedule;
+import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.payload.booking.BookingResponseDTO;
+import com.uor.eng.payload.booking.CreateBookingDTO;
+import com.uor.eng.repository.DentistRepository;
+import com.uor.eng.repository.ScheduleRepository;
+import com.uor.eng.service.IBookingService;
+import com.uor.eng.util.BookingGroupCommitter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Opening-time burst benchmark for booking creation against the real services and an in-memory H2 database.
+ * <p>
+ * Every round opens a fresh schedule and lets {@code threads} callers book it at once, first through the
+ * one-request-one-transaction path ({@link IBookingService#createBooking}) and then through
+ * {@link BookingGroupCommitter}. Not part of the test suite; run after {@code mvn test-compile} with the test
+ * classpath, e.g.
+ * {@code java -cp target/test-classes:target/classes:$(cat cp.txt) com.uor.eng.benchmark.GroupCommitBenchmark [threads] [capacity]}
+ * where {@code cp.txt} comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ */
+public class GroupCommitBenchmark {
+
+  public static void main(String[] args) throws InterruptedException {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 150;
+    System.setProperty("spring.devtools.restart.enabled", "false");
+
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+        .properties(
+            "server.port=0",
+            "logging.level.root=WARN",
+            "spring.jpa.show-sql=false",
+            "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+            "spring.jpa.properties.hibernate.order_inserts=true",
+            "app.email.outbox.poll-ms=3600000",
+            "app.default.admin.username=admin", "app.default.admin.email=admin@example.com", "app.default.admin.password=Admin@1234",
+            "app.default.doctor.username=doctor", "app.default.doctor.email=doctor@example.com", "app.default.doctor.password=Doctor@1234",
+            "app.default.receptionist.username=reception", "app.default.receptionist.email=reception@example.com",
+            "app.default.receptionist.password=Reception@1234")
+        .run();
+    try {
+      IBookingService bookingService = context.getBean(IBookingService.class);
+      BookingGroupCommitter committer = context.getBean(BookingGroupCommitter.class);
+      DentistRepository dentistRepository = context.getBean(DentistRepository.class);
+      Long dentistId = dentistRepository.save(Dentist.dentistBuilder()
+          .email("benchmark@example.com")
+          .userName("benchmark")
+          .firstName("Bench")
+          .password("securePassword@123")
+          .nic("200132504295")
+          .phoneNumber("0779797254")
+          .gender("Male")
+          .specialization("Orthodontist")
+          .licenseNumber("LIC-BENCH")
+          .schedules(Collections.emptyList())
+          .build()).getUserId();
+      ScheduleRepository scheduleRepository = context.getBean(ScheduleRepository.class);
+      TransactionTemplate transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+      Function<Integer, Long> openSchedule = dayOffset -> transaction.execute(status -> scheduleRepository.save(Schedule.builder()
+          .date(LocalDate.now().plusDays(30 + dayOffset))
+          .dayOfWeek(LocalDate.now().plusDays(30 + dayOffset).getDayOfWeek().toString())
+          .status(ScheduleStatus.AVAILABLE)
+          .startTime(LocalTime.of(9, 0))
+          .endTime(LocalTime.of(17, 0))
+          .duration(480L)
+          .capacity(capacity)
+          .availableSlots(capacity)
+          .dentist(dentistRepository.findById(dentistId).orElseThrow())
+          .build()).getId());
+
+      for (int round = 0; round < 3; round++) {
+        report("one-transaction-per-request",
+            run(threads, openSchedule.apply(round * 2), bookingService::createBooking));
+        report("group-commit",
+            run(threads, openSchedule.apply(round * 2 + 1), committer::createBooking));
+      }
+    } finally {
+      context.close();
+    }
+  }
+
+  private static Result run(int threads, Long scheduleId, Function<CreateBookingDTO, BookingResponseDTO> createBooking)
+      throws InterruptedException {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(threads);
+    LongAdder booked = new LongAdder();
+    LongAdder failed = new LongAdder();
+    AtomicLong maxLatency = new AtomicLong();
+
+    for (int i = 0; i < threads; i++) {
+      CreateBookingDTO dto = new CreateBookingDTO();
+      dto.setScheduleId(scheduleId);
+      dto.setName("Patient " + i);
+      dto.setNic(String.format("%09dV", i));
+      dto.setContactNumber(String.format("07%08d", i));
+      dto.setEmail("patient" + i + "@example.com");
+      dto.setAddress("1 Main St");
+      pool.execute(() -> {
+        try {
+          start.await();
+          long begin = System.nanoTime();
+          try {
+            createBooking.apply(dto);
+            booked.increment();
+          } catch (RuntimeException e) {
+            failed.increment();
+          }
+          maxLatency.accumulateAndGet(System.nanoTime() - begin, Math::max);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          done.countDown();
+        }
+      });
+    }
+
+    long begin = System.nanoTime();
+    start.countDown();
+    done.await();
+    long elapsed = System.nanoTime() - begin;
+    pool.shutdown();
+    pool.awaitTermination(10, TimeUnit.SECONDS);
+    return new Result(booked.sum(), failed.sum(), elapsed, maxLatency.get());
+  }
+
+  private static void report(String name, Result result) {
+    System.out.printf("%-28s booked=%4d failed=%4d wall=%6.1fms maxLatency=%6.1fms%n",
+        name, result.booked, result.failed, result.elapsedNanos / 1e6, result.maxLatencyNanos / 1e6);
+  }
+
+  private record Result(long booked, long failed, long elapsedNanos, long maxLatencyNanos) {
+  }
+}
@@ -0,0 +1,169 @@
+package com.uor.eng.benchmark;
+
+import com.uor.eng.payload.patient.logs.PatientLogSearchEntry;
+import com.uor.eng.repository.PatientLogRepository;
+import com.uor.eng.util.PatientLogSearchIndex;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of {@link PatientLogSearchIndex} on a synthetic corpus, against a scan of every log's text as a
+ * {@code LIKE '%...%'} query would do.
+ * <p>
+ * Logs are generated deterministically: ten action types, a tooth number, a material and a few words from a 5,000-word
+ * vocabulary, spread over 50,000 patients and 20 dentists. The index is built through its normal chunked rebuild
+ * against a stub repository. Not part of the test suite; run after {@code mvn test-compile} with the test
+ * classpath, e.g.
+ * {@code java -Xmx4g -cp target/test-classes:target/classes:$(cat cp.txt) com.uor.eng.benchmark.PatientLogSearchBenchmark [logs]}
+ * where {@code cp.txt} comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ */
+public class PatientLogSearchBenchmark {
+
+  private static final String[] ACTIONS = {"Checkup", "Cleaning", "Filling", "Root canal", "Crown", "Extraction",
+      "Implant", "Orthodontic adjustment", "Whitening", "X-ray"};
+  private static final String[] MATERIALS = {"composite", "amalgam", "porcelain", "zirconia", "gold", "ceramic"};
+  private static final int PATIENTS = 50_000;
+  private static final int DENTISTS = 20;
+  private static final int VOCABULARY = 5_000;
+  private static final int ITERATIONS = 200;
+
+  public static void main(String[] args) {
+    int logs = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    List<Entry> corpus = corpus(logs);
+
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+    long start = System.nanoTime();
+    PatientLogSearchIndex index = new PatientLogSearchIndex(repository(corpus), 5_000);
+    index.rebuild();
+    long buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    System.gc();
+    long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+    System.out.printf("logs=%d build=%dms index-heap=~%dMB%n", logs, buildMillis, (heapAfter - heapBefore) >> 20);
+
+    query(index, corpus, "root canal", null, null);
+    query(index, corpus, "crown 36", null, null);
+    query(index, corpus, "zirconia crown", null, 7L);
+    query(index, corpus, "filling", 4_242L, null);
+    query(index, corpus, "word4999 implant", null, null);
+  }
+
+  private static void query(PatientLogSearchIndex index, List<Entry> corpus, String query, Long patientId,
+                            Long dentistId) {
+    long[] indexed = new long[ITERATIONS];
+    long total = 0;
+    for (int i = 0; i < ITERATIONS; i++) {
+      long start = System.nanoTime();
+      total = index.search(query, patientId, dentistId, 20).total();
+      indexed[i] = System.nanoTime() - start;
+    }
+    long[] scanned = new long[ITERATIONS / 20];
+    long scanTotal = 0;
+    for (int i = 0; i < scanned.length; i++) {
+      long start = System.nanoTime();
+      scanTotal = scan(corpus, query, patientId, dentistId);
+      scanned[i] = System.nanoTime() - start;
+    }
+    System.out.printf("%-24s patient=%-5s dentist=%-4s matches=%7d index p50=%8.3fms p99=%8.3fms | scan(%d) p50=%8.1fms%n",
+        '"' + query + '"', patientId, dentistId, total, percentile(indexed, 50), percentile(indexed, 99), scanTotal,
+        percentile(scanned, 50));
+  }
+
+  /**
+   * What a LIKE query on both columns costs without an index: every row's text is checked for every word.
+   */
+  private static long scan(List<Entry> corpus, String query, Long patientId, Long dentistId) {
+    String[] words = query.toLowerCase(Locale.ROOT).split(" ");
+    long matches = 0;
+    for (Entry entry : corpus) {
+      if ((patientId != null && entry.patientId != patientId) || (dentistId != null && entry.dentistId != dentistId)) {
+        continue;
+      }
+      String text = (entry.actionType + " " + entry.description).toLowerCase(Locale.ROOT);
+      if (Arrays.stream(words).allMatch(text::contains)) {
+        matches++;
+      }
+    }
+    return matches;
+  }
+
+  private static double percentile(long[] nanos, int percentile) {
+    long[] sorted = nanos.clone();
+    Arrays.sort(sorted);
+    int at = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+    return sorted[Math.max(0, at)] / 1_000_000.0;
+  }
+
+  private static List<Entry> corpus(int logs) {
+    Random random = new Random(42);
+    LocalDateTime origin = LocalDateTime.of(2015, 1, 1, 9, 0);
+    List<Entry> corpus = new ArrayList<>(logs);
+    for (int i = 1; i <= logs; i++) {
+      int tooth = (random.nextInt(4) + 1) * 10 + random.nextInt(8) + 1;
+      String description = "Tooth " + tooth + ", " + MATERIALS[random.nextInt(MATERIALS.length)]
+          + " word" + random.nextInt(VOCABULARY) + " word" + random.nextInt(VOCABULARY)
+          + " word" + random.nextInt(VOCABULARY);
+      corpus.add(new Entry(i, random.nextInt(PATIENTS) + 1, random.nextInt(DENTISTS) + 1,
+          ACTIONS[random.nextInt(ACTIONS.length)], description, origin.plusMinutes(i * 5L)));
+    }
+    return corpus;
+  }
+
+  /**
+   * Serves {@code findSearchEntriesAfter} from the corpus, whose IDs run from 1 without gaps.
+   */
+  private static PatientLogRepository repository(List<Entry> corpus) {
+    return (PatientLogRepository) Proxy.newProxyInstance(PatientLogSearchBenchmark.class.getClassLoader(),
+        new Class<?>[]{PatientLogRepository.class}, (proxy, method, methodArgs) -> {
+          if (!method.getName().equals("findSearchEntriesAfter")) {
+            throw new UnsupportedOperationException(method.getName());
+          }
+          int from = (int) (long) (Long) methodArgs[0];
+          int to = Math.min(corpus.size(), from + ((Pageable) methodArgs[1]).getPageSize());
+          return new ArrayList<PatientLogSearchEntry>(corpus.subList(from, to));
+        });
+  }
+
+  private record Entry(long id, long patientId, long dentistId, String actionType, String description,
+                       LocalDateTime timestamp) implements PatientLogSearchEntry {
+
+    @Override
+    public Long getId() {
+      return id;
+    }
+
+    @Override
+    public Long getPatientId() {
+      return patientId;
+    }
+
+    @Override
+    public Long getDentistId() {
+      return dentistId;
+    }
+
+    @Override
+    public String getActionType() {
+      return actionType;
+    }
+
+    @Override
+    public String getDescription() {
+      return description;
+    }
+
+    @Override
+    public LocalDateTime getTimestamp() {
+      return timestamp;
+    }
+  }
+}
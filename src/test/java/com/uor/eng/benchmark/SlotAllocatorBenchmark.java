@@ -0,0 +1,136 @@
+package com.uor.eng.benchmark;
+
+import com.uor.eng.util.ScheduleSlotAllocator;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contention benchmark for booking admission on a single popular schedule.
+ * <p>
+ * Compares {@link ScheduleSlotAllocator} with an emulation of the previous path in {@code createBooking}: a row lock
+ * with a 1s acquisition timeout, a simulated database hold time, and the {@code Thread.sleep} backoff on failure.
+ * Not part of the test suite; run after {@code mvn test-compile} with
+ * {@code java -cp target/classes:target/test-classes com.uor.eng.benchmark.SlotAllocatorBenchmark [threads] [capacity]}.
+ */
+public class SlotAllocatorBenchmark {
+
+  private static final long DB_HOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+  private static final int MAX_RETRIES = 3;
+
+  public static void main(String[] args) throws InterruptedException {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    int requestsPerThread = 20;
+
+    for (int round = 0; round < 3; round++) {
+      report("lock-and-retry", runLockAndRetry(threads, requestsPerThread, capacity));
+      report("slot-allocator", runAllocator(threads, requestsPerThread, capacity));
+    }
+  }
+
+  private static Result runAllocator(int threads, int requestsPerThread, int capacity) throws InterruptedException {
+    ScheduleSlotAllocator allocator = new ScheduleSlotAllocator(60_000);
+    ReentrantLock row = new ReentrantLock();
+    return run(threads, requestsPerThread, () -> {
+      if (allocator.tryAcquire(1L, () -> capacity) == null) {
+        return false;
+      }
+      // Only admitted callers reach the durable write
+      row.lock();
+      try {
+        LockSupport.parkNanos(DB_HOLD_NANOS);
+      } finally {
+        row.unlock();
+      }
+      return true;
+    });
+  }
+
+  private static Result runLockAndRetry(int threads, int requestsPerThread, int capacity) throws InterruptedException {
+    ReentrantLock row = new ReentrantLock();
+    AtomicInteger availableSlots = new AtomicInteger(capacity);
+    return run(threads, requestsPerThread, () -> {
+      for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
+        boolean locked;
+        try {
+          locked = row.tryLock(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+        if (locked) {
+          try {
+            LockSupport.parkNanos(DB_HOLD_NANOS);
+            if (availableSlots.get() <= 0) {
+              return false;
+            }
+            availableSlots.decrementAndGet();
+            return true;
+          } finally {
+            row.unlock();
+          }
+        }
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos((long) Math.pow(2, attempt + 1.0) * 100));
+      }
+      return false;
+    });
+  }
+
+  private static Result run(int threads, int requestsPerThread, Attempt attempt) throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    LongAdder admitted = new LongAdder();
+    LongAdder rejected = new LongAdder();
+    AtomicInteger slowest = new AtomicInteger();
+
+    for (int t = 0; t < threads; t++) {
+      executor.submit(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for (int i = 0; i < requestsPerThread; i++) {
+          long begin = System.nanoTime();
+          if (attempt.tryBook()) {
+            admitted.increment();
+          } else {
+            rejected.increment();
+          }
+          int micros = (int) TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin);
+          slowest.accumulateAndGet(micros, Math::max);
+        }
+      });
+    }
+
+    long begin = System.nanoTime();
+    start.countDown();
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.MINUTES);
+    long elapsed = System.nanoTime() - begin;
+    return new Result(admitted.sum(), rejected.sum(), elapsed, slowest.get());
+  }
+
+  private static void report(String name, Result result) {
+    long total = result.admitted + result.rejected;
+    double seconds = result.elapsedNanos / 1_000_000_000.0;
+    System.out.printf("%-15s requests=%d admitted=%d rejected=%d elapsed=%.3fs throughput=%.0f req/s max-latency=%.1fms%n",
+            name, total, result.admitted, result.rejected, seconds, total / seconds, result.maxLatencyMicros / 1000.0);
+  }
+
+  @FunctionalInterface
+  private interface Attempt {
+    boolean tryBook();
+  }
+
+  private record Result(long admitted, long rejected, long elapsedNanos, long maxLatencyMicros) {
+  }
+}
@@ -12,6 +12,11 @@ import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -202,4 +207,26 @@ public class AwsS3ConfigTest {
     S3Client client = awsS3Config.s3Client();
     assertNotNull(client, "Should create a client even with an invalid region");
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testS3PresignerUsesConfiguredCredentialsAndEndpoint() {
+    // Arrange
+    ReflectionTestUtils.setField(awsS3Config, "accessKeyId", "test-access-key");
+    ReflectionTestUtils.setField(awsS3Config, "secretKey", "test-secret-key");
+    ReflectionTestUtils.setField(awsS3Config, "region", "us-east-1");
+    ReflectionTestUtils.setField(awsS3Config, "endpoint", "http://localhost:9000");
+
+    // Act
+    String url;
+    try (S3Presigner presigner = awsS3Config.s3Presigner()) {
+      url = presigner.presignGetObject(GetObjectPresignRequest.builder()
+              .signatureDuration(Duration.ofMinutes(5))
+              .getObjectRequest(GetObjectRequest.builder().bucket("test-bucket").key("photo.jpg").build())
+              .build()).url().toString();
+    }
+
+    // Assert
+    assertTrue(url.startsWith("http://localhost:9000/test-bucket/photo.jpg?"), url);
+    assertTrue(url.contains("X-Amz-Credential=test-access-key"), url);
+  }
+}
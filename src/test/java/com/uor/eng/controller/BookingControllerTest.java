@@ -3,34 +3,41 @@ package com.uor.eng.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uor.eng.model.BookingStatus;
 import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.payload.booking.BookingPageResponse;
 import com.uor.eng.payload.booking.BookingResponseDTO;
+import com.uor.eng.payload.booking.BookingSearchCriteria;
 import com.uor.eng.payload.booking.CreateBookingDTO;
 import com.uor.eng.payload.dashboard.MonthlyBookingStatsResponse;
 import com.uor.eng.payload.patient.PatientResponse;
 import com.uor.eng.service.IBookingService;
+import com.uor.eng.util.BookingGroupCommitter;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
  * Test class for BookingController using pure Mockito approach
@@ -44,10 +51,14 @@ public class BookingControllerTest {
   @Mock
   private IBookingService bookingService;
 
+  @Mock
+  private BookingGroupCommitter bookingGroupCommitter;
+
   @InjectMocks
   private BookingController bookingController;
 
-  private final ObjectMapper objectMapper = new ObjectMapper();
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
 
   private CreateBookingDTO createBookingDTO;
   private BookingResponseDTO bookingResponseDTO;
@@ -104,7 +115,7 @@ public class BookingControllerTest {
 
   @Test
   void testCreateBooking() throws Exception {
-    when(bookingService.createBooking(any(CreateBookingDTO.class))).thenReturn(bookingResponseDTO);
+    when(bookingGroupCommitter.createBooking(any(CreateBookingDTO.class))).thenReturn(bookingResponseDTO);
 
     mockMvc.perform(post("/api/bookings/create")
                     .contentType(MediaType.APPLICATION_JSON)
@@ -113,7 +124,7 @@ public class BookingControllerTest {
             .andExpect(jsonPath("$.referenceId").value(bookingResponseDTO.getReferenceId()))
             .andExpect(jsonPath("$.name").value(bookingResponseDTO.getName()));
 
-    verify(bookingService, times(1)).createBooking(any(CreateBookingDTO.class));
+    verify(bookingGroupCommitter, times(1)).createBooking(any(CreateBookingDTO.class));
   }
 
   @Test
@@ -237,4 +248,65 @@ public class BookingControllerTest {
 
     verify(bookingService, times(1)).getCurrentMonthBookingStats();
   }
-}
\ No newline at end of file
+
+  @Test
+  void testGetMonthlyBookingStats() throws Exception {
+    when(bookingService.getMonthlyBookingStats(YearMonth.of(2024, 1), YearMonth.of(2024, 3)))
+            .thenReturn(List.of(monthlyStats));
+
+    mockMvc.perform(get("/api/bookings/stats/monthly")
+                    .param("from", "2024-01")
+                    .param("to", "2024-03"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].totalBookings").value(monthlyStats.getTotalBookings()));
+
+    verify(bookingService, times(1)).getMonthlyBookingStats(YearMonth.of(2024, 1), YearMonth.of(2024, 3));
+  }
+
+  @Test
+  void testGetBookingsPage() throws Exception {
+    BookingSearchCriteria criteria = new BookingSearchCriteria("PENDING", 1L, null, LocalDate.of(2024, 1, 1), null);
+    BookingPageResponse page = BookingPageResponse.builder()
+            .items(bookingResponseList)
+            .nextCursor("next")
+            .hasMore(true)
+            .build();
+    when(bookingService.getBookingsPage(criteria, "abc", 20)).thenReturn(page);
+
+    mockMvc.perform(get("/api/bookings/page")
+                    .param("status", "PENDING")
+                    .param("scheduleId", "1")
+                    .param("from", "2024-01-01")
+                    .param("cursor", "abc")
+                    .param("size", "20"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(1))
+            .andExpect(jsonPath("$.items[0].referenceId").value(bookingResponseDTO.getReferenceId()))
+            .andExpect(jsonPath("$.nextCursor").value("next"))
+            .andExpect(jsonPath("$.hasMore").value(true));
+
+    verify(bookingService, times(1)).getBookingsPage(criteria, "abc", 20);
+  }
+
+  @Test
+  void testExportBookings() throws Exception {
+    BookingResponseDTO second = BookingResponseDTO.builder().referenceId("DEF456").build();
+    when(bookingService.streamBookings(new BookingSearchCriteria(null, null, 2L, null, null)))
+            .thenReturn(Stream.of(bookingResponseDTO, second));
+
+    MvcResult result = mockMvc.perform(get("/api/bookings/export").param("dentistId", "2"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    String body = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "application/x-ndjson"))
+            .andReturn().getResponse().getContentAsString();
+
+    String[] lines = body.split("\n");
+    assertEquals(2, lines.length);
+    assertEquals("ABC123", objectMapper.readTree(lines[0]).get("referenceId").asText());
+    assertEquals("DEF456", objectMapper.readTree(lines[1]).get("referenceId").asText());
+  }
+}
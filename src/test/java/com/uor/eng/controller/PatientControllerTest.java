@@ -4,7 +4,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uor.eng.exceptions.BadRequestException;
 import com.uor.eng.exceptions.ResourceNotFoundException;
 import com.uor.eng.payload.patient.CreatePatientRequest;
+import com.uor.eng.payload.patient.PatientPageResponse;
 import com.uor.eng.payload.patient.PatientResponse;
+import com.uor.eng.payload.patient.PatientSummaryResponse;
 import com.uor.eng.service.IPatientService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -144,6 +146,57 @@ public class PatientControllerTest {
             .andExpect(jsonPath("$.details.error").value("Patient not found with id: 999"));
   }
 
+  @Test
+  public void testGetPatientSummaries_Success() throws Exception {
+    // Arrange
+    PatientSummaryResponse summary = PatientSummaryResponse.builder()
+            .id(1L)
+            .name("John Doe")
+            .email("john@example.com")
+            .nic("123456789V")
+            .contactNumbers(List.of("0771234567"))
+            .build();
+    PatientPageResponse page = PatientPageResponse.builder()
+            .items(List.of(summary))
+            .page(0)
+            .size(10)
+            .totalElements(1)
+            .totalPages(1)
+            .build();
+
+    when(patientService.getPatientSummaries(0, 10)).thenReturn(page);
+
+    // Act & Assert
+    mockMvc.perform(get("/api/patients/page").param("size", "10"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items", hasSize(1)))
+            .andExpect(jsonPath("$.items[0].name", is("John Doe")))
+            .andExpect(jsonPath("$.items[0].logs").doesNotExist())
+            .andExpect(jsonPath("$.totalElements", is(1)));
+
+    verify(patientService, times(1)).getPatientSummaries(0, 10);
+  }
+
+  @Test
+  public void testSearchPatients_Success() throws Exception {
+    // Arrange
+    PatientSummaryResponse summary = PatientSummaryResponse.builder()
+            .id(1L)
+            .name("John Doe")
+            .contactNumbers(List.of("0771234567"))
+            .build();
+
+    when(patientService.searchPatients("john 077", 5)).thenReturn(List.of(summary));
+
+    // Act & Assert
+    mockMvc.perform(get("/api/patients/search").param("q", "john 077").param("limit", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].id", is(1)));
+
+    verify(patientService, times(1)).searchPatients("john 077", 5);
+  }
+
   @Test
   public void testGetAllPatients_Success() throws Exception {
     // Arrange
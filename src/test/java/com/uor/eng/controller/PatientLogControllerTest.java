@@ -85,6 +85,54 @@ public class PatientLogControllerTest {
             .andExpect(jsonPath("$.photos", hasSize(0)));
   }
 
+  @Test
+  public void testGetPatientLogTimeline_Success() throws Exception {
+    // Arrange
+    PatientLogResponse log = PatientLogResponse.builder()
+        .id(5L)
+        .actionType("Crown")
+        .timestamp(LocalDateTime.now())
+        .dentistName("Dr. Smith")
+        .photoCount(3)
+        .coverPhotoUrl("https://bucket/cover.jpg")
+        .build();
+    when(patientLogService.getPatientLogTimeline(1L, "abc", 10, false))
+        .thenReturn(new PatientLogPageResponse(List.of(log), "def", true));
+
+    // Act & Assert
+    mockMvc.perform(get("/api/patients/1/logs/timeline").param("cursor", "abc").param("size", "10"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items", hasSize(1)))
+        .andExpect(jsonPath("$.items[0].photoCount", is(3)))
+        .andExpect(jsonPath("$.items[0].coverPhotoUrl", is("https://bucket/cover.jpg")))
+        .andExpect(jsonPath("$.nextCursor", is("def")))
+        .andExpect(jsonPath("$.hasMore", is(true)));
+  }
+
+  @Test
+  public void testSearchPatientLogs_Success() throws Exception {
+    // Arrange
+    PatientLogSearchHit hit = PatientLogSearchHit.builder()
+        .id(7L)
+        .patientId(1L)
+        .dentistId(2L)
+        .dentistName("Dr. Smith")
+        .actionType("Root canal")
+        .description("Tooth 36")
+        .timestamp(LocalDateTime.now())
+        .build();
+    when(patientLogService.searchPatientLogs("root canal", 1L, null, 20))
+        .thenReturn(new PatientLogSearchResponse(4, List.of(hit)));
+
+    // Act & Assert
+    mockMvc.perform(get("/api/patients/logs/search").param("q", "root canal").param("patientId", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.total", is(4)))
+        .andExpect(jsonPath("$.items", hasSize(1)))
+        .andExpect(jsonPath("$.items[0].id", is(7)))
+        .andExpect(jsonPath("$.items[0].dentistName", is("Dr. Smith")));
+  }
+
   @Test
   public void testGetPatientLogs_Success() throws Exception {
     // Arrange
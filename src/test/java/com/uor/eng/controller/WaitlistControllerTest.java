@@ -0,0 +1,118 @@
+package com.uor.eng.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uor.eng.exceptions.BadRequestException;
+import com.uor.eng.exceptions.ResourceNotFoundException;
+import com.uor.eng.model.WaitlistStatus;
+import com.uor.eng.payload.booking.CreateBookingDTO;
+import com.uor.eng.payload.booking.WaitlistEntryResponse;
+import com.uor.eng.service.IWaitlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class WaitlistControllerTest {
+
+  private MockMvc mockMvc;
+
+  @Mock
+  private IWaitlistService waitlistService;
+
+  @InjectMocks
+  private WaitlistController waitlistController;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private CreateBookingDTO bookingDTO;
+  private WaitlistEntryResponse entry;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    mockMvc = MockMvcBuilders.standaloneSetup(waitlistController)
+            .setControllerAdvice(new TestExceptionHandler())
+            .build();
+
+    bookingDTO = new CreateBookingDTO();
+    bookingDTO.setScheduleId(1L);
+    bookingDTO.setName("John Doe");
+    bookingDTO.setNic("123456789V");
+    bookingDTO.setContactNumber("0771234567");
+    bookingDTO.setEmail("john@example.com");
+    bookingDTO.setAddress("123 Main St");
+
+    entry = WaitlistEntryResponse.builder()
+            .id(7L)
+            .name("John Doe")
+            .contactNumber("0771234567")
+            .scheduleId(1L)
+            .status(WaitlistStatus.WAITING)
+            .position(3L)
+            .build();
+  }
+
+  @Test
+  public void testJoinWaitlist() throws Exception {
+    when(waitlistService.joinWaitlist(any(CreateBookingDTO.class))).thenReturn(entry);
+
+    mockMvc.perform(post("/api/waitlist/join")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(bookingDTO)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.id", is(7)))
+            .andExpect(jsonPath("$.status", is("WAITING")))
+            .andExpect(jsonPath("$.position", is(3)));
+  }
+
+  @Test
+  public void testJoinWaitlist_ScheduleNotFull() throws Exception {
+    when(waitlistService.joinWaitlist(any(CreateBookingDTO.class)))
+            .thenThrow(new BadRequestException("The selected schedule still has free slots. Please book it directly."));
+
+    mockMvc.perform(post("/api/waitlist/join")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(bookingDTO)))
+            .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testGetEntry() throws Exception {
+    when(waitlistService.getEntry(7L, "0771234567")).thenReturn(entry);
+
+    mockMvc.perform(get("/api/waitlist/7/0771234567"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.position", is(3)));
+  }
+
+  @Test
+  public void testGetEntry_NotFound() throws Exception {
+    when(waitlistService.getEntry(7L, "0700000000")).thenThrow(new ResourceNotFoundException("Waitlist entry not found"));
+
+    mockMvc.perform(get("/api/waitlist/7/0700000000"))
+            .andExpect(status().isNotFound());
+  }
+
+  @Test
+  public void testCancelEntry() throws Exception {
+    entry.setStatus(WaitlistStatus.CANCELLED);
+    entry.setPosition(null);
+    when(waitlistService.cancelEntry(7L, "0771234567")).thenReturn(entry);
+
+    mockMvc.perform(delete("/api/waitlist/7/0771234567"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status", is("CANCELLED")));
+    verify(waitlistService).cancelEntry(7L, "0771234567");
+  }
+}
@@ -1,18 +1,27 @@
 package com.uor.eng.repository;
 
 import com.uor.eng.model.*;
+import com.uor.eng.payload.booking.BookingResponseDTO;
+import com.uor.eng.payload.dashboard.DailyStatusCount;
+import com.uor.eng.payload.dashboard.MonthlyStatusCount;
+import com.uor.eng.payload.schedule.ScheduleBookingCount;
+import com.uor.eng.util.ReferenceIdGenerator;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -28,8 +37,12 @@ public class BookingRepositoryTest {
   @Autowired
   private ScheduleRepository scheduleRepository;
 
+  @Autowired
+  private AppointmentReminderRepository reminderRepository;
+
   @AfterEach
   void tearDown() {
+    reminderRepository.deleteAll();
     bookingRepository.deleteAll();
     scheduleRepository.deleteAll();
     dentistRepository.deleteAll();
@@ -112,6 +125,294 @@ public class BookingRepositoryTest {
         .containsExactlyInAnyOrder(booking1.getReferenceId(), booking2.getReferenceId());
   }
 
+  @Test
+  @DisplayName("Test count by month and status")
+  @Order(3)
+  public void testCountByMonthAndStatus() {
+    // Arrange
+    Dentist dentist = dentistRepository.save(createDentist());
+    Schedule schedule = scheduleRepository.save(createSchedule(dentist));
+    bookingRepository.save(createBooking(schedule, 1, BookingStatus.PENDING));
+    bookingRepository.save(createBooking(schedule, 2, BookingStatus.PENDING));
+    bookingRepository.save(createBooking(schedule, 3, BookingStatus.CANCELLED));
+
+    LocalDate firstOfMonth = LocalDate.now().withDayOfMonth(1);
+
+    // Act
+    List<MonthlyStatusCount> result = bookingRepository.countByMonthAndStatus(firstOfMonth, firstOfMonth.plusMonths(1));
+    List<MonthlyStatusCount> empty = bookingRepository.countByMonthAndStatus(firstOfMonth.plusMonths(1), firstOfMonth.plusMonths(2));
+
+    // Assert
+    assertThat(result).hasSize(2);
+    assertThat(result).allSatisfy(row -> {
+      assertThat(row.getBookingYear()).isEqualTo(firstOfMonth.getYear());
+      assertThat(row.getBookingMonth()).isEqualTo(firstOfMonth.getMonthValue());
+    });
+    assertThat(result).extracting(MonthlyStatusCount::getBookingStatus, MonthlyStatusCount::getTotal)
+        .containsExactlyInAnyOrder(tuple(BookingStatus.PENDING, 2L), tuple(BookingStatus.CANCELLED, 1L));
+    assertThat(empty).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Test response projection joins schedule and dentist")
+  @Order(4)
+  public void testFindAllResponses() {
+    // Arrange
+    Dentist dentist = dentistRepository.save(createDentist());
+    Schedule schedule = scheduleRepository.save(createSchedule(dentist));
+    Booking booking = bookingRepository.save(createBooking(schedule, 1, BookingStatus.PENDING));
+
+    // Act
+    List<BookingResponseDTO> result = bookingRepository.findAllResponses();
+    Optional<BookingResponseDTO> byContact = bookingRepository.findResponseByReferenceIdAndContactNumber(
+        booking.getReferenceId(), booking.getContactNumber());
+
+    // Assert
+    assertThat(result).hasSize(1);
+    BookingResponseDTO response = result.get(0);
+    assertThat(response).usingRecursiveComparison()
+        .ignoringFields("createdAt")
+        .isEqualTo(BookingResponseDTO.from(booking, schedule));
+    assertThat(response.getDoctorName()).isEqualTo("John");
+    assertThat(response.getScheduleId()).isEqualTo(schedule.getId());
+    assertThat(response.getScheduleStatus()).isEqualTo(ScheduleStatus.ACTIVE);
+    assertThat(byContact).contains(response);
+    assertThat(bookingRepository.findResponseByReferenceIdAndContactNumber(booking.getReferenceId(), "0000000000")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Test response projection by schedule date and booking status")
+  @Order(5)
+  public void testFindResponsesByScheduleDateAndStatusIn() {
+    // Arrange
+    Dentist dentist = dentistRepository.save(createDentist());
+    Schedule schedule = scheduleRepository.save(createSchedule(dentist));
+    bookingRepository.save(createBooking(schedule, 1, BookingStatus.ACTIVE));
+    bookingRepository.save(createBooking(schedule, 2, BookingStatus.PENDING));
+    bookingRepository.save(createBooking(schedule, 3, BookingStatus.CANCELLED));
+
+    // Act
+    List<BookingResponseDTO> result = bookingRepository.findResponsesByScheduleDateAndStatusIn(
+        schedule.getDate(), List.of(BookingStatus.ACTIVE, BookingStatus.PENDING));
+    List<BookingResponseDTO> otherDay = bookingRepository.findResponsesByScheduleDateAndStatusIn(
+        schedule.getDate().plusDays(1), List.of(BookingStatus.ACTIVE, BookingStatus.PENDING));
+
+    // Assert
+    assertThat(result).extracting(BookingResponseDTO::getAppointmentNumber).containsExactly(1, 2);
+    assertThat(otherDay).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Test keyset page walks all matching bookings newest first")
+  @Order(6)
+  public void testFindResponsesPage() {
+    // Arrange
+    Dentist dentist = dentistRepository.save(createDentist());
+    Schedule schedule = scheduleRepository.save(createSchedule(dentist));
+    for (int i = 1; i <= 5; i++) {
+      bookingRepository.save(createBooking(schedule, i, i == 5 ? BookingStatus.CANCELLED : BookingStatus.PENDING));
+    }
+    LocalDate today = LocalDate.now();
+
+    // Act
+    List<BookingResponseDTO> first = bookingRepository.findResponsesPage(BookingStatus.PENDING, schedule.getId(),
+        dentist.getUserId(), today, today, null, null, PageRequest.of(0, 3));
+    BookingResponseDTO last = first.get(first.size() - 1);
+    List<BookingResponseDTO> second = bookingRepository.findResponsesPage(BookingStatus.PENDING, schedule.getId(),
+        dentist.getUserId(), today, today, last.getCreatedAt(), last.getReferenceId(), PageRequest.of(0, 3));
+    List<BookingResponseDTO> otherDentist = bookingRepository.findResponsesPage(null, null,
+        dentist.getUserId() + 1, null, null, null, null, PageRequest.of(0, 3));
+    List<BookingResponseDTO> unfiltered = bookingRepository.findResponsesPage(null, null, null, null, null,
+        null, null, PageRequest.of(0, 10));
+
+    // Assert
+    assertThat(first).hasSize(3);
+    assertThat(second).hasSize(1);
+    List<BookingResponseDTO> walked = new ArrayList<>(first);
+    walked.addAll(second);
+    assertThat(walked).extracting(BookingResponseDTO::getStatus).containsOnly(BookingStatus.PENDING);
+    assertThat(walked).extracting(BookingResponseDTO::getAppointmentNumber).containsExactlyInAnyOrder(1, 2, 3, 4);
+    assertThat(walked).isSortedAccordingTo(Comparator.comparing(BookingResponseDTO::getCreatedAt)
+        .thenComparing(BookingResponseDTO::getReferenceId).reversed());
+    assertThat(otherDentist).isEmpty();
+    assertThat(unfiltered).hasSize(5);
+  }
+
+  @Test
+  @DisplayName("Test booking with an assigned reference id is persisted as new and loaded as existing")
+  @Order(7)
+  public void testAssignedReferenceIdIsPersistedAsNew() {
+    // Arrange
+    Dentist dentist = dentistRepository.save(createDentist());
+    Schedule schedule = scheduleRepository.save(createSchedule(dentist));
+    Booking booking = createBooking(schedule, 1, BookingStatus.PENDING);
+    booking.setReferenceId(ReferenceIdGenerator.random());
+    assertThat(booking.isNew()).isTrue();
+
+    // Act
+    Booking saved = bookingRepository.save(booking);
+
+    // Assert
+    assertThat(saved).isSameAs(booking);
+    assertThat(saved.isNew()).isFalse();
+    assertThat(bookingRepository.findById(booking.getReferenceId())).get()
+        .extracting(Booking::isNew).isEqualTo(false);
+  }
+
+  @Test
+  @DisplayName("Test booking counts grouped by schedule and status")
+  @Order(8)
+  public void testCountByScheduleIdsAndStatus() {
+    // Arrange
+    Dentist dentist = dentistRepository.save(createDentist());
+    Schedule first = scheduleRepository.save(createSchedule(dentist));
+    Schedule second = scheduleRepository.save(createSchedule(dentist));
+    Schedule empty = scheduleRepository.save(createSchedule(dentist));
+    bookingRepository.save(createBooking(first, 1, BookingStatus.PENDING));
+    bookingRepository.save(createBooking(first, 2, BookingStatus.PENDING));
+    bookingRepository.save(createBooking(first, 3, BookingStatus.CANCELLED));
+    bookingRepository.save(createBooking(second, 4, BookingStatus.ACTIVE));
+
+    // Act
+    List<ScheduleBookingCount> result = bookingRepository.countByScheduleIdsAndStatus(
+        List.of(first.getId(), empty.getId()));
+
+    // Assert
+    assertThat(result).extracting(ScheduleBookingCount::getScheduleId, ScheduleBookingCount::getBookingStatus,
+            ScheduleBookingCount::getTotal)
+        .containsExactlyInAnyOrder(
+            tuple(first.getId(), BookingStatus.PENDING, 2L),
+            tuple(first.getId(), BookingStatus.CANCELLED, 1L));
+    assertThat(bookingRepository.existsByScheduleId(second.getId())).isTrue();
+    assertThat(bookingRepository.existsByScheduleId(empty.getId())).isFalse();
+  }
+
+  @Test
+  @DisplayName("Test bulk booking transition only touches open bookings of moved schedules")
+  @Order(9)
+  public void testTransitionStatusBySchedules() {
+    // Arrange
+    Dentist dentist = dentistRepository.save(createDentist());
+    Schedule finished = createSchedule(dentist);
+    finished.setStatus(ScheduleStatus.FINISHED);
+    finished = scheduleRepository.save(finished);
+    Schedule active = scheduleRepository.save(createSchedule(dentist));
+    bookingRepository.save(createBooking(finished, 1, BookingStatus.PENDING));
+    bookingRepository.save(createBooking(finished, 2, BookingStatus.CANCELLED));
+    bookingRepository.save(createBooking(active, 3, BookingStatus.PENDING));
+
+    // Act
+    List<BookingResponseDTO> open = bookingRepository.findOpenResponsesByScheduleIds(
+        List.of(finished.getId(), active.getId()), ScheduleStatus.FINISHED);
+    int moved = bookingRepository.transitionStatusBySchedules(
+        List.of(finished.getId(), active.getId()), ScheduleStatus.FINISHED, BookingStatus.FINISHED);
+
+    // Assert
+    assertThat(open).extracting(BookingResponseDTO::getAppointmentNumber).containsExactly(1);
+    assertThat(moved).isEqualTo(1);
+    assertThat(bookingRepository.findAll())
+        .extracting(Booking::getAppointmentNumber, Booking::getStatus)
+        .containsExactlyInAnyOrder(
+            tuple(1, BookingStatus.FINISHED),
+            tuple(2, BookingStatus.CANCELLED),
+            tuple(3, BookingStatus.PENDING));
+  }
+
+  @Test
+  @DisplayName("Test reminder projection skips bookings already in the reminder ledger")
+  @Order(10)
+  public void testFindResponsesWithoutReminder() {
+    // Arrange
+    Dentist dentist = dentistRepository.save(createDentist());
+    Schedule schedule = scheduleRepository.save(createSchedule(dentist));
+    Booking reminded = bookingRepository.save(createBooking(schedule, 1, BookingStatus.ACTIVE));
+    bookingRepository.save(createBooking(schedule, 2, BookingStatus.PENDING));
+    bookingRepository.save(createBooking(schedule, 3, BookingStatus.CANCELLED));
+    reminderRepository.save(AppointmentReminder.builder()
+        .bookingReferenceId(reminded.getReferenceId())
+        .appointmentDate(schedule.getDate())
+        .build());
+    reminderRepository.save(AppointmentReminder.builder()
+        .bookingReferenceId("OLDREF")
+        .appointmentDate(schedule.getDate().minusDays(1))
+        .build());
+
+    // Act
+    List<BookingResponseDTO> due = bookingRepository.findResponsesWithoutReminder(
+        schedule.getDate(), List.of(BookingStatus.ACTIVE, BookingStatus.PENDING));
+    int purged = reminderRepository.deleteByAppointmentDateBefore(schedule.getDate());
+
+    // Assert
+    assertThat(due).extracting(BookingResponseDTO::getAppointmentNumber).containsExactly(2);
+    assertThat(purged).isEqualTo(1);
+    assertThat(reminderRepository.findAll())
+        .extracting(AppointmentReminder::getBookingReferenceId)
+        .containsExactly(reminded.getReferenceId());
+  }
+
+  @Test
+  @DisplayName("Test daily counts group bookings by appointment date, dentist and status")
+  @Order(11)
+  public void testCountByAppointmentDateAndDentist() {
+    // Arrange
+    Dentist dentist = dentistRepository.save(createDentist());
+    Schedule today = scheduleRepository.save(createSchedule(dentist));
+    Schedule nextWeek = createSchedule(dentist);
+    nextWeek.setDate(LocalDate.now().plusDays(7));
+    scheduleRepository.save(nextWeek);
+    bookingRepository.save(createBooking(today, 1, BookingStatus.FINISHED));
+    bookingRepository.save(createBooking(today, 2, BookingStatus.FINISHED));
+    bookingRepository.save(createBooking(today, 3, BookingStatus.ABSENT));
+    bookingRepository.save(createBooking(nextWeek, 1, BookingStatus.PENDING));
+
+    // Act
+    List<DailyStatusCount> counts = bookingRepository.countByAppointmentDateAndDentist(
+        LocalDate.now(), LocalDate.now().plusDays(1));
+
+    // Assert
+    assertThat(counts)
+        .extracting(DailyStatusCount::getStatDate, DailyStatusCount::getDentistId,
+            DailyStatusCount::getBookingStatus, DailyStatusCount::getTotal)
+        .containsExactlyInAnyOrder(
+            tuple(LocalDate.now(), dentist.getUserId(), BookingStatus.FINISHED, 2L),
+            tuple(LocalDate.now(), dentist.getUserId(), BookingStatus.ABSENT, 1L));
+  }
+
+  @Test
+  @DisplayName("Test cancelling a booking only succeeds once")
+  @Order(12)
+  public void testCancelIsGuarded() {
+    // Arrange
+    Dentist dentist = dentistRepository.save(createDentist());
+    Schedule schedule = scheduleRepository.save(createSchedule(dentist));
+    Booking booking = bookingRepository.save(createBooking(schedule, 1, BookingStatus.PENDING));
+
+    // Act
+    int first = bookingRepository.cancel(booking.getReferenceId());
+    int second = bookingRepository.cancel(booking.getReferenceId());
+    bookingRepository.markSlotReleased(booking.getReferenceId());
+
+    // Assert
+    assertThat(first).isEqualTo(1);
+    assertThat(second).isZero();
+    Booking cancelled = bookingRepository.findByIdWithLock(booking.getReferenceId()).orElseThrow();
+    assertThat(cancelled.getStatus()).isEqualTo(BookingStatus.CANCELLED);
+    assertThat(cancelled.isSlotReleased()).isTrue();
+  }
+
+  private Booking createBooking(Schedule schedule, int appointmentNumber, BookingStatus status) {
+    return Booking.builder()
+        .appointmentNumber(appointmentNumber)
+        .name("Patient " + appointmentNumber)
+        .nic("12345678" + appointmentNumber + "V")
+        .contactNumber("071234567" + appointmentNumber)
+        .email("patient" + appointmentNumber + "@example.com")
+        .address("123 Main Street")
+        .status(status)
+        .schedule(schedule)
+        .build();
+  }
+
   private Schedule createSchedule(Dentist dentist) {
     return Schedule.builder()
         .date(LocalDate.now())
@@ -0,0 +1,89 @@
+package com.uor.eng.repository;
+
+import com.uor.eng.model.DailyBookingStats;
+import com.uor.eng.payload.dashboard.DailyBookingTotals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+public class DailyBookingStatsRepositoryTest {
+
+  private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+  @Autowired
+  private DailyBookingStatsRepository statsRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @BeforeEach
+  void setUp() {
+    statsRepository.saveAndFlush(row(DAY, 1L, 4, 3, 1, 0));
+    statsRepository.saveAndFlush(row(DAY, 2L, 2, 1, 0, 1));
+    statsRepository.saveAndFlush(row(DAY.plusDays(1), 1L, 5, 0, 0, 0));
+  }
+
+  @Test
+  @DisplayName("Test sumByDate adds up all dentists per day within the range")
+  void testSumByDate_ShouldSumDentistsPerDay() {
+    List<DailyBookingTotals> totals = statsRepository.sumByDate(DAY.minusDays(1), DAY);
+
+    assertThat(totals)
+        .extracting(DailyBookingTotals::getStatDate, DailyBookingTotals::getCreated, DailyBookingTotals::getFinished,
+            DailyBookingTotals::getCancelled, DailyBookingTotals::getAbsent)
+        .containsExactly(tuple(DAY, 6L, 4L, 1L, 1L));
+  }
+
+  @Test
+  @DisplayName("Test addCounts applies deltas to an existing row and reports a missing one")
+  void testAddCounts_ShouldUpdateExistingRowsOnly() {
+    assertThat(statsRepository.addCounts(DAY, 1L, 0, -1, 0, 1, 0, 0)).isEqualTo(1);
+    assertThat(statsRepository.addCounts(DAY, 3L, 1, 1, 0, 0, 0, 0)).isZero();
+    entityManager.clear();
+
+    DailyBookingStats updated = statsRepository.findAll().stream()
+        .filter(stats -> stats.getStatDate().equals(DAY) && stats.getDentistId().equals(1L))
+        .findFirst().orElseThrow();
+    assertThat(updated.getFinished()).isEqualTo(4);
+    assertThat(updated.getPending()).isEqualTo(-1);
+    assertThat(statsRepository.count()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Test deleteByStatDateBetween removes only rows inside the range")
+  void testDeleteByStatDateBetween_ShouldKeepOtherDays() {
+    assertThat(statsRepository.deleteByStatDateBetween(DAY, DAY)).isEqualTo(2);
+    assertThat(statsRepository.findAll()).extracting(DailyBookingStats::getStatDate).containsExactly(DAY.plusDays(1));
+  }
+
+  @Test
+  @DisplayName("Test a second row for the same day and dentist is rejected")
+  void testSave_ShouldRejectDuplicateDayAndDentist() {
+    assertThatThrownBy(() -> statsRepository.saveAndFlush(row(DAY, 1L, 1, 0, 0, 0)))
+        .isInstanceOf(DataIntegrityViolationException.class);
+  }
+
+  private static DailyBookingStats row(LocalDate date, Long dentistId, int created, int finished, int cancelled,
+                                       int absent) {
+    return DailyBookingStats.builder()
+        .statDate(date)
+        .dentistId(dentistId)
+        .created(created)
+        .finished(finished)
+        .cancelled(cancelled)
+        .absent(absent)
+        .build();
+  }
+}
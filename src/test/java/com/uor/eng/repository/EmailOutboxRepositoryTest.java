@@ -0,0 +1,76 @@
+package com.uor.eng.repository;
+
+import com.uor.eng.model.EmailOutbox;
+import com.uor.eng.model.EmailOutboxStatus;
+import com.uor.eng.model.EmailType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class EmailOutboxRepositoryTest {
+
+  @Autowired
+  private EmailOutboxRepository emailOutboxRepository;
+
+  private EmailOutbox dueEmail;
+
+  @BeforeEach
+  void setUp() {
+    dueEmail = emailOutboxRepository.save(EmailOutbox.builder()
+        .type(EmailType.BOOKING_CONFIRMATION)
+        .recipient("john.doe@example.com")
+        .subject("Appointment Confirmation - Reference ID: REF123456")
+        .body("<p>Hello</p>")
+        .build());
+
+    emailOutboxRepository.save(EmailOutbox.builder()
+        .type(EmailType.APPOINTMENT_REMINDER)
+        .recipient("jane.doe@example.com")
+        .subject("Appointment Reminder - Tomorrow")
+        .body("<p>Reminder</p>")
+        .nextAttemptAt(LocalDateTime.now().plusHours(1))
+        .build());
+  }
+
+  @Test
+  @DisplayName("Test find due ids returns only pending emails whose next attempt has passed")
+  void testFindDueIds_ShouldReturnDueEmails() {
+    List<Long> dueIds = emailOutboxRepository.findDueIds(LocalDateTime.now().plusSeconds(1), PageRequest.of(0, 10));
+
+    assertThat(dueIds).containsExactly(dueEmail.getId());
+  }
+
+  @Test
+  @DisplayName("Test claim succeeds once and leases the email")
+  void testClaim_ShouldOnlySucceedOnce() {
+    LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+
+    assertThat(emailOutboxRepository.claim(dueEmail.getId(), now, now.plusMinutes(5))).isEqualTo(1);
+    assertThat(emailOutboxRepository.claim(dueEmail.getId(), now, now.plusMinutes(5))).isZero();
+
+    EmailOutbox claimed = emailOutboxRepository.findById(dueEmail.getId()).orElseThrow();
+    assertThat(claimed.getAttempts()).isEqualTo(1);
+    assertThat(emailOutboxRepository.findDueIds(now, PageRequest.of(0, 10))).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Test mark sent and failed update the email state")
+  void testMarkSentAndFailed_ShouldUpdateStatus() {
+    LocalDateTime now = LocalDateTime.now();
+    emailOutboxRepository.markFailed(dueEmail.getId(), EmailOutboxStatus.DEAD, now, "SMTP timeout");
+    assertThat(emailOutboxRepository.countByStatus(EmailOutboxStatus.DEAD)).isEqualTo(1);
+
+    emailOutboxRepository.markSent(dueEmail.getId(), now);
+    assertThat(emailOutboxRepository.countByStatus(EmailOutboxStatus.SENT)).isEqualTo(1);
+    assertThat(emailOutboxRepository.deleteSentBefore(now.plusSeconds(1))).isEqualTo(1);
+  }
+}
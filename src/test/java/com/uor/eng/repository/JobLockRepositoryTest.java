@@ -0,0 +1,64 @@
+package com.uor.eng.repository;
+
+import com.uor.eng.model.JobLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+public class JobLockRepositoryTest {
+
+  @Autowired
+  private JobLockRepository jobLockRepository;
+
+  private LocalDateTime now;
+
+  @BeforeEach
+  void setUp() {
+    jobLockRepository.saveAndFlush(JobLock.builder().name("appointment-reminders").token(0).build());
+    now = LocalDateTime.now();
+  }
+
+  @Test
+  @DisplayName("Test acquire takes a free lease once and raises its token")
+  void testAcquire_ShouldOnlySucceedOnceForAToken() {
+    assertThat(jobLockRepository.acquire("appointment-reminders", 0, "node-a", now, now.plusMinutes(15))).isEqualTo(1);
+    // Same token read by a second node
+    assertThat(jobLockRepository.acquire("appointment-reminders", 0, "node-b", now, now.plusMinutes(15))).isZero();
+    // Current token, but the lease has not run out
+    assertThat(jobLockRepository.acquire("appointment-reminders", 1, "node-b", now, now.plusMinutes(15))).isZero();
+
+    JobLock lock = jobLockRepository.findForUpdate("appointment-reminders").orElseThrow();
+    assertThat(lock.getLockedBy()).isEqualTo("node-a");
+    assertThat(lock.getToken()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Test release frees the lease only for the current token")
+  void testRelease_ShouldIgnoreStaleTokens() {
+    jobLockRepository.acquire("appointment-reminders", 0, "node-a", now, now.plusMinutes(15));
+
+    assertThat(jobLockRepository.release("appointment-reminders", 0, now)).isZero();
+    assertThat(jobLockRepository.release("appointment-reminders", 1, now)).isEqualTo(1);
+    assertThat(jobLockRepository.acquire("appointment-reminders", 1, "node-b", now.plusSeconds(1), now.plusMinutes(15)))
+        .isEqualTo(1);
+    assertThat(jobLockRepository.findById("appointment-reminders").orElseThrow().getToken()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Test saving a new lease row for an existing job fails instead of overwriting it")
+  void testSave_ShouldNotMergeOverAnExistingLease() {
+    jobLockRepository.acquire("appointment-reminders", 0, "node-a", now, now.plusMinutes(15));
+
+    assertThatThrownBy(() -> jobLockRepository.saveAndFlush(JobLock.builder().name("appointment-reminders").build()))
+        .isInstanceOf(DataIntegrityViolationException.class);
+  }
+}
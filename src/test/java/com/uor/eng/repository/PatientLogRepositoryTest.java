@@ -3,11 +3,18 @@ package com.uor.eng.repository;
 import com.uor.eng.model.Dentist;
 import com.uor.eng.model.Patient;
 import com.uor.eng.model.PatientLog;
+import com.uor.eng.model.PatientLogPhoto;
+import com.uor.eng.payload.patient.logs.PatientLogPhotoSummary;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -26,6 +33,12 @@ public class PatientLogRepositoryTest {
   @Autowired
   private DentistRepository dentistRepository;
 
+  @Autowired
+  private PatientLogPhotoRepository patientLogPhotoRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
   private Patient testPatient;
   private PatientLog testPatientLog;
 
@@ -65,6 +78,7 @@ public class PatientLogRepositoryTest {
 
   @AfterEach
   void tearDown() {
+    patientLogPhotoRepository.deleteAll();
     patientLogRepository.deleteAll();
     patientRepository.deleteAll();
     dentistRepository.deleteAll();
@@ -91,4 +105,100 @@ public class PatientLogRepositoryTest {
     assertThat(log.get()).isEqualTo(testPatientLog);
     assertThat(((PatientLog) log.get()).getActionType()).isEqualTo("Checkup");
   }
+
+  @Test
+  @DisplayName("Test reading search entries in ID order after a given ID")
+  @Order(3)
+  void testFindSearchEntries() {
+    PatientLog second = patientLogRepository.save(PatientLog.builder()
+        .patient(testPatient)
+        .actionType("Filling")
+        .description("Composite on 46.")
+        .timestamp(LocalDateTime.now())
+        .dentist(testPatientLog.getDentist())
+        .build());
+
+    var firstChunk = patientLogRepository.findSearchEntriesAfter(0L, PageRequest.of(0, 1));
+    var secondChunk = patientLogRepository.findSearchEntriesAfter(firstChunk.get(0).getId(), PageRequest.of(0, 1));
+    var entry = patientLogRepository.findSearchEntry(second.getId());
+
+    assertThat(firstChunk).extracting("id").containsExactly(testPatientLog.getId());
+    assertThat(secondChunk).extracting("id").containsExactly(second.getId());
+    assertThat(entry).isPresent();
+    assertThat(entry.get().getPatientId()).isEqualTo(testPatient.getId());
+    assertThat(entry.get().getDentistId()).isEqualTo(testPatientLog.getDentist().getUserId());
+    assertThat(entry.get().getDescription()).isEqualTo("Composite on 46.");
+    assertThat(patientLogRepository.findIdsByPatientId(testPatient.getId()))
+        .containsExactlyInAnyOrder(testPatientLog.getId(), second.getId());
+    assertThat(patientLogRepository.findWithDentistByIdIn(List.of(second.getId())))
+        .extracting(PatientLog::getActionType).containsExactly("Filling");
+  }
+
+  @Test
+  @DisplayName("Test reading a patient's timeline newest first across equal timestamps")
+  @Order(4)
+  void testFindTimelinePage() {
+    LocalDateTime visit = LocalDateTime.of(2026, 3, 1, 10, 0);
+    List<PatientLog> logs = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      logs.add(patientLogRepository.save(PatientLog.builder()
+          .patient(testPatient)
+          .actionType("Visit " + i)
+          .timestamp(i < 3 ? visit : visit.minusDays(i))
+          .dentist(testPatientLog.getDentist())
+          .build()));
+    }
+    Statistics statistics = startCountingQueries();
+
+    List<PatientLog> first = patientLogRepository.findTimelinePage(testPatient.getId(), null, null, PageRequest.of(0, 3));
+    PatientLog last = first.get(2);
+    List<PatientLog> second = patientLogRepository.findTimelinePage(testPatient.getId(), last.getTimestamp(),
+        last.getId(), PageRequest.of(0, 3));
+
+    // testPatientLog was written now, so it comes first; the three logs sharing a timestamp go by ID
+    assertThat(first).extracting(PatientLog::getId)
+        .containsExactly(testPatientLog.getId(), logs.get(2).getId(), logs.get(1).getId());
+    assertThat(second).extracting(PatientLog::getId)
+        .containsExactly(logs.get(0).getId(), logs.get(3).getId(), logs.get(4).getId());
+    assertThat(second).allSatisfy(log -> assertThat(log.getDentist().getFirstName()).isEqualTo("John"));
+    // Dentists come with the logs
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Test reading photo counts and first photos of several logs at once")
+  @Order(5)
+  void testFindPhotoSummaries() {
+    PatientLog withoutPhotos = patientLogRepository.save(PatientLog.builder()
+        .patient(testPatient)
+        .actionType("Cleaning")
+        .timestamp(LocalDateTime.now())
+        .dentist(testPatientLog.getDentist())
+        .build());
+    for (String key : List.of("first.jpg", "second.jpg", "third.jpg")) {
+      patientLogPhotoRepository.save(PatientLogPhoto.builder()
+          .patientLog(testPatientLog)
+          .s3Key(key)
+          .timestamp(LocalDateTime.now())
+          .build());
+    }
+
+    List<PatientLogPhotoSummary> summaries = patientLogPhotoRepository
+        .findSummariesByPatientLogIdIn(List.of(testPatientLog.getId(), withoutPhotos.getId()));
+
+    assertThat(summaries).hasSize(1);
+    assertThat(summaries.get(0).getLogId()).isEqualTo(testPatientLog.getId());
+    assertThat(summaries.get(0).getPhotoCount()).isEqualTo(3L);
+    assertThat(summaries.get(0).getCoverS3Key()).isEqualTo("first.jpg");
+  }
+
+  private Statistics startCountingQueries() {
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+        .unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    statistics.clear();
+    return statistics;
+  }
 }
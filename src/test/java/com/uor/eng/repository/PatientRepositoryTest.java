@@ -1,10 +1,24 @@
 package com.uor.eng.repository;
 
+import com.uor.eng.model.Dentist;
 import com.uor.eng.model.Patient;
+import com.uor.eng.model.PatientLog;
+import com.uor.eng.model.PatientLogPhoto;
+import com.uor.eng.payload.patient.PatientContactNumber;
+import com.uor.eng.payload.patient.PatientSearchEntry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +31,12 @@ public class PatientRepositoryTest {
   @Autowired
   private PatientRepository patientRepository;
 
+  @Autowired
+  private DentistRepository dentistRepository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
   private Patient patient1;
 
   @BeforeEach
@@ -94,4 +114,119 @@ public class PatientRepositoryTest {
     Optional<Patient> deletedPatient = patientRepository.findByEmail("johndoe@example.com");
     assertThat(deletedPatient).isEmpty();
   }
+
+  @Test
+  @DisplayName("Test a page of patients with their contact numbers takes a constant number of queries")
+  @Order(7)
+  void testFindAllPaged_ShouldBatchFetchContactNumbers() {
+    for (int i = 0; i < 40; i++) {
+      patientRepository.save(Patient.builder()
+          .name("Patient " + i)
+          .email("patient" + i + "@example.com")
+          .nic(String.format("%09dV", i))
+          .contactNumbers(List.of("07700000" + String.format("%02d", i), "0112345678"))
+          .build());
+    }
+    Statistics statistics = startCountingQueries();
+
+    Page<Patient> page = patientRepository.findAll(PageRequest.of(0, 25, Sort.by("id")));
+    int numbers = page.stream().mapToInt(patient -> patient.getContactNumbers().size()).sum();
+
+    assertThat(page.getContent()).hasSize(25);
+    assertThat(page.getTotalElements()).isEqualTo(42);
+    assertThat(numbers).isEqualTo(48);
+    // Page, count and one batch of contact numbers
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Test a patient's full history takes a constant number of queries")
+  @Order(8)
+  void testFindDetailedById_ShouldFetchLogsDentistsAndPhotosInFewQueries() {
+    Dentist dentist = dentistRepository.save(Dentist.dentistBuilder()
+        .email("ktmjathur2001@gmail.com")
+        .userName("jathur")
+        .firstName("John")
+        .password("securePassword@123")
+        .nic("200132504295")
+        .phoneNumber("0779797254")
+        .gender("Male")
+        .specialization("Orthodontist")
+        .licenseNumber("LIC12345")
+        .schedules(Collections.emptyList())
+        .build());
+    Patient withHistory = Patient.builder()
+        .name("Alex Smith")
+        .email("alex@example.com")
+        .nic("555555555V")
+        .contactNumbers(List.of("0771234567"))
+        .patientLogs(new ArrayList<>())
+        .build();
+    for (int i = 0; i < 10; i++) {
+      PatientLog log = PatientLog.builder()
+          .patient(withHistory)
+          .dentist(dentist)
+          .actionType("Checkup")
+          .timestamp(LocalDateTime.now().minusDays(i))
+          .build();
+      log.setPatientLogPhotos(new ArrayList<>(List.of(photo(log, "a" + i), photo(log, "b" + i))));
+      withHistory.getPatientLogs().add(log);
+    }
+    patientRepository.save(withHistory);
+    Statistics statistics = startCountingQueries();
+
+    Patient patient = patientRepository.findDetailedById(withHistory.getId()).orElseThrow();
+    int photos = patient.getPatientLogs().stream().mapToInt(log -> log.getPatientLogPhotos().size()).sum();
+
+    assertThat(patient.getContactNumbers()).containsExactly("0771234567");
+    assertThat(patient.getPatientLogs()).hasSize(10)
+        .allSatisfy(log -> assertThat(log.getDentist().getFirstName()).isEqualTo("John"));
+    assertThat(photos).isEqualTo(20);
+    // Patient with logs and dentists, contact numbers, and one batch of photos
+    assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Test search entries and contact numbers are read without loading patients")
+  @Order(9)
+  void testSearchProjections() {
+    Patient saved = patientRepository.save(Patient.builder()
+        .name("Alex Smith")
+        .email("alex@example.com")
+        .nic("555555555V")
+        .contactNumbers(List.of("0771234567", "0112345678"))
+        .build());
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(patientRepository.findSearchEntries())
+        .extracting(PatientSearchEntry::getName)
+        .containsExactlyInAnyOrder("John Doe", "Jane Doe", "Alex Smith");
+    assertThat(patientRepository.findSearchEntry(saved.getId()))
+        .map(PatientSearchEntry::getNic).contains("555555555V");
+    assertThat(patientRepository.findAllContactNumbers())
+        .filteredOn(number -> number.getPatientId().equals(saved.getId()))
+        .extracting(PatientContactNumber::getContactNumber)
+        .containsExactlyInAnyOrder("0771234567", "0112345678");
+    assertThat(patientRepository.findContactNumbers(saved.getId()))
+        .containsExactlyInAnyOrder("0771234567", "0112345678");
+  }
+
+  private Statistics startCountingQueries() {
+    entityManager.flush();
+    entityManager.clear();
+    Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+        .unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    statistics.clear();
+    return statistics;
+  }
+
+  private static PatientLogPhoto photo(PatientLog log, String key) {
+    return PatientLogPhoto.builder()
+        .patientLog(log)
+        .s3Key(key)
+        .timestamp(LocalDateTime.now())
+        .build();
+  }
 }
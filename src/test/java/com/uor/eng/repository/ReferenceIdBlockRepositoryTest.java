@@ -0,0 +1,41 @@
+package com.uor.eng.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+public class ReferenceIdBlockRepositoryTest {
+
+  // Each method commits on its own, so every test uses a node id of its own
+  @Autowired
+  private ReferenceIdBlockRepository referenceIdBlockRepository;
+
+  @Test
+  @DisplayName("Test create stores the first reservation of a node and rejects a second one")
+  void testCreate_ShouldOnlySucceedOncePerNode() {
+    assertThat(referenceIdBlockRepository.findReservedUntil(1)).isEmpty();
+
+    referenceIdBlockRepository.create(1, 1000);
+
+    assertThat(referenceIdBlockRepository.findReservedUntil(1)).contains(1000L);
+    assertThatThrownBy(() -> referenceIdBlockRepository.create(1, 2000))
+        .isInstanceOf(DataIntegrityViolationException.class);
+    assertThat(referenceIdBlockRepository.findReservedUntil(1)).contains(1000L);
+  }
+
+  @Test
+  @DisplayName("Test advance only extends a reservation that still ends where expected")
+  void testAdvance_ShouldRejectAMovedReservation() {
+    referenceIdBlockRepository.create(2, 1000);
+
+    assertThat(referenceIdBlockRepository.advance(2, 1000, 2000)).isEqualTo(1);
+    assertThat(referenceIdBlockRepository.advance(2, 1000, 3000)).isZero();
+    assertThat(referenceIdBlockRepository.findReservedUntil(2)).contains(2000L);
+  }
+}
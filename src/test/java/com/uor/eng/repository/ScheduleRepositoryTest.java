@@ -3,16 +3,21 @@ package com.uor.eng.repository;
 import com.uor.eng.model.Dentist;
 import com.uor.eng.model.Schedule;
 import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.payload.schedule.ScheduleInterval;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @DataJpaTest
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -24,6 +29,11 @@ public class ScheduleRepositoryTest {
   @Autowired
   private DentistRepository dentistRepository;
 
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private Schedule testSchedule;
+
   @BeforeEach
   void setUp() {
     Dentist testDentist = Dentist.dentistBuilder()
@@ -40,7 +50,7 @@ public class ScheduleRepositoryTest {
         .build();
     dentistRepository.save(testDentist);
 
-    Schedule testSchedule = Schedule.builder()
+    testSchedule = Schedule.builder()
         .date(LocalDate.now())
         .dayOfWeek(LocalDate.now().getDayOfWeek().toString())
         .status(ScheduleStatus.AVAILABLE)
@@ -70,16 +80,17 @@ public class ScheduleRepositoryTest {
 //  }
 
   @Test
-  @DisplayName("Test find schedules to finish with empty list")
+  @DisplayName("Test find ids to finish with empty list")
   @Order(2)
-  void testFindSchedulesToFinish_ShouldReturnEmptyList() {
-    List<Schedule> schedules = scheduleRepository.findSchedulesToFinish(
+  void testFindIdsToFinish_ShouldReturnEmptyList() {
+    List<Long> ids = scheduleRepository.findIdsToFinish(
         LocalDate.now().minusDays(1),
         LocalTime.now(),
-        List.of(ScheduleStatus.ACTIVE)
+        List.of(ScheduleStatus.ACTIVE),
+        PageRequest.of(0, 10)
     );
 
-    assertThat(schedules).isEmpty();
+    assertThat(ids).isEmpty();
   }
 
   @Test
@@ -103,4 +114,156 @@ public class ScheduleRepositoryTest {
 
     assertThat(schedules).isEmpty();
   }
+
+  @Test
+  @DisplayName("Test decrement available slots marks the schedule full on the last slot")
+  @Order(5)
+  void testDecrementAvailableSlots_ShouldTakeSlotsUntilFull() {
+    Long id = testSchedule.getId();
+    for (int i = 0; i < 10; i++) {
+      assertThat(scheduleRepository.decrementAvailableSlots(id)).isEqualTo(1);
+    }
+
+    assertThat(scheduleRepository.decrementAvailableSlots(id)).isZero();
+    Schedule schedule = scheduleRepository.findById(id).orElseThrow();
+    assertThat(schedule.getAvailableSlots()).isZero();
+    assertThat(schedule.getStatus()).isEqualTo(ScheduleStatus.FULL);
+  }
+
+  @Test
+  @DisplayName("Test decrement available slots is rejected for a schedule that is not available")
+  @Order(6)
+  void testDecrementAvailableSlots_ShouldRejectUnavailableSchedule() {
+    testSchedule.setStatus(ScheduleStatus.UNAVAILABLE);
+    scheduleRepository.save(testSchedule);
+
+    assertThat(scheduleRepository.decrementAvailableSlots(testSchedule.getId())).isZero();
+    assertThat(scheduleRepository.findAvailableSlotsById(testSchedule.getId())).contains(10);
+  }
+
+  @Test
+  @DisplayName("Test increment available slots reopens a full schedule")
+  @Order(7)
+  void testIncrementAvailableSlots_ShouldReopenFullSchedule() {
+    testSchedule.setAvailableSlots(0);
+    testSchedule.setStatus(ScheduleStatus.FULL);
+    scheduleRepository.save(testSchedule);
+
+    assertThat(scheduleRepository.incrementAvailableSlots(testSchedule.getId())).isEqualTo(1);
+    Schedule schedule = scheduleRepository.findById(testSchedule.getId()).orElseThrow();
+    assertThat(schedule.getAvailableSlots()).isEqualTo(1);
+    assertThat(schedule.getStatus()).isEqualTo(ScheduleStatus.AVAILABLE);
+  }
+
+  @Test
+  @DisplayName("Test find ids to finish covers earlier days and schedules that ended today")
+  @Order(8)
+  void testFindIdsToFinish_ShouldReturnEndedSchedulesInIdOrder() {
+    Schedule yesterday = scheduleRepository.save(copyOf(testSchedule, LocalDate.now().minusDays(1), ScheduleStatus.AVAILABLE));
+    Schedule cancelled = scheduleRepository.save(copyOf(testSchedule, LocalDate.now().minusDays(2), ScheduleStatus.CANCELLED));
+    scheduleRepository.save(copyOf(testSchedule, LocalDate.now().plusDays(1), ScheduleStatus.AVAILABLE));
+
+    List<Long> ids = scheduleRepository.findIdsToFinish(LocalDate.now(), LocalTime.of(18, 0),
+        List.of(ScheduleStatus.AVAILABLE, ScheduleStatus.UNAVAILABLE, ScheduleStatus.ACTIVE), PageRequest.of(0, 10));
+    List<Long> beforeEnd = scheduleRepository.findIdsToFinish(LocalDate.now(), LocalTime.of(16, 0),
+        List.of(ScheduleStatus.AVAILABLE), PageRequest.of(0, 1));
+
+    assertThat(ids).containsExactly(testSchedule.getId(), yesterday.getId()).doesNotContain(cancelled.getId());
+    assertThat(beforeEnd).containsExactly(yesterday.getId());
+  }
+
+  @Test
+  @DisplayName("Test transition status skips schedules that left the expected statuses")
+  @Order(9)
+  void testTransitionStatus_ShouldOnlyMoveSchedulesInFromStatuses() {
+    Schedule cancelled = scheduleRepository.save(copyOf(testSchedule, LocalDate.now(), ScheduleStatus.CANCELLED));
+
+    int moved = scheduleRepository.transitionStatus(List.of(testSchedule.getId(), cancelled.getId()),
+        List.of(ScheduleStatus.AVAILABLE), ScheduleStatus.FINISHED);
+
+    assertThat(moved).isEqualTo(1);
+    assertThat(scheduleRepository.findById(testSchedule.getId()).orElseThrow().getStatus()).isEqualTo(ScheduleStatus.FINISHED);
+    assertThat(scheduleRepository.findById(cancelled.getId()).orElseThrow().getStatus()).isEqualTo(ScheduleStatus.CANCELLED);
+    assertThat(scheduleRepository.findIdsByDate(LocalDate.now(), List.of(ScheduleStatus.FINISHED), PageRequest.of(0, 10)))
+        .containsExactly(testSchedule.getId());
+    assertThat(scheduleRepository.findIdsStartedBy(LocalDate.now(), LocalTime.of(10, 0), List.of(ScheduleStatus.CANCELLED),
+        PageRequest.of(0, 10))).containsExactly(cancelled.getId());
+  }
+
+  @Test
+  @DisplayName("Test overlap check only counts the dentist's other live schedules on that date")
+  @Order(10)
+  void testExistsOverlapping_ShouldIgnoreCancelledAndExcludedSchedules() {
+    Long dentistId = testSchedule.getDentist().getUserId();
+    LocalDate today = LocalDate.now();
+    scheduleRepository.save(copyOf(testSchedule, today.plusDays(1), ScheduleStatus.CANCELLED));
+
+    assertThat(scheduleRepository.existsOverlapping(dentistId, today, LocalTime.of(16, 0), LocalTime.of(18, 0),
+        ScheduleStatus.CANCELLED, null)).isTrue();
+    // Touching end to start is not an overlap
+    assertThat(scheduleRepository.existsOverlapping(dentistId, today, LocalTime.of(17, 0), LocalTime.of(18, 0),
+        ScheduleStatus.CANCELLED, null)).isFalse();
+    assertThat(scheduleRepository.existsOverlapping(dentistId, today, LocalTime.of(10, 0), LocalTime.of(11, 0),
+        ScheduleStatus.CANCELLED, testSchedule.getId())).isFalse();
+    assertThat(scheduleRepository.existsOverlapping(dentistId, today.plusDays(1), LocalTime.of(10, 0),
+        LocalTime.of(11, 0), ScheduleStatus.CANCELLED, null)).isFalse();
+
+    assertThat(scheduleRepository.findIntervalsByDentist(dentistId, ScheduleStatus.CANCELLED))
+        .extracting(ScheduleInterval::getId, ScheduleInterval::getDate, ScheduleInterval::getStartTime)
+        .containsExactly(tuple(testSchedule.getId(), today, LocalTime.of(9, 0)));
+    assertThat(scheduleRepository.findInterval(testSchedule.getId(), ScheduleStatus.CANCELLED))
+        .map(ScheduleInterval::getDentistId).contains(dentistId);
+  }
+
+  @Test
+  @DisplayName("Test batch insert writes every schedule and overlapping dates are found in one query")
+  @Order(11)
+  void testInsertAll_ShouldWriteSchedulesFoundByOverlappingDates() {
+    Long dentistId = testSchedule.getDentist().getUserId();
+    LocalDate today = LocalDate.now();
+    List<Schedule> schedules = List.of(
+        copyOf(testSchedule, today.plusDays(1), ScheduleStatus.AVAILABLE),
+        copyOf(testSchedule, today.plusDays(2), ScheduleStatus.CANCELLED),
+        copyOf(testSchedule, today.plusDays(3), ScheduleStatus.UNAVAILABLE));
+    schedules.forEach(schedule -> schedule.setCreatedAt(LocalDateTime.now()));
+
+    // Two rows per batch, so the last batch is a partial one
+    assertThat(new ScheduleBatchRepository(jdbcTemplate, 2).insertAll(schedules)).isEqualTo(3);
+
+    assertThat(scheduleRepository.findAll())
+        .extracting(Schedule::getDate, Schedule::getStatus, Schedule::getVersion)
+        .contains(tuple(today.plusDays(3), ScheduleStatus.UNAVAILABLE, 0L));
+    assertThat(scheduleRepository.findOverlappingDates(dentistId, today, today.plusDays(3), LocalTime.of(16, 0),
+        LocalTime.of(18, 0), ScheduleStatus.CANCELLED))
+        .containsExactlyInAnyOrder(today, today.plusDays(1), today.plusDays(3));
+    assertThat(scheduleRepository.findOverlappingDates(dentistId, today, today.plusDays(3), LocalTime.of(17, 0),
+        LocalTime.of(18, 0), ScheduleStatus.CANCELLED)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Test locking a dentist before writing their schedules")
+  @Order(12)
+  void testFindDentistByIdWithLock() {
+    Long dentistId = testSchedule.getDentist().getUserId();
+
+    assertThat(dentistRepository.findByIdWithLock(dentistId))
+        .get()
+        .extracting(Dentist::getLicenseNumber)
+        .isEqualTo("LIC12345");
+    assertThat(dentistRepository.findByIdWithLock(dentistId + 1000)).isEmpty();
+  }
+
+  private static Schedule copyOf(Schedule schedule, LocalDate date, ScheduleStatus status) {
+    return Schedule.builder()
+        .date(date)
+        .dayOfWeek(date.getDayOfWeek().toString())
+        .status(status)
+        .startTime(schedule.getStartTime())
+        .endTime(schedule.getEndTime())
+        .duration(schedule.getDuration())
+        .capacity(schedule.getCapacity())
+        .availableSlots(schedule.getAvailableSlots())
+        .dentist(schedule.getDentist())
+        .build();
+  }
 }
@@ -0,0 +1,111 @@
+package com.uor.eng.repository;
+
+import com.uor.eng.model.Dentist;
+import com.uor.eng.model.Schedule;
+import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.model.WaitlistEntry;
+import com.uor.eng.model.WaitlistStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class WaitlistEntryRepositoryTest {
+
+  @Autowired
+  private WaitlistEntryRepository waitlistRepository;
+
+  @Autowired
+  private ScheduleRepository scheduleRepository;
+
+  @Autowired
+  private DentistRepository dentistRepository;
+
+  private Schedule schedule;
+  private WaitlistEntry first;
+  private WaitlistEntry second;
+
+  @BeforeEach
+  void setUp() {
+    Dentist dentist = dentistRepository.save(Dentist.dentistBuilder()
+        .email("ktmjathur2001@gmail.com")
+        .userName("jathur")
+        .firstName("John")
+        .password("securePassword@123")
+        .nic("200132504295")
+        .phoneNumber("0779797254")
+        .gender("Male")
+        .specialization("Orthodontist")
+        .licenseNumber("LIC12345")
+        .schedules(Collections.emptyList())
+        .build());
+    schedule = scheduleRepository.save(Schedule.builder()
+        .date(LocalDate.now().plusDays(1))
+        .dayOfWeek(LocalDate.now().plusDays(1).getDayOfWeek().toString())
+        .status(ScheduleStatus.FULL)
+        .startTime(LocalTime.of(9, 0))
+        .endTime(LocalTime.of(17, 0))
+        .duration(480L)
+        .capacity(10)
+        .availableSlots(0)
+        .dentist(dentist)
+        .build());
+    first = waitlistRepository.save(entry("123456789V"));
+    second = waitlistRepository.save(entry("987654321V"));
+  }
+
+  @Test
+  @DisplayName("Test head of the queue is the oldest waiting entry")
+  void testFindFirstWaiting_ShouldReturnOldestEntry() {
+    assertThat(waitlistRepository.findFirstByScheduleIdAndStatusOrderByIdAsc(schedule.getId(), WaitlistStatus.WAITING))
+        .get().extracting(WaitlistEntry::getId).isEqualTo(first.getId());
+    assertThat(waitlistRepository.countByScheduleIdAndStatusAndIdLessThan(schedule.getId(), WaitlistStatus.WAITING, second.getId()))
+        .isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Test promotion claims an entry only once")
+  void testMarkPromoted_ShouldOnlySucceedOnce() {
+    assertThat(waitlistRepository.markPromoted(first.getId(), "REF0000001", LocalDateTime.now())).isEqualTo(1);
+    assertThat(waitlistRepository.markPromoted(first.getId(), "REF0000002", LocalDateTime.now())).isZero();
+    assertThat(waitlistRepository.markCancelled(first.getId())).isZero();
+
+    WaitlistEntry promoted = waitlistRepository.findById(first.getId()).orElseThrow();
+    assertThat(promoted.getStatus()).isEqualTo(WaitlistStatus.PROMOTED);
+    assertThat(promoted.getBookingReferenceId()).isEqualTo("REF0000001");
+    assertThat(waitlistRepository.findFirstByScheduleIdAndStatusOrderByIdAsc(schedule.getId(), WaitlistStatus.WAITING))
+        .get().extracting(WaitlistEntry::getId).isEqualTo(second.getId());
+  }
+
+  @Test
+  @DisplayName("Test expiring a schedule's queue leaves other statuses alone")
+  void testExpireWaiting_ShouldOnlyTouchWaitingEntries() {
+    waitlistRepository.markCancelled(first.getId());
+
+    assertThat(waitlistRepository.expireWaiting(schedule.getId())).isEqualTo(1);
+    assertThat(waitlistRepository.countByScheduleIdAndStatus(schedule.getId(), WaitlistStatus.EXPIRED)).isEqualTo(1);
+    assertThat(waitlistRepository.countByScheduleIdAndStatus(schedule.getId(), WaitlistStatus.CANCELLED)).isEqualTo(1);
+    assertThat(waitlistRepository.existsByScheduleIdAndNicAndStatus(schedule.getId(), "987654321V", WaitlistStatus.WAITING))
+        .isFalse();
+  }
+
+  private WaitlistEntry entry(String nic) {
+    return WaitlistEntry.builder()
+        .schedule(schedule)
+        .name("John Doe")
+        .nic(nic)
+        .contactNumber("0771234567")
+        .email("john.doe@example.com")
+        .address("123 Main St")
+        .build();
+  }
+}
@@ -0,0 +1,158 @@
+package com.uor.eng.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+  private SimpleMeterRegistry registry;
+  private RateLimitFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    CorsConfiguration cors = new CorsConfiguration();
+    cors.setAllowedOrigins(List.of("https://clinic.example"));
+    cors.setAllowCredentials(true);
+    UrlBasedCorsConfigurationSource corsSource = new UrlBasedCorsConfigurationSource();
+    corsSource.registerCorsConfiguration("/**", cors);
+    filter = new RateLimitFilter(new ObjectMapper(), registry, new MockEnvironment()
+        .withProperty("app.rate-limit.max-concurrent", "1")
+        .withProperty("app.rate-limit.bookings.ip.capacity", "3")
+        .withProperty("app.rate-limit.bookings.ip.refill-per-minute", "1")
+        .withProperty("app.rate-limit.bookings.nic.capacity", "2")
+        .withProperty("app.rate-limit.bookings.nic.refill-per-minute", "1")
+        .withProperty("app.rate-limit.contacts.ip.capacity", "1"), corsSource);
+  }
+
+  @Test
+  void shouldRejectIpOverItsBucket() throws Exception {
+    assertEquals(200, perform(post("/api/contacts/submit", "10.0.0.1", "{}")).getStatus());
+
+    MockHttpServletResponse rejected = perform(post("/api/contacts/submit", "10.0.0.1", "{}"));
+    assertEquals(429, rejected.getStatus());
+    assertEquals("1", rejected.getHeader("Retry-After"));
+    assertTrue(rejected.getContentAsString().contains("Too Many Requests"));
+
+    assertEquals(200, perform(post("/api/contacts/submit", "10.0.0.2", "{}")).getStatus());
+    assertEquals(1.0, registry.get("app.rate-limit.rejected").tag("endpoint", "contacts").tag("reason", "ip").counter().count());
+  }
+
+  @Test
+  void shouldLetAllowedOriginsReadTheRejection() throws Exception {
+    perform(post("/api/contacts/submit", "10.0.0.1", "{}"));
+
+    MockHttpServletRequest allowed = post("/api/contacts/submit", "10.0.0.1", "{}");
+    allowed.addHeader(HttpHeaders.ORIGIN, "https://clinic.example");
+    MockHttpServletResponse rejected = perform(allowed);
+    assertEquals(429, rejected.getStatus());
+    assertEquals("https://clinic.example", rejected.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+    assertEquals("true", rejected.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS));
+    assertEquals("Retry-After", rejected.getHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS));
+
+    MockHttpServletRequest foreign = post("/api/contacts/submit", "10.0.0.1", "{}");
+    foreign.addHeader(HttpHeaders.ORIGIN, "https://elsewhere.example");
+    rejected = perform(foreign);
+    assertEquals(429, rejected.getStatus());
+    assertNull(rejected.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+  }
+
+  @Test
+  void shouldRejectNicAcrossIpsAndStillPassBodyToController() throws Exception {
+    String body = "{\"nic\":\"123456789v\",\"name\":\"John\"}";
+    MockFilterChain chain = new MockFilterChain();
+    filter.doFilter(post("/api/bookings/create", "10.0.0.1", body), new MockHttpServletResponse(), chain);
+    String forwarded = new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    assertEquals(body, forwarded);
+
+    assertEquals(200, perform(post("/api/bookings/create", "10.0.0.2", body.replace('v', 'V'))).getStatus());
+    assertEquals(429, perform(post("/api/bookings/create", "10.0.0.3", body)).getStatus());
+    assertEquals(1.0, registry.get("app.rate-limit.rejected").tag("endpoint", "bookings").tag("reason", "nic").counter().count());
+  }
+
+  @Test
+  void shouldShedRequestsBeyondConcurrencyLimit() throws Exception {
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    FilterChain blocking = (request, response) -> {
+      entered.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+    AtomicReference<Exception> failure = new AtomicReference<>();
+    Thread inFlight = new Thread(() -> {
+      try {
+        filter.doFilter(post("/api/feedback/submit", "10.0.0.1", "{}"), new MockHttpServletResponse(), blocking);
+      } catch (Exception e) {
+        failure.set(e);
+      }
+    });
+    inFlight.start();
+    assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+    assertEquals(1.0, registry.get("app.rate-limit.in-flight").gauge().value());
+    assertEquals(429, perform(post("/api/contacts/submit", "10.0.0.2", "{}")).getStatus());
+
+    release.countDown();
+    inFlight.join();
+    assertNull(failure.get());
+    assertEquals(0.0, registry.get("app.rate-limit.in-flight").gauge().value());
+    assertEquals(1.0, registry.get("app.rate-limit.rejected").tag("reason", "concurrency").counter().count());
+  }
+
+  @Test
+  void shouldRefuseOversizedBookingBody() throws Exception {
+    String body = "{\"nic\":\"" + "1".repeat(20_000) + "\"}";
+
+    assertEquals(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+        perform(post("/api/bookings/create", "10.0.0.1", body)).getStatus());
+  }
+
+  @Test
+  void shouldIgnoreOtherEndpointsAndMethods() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      assertEquals(200, perform(post("/api/bookings/all", "10.0.0.1", "{}")).getStatus());
+      MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/contacts/submit");
+      get.setServletPath("/api/contacts/submit");
+      assertEquals(200, perform(get).getStatus());
+    }
+  }
+
+  private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, new MockFilterChain());
+    return response;
+  }
+
+  private static MockHttpServletRequest post(String path, String ip, String body) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+    request.setServletPath(path);
+    request.setRemoteAddr(ip);
+    request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    request.setContent(body.getBytes(StandardCharsets.UTF_8));
+    return request;
+  }
+}
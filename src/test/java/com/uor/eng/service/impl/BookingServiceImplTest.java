@@ -1,18 +1,29 @@
 package com.uor.eng.service.impl;
 
+import com.uor.eng.event.BookingStatusChangedEvent;
 import com.uor.eng.exceptions.BadRequestException;
 import com.uor.eng.exceptions.ResourceNotFoundException;
 import com.uor.eng.model.*;
+import com.uor.eng.payload.booking.BookingPageResponse;
 import com.uor.eng.payload.booking.BookingResponseDTO;
+import com.uor.eng.payload.booking.BookingSearchCriteria;
 import com.uor.eng.payload.booking.CreateBookingDTO;
 import com.uor.eng.payload.dashboard.MonthlyBookingStatsResponse;
+import com.uor.eng.payload.dashboard.MonthlyStatusCount;
 import com.uor.eng.payload.patient.PatientResponse;
 import com.uor.eng.repository.BookingRepository;
 import com.uor.eng.repository.PatientRepository;
+import com.uor.eng.repository.ReferenceIdBlockRepository;
 import com.uor.eng.repository.ScheduleRepository;
+import com.uor.eng.service.IWaitlistService;
+import com.uor.eng.util.BookingLookupCache;
+import com.uor.eng.util.BookingStatsCache;
 import com.uor.eng.util.EmailService;
+import com.uor.eng.util.ReferenceIdGenerator;
+import com.uor.eng.util.ScheduleSlotAllocator;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,16 +34,18 @@ import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.config.Configuration;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.PessimisticLockingFailureException;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -67,6 +80,12 @@ public class BookingServiceImplTest {
   @Mock
   private Timer.Sample timerSample;
 
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private IWaitlistService waitlistService;
+
   private BookingServiceImpl bookingService;
 
   @Captor
@@ -89,7 +108,13 @@ public class BookingServiceImplTest {
             modelMapper,
             scheduleRepository,
             emailService,
-            patientRepository
+            patientRepository,
+            new ScheduleSlotAllocator(5000),
+            eventPublisher,
+            new BookingStatsCache(bookingRepository, 60000),
+            new ReferenceIdGenerator(0, "test-secret", mock(ReferenceIdBlockRepository.class)),
+            new BookingLookupCache(new SimpleMeterRegistry(), 1000, 60000),
+            waitlistService
     );
 
     // Setup mock Timer.start() for all tests
@@ -160,12 +185,14 @@ public class BookingServiceImplTest {
   @Test
   public void testCreateBooking_Success() {
     // Arrange
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(5));
+    when(scheduleRepository.decrementAvailableSlots(1L)).thenAnswer(invocation -> {
+      schedule.setAvailableSlots(schedule.getAvailableSlots() - 1);
+      return 1;
+    });
     when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
-    when(scheduleRepository.findByIdWithLock(1L)).thenReturn(Optional.of(schedule));
     when(modelMapper.map(any(CreateBookingDTO.class), eq(Booking.class))).thenReturn(booking);
     when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
-    when(scheduleRepository.save(any(Schedule.class))).thenReturn(schedule);
-    when(modelMapper.map(any(Booking.class), eq(BookingResponseDTO.class))).thenReturn(bookingResponseDTO);
 
     // Mock static Timer.start() for this test
     try (MockedStatic<Timer> mockedTimer = mockStatic(Timer.class)) {
@@ -174,17 +201,21 @@ public class BookingServiceImplTest {
       // Act
       BookingResponseDTO result = bookingService.createBooking(createBookingDTO);
 
-      // Assert
+      // Assert: the reference ID is assigned by the generator, not taken from the request
       assertNotNull(result);
-      assertEquals("REF12345", result.getReferenceId());
+      assertTrue(ReferenceIdGenerator.isWellFormed(result.getReferenceId()));
       assertEquals("John Doe", result.getName());
 
-      // Verify schedule was updated
+      // Verify the slot was taken by the guarded update and numbered from the updated row
       assertEquals(4, schedule.getAvailableSlots());
+      verify(bookingRepository).save(bookingCaptor.capture());
+      assertEquals(6, bookingCaptor.getValue().getAppointmentNumber());
+      assertSame(schedule, bookingCaptor.getValue().getSchedule());
 
       // Verify interactions
-      verify(scheduleRepository).save(any(Schedule.class));
-      verify(bookingRepository).save(any(Booking.class));
+      verify(scheduleRepository).decrementAvailableSlots(1L);
+      verify(scheduleRepository, never()).save(any(Schedule.class));
+      verify(eventPublisher).publishEvent(any(BookingStatusChangedEvent.class));
       verify(emailService).sendBookingConfirmation(any(BookingResponseDTO.class));
       verify(createBookingCounter).increment();
       verify(timerSample).stop(createBookingTimer);
@@ -195,7 +226,7 @@ public class BookingServiceImplTest {
   @Test
   public void testCreateBooking_InvalidScheduleId() {
     // Arrange
-    when(scheduleRepository.findById(1L)).thenReturn(Optional.empty());
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.empty());
 
     // Mock static Timer.start() for this test
     try (MockedStatic<Timer> mockedTimer = mockStatic(Timer.class)) {
@@ -220,9 +251,7 @@ public class BookingServiceImplTest {
   @Test
   public void testCreateBooking_ScheduleIsFull() {
     // Arrange
-    schedule.setAvailableSlots(0);
-    schedule.setStatus(ScheduleStatus.FULL);
-    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(0));
 
     // Mock static Timer.start() for this test
     try (MockedStatic<Timer> mockedTimer = mockStatic(Timer.class)) {
@@ -237,7 +266,7 @@ public class BookingServiceImplTest {
       assertTrue(exception.getMessage().contains("schedule is currently full"));
 
       // Verify interactions
-      verify(scheduleRepository, never()).save(any(Schedule.class));
+      verify(scheduleRepository, never()).decrementAvailableSlots(anyLong());
       verify(createBookingErrorCounter).increment();
       verify(timerSample).stop(createBookingTimer);
     }
@@ -248,6 +277,8 @@ public class BookingServiceImplTest {
   public void testCreateBooking_ScheduleIsUnavailable() {
     // Arrange
     schedule.setStatus(ScheduleStatus.UNAVAILABLE);
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(5));
+    when(scheduleRepository.decrementAvailableSlots(1L)).thenReturn(0);
     when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
 
     // Mock static Timer.start() for this test
@@ -268,17 +299,15 @@ public class BookingServiceImplTest {
     }
   }
 
-  // Test 5: Create booking with optimistic locking failure
+  // Test 5: Create booking when another request takes the last slot first
   @Test
-  public void testCreateBooking_OptimisticLockingFailure() {
+  public void testCreateBooking_ScheduleFilledConcurrently() {
     // Arrange
+    schedule.setAvailableSlots(0);
+    schedule.setStatus(ScheduleStatus.FULL);
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(1));
+    when(scheduleRepository.decrementAvailableSlots(1L)).thenReturn(0);
     when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
-    when(scheduleRepository.findByIdWithLock(1L)).thenReturn(Optional.of(schedule));
-    when(modelMapper.map(any(CreateBookingDTO.class), eq(Booking.class))).thenReturn(booking);
-
-    // First attempt fails with optimistic locking exception
-    when(scheduleRepository.save(any(Schedule.class)))
-            .thenThrow(ObjectOptimisticLockingFailureException.class);
 
     // Mock static Timer.start() for this test
     try (MockedStatic<Timer> mockedTimer = mockStatic(Timer.class)) {
@@ -290,7 +319,7 @@ public class BookingServiceImplTest {
               () -> bookingService.createBooking(createBookingDTO)
       );
 
-      assertTrue(exception.getMessage().contains("System is currently busy"));
+      assertTrue(exception.getMessage().contains("schedule is currently full"));
 
       // Verify interactions
       verify(bookingRepository, never()).save(any(Booking.class));
@@ -303,10 +332,7 @@ public class BookingServiceImplTest {
   @Test
   public void testGetAllBookings_Success() {
     // Arrange
-    List<Booking> bookings = Collections.singletonList(booking);
-    when(bookingRepository.findAll()).thenReturn(bookings);
-    when(modelMapper.map(any(Booking.class), eq(BookingResponseDTO.class))).thenReturn(bookingResponseDTO);
-    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
+    when(bookingRepository.findAllResponses()).thenReturn(List.of(bookingResponseDTO));
 
     // Act
     List<BookingResponseDTO> result = bookingService.getAllBookings();
@@ -321,7 +347,7 @@ public class BookingServiceImplTest {
   @Test
   public void testGetAllBookings_NoBookingsExist() {
     // Arrange
-    when(bookingRepository.findAll()).thenReturn(Collections.emptyList());
+    when(bookingRepository.findAllResponses()).thenReturn(Collections.emptyList());
 
     // Act & Assert
     ResourceNotFoundException exception = assertThrows(
@@ -336,25 +362,26 @@ public class BookingServiceImplTest {
   @Test
   public void testGetBookingByReferenceIdAndContactNumber_Success() {
     // Arrange
-    when(bookingRepository.findByReferenceIdAndContactNumber("REF12345", "0771234567"))
-            .thenReturn(Optional.of(booking));
-    when(modelMapper.map(any(Booking.class), eq(BookingResponseDTO.class))).thenReturn(bookingResponseDTO);
-    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
+    when(bookingRepository.findResponseByReferenceIdAndContactNumber("REF12345", "0771234567"))
+            .thenReturn(Optional.of(bookingResponseDTO));
 
     // Act
     BookingResponseDTO result = bookingService.getBookingByReferenceIdAndContactNumber("REF12345", "0771234567");
+    BookingResponseDTO repeated = bookingService.getBookingByReferenceIdAndContactNumber("REF12345", "0771234567");
 
-    // Assert
+    // Assert: the repeat lookup is served from the cache
     assertNotNull(result);
     assertEquals("REF12345", result.getReferenceId());
     assertEquals("0771234567", result.getContactNumber());
+    assertSame(result, repeated);
+    verify(bookingRepository, times(1)).findResponseByReferenceIdAndContactNumber("REF12345", "0771234567");
   }
 
   // Test 9: Get booking by reference ID and contact number when booking doesn't exist
   @Test
   public void testGetBookingByReferenceIdAndContactNumber_NotFound() {
     // Arrange
-    when(bookingRepository.findByReferenceIdAndContactNumber("REF12345", "0771234567"))
+    when(bookingRepository.findResponseByReferenceIdAndContactNumber("REF12345", "0771234567"))
             .thenReturn(Optional.empty());
 
     // Act & Assert
@@ -366,13 +393,23 @@ public class BookingServiceImplTest {
     assertTrue(exception.getMessage().contains("Booking not found with reference ID"));
   }
 
+  // Test 9b: A current-format reference ID with a wrong check character is rejected without a query
+  @Test
+  public void testGetBookingByReferenceIdAndContactNumber_MistypedReferenceId() {
+    String referenceId = new ReferenceIdGenerator(0, "test-secret", mock(ReferenceIdBlockRepository.class)).next();
+    char last = referenceId.charAt(referenceId.length() - 1);
+    String mistyped = referenceId.substring(0, referenceId.length() - 1) + (last == '0' ? '1' : '0');
+
+    assertThrows(ResourceNotFoundException.class,
+            () -> bookingService.getBookingByReferenceIdAndContactNumber(mistyped, "0771234567"));
+    verifyNoInteractions(bookingRepository);
+  }
+
   // Test 10: Get booking by ID
   @Test
   public void testGetBookingById_Success() {
     // Arrange
     when(bookingRepository.findById("REF12345")).thenReturn(Optional.of(booking));
-    when(modelMapper.map(any(Booking.class), eq(BookingResponseDTO.class))).thenReturn(bookingResponseDTO);
-    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
 
     // Mock the configuration using a mock instead of trying to instantiate it
     Configuration configMock = mock(Configuration.class);
@@ -382,29 +419,61 @@ public class BookingServiceImplTest {
     // Act
     BookingResponseDTO result = bookingService.getBookingById("REF12345");
 
-    // Assert
+    // Assert: schedule fields come from the booking's own schedule, without another lookup
     assertNotNull(result);
     assertEquals("REF12345", result.getReferenceId());
+    assertEquals(1L, result.getScheduleId());
+    assertEquals("Monday", result.getScheduleDayOfWeek());
+    assertEquals("Dr. Smith", result.getDoctorName());
+    assertEquals(ScheduleStatus.AVAILABLE, result.getScheduleStatus());
+    verify(scheduleRepository, never()).findById(anyLong());
   }
 
   // Test 11: Delete booking
   @Test
   public void testDeleteBooking_Success() {
     // Arrange
-    when(bookingRepository.findById("REF12345")).thenReturn(Optional.of(booking));
+    when(bookingRepository.findByIdWithLock("REF12345")).thenReturn(Optional.of(booking));
 
     // Act
     bookingService.deleteBooking("REF12345");
 
     // Assert
     verify(bookingRepository).deleteById("REF12345");
+    verify(scheduleRepository).incrementAvailableSlots(1L);
+    verify(scheduleRepository, never()).save(any(Schedule.class));
+    verify(eventPublisher).publishEvent(new BookingStatusChangedEvent("REF12345", 1L, 1L, booking.getDate(), schedule.getDate(),
+            BookingStatus.PENDING, null));
+  }
+
+  @Test
+  public void testDeleteBooking_PromotesWaitlistInsteadOfFreeingSlot() {
+    when(bookingRepository.findByIdWithLock("REF12345")).thenReturn(Optional.of(booking));
+    when(waitlistService.promoteNext(schedule, 1)).thenReturn(true);
+
+    bookingService.deleteBooking("REF12345");
+
+    verify(bookingRepository).deleteById("REF12345");
+    verify(scheduleRepository, never()).incrementAvailableSlots(anyLong());
+  }
+
+  @Test
+  public void testDeleteBooking_LockTimeoutAsksToRetry() {
+    when(bookingRepository.findByIdWithLock("REF12345")).thenThrow(new PessimisticLockingFailureException("timeout"));
+
+    BadRequestException exception = assertThrows(BadRequestException.class,
+            () -> bookingService.deleteBooking("REF12345"));
+
+    assertTrue(exception.getMessage().contains("high demand"));
+    verify(bookingRepository, never()).deleteById(anyString());
+    verify(waitlistService, never()).promoteNext(any(), anyInt());
   }
 
   // Test 12: Delete booking when booking doesn't exist
   @Test
   public void testDeleteBooking_NotFound() {
     // Arrange
-    when(bookingRepository.findById("REF12345")).thenReturn(Optional.empty());
+    when(bookingRepository.findByIdWithLock("REF12345")).thenReturn(Optional.empty());
 
     // Act & Assert
     ResourceNotFoundException exception = assertThrows(
@@ -424,8 +493,6 @@ public class BookingServiceImplTest {
     // Use doNothing() for void method - modelMapper.map() when used with an existing instance
     doNothing().when(modelMapper).map(any(CreateBookingDTO.class), any(Booking.class));
     when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
-    when(modelMapper.map(any(Booking.class), eq(BookingResponseDTO.class))).thenReturn(bookingResponseDTO);
-    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
 
     // Act
     BookingResponseDTO result = bookingService.updateBooking("REF12345", createBookingDTO);
@@ -442,8 +509,6 @@ public class BookingServiceImplTest {
     // Arrange
     when(bookingRepository.findById("REF12345")).thenReturn(Optional.of(booking));
     when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
-    when(modelMapper.map(any(Booking.class), eq(BookingResponseDTO.class))).thenReturn(bookingResponseDTO);
-    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
 
     // Act
     BookingResponseDTO result = bookingService.updateBookingStatus("REF12345", "ACTIVE");
@@ -452,6 +517,70 @@ public class BookingServiceImplTest {
     assertNotNull(result);
     verify(bookingRepository).save(bookingCaptor.capture());
     assertEquals(BookingStatus.ACTIVE, bookingCaptor.getValue().getStatus());
+    verify(eventPublisher).publishEvent(new BookingStatusChangedEvent("REF12345", 1L, 1L, booking.getDate(), schedule.getDate(),
+            BookingStatus.PENDING, BookingStatus.ACTIVE));
+  }
+
+  @Test
+  public void testUpdateBookingStatus_CancellationPromotesWaitlist() {
+    when(bookingRepository.findById("REF12345")).thenReturn(Optional.of(booking));
+    when(bookingRepository.cancel("REF12345")).thenReturn(1).thenReturn(0);
+    when(waitlistService.promoteNext(schedule, 1)).thenReturn(true);
+
+    BookingResponseDTO result = bookingService.updateBookingStatus("REF12345", "CANCELLED");
+    bookingService.updateBookingStatus("REF12345", "CANCELLED");
+
+    // Only the call that actually cancelled the booking hands its slot on
+    assertEquals(BookingStatus.CANCELLED, result.getStatus());
+    verify(waitlistService, times(1)).promoteNext(schedule, 1);
+    verify(bookingRepository, times(1)).markSlotReleased("REF12345");
+    verify(eventPublisher, times(1)).publishEvent(new BookingStatusChangedEvent("REF12345", 1L, 1L, booking.getDate(),
+            schedule.getDate(), BookingStatus.PENDING, BookingStatus.CANCELLED));
+    verify(bookingRepository, never()).save(any(Booking.class));
+  }
+
+  @Test
+  public void testCancelThenDelete_DoesNotFreeTheSlotTwice() {
+    when(bookingRepository.findById("REF12345")).thenReturn(Optional.of(booking));
+    when(bookingRepository.findByIdWithLock("REF12345")).thenReturn(Optional.of(booking));
+    when(bookingRepository.cancel("REF12345")).thenReturn(1);
+    when(waitlistService.promoteNext(schedule, 1)).thenReturn(true);
+
+    bookingService.updateBookingStatus("REF12345", "CANCELLED");
+    bookingService.deleteBooking("REF12345");
+
+    verify(bookingRepository).deleteById("REF12345");
+    verify(waitlistService, times(1)).promoteNext(schedule, 1);
+    verify(scheduleRepository, never()).incrementAvailableSlots(anyLong());
+  }
+
+  @Test
+  public void testCancelThenReactivate_RejectedOnceTheSlotWasReassigned() {
+    when(bookingRepository.findById("REF12345")).thenReturn(Optional.of(booking));
+    when(bookingRepository.cancel("REF12345")).thenReturn(1);
+    when(waitlistService.promoteNext(schedule, 1)).thenReturn(true);
+
+    bookingService.updateBookingStatus("REF12345", "CANCELLED");
+    BadRequestException exception = assertThrows(BadRequestException.class,
+            () -> bookingService.updateBookingStatus("REF12345", "PENDING"));
+
+    assertTrue(exception.getMessage().contains("given to another patient"));
+    assertEquals(BookingStatus.CANCELLED, booking.getStatus());
+    verify(bookingRepository, never()).save(any(Booking.class));
+  }
+
+  @Test
+  public void testCancelThenReactivate_AllowedWhileTheSlotIsStillHeld() {
+    when(bookingRepository.findById("REF12345")).thenReturn(Optional.of(booking));
+    when(bookingRepository.cancel("REF12345")).thenReturn(1);
+    when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+
+    // Nobody is waiting, so the cancelled booking keeps its appointment number
+    bookingService.updateBookingStatus("REF12345", "CANCELLED");
+    BookingResponseDTO result = bookingService.updateBookingStatus("REF12345", "ACTIVE");
+
+    assertEquals(BookingStatus.ACTIVE, result.getStatus());
+    verify(bookingRepository, never()).markSlotReleased(anyString());
   }
 
   // Test 15: Update booking status with invalid status
@@ -474,38 +603,96 @@ public class BookingServiceImplTest {
   @Test
   public void testGetCurrentMonthBookingStats() {
     // Arrange
-    List<Booking> bookings = new ArrayList<>();
-
-    // Add bookings with different statuses for the current month
-    Booking booking1 = new Booking();
-    booking1.setStatus(BookingStatus.PENDING);
-    booking1.setDate(LocalDate.now());
-
-    Booking booking2 = new Booking();
-    booking2.setStatus(BookingStatus.FINISHED);
-    booking2.setDate(LocalDate.now());
-
-    Booking booking3 = new Booking();
-    booking3.setStatus(BookingStatus.CANCELLED);
-    booking3.setDate(LocalDate.now());
-
-    bookings.add(booking1);
-    bookings.add(booking2);
-    bookings.add(booking3);
-
-    when(bookingRepository.findAll()).thenReturn(bookings);
+    YearMonth now = YearMonth.now();
+    when(bookingRepository.countByMonthAndStatus(now.atDay(1), now.plusMonths(1).atDay(1))).thenReturn(List.of(
+            statusCount(now, BookingStatus.PENDING, 1),
+            statusCount(now, BookingStatus.FINISHED, 1),
+            statusCount(now, BookingStatus.CANCELLED, 1)));
 
     // Act
     MonthlyBookingStatsResponse result = bookingService.getCurrentMonthBookingStats();
 
     // Assert
     assertNotNull(result);
+    assertEquals(String.valueOf(now.getMonth()), result.getMonth());
+    assertEquals(now.getYear(), result.getYear());
     assertEquals(3, result.getTotalBookings());
     assertEquals(1, result.getFinishedBookings());
     assertEquals(1, result.getCancelledBookings());
     assertEquals(1, result.getPendingBookings());
+    verify(bookingRepository, never()).findAll();
   }
 
+  // Test 16b: Monthly stats for a range are served from one aggregate query and kept current from events
+  @Test
+  public void testGetMonthlyBookingStats_RangeIsCachedAndUpdated() {
+    // Arrange
+    YearMonth from = YearMonth.of(2025, 1);
+    YearMonth to = YearMonth.of(2025, 3);
+    BookingStatsCache statsCache = new BookingStatsCache(bookingRepository, 60000);
+    bookingService = new BookingServiceImpl(createBookingCounter, createBookingErrorCounter, createBookingTimer,
+            bookingRepository, modelMapper, scheduleRepository, emailService, patientRepository,
+            new ScheduleSlotAllocator(5000), eventPublisher, statsCache,
+            new ReferenceIdGenerator(0, "test-secret", mock(ReferenceIdBlockRepository.class)),
+            new BookingLookupCache(new SimpleMeterRegistry(), 1000, 60000), waitlistService);
+    when(bookingRepository.countByMonthAndStatus(from.atDay(1), to.plusMonths(1).atDay(1))).thenReturn(List.of(
+            statusCount(from, BookingStatus.FINISHED, 4),
+            statusCount(to, BookingStatus.PENDING, 2)));
+
+    // Act
+    List<MonthlyBookingStatsResponse> first = bookingService.getMonthlyBookingStats(from, to);
+    statsCache.onBookingStatusChanged(new BookingStatusChangedEvent("REF1", 1L, 1L, to.atDay(5), to.atDay(5),
+            BookingStatus.PENDING, BookingStatus.CANCELLED));
+    List<MonthlyBookingStatsResponse> second = bookingService.getMonthlyBookingStats(from, to);
+
+    // Assert
+    assertEquals(3, first.size());
+    assertEquals(4, first.get(0).getFinishedBookings());
+    assertEquals(0, first.get(1).getTotalBookings());
+    assertEquals(2, first.get(2).getPendingBookings());
+    assertEquals(1, second.get(2).getPendingBookings());
+    assertEquals(1, second.get(2).getCancelledBookings());
+    assertEquals(2, second.get(2).getTotalBookings());
+    verify(bookingRepository, times(1)).countByMonthAndStatus(any(LocalDate.class), any(LocalDate.class));
+  }
+
+  // Test 16c: Monthly stats reject an inverted range
+  @Test
+  public void testGetMonthlyBookingStats_InvalidRange() {
+    BadRequestException exception = assertThrows(
+            BadRequestException.class,
+            () -> bookingService.getMonthlyBookingStats(YearMonth.of(2025, 3), YearMonth.of(2025, 1))
+    );
+
+    assertTrue(exception.getMessage().contains("Invalid month range"));
+    verifyNoInteractions(bookingRepository);
+  }
+
+  private static MonthlyStatusCount statusCount(YearMonth month, BookingStatus status, long total) {
+    return new MonthlyStatusCount() {
+      @Override
+      public Integer getBookingYear() {
+        return month.getYear();
+      }
+
+      @Override
+      public Integer getBookingMonth() {
+        return month.getMonthValue();
+      }
+
+      @Override
+      public BookingStatus getBookingStatus() {
+        return status;
+      }
+
+      @Override
+      public Long getTotal() {
+        return total;
+      }
+    };
+  }
+
+
   // Test 17: Get or create patient from booking
   @Test
   public void testGetOrCreatePatientFromBooking_NewPatient() {
@@ -570,10 +757,9 @@ public class BookingServiceImplTest {
   @Test
   public void testCreateBooking_PessimisticLockingFailure() {
     // Arrange
-    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
-    when(scheduleRepository.findByIdWithLock(1L))
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(5));
+    when(scheduleRepository.decrementAvailableSlots(1L))
             .thenThrow(PessimisticLockingFailureException.class);
-    when(modelMapper.map(any(CreateBookingDTO.class), eq(Booking.class))).thenReturn(booking);
 
     // Mock static Timer.start() for this test
     try (MockedStatic<Timer> mockedTimer = mockStatic(Timer.class)) {
@@ -592,4 +778,153 @@ public class BookingServiceImplTest {
       verify(timerSample).stop(createBookingTimer);
     }
   }
-}
\ No newline at end of file
+
+  // Test 21: Batch booking assigns appointment numbers in arrival order with one schedule update
+  @Test
+  public void testCreateBookingBatch_Success() {
+    // Arrange
+    CreateBookingDTO second = new CreateBookingDTO();
+    second.setScheduleId(1L);
+    second.setName("Jane Doe");
+    when(scheduleRepository.findByIdWithLock(1L)).thenReturn(Optional.of(schedule));
+    when(modelMapper.map(any(CreateBookingDTO.class), eq(Booking.class))).thenAnswer(invocation -> new Booking());
+    when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    try (MockedStatic<Timer> mockedTimer = mockStatic(Timer.class)) {
+      mockedTimer.when(Timer::start).thenReturn(timerSample);
+
+      // Act
+      List<BookingResponseDTO> result = bookingService.createBookingBatch(1L, List.of(createBookingDTO, second));
+
+      // Assert
+      assertEquals(2, result.size());
+      assertEquals(3, schedule.getAvailableSlots());
+      assertEquals(ScheduleStatus.AVAILABLE, schedule.getStatus());
+
+      @SuppressWarnings("unchecked")
+      ArgumentCaptor<List<Booking>> saved = ArgumentCaptor.forClass(List.class);
+      verify(bookingRepository).saveAll(saved.capture());
+      assertEquals(List.of(6, 7), saved.getValue().stream().map(Booking::getAppointmentNumber).toList());
+
+      verify(scheduleRepository, times(1)).save(schedule);
+      verify(scheduleRepository, never()).findById(anyLong());
+      verify(emailService, times(2)).sendBookingConfirmation(any(BookingResponseDTO.class));
+      verify(createBookingCounter).increment(2);
+      verify(timerSample).stop(createBookingTimer);
+    }
+  }
+
+  // Test 22: Batch booking only admits as many requests as there are free slots
+  @Test
+  public void testCreateBookingBatch_PartiallyAdmitted() {
+    // Arrange
+    schedule.setAvailableSlots(1);
+    when(scheduleRepository.findByIdWithLock(1L)).thenReturn(Optional.of(schedule));
+    when(modelMapper.map(any(CreateBookingDTO.class), eq(Booking.class))).thenAnswer(invocation -> new Booking());
+    when(bookingRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    try (MockedStatic<Timer> mockedTimer = mockStatic(Timer.class)) {
+      mockedTimer.when(Timer::start).thenReturn(timerSample);
+
+      // Act
+      List<BookingResponseDTO> result = bookingService.createBookingBatch(1L, List.of(createBookingDTO, createBookingDTO, createBookingDTO));
+
+      // Assert
+      assertEquals(1, result.size());
+      assertEquals(0, schedule.getAvailableSlots());
+      assertEquals(ScheduleStatus.FULL, schedule.getStatus());
+      verify(createBookingCounter).increment(1);
+    }
+  }
+
+  // Test 23: Batch booking on a full schedule fails the whole batch
+  @Test
+  public void testCreateBookingBatch_ScheduleIsFull() {
+    // Arrange
+    schedule.setAvailableSlots(0);
+    schedule.setStatus(ScheduleStatus.FULL);
+    when(scheduleRepository.findByIdWithLock(1L)).thenReturn(Optional.of(schedule));
+
+    try (MockedStatic<Timer> mockedTimer = mockStatic(Timer.class)) {
+      mockedTimer.when(Timer::start).thenReturn(timerSample);
+
+      // Act & Assert
+      BadRequestException exception = assertThrows(
+              BadRequestException.class,
+              () -> bookingService.createBookingBatch(1L, List.of(createBookingDTO, createBookingDTO))
+      );
+
+      assertTrue(exception.getMessage().contains("schedule is currently full"));
+      verify(bookingRepository, never()).saveAll(anyList());
+      verify(createBookingErrorCounter).increment(2);
+    }
+  }
+
+  // Test 24: Keyset page reads one extra row and hands back a cursor for the next page
+  @Test
+  public void testGetBookingsPage_ReturnsCursorForNextPage() {
+    // Arrange
+    BookingSearchCriteria criteria = BookingSearchCriteria.builder().status("pending").dentistId(1L).build();
+    LocalDateTime createdAt = LocalDateTime.of(2025, 1, 10, 9, 30, 15, 123456000);
+    BookingResponseDTO first = BookingResponseDTO.builder().referenceId("REF00002").createdAt(createdAt).build();
+    BookingResponseDTO second = BookingResponseDTO.builder().referenceId("REF00001").createdAt(createdAt).build();
+    BookingResponseDTO third = BookingResponseDTO.builder().referenceId("REF00000").createdAt(createdAt.minusDays(1)).build();
+    when(bookingRepository.findResponsesPage(eq(BookingStatus.PENDING), isNull(), eq(1L), isNull(), isNull(),
+            isNull(), isNull(), any())).thenReturn(List.of(first, second, third));
+    when(bookingRepository.findResponsesPage(eq(BookingStatus.PENDING), isNull(), eq(1L), isNull(), isNull(),
+            eq(createdAt), eq("REF00001"), any())).thenReturn(List.of(third));
+
+    // Act
+    BookingPageResponse page = bookingService.getBookingsPage(criteria, null, 2);
+    BookingPageResponse next = bookingService.getBookingsPage(criteria, page.getNextCursor(), 2);
+
+    // Assert
+    assertEquals(List.of(first, second), page.getItems());
+    assertTrue(page.isHasMore());
+    assertNotNull(page.getNextCursor());
+    assertEquals(List.of(third), next.getItems());
+    assertFalse(next.isHasMore());
+    assertNull(next.getNextCursor());
+  }
+
+  // Test 25: Keyset page rejects malformed input
+  @Test
+  public void testGetBookingsPage_InvalidInput() {
+    BookingSearchCriteria criteria = new BookingSearchCriteria();
+
+    assertThrows(BadRequestException.class, () -> bookingService.getBookingsPage(criteria, null, 0));
+    assertThrows(BadRequestException.class, () -> bookingService.getBookingsPage(criteria, "not-a-cursor", 10));
+    assertThrows(BadRequestException.class, () -> bookingService.getBookingsPage(
+            BookingSearchCriteria.builder().status("UNKNOWN").build(), null, 10));
+    assertThrows(BadRequestException.class, () -> bookingService.getBookingsPage(
+            BookingSearchCriteria.builder().from(LocalDate.of(2025, 2, 1)).to(LocalDate.of(2025, 1, 1)).build(), null, 10));
+    verifyNoInteractions(bookingRepository);
+  }
+
+  // Test 26: Streaming reads chunk by chunk until a short chunk is returned
+  @Test
+  public void testStreamBookings_ReadsInChunks() {
+    // Arrange
+    LocalDateTime createdAt = LocalDateTime.of(2025, 1, 10, 9, 0);
+    List<BookingResponseDTO> fullChunk = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      fullChunk.add(BookingResponseDTO.builder().referenceId(String.format("REF%05d", 1000 - i)).createdAt(createdAt).build());
+    }
+    BookingResponseDTO lastRow = BookingResponseDTO.builder().referenceId("REF00001").createdAt(createdAt).build();
+    when(bookingRepository.findResponsesPage(isNull(), eq(1L), isNull(), isNull(), isNull(), isNull(), isNull(), any()))
+            .thenReturn(fullChunk);
+    when(bookingRepository.findResponsesPage(isNull(), eq(1L), isNull(), isNull(), isNull(), eq(createdAt), eq("REF00501"), any()))
+            .thenReturn(List.of(lastRow));
+
+    // Act
+    List<BookingResponseDTO> result;
+    try (Stream<BookingResponseDTO> stream = bookingService.streamBookings(BookingSearchCriteria.builder().scheduleId(1L).build())) {
+      result = stream.toList();
+    }
+
+    // Assert
+    assertEquals(501, result.size());
+    assertSame(lastRow, result.get(500));
+    verify(bookingRepository, times(2)).findResponsesPage(any(), any(), any(), any(), any(), any(), any(), any());
+  }
+}
@@ -1,29 +1,24 @@
 package com.uor.eng.service.impl;
 
 import com.uor.eng.exceptions.APIException;
+import com.uor.eng.exceptions.EmailSendingException;
 import com.uor.eng.model.PasswordResetToken;
 import com.uor.eng.model.User;
 import com.uor.eng.payload.auth.ForgotPasswordRequest;
 import com.uor.eng.payload.auth.ResetPasswordRequest;
 import com.uor.eng.repository.PasswordResetTokenRepository;
 import com.uor.eng.repository.UserRepository;
-import jakarta.mail.internet.MimeMessage;
-import org.apache.commons.io.IOUtils;
+import com.uor.eng.util.EmailService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
@@ -46,13 +41,7 @@ public class PasswordResetServiceImplTest {
   private PasswordEncoder passwordEncoder;
 
   @Mock
-  private JavaMailSender mailSender;
-
-  @Mock
-  private MimeMessage mimeMessage;
-
-  @Mock
-  private ClassPathResource mockResource;
+  private EmailService emailService;
 
   @InjectMocks
   private PasswordResetServiceImpl passwordResetService;
@@ -85,24 +74,14 @@ public class PasswordResetServiceImplTest {
     when(tokenRepository.findByUser(testUser)).thenReturn(Optional.empty());
     when(tokenRepository.save(any(PasswordResetToken.class))).thenReturn(testToken);
 
-    // Mock the sendPasswordResetEmail method
-    doNothing().when(mailSender).send(any(MimeMessage.class));
-    when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-
-    try (MockedStatic<IOUtils> ioUtilsMocked = mockStatic(IOUtils.class)) {
-      // Mock ClassPathResource and IOUtils behavior
-      ioUtilsMocked
-              .when(() -> IOUtils.toString(any(InputStream.class), eq(StandardCharsets.UTF_8)))
-              .thenReturn("Template with {{resetLink}} and {{expirationMinutes}} and {{currentYear}}");
-
-      // When
-      passwordResetService.initiatePasswordReset(request);
+    // When
+    passwordResetService.initiatePasswordReset(request);
 
-      // Then
-      verify(userRepository).findByEmail(testEmail);
-      verify(tokenRepository).findByUser(testUser);
-      verify(tokenRepository).save(any(PasswordResetToken.class));
-    }
+    // Then
+    verify(userRepository).findByEmail(testEmail);
+    verify(tokenRepository).findByUser(testUser);
+    verify(tokenRepository).save(any(PasswordResetToken.class));
+    verify(emailService).sendPasswordReset(eq(testEmail), startsWith("http://localhost:3000/reset-password/"), eq(30));
   }
 
   @Test
@@ -115,24 +94,14 @@ public class PasswordResetServiceImplTest {
     when(tokenRepository.findByUser(testUser)).thenReturn(Optional.of(testToken));
     when(tokenRepository.save(any(PasswordResetToken.class))).thenReturn(testToken);
 
-    // Mock the sendPasswordResetEmail method
-    doNothing().when(mailSender).send(any(MimeMessage.class));
-    when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-
-    try (MockedStatic<IOUtils> ioUtilsMocked = mockStatic(IOUtils.class)) {
-      // Mock ClassPathResource and IOUtils behavior
-      ioUtilsMocked
-              .when(() -> IOUtils.toString(any(InputStream.class), eq(StandardCharsets.UTF_8)))
-              .thenReturn("Template with {{resetLink}} and {{expirationMinutes}} and {{currentYear}}");
-
-      // When
-      passwordResetService.initiatePasswordReset(request);
+    // When
+    passwordResetService.initiatePasswordReset(request);
 
-      // Then
-      verify(userRepository).findByEmail(testEmail);
-      verify(tokenRepository).findByUser(testUser);
-      verify(tokenRepository).save(any(PasswordResetToken.class));
-    }
+    // Then
+    verify(userRepository).findByEmail(testEmail);
+    verify(tokenRepository).findByUser(testUser);
+    verify(tokenRepository).save(any(PasswordResetToken.class));
+    verify(emailService).sendPasswordReset(eq(testEmail), startsWith("http://localhost:3000/reset-password/"), eq(30));
   }
 
   @Test
@@ -168,28 +137,34 @@ public class PasswordResetServiceImplTest {
     verify(userRepository).findByEmail(testEmail);
     verify(tokenRepository).findByUser(testUser);
     verify(tokenRepository).save(any(PasswordResetToken.class));
-    verify(mailSender, never()).send(any(MimeMessage.class));
+    verify(emailService, never()).sendPasswordReset(anyString(), anyString(), anyInt());
   }
 
   @Test
-  void sendPasswordResetEmail_Success() {
+  void initiatePasswordReset_EmailQueueFailure() {
     // Given
-    when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-    doNothing().when(mailSender).send(any(MimeMessage.class));
-
-    try (MockedStatic<IOUtils> ioUtilsMocked = mockStatic(IOUtils.class)) {
-      // Mock ClassPathResource behavior
-      ioUtilsMocked
-              .when(() -> IOUtils.toString(any(InputStream.class), eq(StandardCharsets.UTF_8)))
-              .thenReturn("Template with {{resetLink}} and {{expirationMinutes}} and {{currentYear}}");
-
-      // When
-      passwordResetService.sendPasswordResetEmail(testEmail, testTokenValue);
-
-      // Then
-      verify(mailSender).createMimeMessage();
-      verify(mailSender).send(any(MimeMessage.class));
-    }
+    ForgotPasswordRequest request = new ForgotPasswordRequest();
+    request.setEmail(testEmail);
+
+    when(userRepository.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
+    when(tokenRepository.findByUser(testUser)).thenReturn(Optional.empty());
+    when(tokenRepository.save(any(PasswordResetToken.class))).thenReturn(testToken);
+    doThrow(new EmailSendingException("Failed to send email to " + testEmail))
+            .when(emailService).sendPasswordReset(anyString(), anyString(), anyInt());
+
+    // When & Then
+    EmailSendingException exception = assertThrows(EmailSendingException.class,
+            () -> passwordResetService.initiatePasswordReset(request));
+    assertEquals("Failed to send password reset email. Please try again later.", exception.getMessage());
+  }
+
+  @Test
+  void sendPasswordResetEmail_Success() {
+    // When
+    passwordResetService.sendPasswordResetEmail(testEmail, testTokenValue);
+
+    // Then
+    verify(emailService).sendPasswordReset(testEmail, "http://localhost:3000/reset-password/" + testTokenValue, 30);
   }
 
   @Test
@@ -1,5 +1,7 @@
 package com.uor.eng.service.impl;
 
+import com.uor.eng.event.PatientLogChangedEvent;
+import com.uor.eng.exceptions.BadRequestException;
 import com.uor.eng.exceptions.ResourceNotFoundException;
 import com.uor.eng.exceptions.UnauthorizedAccessException;
 import com.uor.eng.model.Dentist;
@@ -11,12 +13,16 @@ import com.uor.eng.repository.DentistRepository;
 import com.uor.eng.repository.PatientLogPhotoRepository;
 import com.uor.eng.repository.PatientLogRepository;
 import com.uor.eng.repository.PatientRepository;
+import com.uor.eng.util.PatientLogSearchIndex;
+import com.uor.eng.util.PhotoUrlCache;
 import com.uor.eng.util.S3Service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -46,6 +52,15 @@ public class PatientLogServiceImplTest {
   @Mock
   private S3Service s3Service;
 
+  @Mock
+  private PhotoUrlCache photoUrls;
+
+  @Mock
+  private PatientLogSearchIndex searchIndex;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
   private PatientLogServiceImpl patientLogService;
 
   private Patient testPatient;
@@ -62,7 +77,10 @@ public class PatientLogServiceImplTest {
             patientLogRepository,
             patientLogPhotoRepository,
             dentistRepository,
-            s3Service
+            s3Service,
+            photoUrls,
+            searchIndex,
+            eventPublisher
     );
 
     // Initialize test data
@@ -127,6 +145,7 @@ public class PatientLogServiceImplTest {
     verify(patientRepository).findById(1L);
     verify(dentistRepository).findById(1L);
     verify(patientLogRepository).save(any(PatientLog.class));
+    verify(eventPublisher).publishEvent(new PatientLogChangedEvent(1L));
   }
 
   @Test
@@ -173,7 +192,7 @@ public class PatientLogServiceImplTest {
 
     when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
     when(patientLogRepository.findByPatientId(1L)).thenReturn(patientLogs);
-    when(s3Service.getFileUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
+    when(photoUrls.getUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
 
     // When
     List<PatientLogResponse> responses = patientLogService.getPatientLogs(1L);
@@ -202,12 +221,122 @@ public class PatientLogServiceImplTest {
     verify(patientLogRepository, never()).findByPatientId(anyLong());
   }
 
+  @Test
+  void getPatientLogTimeline_ReturnsPhotoSummariesAndNextCursor() {
+    // Given
+    PatientLog older = new PatientLog();
+    older.setId(2L);
+    older.setPatient(testPatient);
+    older.setDentist(testDentist);
+    older.setActionType("Filling");
+    older.setTimestamp(testPatientLog.getTimestamp().minusDays(1));
+    PatientLog oldest = new PatientLog();
+    oldest.setId(3L);
+    oldest.setDentist(testDentist);
+    oldest.setTimestamp(testPatientLog.getTimestamp().minusDays(2));
+    PatientLogPhotoSummary summary = mock(PatientLogPhotoSummary.class);
+    when(summary.getLogId()).thenReturn(1L);
+    when(summary.getPhotoCount()).thenReturn(2L);
+    when(summary.getCoverS3Key()).thenReturn("test-photo-1.jpg");
+
+    when(patientRepository.existsById(1L)).thenReturn(true);
+    when(patientLogRepository.findTimelinePage(eq(1L), isNull(), isNull(), any()))
+            .thenReturn(List.of(testPatientLog, older, oldest));
+    when(patientLogPhotoRepository.findSummariesByPatientLogIdIn(List.of(1L, 2L))).thenReturn(List.of(summary));
+    when(photoUrls.getUrl("test-photo-1.jpg")).thenReturn("https://test-url.com/test-photo-1.jpg");
+
+    // When
+    PatientLogPageResponse page = patientLogService.getPatientLogTimeline(1L, null, 2, false);
+
+    // Then
+    assertTrue(page.isHasMore());
+    assertEquals(List.of(1L, 2L), page.getItems().stream().map(PatientLogResponse::getId).toList());
+    PatientLogResponse first = page.getItems().get(0);
+    assertEquals(2, first.getPhotoCount());
+    assertEquals("https://test-url.com/test-photo-1.jpg", first.getCoverPhotoUrl());
+    assertNull(first.getPhotos());
+    assertEquals(0, page.getItems().get(1).getPhotoCount());
+    assertNull(page.getItems().get(1).getCoverPhotoUrl());
+    verify(photoUrls, times(1)).getUrl(anyString());
+
+    // The cursor resumes after the last log returned
+    when(patientLogRepository.findTimelinePage(1L, older.getTimestamp(), 2L, PageRequest.of(0, 3)))
+            .thenReturn(List.of(oldest));
+    when(patientLogPhotoRepository.findSummariesByPatientLogIdIn(List.of(3L))).thenReturn(List.of());
+
+    PatientLogPageResponse next = patientLogService.getPatientLogTimeline(1L, page.getNextCursor(), 2, false);
+
+    assertFalse(next.isHasMore());
+    assertNull(next.getNextCursor());
+    assertEquals(List.of(3L), next.getItems().stream().map(PatientLogResponse::getId).toList());
+  }
+
+  @Test
+  void getPatientLogTimeline_IncludesPhotoListsOnRequest() {
+    // Given
+    when(patientRepository.existsById(1L)).thenReturn(true);
+    when(patientLogRepository.findTimelinePage(eq(1L), isNull(), isNull(), any())).thenReturn(List.of(testPatientLog));
+    when(photoUrls.getUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
+
+    // When
+    PatientLogPageResponse page = patientLogService.getPatientLogTimeline(1L, null, 20, true);
+
+    // Then
+    assertFalse(page.isHasMore());
+    assertEquals(2, page.getItems().get(0).getPhotos().size());
+    assertEquals(2, page.getItems().get(0).getPhotoCount());
+    verifyNoInteractions(patientLogPhotoRepository);
+  }
+
+  @Test
+  void getPatientLogTimeline_RejectsBadRequests() {
+    assertThrows(BadRequestException.class, () -> patientLogService.getPatientLogTimeline(1L, null, 0, false));
+    assertThrows(BadRequestException.class, () -> patientLogService.getPatientLogTimeline(1L, null, 101, false));
+    assertThrows(BadRequestException.class, () -> patientLogService.getPatientLogTimeline(1L, "not-a-cursor", 20, false));
+
+    when(patientRepository.existsById(1L)).thenReturn(false);
+    assertThrows(ResourceNotFoundException.class, () -> patientLogService.getPatientLogTimeline(1L, null, 20, false));
+    verifyNoInteractions(patientLogRepository);
+  }
+
+  @Test
+  void searchPatientLogs_LoadsHitsInIndexOrder() {
+    // Arrange
+    PatientLog older = new PatientLog();
+    older.setId(2L);
+    older.setPatient(testPatient);
+    older.setDentist(testDentist);
+    older.setActionType("Root canal");
+    older.setTimestamp(LocalDateTime.now().minusDays(3));
+    when(searchIndex.search("root canal", 1L, null, 20))
+            .thenReturn(new PatientLogSearchIndex.Hits(3, List.of(1L, 2L, 9L)));
+    when(patientLogRepository.findWithDentistByIdIn(List.of(1L, 2L, 9L))).thenReturn(List.of(older, testPatientLog));
+
+    // Act
+    PatientLogSearchResponse result = patientLogService.searchPatientLogs("root canal", 1L, null, 20);
+
+    // Assert
+    assertEquals(3, result.getTotal());
+    assertEquals(List.of(1L, 2L), result.getItems().stream().map(PatientLogSearchHit::getId).toList());
+    assertEquals(1L, result.getItems().get(1).getPatientId());
+    assertEquals(testDentist.getFirstName(), result.getItems().get(0).getDentistName());
+    verifyNoInteractions(photoUrls);
+  }
+
+  @Test
+  void searchPatientLogs_RejectsBlankQueriesAndBadLimits() {
+    assertThrows(BadRequestException.class, () -> patientLogService.searchPatientLogs(" ", null, null, 20));
+    assertThrows(BadRequestException.class, () -> patientLogService.searchPatientLogs("crown", null, null, 0));
+    assertThrows(BadRequestException.class, () -> patientLogService.searchPatientLogs("crown", null, null, 101));
+    verifyNoInteractions(searchIndex);
+  }
+
   @Test
   void getPatientLog_Success() {
     // Given
     when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
     when(patientLogRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.of(testPatientLog));
-    when(s3Service.getFileUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
+    when(photoUrls.getUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
 
     // When
     PatientLogResponse response = patientLogService.getPatientLog(1L, 1L);
@@ -311,7 +440,7 @@ public class PatientLogServiceImplTest {
 
     when(patientLogRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.of(testPatientLog));
     when(patientLogRepository.save(any(PatientLog.class))).thenReturn(testPatientLog);
-    when(s3Service.getFileUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
+    when(photoUrls.getUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
 
     // When
     PatientLogResponse response = patientLogService.updatePatientLog(1L, 1L, request);
@@ -337,7 +466,7 @@ public class PatientLogServiceImplTest {
     doNothing().when(s3Service).deleteFile(anyString());
     doNothing().when(patientLogPhotoRepository).delete(any(PatientLogPhoto.class));
     when(patientLogRepository.save(any(PatientLog.class))).thenReturn(testPatientLog);
-    when(s3Service.getFileUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
+    when(photoUrls.getUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
 
     // When
     PatientLogResponse response = patientLogService.updatePatientLog(1L, 1L, request);
@@ -364,7 +493,7 @@ public class PatientLogServiceImplTest {
     when(patientLogRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.of(testPatientLog));
     when(patientLogPhotoRepository.save(any(PatientLogPhoto.class))).thenReturn(new PatientLogPhoto());
     when(patientLogRepository.save(any(PatientLog.class))).thenReturn(testPatientLog);
-    when(s3Service.getFileUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
+    when(photoUrls.getUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
 
     // When
     PatientLogResponse response = patientLogService.updatePatientLog(1L, 1L, request);
@@ -428,7 +557,7 @@ public class PatientLogServiceImplTest {
       return photo;
     });
     when(patientLogRepository.save(any(PatientLog.class))).thenReturn(testPatientLog);
-    when(s3Service.getFileUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
+    when(photoUrls.getUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
 
     // When
     List<PatientLogPhotoResponse> responses = patientLogService.associatePhotosWithLog(1L, 1L, request);
@@ -440,7 +569,7 @@ public class PatientLogServiceImplTest {
     verify(patientLogRepository).findByIdAndPatientId(1L, 1L);
     verify(patientLogPhotoRepository, times(2)).save(any(PatientLogPhoto.class));
     verify(patientLogRepository).save(testPatientLog);
-    verify(s3Service, times(2)).getFileUrl(anyString());
+    verify(photoUrls, times(2)).getUrl(anyString());
   }
 
   @Test
@@ -499,7 +628,7 @@ public class PatientLogServiceImplTest {
     when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
     when(patientLogRepository.findByIdAndPatientId(1L, 1L)).thenReturn(Optional.of(testPatientLog));
     when(patientLogPhotoRepository.findByPatientLogId(1L)).thenReturn(testPhotos);
-    when(s3Service.getFileUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
+    when(photoUrls.getUrl(anyString())).thenReturn("https://test-url.com/photo.jpg");
 
     // When
     List<PatientLogPhotoResponse> responses = patientLogService.getPhotos(1L, 1L);
@@ -510,7 +639,7 @@ public class PatientLogServiceImplTest {
     verify(patientRepository).findById(1L);
     verify(patientLogRepository).findByIdAndPatientId(1L, 1L);
     verify(patientLogPhotoRepository).findByPatientLogId(1L);
-    verify(s3Service, times(2)).getFileUrl(anyString());
+    verify(photoUrls, times(2)).getUrl(anyString());
   }
 
   @Test
@@ -558,6 +687,7 @@ public class PatientLogServiceImplTest {
     verify(patientLogRepository).findByIdAndPatientId(1L, 1L);
     verify(patientLogPhotoRepository).findById(1L);
     verify(s3Service).deleteFile(testPhoto1.getS3Key());
+    verify(photoUrls).evict(testPhoto1.getS3Key());
     verify(patientLogPhotoRepository).delete(testPhoto1);
     verify(patientLogRepository).save(testPatientLog);
   }
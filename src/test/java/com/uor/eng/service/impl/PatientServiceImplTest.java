@@ -1,5 +1,6 @@
 package com.uor.eng.service.impl;
 
+import com.uor.eng.event.PatientChangedEvent;
 import com.uor.eng.exceptions.BadRequestException;
 import com.uor.eng.exceptions.ResourceNotFoundException;
 import com.uor.eng.model.Dentist;
@@ -7,9 +8,12 @@ import com.uor.eng.model.Patient;
 import com.uor.eng.model.PatientLog;
 import com.uor.eng.model.PatientLogPhoto;
 import com.uor.eng.payload.patient.CreatePatientRequest;
+import com.uor.eng.payload.patient.PatientPageResponse;
 import com.uor.eng.payload.patient.PatientResponse;
+import com.uor.eng.payload.patient.PatientSummaryResponse;
 import com.uor.eng.repository.PatientRepository;
-import com.uor.eng.util.S3Service;
+import com.uor.eng.util.PatientSearchIndex;
+import com.uor.eng.util.PhotoUrlCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +21,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -41,7 +49,13 @@ class PatientServiceImplTest {
   private PatientRepository patientRepository;
 
   @Mock
-  private S3Service s3Service;
+  private PhotoUrlCache photoUrls;
+
+  @Mock
+  private PatientSearchIndex searchIndex;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
 
   private Patient patient;
   private CreatePatientRequest validRequest;
@@ -49,7 +63,7 @@ class PatientServiceImplTest {
   @BeforeEach
   void setUp() {
     // Initialize the service with constructor injection
-    patientService = new PatientServiceImpl(modelMapper, patientRepository, s3Service);
+    patientService = new PatientServiceImpl(modelMapper, patientRepository, photoUrls, searchIndex, eventPublisher);
 
     // Initialize test data
     Dentist dentist = new Dentist();
@@ -90,8 +104,8 @@ class PatientServiceImplTest {
             List.of("1234567890")
     );
 
-    // Set up common mock behavior for S3Service that gets used in multiple tests
-    lenient().when(s3Service.getFileUrl(anyString())).thenReturn("https://test-url.com/photo-key");
+    // Set up common mock behavior for PhotoUrlCache that gets used in multiple tests
+    lenient().when(photoUrls.getUrl(anyString())).thenReturn("https://test-url.com/photo-key");
   }
 
   @Test
@@ -112,6 +126,7 @@ class PatientServiceImplTest {
     assertEquals(validRequest.getEmail(), capturedPatient.getEmail());
     assertEquals(validRequest.getNic(), capturedPatient.getNic());
     assertEquals(validRequest.getContactNumbers(), capturedPatient.getContactNumbers());
+    verify(eventPublisher).publishEvent(new PatientChangedEvent(1L));
   }
 
   @Test
@@ -154,7 +169,7 @@ class PatientServiceImplTest {
 
     // Verify
     verify(patientRepository).findAll();
-    // We don't need to verify S3Service.getFileUrl since it's lenient stubbed
+    // We don't need to verify PhotoUrlCache.getUrl since it's lenient stubbed
   }
 
   @Test
@@ -171,23 +186,69 @@ class PatientServiceImplTest {
     verify(patientRepository).findAll();
   }
 
+  @Test
+  void getPatientSummaries_ShouldReturnPageWithoutLogs() {
+    // Arrange
+    PageRequest pageRequest = PageRequest.of(1, 20, Sort.by("id"));
+    when(patientRepository.findAll(pageRequest)).thenReturn(new PageImpl<>(List.of(patient), pageRequest, 21));
+
+    // Act
+    PatientPageResponse response = patientService.getPatientSummaries(1, 20);
+
+    // Assert
+    assertEquals(1, response.getItems().size());
+    assertEquals("John Doe", response.getItems().get(0).getName());
+    assertEquals(List.of("1234567890"), response.getItems().get(0).getContactNumbers());
+    assertEquals(21, response.getTotalElements());
+    assertEquals(2, response.getTotalPages());
+    verifyNoInteractions(photoUrls);
+  }
+
+  @Test
+  void getPatientSummaries_ShouldRejectInvalidPages() {
+    assertThrows(BadRequestException.class, () -> patientService.getPatientSummaries(-1, 20));
+    assertThrows(BadRequestException.class, () -> patientService.getPatientSummaries(0, 0));
+    assertThrows(BadRequestException.class, () -> patientService.getPatientSummaries(0, 101));
+    verifyNoInteractions(patientRepository);
+  }
+
+  @Test
+  void searchPatients_ShouldServeResultsFromTheIndex() {
+    // Arrange
+    List<PatientSummaryResponse> results = List.of(PatientSummaryResponse.builder().id(1L).name("John Doe").build());
+    when(searchIndex.search("joh 077", 10)).thenReturn(results);
+
+    // Act & Assert
+    assertEquals(results, patientService.searchPatients("joh 077", 10));
+    verifyNoInteractions(patientRepository);
+  }
+
+  @Test
+  void searchPatients_ShouldRejectBlankQueriesAndBadLimits() {
+    assertThrows(BadRequestException.class, () -> patientService.searchPatients(" ", 10));
+    assertThrows(BadRequestException.class, () -> patientService.searchPatients(null, 10));
+    assertThrows(BadRequestException.class, () -> patientService.searchPatients("john", 0));
+    assertThrows(BadRequestException.class, () -> patientService.searchPatients("john", 51));
+    verifyNoInteractions(searchIndex);
+  }
+
   @Test
   void getPatientById_ShouldReturnPatient_WhenIdExists() {
     // Arrange
-    when(patientRepository.findById(1L)).thenReturn(Optional.of(patient));
+    when(patientRepository.findDetailedById(1L)).thenReturn(Optional.of(patient));
 
     // Act
     PatientResponse response = patientService.getPatientById(1L);
 
     // Verify
-    verify(patientRepository).findById(1L);
-    // We don't need to verify S3Service.getFileUrl since it's lenient stubbed
+    verify(patientRepository).findDetailedById(1L);
+    // We don't need to verify PhotoUrlCache.getUrl since it's lenient stubbed
   }
 
   @Test
   void getPatientById_ShouldThrowResourceNotFoundException_WhenPatientDoesNotExist() {
     // Arrange
-    when(patientRepository.findById(1L)).thenReturn(Optional.empty());
+    when(patientRepository.findDetailedById(1L)).thenReturn(Optional.empty());
 
     // Act & Assert
     ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
@@ -195,7 +256,7 @@ class PatientServiceImplTest {
     assertEquals("Patient not found with id: 1", exception.getMessage());
 
     // Verify
-    verify(patientRepository).findById(1L);
+    verify(patientRepository).findDetailedById(1L);
   }
 
   @Test
@@ -355,6 +416,7 @@ class PatientServiceImplTest {
 
     // Verify
     verify(patientRepository).delete(patient);
+    verify(eventPublisher).publishEvent(new PatientChangedEvent(1L));
   }
 
   @Test
@@ -1,20 +1,40 @@
 package com.uor.eng.service.impl;
 
+import com.uor.eng.event.BookingStatusChangedEvent;
+import com.uor.eng.event.ScheduleChangedEvent;
+import com.uor.eng.event.ScheduleMovedEvent;
+import com.uor.eng.event.SchedulesCreatedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
 import com.uor.eng.exceptions.BadRequestException;
+import com.uor.eng.exceptions.EmailSendingException;
+import com.uor.eng.exceptions.JobLockLostException;
 import com.uor.eng.exceptions.ResourceNotFoundException;
 import com.uor.eng.model.*;
 import com.uor.eng.payload.booking.BookingResponseDTO;
 import com.uor.eng.payload.dashboard.CancelledScheduleResponse;
+import com.uor.eng.payload.dashboard.DailyBookingTotals;
 import com.uor.eng.payload.dashboard.ScheduleHistoryResponse;
 import com.uor.eng.payload.dashboard.UpcomingScheduleResponse;
+import com.uor.eng.payload.schedule.CreateRecurringSchedulesDTO;
 import com.uor.eng.payload.schedule.CreateScheduleDTO;
+import com.uor.eng.payload.schedule.FreeSlotResponse;
+import com.uor.eng.payload.schedule.RecurringSchedulesResponse;
+import com.uor.eng.payload.schedule.ScheduleBookingCount;
 import com.uor.eng.payload.schedule.ScheduleGetSevenCustomResponse;
+import com.uor.eng.payload.schedule.ScheduleInterval;
 import com.uor.eng.payload.schedule.ScheduleResponseDTO;
+import com.uor.eng.repository.AppointmentReminderRepository;
 import com.uor.eng.repository.BookingRepository;
+import com.uor.eng.repository.DailyBookingStatsRepository;
 import com.uor.eng.repository.DentistRepository;
+import com.uor.eng.repository.ScheduleBatchRepository;
 import com.uor.eng.repository.ScheduleRepository;
 import com.uor.eng.service.IScheduleService;
+import com.uor.eng.util.DentistScheduleIndex;
 import com.uor.eng.util.EmailService;
+import com.uor.eng.util.JobLockManager;
+import com.uor.eng.util.ScheduleSlotAllocator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,12 +43,18 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -48,12 +74,32 @@ public class ScheduleServiceImplTest {
   @Mock
   private BookingRepository bookingRepository;
 
+  @Mock
+  private AppointmentReminderRepository reminderRepository;
+
+  @Mock
+  private DailyBookingStatsRepository dailyStatsRepository;
+
+  @Mock
+  private ScheduleBatchRepository scheduleBatchRepository;
+
   @Mock
   private EmailService emailService;
 
   @Mock
   private ModelMapper modelMapper;
 
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private JobLockManager jobLocks;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
   @Captor
   private ArgumentCaptor<Schedule> scheduleCaptor;
 
@@ -82,7 +128,17 @@ public class ScheduleServiceImplTest {
             modelMapper,
             dentistRepository,
             emailService,
-            bookingRepository);
+            bookingRepository,
+            reminderRepository,
+            dailyStatsRepository,
+            scheduleBatchRepository,
+            new ScheduleSlotAllocator(5000),
+            new DentistScheduleIndex(scheduleRepository, 60_000, "08:00", "20:00"),
+            eventPublisher,
+            jobLocks,
+            meterRegistry,
+            transactionManager,
+            2);
 
     // Initialize test dentist
     testDentist = new Dentist();
@@ -149,9 +205,8 @@ public class ScheduleServiceImplTest {
   @Test
   void createSchedule_Success() {
     // Given
-    when(dentistRepository.findById(1L)).thenReturn(Optional.of(testDentist));
+    when(dentistRepository.findByIdWithLock(1L)).thenReturn(Optional.of(testDentist));
     when(scheduleRepository.save(any(Schedule.class))).thenReturn(testSchedule);
-    when(modelMapper.map(any(Schedule.class), eq(ScheduleResponseDTO.class))).thenReturn(testScheduleResponseDTO);
 
     // When
     ScheduleResponseDTO result = scheduleService.createSchedule(validScheduleDTO);
@@ -161,9 +216,10 @@ public class ScheduleServiceImplTest {
     assertEquals(1L, result.getId());
     assertEquals("AVAILABLE", result.getStatus());
     assertEquals(10, result.getCapacity());
-    verify(dentistRepository).findById(1L);
+    assertEquals(0, result.getNumberOfBookings());
+    verify(dentistRepository).findByIdWithLock(1L);
     verify(scheduleRepository).save(any(Schedule.class));
-    verify(modelMapper).map(any(Schedule.class), eq(ScheduleResponseDTO.class));
+    verify(bookingRepository, never()).countByScheduleIdsAndStatus(any());
   }
 
   @Test
@@ -172,7 +228,7 @@ public class ScheduleServiceImplTest {
 
     // When & Then
     assertThrows(BadRequestException.class, () -> scheduleService.createSchedule(null));
-    verify(dentistRepository, never()).findById(anyLong());
+    verify(dentistRepository, never()).findByIdWithLock(anyLong());
     verify(scheduleRepository, never()).save(any(Schedule.class));
   }
 
@@ -186,18 +242,18 @@ public class ScheduleServiceImplTest {
 
     // When & Then
     assertThrows(BadRequestException.class, () -> scheduleService.createSchedule(invalidDTO));
-    verify(dentistRepository, never()).findById(anyLong());
+    verify(dentistRepository, never()).findByIdWithLock(anyLong());
     verify(scheduleRepository, never()).save(any(Schedule.class));
   }
 
   @Test
   void createSchedule_DentistNotFound() {
     // Given
-    when(dentistRepository.findById(1L)).thenReturn(Optional.empty());
+    when(dentistRepository.findByIdWithLock(1L)).thenReturn(Optional.empty());
 
     // When & Then
     assertThrows(BadRequestException.class, () -> scheduleService.createSchedule(validScheduleDTO));
-    verify(dentistRepository).findById(1L);
+    verify(dentistRepository).findByIdWithLock(1L);
     verify(scheduleRepository, never()).save(any(Schedule.class));
   }
 
@@ -227,12 +283,201 @@ public class ScheduleServiceImplTest {
     verify(scheduleRepository, never()).save(any(Schedule.class));
   }
 
+  @Test
+  void createSchedule_RejectsOverlapWithIndexedSchedule() {
+    // Given
+    when(dentistRepository.findByIdWithLock(1L)).thenReturn(Optional.of(testDentist));
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of(
+            scheduleInterval(7L, validScheduleDTO.getDate(), LocalTime.of(16, 0), LocalTime.of(19, 0))));
+
+    // When & Then
+    BadRequestException exception = assertThrows(BadRequestException.class,
+            () -> scheduleService.createSchedule(validScheduleDTO));
+    assertTrue(exception.getMessage().contains("schedule 7"));
+    verify(scheduleRepository, never()).save(any(Schedule.class));
+  }
+
+  @Test
+  void createSchedule_RejectsOverlapFoundOnlyInDatabase() {
+    // Given
+    when(dentistRepository.findByIdWithLock(1L)).thenReturn(Optional.of(testDentist));
+    when(scheduleRepository.existsOverlapping(1L, validScheduleDTO.getDate(), LocalTime.of(9, 0), LocalTime.of(17, 0),
+            ScheduleStatus.CANCELLED, null)).thenReturn(true);
+
+    // When & Then
+    assertThrows(BadRequestException.class, () -> scheduleService.createSchedule(validScheduleDTO));
+    verify(scheduleRepository, never()).save(any(Schedule.class));
+  }
+
+  @Test
+  void createSchedule_LockTimeoutAsksToRetry() {
+    // Given
+    when(dentistRepository.findByIdWithLock(1L)).thenThrow(new PessimisticLockingFailureException("timeout"));
+
+    // When & Then
+    BadRequestException exception = assertThrows(BadRequestException.class,
+            () -> scheduleService.createSchedule(validScheduleDTO));
+    assertTrue(exception.getMessage().contains("high demand"));
+    verify(scheduleRepository, never()).existsOverlapping(anyLong(), any(), any(), any(), any(), any());
+    verify(scheduleRepository, never()).save(any(Schedule.class));
+  }
+
+  @Test
+  void createSchedule_RejectsEndTimeBeforeStartTime() {
+    // Given
+    validScheduleDTO.setEndTime(LocalTime.of(8, 0));
+    when(dentistRepository.findByIdWithLock(1L)).thenReturn(Optional.of(testDentist));
+
+    // When & Then
+    assertThrows(BadRequestException.class, () -> scheduleService.createSchedule(validScheduleDTO));
+    verify(scheduleRepository, never()).save(any(Schedule.class));
+  }
+
+  @Test
+  void updateSchedule_IgnoresItsOwnTimeWhenCheckingOverlaps() {
+    // Given
+    validScheduleDTO.setEndTime(LocalTime.of(18, 0));
+    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(testSchedule));
+    when(dentistRepository.findById(1L)).thenReturn(Optional.of(testDentist));
+    when(dentistRepository.findByIdWithLock(1L)).thenReturn(Optional.of(testDentist));
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of(
+            scheduleInterval(1L, testSchedule.getDate(), LocalTime.of(9, 0), LocalTime.of(17, 0))));
+    when(scheduleRepository.save(any(Schedule.class))).thenReturn(testSchedule);
+
+    // When
+    scheduleService.updateSchedule(1L, validScheduleDTO);
+
+    // Then
+    verify(scheduleRepository).existsOverlapping(1L, testSchedule.getDate(), LocalTime.of(9, 0), LocalTime.of(18, 0),
+            ScheduleStatus.CANCELLED, 1L);
+    verify(scheduleRepository).save(testSchedule);
+  }
+
+  @Test
+  void updateSchedule_SkipsOverlapCheckWhenTimesAndDentistAreUnchanged() {
+    // Given
+    validScheduleDTO.setStatus("UNAVAILABLE");
+    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(testSchedule));
+    when(dentistRepository.findById(1L)).thenReturn(Optional.of(testDentist));
+    when(scheduleRepository.save(any(Schedule.class))).thenReturn(testSchedule);
+
+    // When
+    scheduleService.updateSchedule(1L, validScheduleDTO);
+
+    // Then
+    verify(scheduleRepository, never()).findIntervalsByDentist(anyLong(), any());
+    verify(scheduleRepository, never()).existsOverlapping(anyLong(), any(), any(), any(), any(), any());
+    verify(scheduleRepository).save(testSchedule);
+  }
+
+  @Test
+  void findFreeSlots_ReturnsGapsBetweenSchedules() {
+    // Given
+    LocalDate date = LocalDate.now().plusDays(2);
+    when(dentistRepository.existsById(1L)).thenReturn(true);
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of(
+            scheduleInterval(1L, date, LocalTime.of(9, 0), LocalTime.of(12, 0))));
+
+    // When
+    List<FreeSlotResponse> slots = scheduleService.findFreeSlots(1L, date, date, 60);
+
+    // Then
+    assertEquals(2, slots.size());
+    assertEquals(LocalTime.of(8, 0), slots.get(0).getStartTime());
+    assertEquals(LocalTime.of(9, 0), slots.get(0).getEndTime());
+    assertEquals(LocalTime.of(12, 0), slots.get(1).getStartTime());
+    assertEquals(480L, slots.get(1).getDuration());
+  }
+
+  @Test
+  void findFreeSlots_RejectsInvalidRequests() {
+    LocalDate today = LocalDate.now();
+    when(dentistRepository.existsById(1L)).thenReturn(true);
+    when(dentistRepository.existsById(2L)).thenReturn(false);
+
+    assertThrows(ResourceNotFoundException.class, () -> scheduleService.findFreeSlots(2L, null, null, null));
+    assertThrows(BadRequestException.class, () -> scheduleService.findFreeSlots(1L, today, today.minusDays(1), null));
+    assertThrows(BadRequestException.class, () -> scheduleService.findFreeSlots(1L, today, today.plusYears(1), null));
+    assertThrows(BadRequestException.class, () -> scheduleService.findFreeSlots(1L, today, today, 0));
+    verify(scheduleRepository, never()).findIntervalsByDentist(anyLong(), any());
+  }
+
+  @Test
+  void createRecurringSchedules_InsertsEveryMatchingDayInOneBatch() {
+    // Given
+    CreateRecurringSchedulesDTO recurrence = recurrence(nextMonday(), 12);
+    when(dentistRepository.findByIdWithLock(1L)).thenReturn(Optional.of(testDentist));
+    when(scheduleBatchRepository.insertAll(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+    // When
+    RecurringSchedulesResponse result = scheduleService.createRecurringSchedules(recurrence);
+
+    // Then
+    verify(scheduleBatchRepository).insertAll(schedulesCaptor.capture());
+    List<Schedule> schedules = schedulesCaptor.getValue();
+    assertEquals(24, schedules.size());
+    assertEquals("Monday", schedules.get(0).getDayOfWeek());
+    assertEquals(DayOfWeek.WEDNESDAY, schedules.get(1).getDate().getDayOfWeek());
+    assertEquals(240L, schedules.get(0).getDuration());
+    assertEquals(20, schedules.get(0).getAvailableSlots());
+    assertEquals(24, result.getCreatedCount());
+    assertEquals(recurrence.getStartDate(), result.getFirstDate());
+    assertEquals(recurrence.getStartDate().plusWeeks(11).plusDays(2), result.getLastDate());
+    assertTrue(result.getSkippedDates().isEmpty());
+    verify(eventPublisher).publishEvent(new SchedulesCreatedEvent(1L, recurrence.getStartDate(),
+            recurrence.getStartDate().plusWeeks(12).minusDays(1)));
+    verify(scheduleRepository, never()).save(any(Schedule.class));
+  }
+
+  @Test
+  void createRecurringSchedules_RejectsConflictsUnlessAskedToSkipThem() {
+    // Given
+    CreateRecurringSchedulesDTO recurrence = recurrence(nextMonday(), 2);
+    LocalDate busyDay = recurrence.getStartDate().plusDays(2);
+    when(dentistRepository.findByIdWithLock(1L)).thenReturn(Optional.of(testDentist));
+    when(scheduleRepository.findOverlappingDates(1L, recurrence.getStartDate(),
+            recurrence.getStartDate().plusDays(13), LocalTime.of(16, 0), LocalTime.of(20, 0), ScheduleStatus.CANCELLED))
+            .thenReturn(List.of(busyDay));
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of(
+            scheduleInterval(9L, recurrence.getStartDate(), LocalTime.of(19, 0), LocalTime.of(21, 0))));
+
+    // When & Then
+    assertThrows(BadRequestException.class, () -> scheduleService.createRecurringSchedules(recurrence));
+    verify(scheduleBatchRepository, never()).insertAll(anyList());
+
+    recurrence.setSkipConflicts(true);
+    when(scheduleBatchRepository.insertAll(anyList())).thenReturn(2);
+    RecurringSchedulesResponse result = scheduleService.createRecurringSchedules(recurrence);
+
+    assertEquals(2, result.getCreatedCount());
+    assertEquals(List.of(recurrence.getStartDate(), busyDay), result.getSkippedDates());
+  }
+
+  @Test
+  void createRecurringSchedules_RejectsInvalidRecurrences() {
+    CreateRecurringSchedulesDTO noDays = recurrence(nextMonday(), 4);
+    noDays.setDaysOfWeek(Set.of());
+    CreateRecurringSchedulesDTO past = recurrence(LocalDate.now().minusDays(7), 4);
+    CreateRecurringSchedulesDTO tooLong = recurrence(nextMonday(), 60);
+    CreateRecurringSchedulesDTO noEnd = recurrence(nextMonday(), null);
+    CreateRecurringSchedulesDTO badTimes = recurrence(nextMonday(), 4);
+    badTimes.setEndTime(LocalTime.of(15, 0));
+    CreateRecurringSchedulesDTO finished = recurrence(nextMonday(), 4);
+    finished.setStatus("FINISHED");
+
+    for (CreateRecurringSchedulesDTO recurrence : List.of(noDays, past, tooLong, noEnd, badTimes, finished)) {
+      assertThrows(BadRequestException.class, () -> scheduleService.createRecurringSchedules(recurrence));
+    }
+    verifyNoInteractions(dentistRepository, scheduleBatchRepository);
+  }
+
   @Test
   void getAllSchedules_Success() {
     // Given
     List<Schedule> schedules = Collections.singletonList(testSchedule);
     when(scheduleRepository.findAll()).thenReturn(schedules);
-    when(modelMapper.map(any(Schedule.class), eq(ScheduleResponseDTO.class))).thenReturn(testScheduleResponseDTO);
+    when(bookingRepository.countByScheduleIdsAndStatus(List.of(1L))).thenReturn(List.of(
+            bookingCount(1L, BookingStatus.PENDING, 2), bookingCount(1L, BookingStatus.CANCELLED, 1)));
 
     // When
     List<ScheduleResponseDTO> result = scheduleService.getAllSchedules();
@@ -240,6 +485,9 @@ public class ScheduleServiceImplTest {
     // Then
     assertNotNull(result);
     assertEquals(1, result.size());
+    assertEquals(3, result.get(0).getNumberOfBookings());
+    assertEquals(1L, result.get(0).getDentistId());
+    assertNull(result.get(0).getBookings());
     verify(scheduleRepository).findAll();
   }
 
@@ -311,6 +559,7 @@ public class ScheduleServiceImplTest {
   void deleteSchedule_WithBookings() {
     // Given
     when(scheduleRepository.findById(1L)).thenReturn(Optional.of(testSchedule));
+    when(bookingRepository.existsByScheduleId(1L)).thenReturn(true);
 
     // When & Then
     assertThrows(BadRequestException.class, () -> scheduleService.deleteSchedule(1L));
@@ -324,7 +573,6 @@ public class ScheduleServiceImplTest {
     when(scheduleRepository.findById(1L)).thenReturn(Optional.of(testSchedule));
     when(dentistRepository.findById(1L)).thenReturn(Optional.of(testDentist));
     when(scheduleRepository.save(any(Schedule.class))).thenReturn(testSchedule);
-    when(modelMapper.map(any(Schedule.class), eq(ScheduleResponseDTO.class))).thenReturn(testScheduleResponseDTO);
 
     // When
     ScheduleResponseDTO result = scheduleService.updateSchedule(1L, validScheduleDTO);
@@ -364,8 +612,8 @@ public class ScheduleServiceImplTest {
 
     when(scheduleRepository.findById(1L)).thenReturn(Optional.of(existingSchedule));
     when(dentistRepository.findById(2L)).thenReturn(Optional.of(newDentist));
+    when(dentistRepository.findByIdWithLock(2L)).thenReturn(Optional.of(newDentist));
     when(scheduleRepository.save(any(Schedule.class))).thenReturn(existingSchedule);
-    when(modelMapper.map(any(Schedule.class), eq(ScheduleResponseDTO.class))).thenReturn(testScheduleResponseDTO);
 
     // When
     ScheduleResponseDTO result = scheduleService.updateSchedule(1L, updateDTO);
@@ -384,6 +632,21 @@ public class ScheduleServiceImplTest {
     assertNotNull(result);
   }
 
+  @Test
+  void updateSchedule_PublishesMovedEventWhenBookedScheduleChangesDate() {
+    LocalDate previousDate = testSchedule.getDate();
+    validScheduleDTO.setDate(previousDate.plusDays(3));
+    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(testSchedule));
+    when(dentistRepository.findById(1L)).thenReturn(Optional.of(testDentist));
+    when(dentistRepository.findByIdWithLock(1L)).thenReturn(Optional.of(testDentist));
+    when(scheduleRepository.save(any(Schedule.class))).thenReturn(testSchedule);
+    when(bookingRepository.existsByScheduleId(1L)).thenReturn(true);
+
+    scheduleService.updateSchedule(1L, validScheduleDTO);
+
+    verify(eventPublisher).publishEvent(new ScheduleMovedEvent(1L, previousDate, previousDate.plusDays(3)));
+  }
+
   @Test
   void updateSchedule_NotFound() {
     // Given
@@ -401,7 +664,8 @@ public class ScheduleServiceImplTest {
     List<Schedule> schedules = Collections.singletonList(testSchedule);
     when(scheduleRepository.findTop7ByDateGreaterThanAndStatusOrderByDateAsc(any(LocalDate.class), eq(ScheduleStatus.AVAILABLE)))
             .thenReturn(schedules);
-    when(modelMapper.map(any(Schedule.class), eq(ScheduleResponseDTO.class))).thenReturn(testScheduleResponseDTO);
+    when(bookingRepository.countByScheduleIdsAndStatus(List.of(1L)))
+            .thenReturn(List.of(bookingCount(1L, BookingStatus.PENDING, 1)));
 
     // When
     List<ScheduleResponseDTO> result = scheduleService.getNextSevenSchedules();
@@ -409,6 +673,7 @@ public class ScheduleServiceImplTest {
     // Then
     assertNotNull(result);
     assertEquals(1, result.size());
+    assertEquals(1, result.get(0).getNumberOfBookings());
     verify(scheduleRepository).findTop7ByDateGreaterThanAndStatusOrderByDateAsc(any(LocalDate.class), eq(ScheduleStatus.AVAILABLE));
   }
 
@@ -457,99 +722,116 @@ public class ScheduleServiceImplTest {
   }
 
   @Test
-  void updateExpiredSchedules_SuccessfullyUpdatesScheduleAndBookingStatuses() {
+  void updateExpiredSchedules_MovesSchedulesAndBookingsInBulk() {
     // Given
-    List<Schedule> expiredSchedules = new ArrayList<>();
-
-    Schedule expiredSchedule1 = new Schedule();
-    expiredSchedule1.setId(1L);
-    expiredSchedule1.setStatus(ScheduleStatus.AVAILABLE);
-    expiredSchedule1.setDate(LocalDate.now());
-    expiredSchedule1.setStartTime(LocalTime.now().minusHours(2));
-    expiredSchedule1.setDentist(testDentist);
-
-    Booking booking1 = new Booking();
-    booking1.setReferenceId("REF1");
-    booking1.setStatus(BookingStatus.PENDING);
-    booking1.setSchedule(expiredSchedule1);
-
-    List<Booking> bookings1 = new ArrayList<>();
-    bookings1.add(booking1);
-    expiredSchedule1.setBookings(bookings1);
-
-    Schedule expiredSchedule2 = new Schedule();
-    expiredSchedule2.setId(2L);
-    expiredSchedule2.setStatus(ScheduleStatus.AVAILABLE);
-    expiredSchedule2.setDate(LocalDate.now());
-    expiredSchedule2.setStartTime(LocalTime.now().minusHours(3));
-    expiredSchedule2.setDentist(testDentist);
-
-    Booking booking2 = new Booking();
-    booking2.setReferenceId("REF2");
-    booking2.setStatus(BookingStatus.PENDING);
-    booking2.setSchedule(expiredSchedule2);
-
-    Booking cancelledBooking = new Booking();
-    cancelledBooking.setReferenceId("REF3");
-    cancelledBooking.setStatus(BookingStatus.CANCELLED);
-    cancelledBooking.setSchedule(expiredSchedule2);
-
-    List<Booking> bookings2 = new ArrayList<>();
-    bookings2.add(booking2);
-    bookings2.add(cancelledBooking);
-    expiredSchedule2.setBookings(bookings2);
-
-    expiredSchedules.add(expiredSchedule1);
-    expiredSchedules.add(expiredSchedule2);
-
-    List<ScheduleStatus> excludedStatuses = List.of(
-            ScheduleStatus.ON_GOING,
-            ScheduleStatus.FULL
-    );
-
-    when(scheduleRepository.findSchedulesToFinish(any(LocalDate.class), any(LocalTime.class), anyList()))
-            .thenReturn(expiredSchedules);
-    when(scheduleRepository.saveAll(anyList())).thenReturn(expiredSchedules);
-    when(bookingRepository.save(any(Booking.class))).thenReturn(booking1).thenReturn(booking2);
+    when(scheduleRepository.findIdsToFinish(any(LocalDate.class), any(LocalTime.class), anyList(), any(Pageable.class)))
+            .thenReturn(List.of(1L));
+    when(scheduleRepository.transitionStatus(List.of(1L), List.of(ScheduleStatus.AVAILABLE, ScheduleStatus.UNAVAILABLE,
+            ScheduleStatus.ACTIVE), ScheduleStatus.FINISHED)).thenReturn(1);
+    when(bookingRepository.transitionStatusBySchedules(List.of(1L), ScheduleStatus.FINISHED, BookingStatus.FINISHED))
+            .thenReturn(3);
 
     // When
     scheduleService.updateExpiredSchedules();
 
     // Then
-    verify(scheduleRepository).findSchedulesToFinish(any(LocalDate.class), any(LocalTime.class), anyList());
-    verify(scheduleRepository).saveAll(schedulesCaptor.capture());
+    verify(scheduleRepository).findIdsToFinish(any(LocalDate.class), any(LocalTime.class), anyList(), any(Pageable.class));
+    verify(scheduleRepository, never()).saveAll(anyList());
+    verify(bookingRepository, never()).save(any(Booking.class));
+    verify(eventPublisher).publishEvent(
+            new SchedulesTransitionedEvent(List.of(1L), ScheduleStatus.FINISHED, BookingStatus.FINISHED));
+    assertEquals(1.0, transitioned("finish-expired", "schedule"));
+    assertEquals(3.0, transitioned("finish-expired", "booking"));
+    assertEquals(1, meterRegistry.get("app.schedule.job.time").tag("job", "finish-expired").timer().count());
+  }
 
-    List<Schedule> capturedSchedules = schedulesCaptor.getValue();
-    assertEquals(2, capturedSchedules.size());
+  @Test
+  void updateExpiredSchedules_WorksThroughBacklogInChunks() {
+    // Given
+    when(scheduleRepository.findIdsToFinish(any(LocalDate.class), any(LocalTime.class), anyList(), any(Pageable.class)))
+            .thenReturn(List.of(1L, 2L))
+            .thenReturn(List.of(3L, 4L))
+            .thenReturn(List.of(5L));
+    when(scheduleRepository.transitionStatus(anyCollection(), anyCollection(), eq(ScheduleStatus.FINISHED)))
+            .thenReturn(2, 2, 1);
 
-    // All schedules should be marked as FINISHED
-    for (Schedule schedule : capturedSchedules) {
-      assertEquals(ScheduleStatus.FINISHED, schedule.getStatus());
-    }
+    // When
+    scheduleService.updateExpiredSchedules();
 
-    // Verify bookings were updated (only for non-cancelled bookings)
-    verify(bookingRepository, times(2)).save(bookingCaptor.capture());
-    List<Booking> capturedBookings = bookingCaptor.getAllValues();
+    // Then
+    verify(scheduleRepository, times(3)).transitionStatus(anyCollection(), anyCollection(), eq(ScheduleStatus.FINISHED));
+    verify(bookingRepository, times(3)).transitionStatusBySchedules(anyCollection(), eq(ScheduleStatus.FINISHED),
+            eq(BookingStatus.FINISHED));
+    verify(transactionManager, times(3)).commit(any());
+    assertEquals(5.0, transitioned("finish-expired", "schedule"));
+  }
 
-    // All updated bookings should be marked as FINISHED
-    for (Booking booking : capturedBookings) {
-      assertEquals(BookingStatus.FINISHED, booking.getStatus());
-    }
+  @Test
+  void updateExpiredSchedules_StopsWhenTheLeaseWasTakenOver() {
+    // Given
+    doThrow(new JobLockLostException("Lease on job finish-expired was taken over")).when(jobLocks).fence();
+
+    // When / Then - the chunk is rolled back before it touches any row
+    assertThrows(JobLockLostException.class, () -> scheduleService.updateExpiredSchedules());
+    verify(scheduleRepository, never()).transitionStatus(anyCollection(), anyCollection(), any(ScheduleStatus.class));
+    verify(transactionManager).rollback(any());
+  }
+
+  @Test
+  void updateExpiredSchedules_StopsWhenAChunkMovesNothing() {
+    // Given
+    when(scheduleRepository.findIdsToFinish(any(LocalDate.class), any(LocalTime.class), anyList(), any(Pageable.class)))
+            .thenReturn(List.of(1L, 2L));
+    when(scheduleRepository.transitionStatus(anyCollection(), anyCollection(), eq(ScheduleStatus.FINISHED)))
+            .thenReturn(0);
+
+    // When
+    scheduleService.updateExpiredSchedules();
+
+    // Then
+    verify(scheduleRepository).transitionStatus(anyCollection(), anyCollection(), eq(ScheduleStatus.FINISHED));
+    verify(bookingRepository, never()).transitionStatusBySchedules(anyCollection(), any(), any());
+    verify(eventPublisher, never()).publishEvent(any());
   }
 
   @Test
   void updateExpiredSchedules_NoExpiredSchedules() {
     // Given
-    when(scheduleRepository.findSchedulesToFinish(any(LocalDate.class), any(LocalTime.class), anyList()))
+    when(scheduleRepository.findIdsToFinish(any(LocalDate.class), any(LocalTime.class), anyList(), any(Pageable.class)))
             .thenReturn(new ArrayList<>());
 
     // When
     scheduleService.updateExpiredSchedules();
 
     // Then
-    verify(scheduleRepository).findSchedulesToFinish(any(LocalDate.class), any(LocalTime.class), anyList());
-    verify(scheduleRepository, never()).saveAll(anyList());
-    verify(bookingRepository, never()).save(any(Booking.class));
+    verify(scheduleRepository, never()).transitionStatus(anyCollection(), anyCollection(), any());
+    verify(bookingRepository, never()).transitionStatusBySchedules(anyCollection(), any(), any());
+    assertEquals(0.0, transitioned("finish-expired", "schedule"));
+  }
+
+  @Test
+  void initialUpdaterScheduleOnStartup_CancelsMissedSchedulesAndNotifiesPatients() {
+    // Given
+    BookingResponseDTO open = new BookingResponseDTO();
+    open.setReferenceId("REF1");
+    open.setStatus(BookingStatus.PENDING);
+
+    when(scheduleRepository.findIdsStartedBy(any(LocalDate.class), any(LocalTime.class),
+            eq(List.of(ScheduleStatus.AVAILABLE)), any(Pageable.class))).thenReturn(List.of(1L));
+    when(scheduleRepository.transitionStatus(List.of(1L), List.of(ScheduleStatus.AVAILABLE), ScheduleStatus.CANCELLED))
+            .thenReturn(1);
+    when(bookingRepository.findOpenResponsesByScheduleIds(List.of(1L), ScheduleStatus.CANCELLED)).thenReturn(List.of(open));
+    when(bookingRepository.transitionStatusBySchedules(List.of(1L), ScheduleStatus.CANCELLED, BookingStatus.CANCELLED))
+            .thenReturn(1);
+
+    // When
+    scheduleService.initialUpdaterScheduleOnStartup();
+
+    // Then
+    verify(emailService).sendBookingCancellation(argThat(booking -> booking.getStatus() == BookingStatus.CANCELLED));
+    verify(eventPublisher).publishEvent(
+            new SchedulesTransitionedEvent(List.of(1L), ScheduleStatus.CANCELLED, BookingStatus.CANCELLED));
+    assertEquals(1.0, transitioned("cancel-missed", "booking"));
   }
 
 //  @Test
@@ -672,190 +954,119 @@ public class ScheduleServiceImplTest {
   @Test
   void processDailySchedules_ActivatesUnavailableSchedules() {
     // Given
-    Schedule unavailableSchedule = new Schedule();
-    unavailableSchedule.setId(1L);
-    unavailableSchedule.setStatus(ScheduleStatus.UNAVAILABLE);
-    unavailableSchedule.setDate(LocalDate.now()); // Today
-    unavailableSchedule.setBookings(new ArrayList<>());
-    unavailableSchedule.setDentist(testDentist);
-
-    Schedule alreadyActiveSchedule = new Schedule();
-    alreadyActiveSchedule.setId(2L);
-    alreadyActiveSchedule.setStatus(ScheduleStatus.AVAILABLE);
-    alreadyActiveSchedule.setDate(LocalDate.now());
-    alreadyActiveSchedule.setBookings(new ArrayList<>());
-    alreadyActiveSchedule.setDentist(testDentist);
-
-    List<Schedule> todaySchedules = Arrays.asList(unavailableSchedule, alreadyActiveSchedule);
-
-    when(scheduleRepository.findByDate(any(LocalDate.class))).thenReturn(todaySchedules);
-    when(scheduleRepository.save(unavailableSchedule)).thenReturn(unavailableSchedule);
+    when(scheduleRepository.findIdsByDate(any(LocalDate.class), eq(List.of(ScheduleStatus.UNAVAILABLE)), any(Pageable.class)))
+            .thenReturn(List.of(1L));
+    when(scheduleRepository.transitionStatus(List.of(1L), List.of(ScheduleStatus.UNAVAILABLE), ScheduleStatus.AVAILABLE))
+            .thenReturn(1);
 
     // When
     scheduleService.processDailySchedules();
 
     // Then
-    verify(scheduleRepository).findByDate(any(LocalDate.class));
-    verify(scheduleRepository).save(unavailableSchedule);
-
-    // Verify only unavailable schedules were activated
-    assertEquals(ScheduleStatus.AVAILABLE, unavailableSchedule.getStatus());
-    assertEquals(ScheduleStatus.AVAILABLE, alreadyActiveSchedule.getStatus());
+    verify(scheduleRepository, never()).save(any(Schedule.class));
+    verify(bookingRepository, never()).transitionStatusBySchedules(anyCollection(), any(), any());
+    verify(eventPublisher).publishEvent(new SchedulesTransitionedEvent(List.of(1L), ScheduleStatus.AVAILABLE, null));
+    assertEquals(1.0, transitioned("open-today", "schedule"));
   }
 
   @Test
   void processDailySchedules_NoSchedulesToActivate() {
     // Given
-    Schedule availableSchedule = new Schedule();
-    availableSchedule.setId(1L);
-    availableSchedule.setStatus(ScheduleStatus.AVAILABLE);
-    availableSchedule.setDate(LocalDate.now());
-    availableSchedule.setDentist(testDentist);
-
-    Schedule finishedSchedule = new Schedule();
-    finishedSchedule.setId(2L);
-    finishedSchedule.setStatus(ScheduleStatus.FINISHED);
-    finishedSchedule.setDate(LocalDate.now());
-    finishedSchedule.setDentist(testDentist);
-
-    List<Schedule> todaySchedules = Arrays.asList(availableSchedule, finishedSchedule);
-
-    when(scheduleRepository.findByDate(any(LocalDate.class))).thenReturn(todaySchedules);
+    when(scheduleRepository.findIdsByDate(any(LocalDate.class), eq(List.of(ScheduleStatus.UNAVAILABLE)), any(Pageable.class)))
+            .thenReturn(List.of());
 
     // When
     scheduleService.processDailySchedules();
 
     // Then
-    verify(scheduleRepository).findByDate(any(LocalDate.class));
-    verify(scheduleRepository, never()).save(any(Schedule.class));
+    verify(scheduleRepository, never()).transitionStatus(anyCollection(), anyCollection(), any());
+    verify(eventPublisher, never()).publishEvent(any());
   }
 
   @Test
-  void sendAppointmentReminders_SendsReminderForActiveAndPendingBookings() {
-    // Given
-    Schedule tomorrowSchedule = new Schedule();
-    tomorrowSchedule.setId(1L);
-    tomorrowSchedule.setDate(LocalDate.now().plusDays(1));
-    tomorrowSchedule.setDentist(testDentist);
-    tomorrowSchedule.setStartTime(LocalTime.of(9, 0));
-    tomorrowSchedule.setEndTime(LocalTime.of(17, 0));
-
-    Booking activeBooking = new Booking();
-    activeBooking.setReferenceId("REF1");
-    activeBooking.setStatus(BookingStatus.ACTIVE);
-    activeBooking.setSchedule(tomorrowSchedule);
-    activeBooking.setEmail("active@example.com");
-
-    Booking pendingBooking = new Booking();
-    pendingBooking.setReferenceId("REF2");
-    pendingBooking.setStatus(BookingStatus.PENDING);
-    pendingBooking.setSchedule(tomorrowSchedule);
-    pendingBooking.setEmail("pending@example.com");
-
-    Booking cancelledBooking = new Booking();
-    cancelledBooking.setReferenceId("REF3");
-    cancelledBooking.setStatus(BookingStatus.CANCELLED);
-    cancelledBooking.setSchedule(tomorrowSchedule);
-    cancelledBooking.setEmail("cancelled@example.com");
-
-    List<Booking> bookings = Arrays.asList(activeBooking, pendingBooking, cancelledBooking);
-    tomorrowSchedule.setBookings(bookings);
-
-    BookingResponseDTO activeBookingDTO = new BookingResponseDTO();
-    activeBookingDTO.setReferenceId("REF1");
-    activeBookingDTO.setEmail("active@example.com");
-
-    BookingResponseDTO pendingBookingDTO = new BookingResponseDTO();
-    pendingBookingDTO.setReferenceId("REF2");
-    pendingBookingDTO.setEmail("pending@example.com");
-
-    when(scheduleRepository.findByDate(any(LocalDate.class))).thenReturn(Collections.singletonList(tomorrowSchedule));
-
-    // Important: Mock the scheduleRepository.findById calls
-    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(tomorrowSchedule));
-
-    when(modelMapper.map(eq(activeBooking), eq(BookingResponseDTO.class))).thenReturn(activeBookingDTO);
-    when(modelMapper.map(eq(pendingBooking), eq(BookingResponseDTO.class))).thenReturn(pendingBookingDTO);
-    doNothing().when(emailService).sendAppointmentReminder(any(BookingResponseDTO.class));
+  void sendAppointmentReminders_QueuesNewRemindersAndRecordsThemInTheLedger() {
+    // Given - three bookings without a reminder, queued in chunks of two
+    LocalDate tomorrow = LocalDate.now().plusDays(1);
+    List<BookingResponseDTO> bookings = List.of(reminderBooking("REF1"), reminderBooking("REF2"), reminderBooking("REF3"));
+    when(bookingRepository.findResponsesWithoutReminder(tomorrow, List.of(BookingStatus.ACTIVE, BookingStatus.PENDING)))
+            .thenReturn(bookings);
+    ArgumentCaptor<AppointmentReminder> reminderCaptor = ArgumentCaptor.forClass(AppointmentReminder.class);
 
     // When
     scheduleService.sendAppointmentReminders();
 
     // Then
-    verify(scheduleRepository).findByDate(any(LocalDate.class));
-    verify(modelMapper, times(2)).map(any(Booking.class), eq(BookingResponseDTO.class));
-    verify(emailService, times(2)).sendAppointmentReminder(any(BookingResponseDTO.class));
+    verify(reminderRepository).deleteByAppointmentDateBefore(LocalDate.now());
+    bookings.forEach(booking -> verify(emailService).sendAppointmentReminder(booking));
+    verify(reminderRepository, times(3)).save(reminderCaptor.capture());
+    assertEquals(List.of("REF1", "REF2", "REF3"),
+            reminderCaptor.getAllValues().stream().map(AppointmentReminder::getBookingReferenceId).toList());
+    assertTrue(reminderCaptor.getAllValues().stream().allMatch(reminder -> tomorrow.equals(reminder.getAppointmentDate())));
+    verify(transactionManager, times(2)).commit(any());
+    assertEquals(3.0, reminderCount("queued"));
   }
 
   @Test
-  void sendAppointmentReminders_NoRemindersWhenNoActiveOrPendingBookings() {
+  void sendAppointmentReminders_NoRemindersWhenNothingNewIsBooked() {
     // Given
-    Schedule tomorrowSchedule = new Schedule();
-    tomorrowSchedule.setId(1L);
-    tomorrowSchedule.setDate(LocalDate.now().plusDays(1));
-    tomorrowSchedule.setDentist(testDentist);
-
-    Booking cancelledBooking = new Booking();
-    cancelledBooking.setReferenceId("REF1");
-    cancelledBooking.setStatus(BookingStatus.CANCELLED);
-    cancelledBooking.setSchedule(tomorrowSchedule);
-
-    Booking finishedBooking = new Booking();
-    finishedBooking.setReferenceId("REF2");
-    finishedBooking.setStatus(BookingStatus.FINISHED);
-    finishedBooking.setSchedule(tomorrowSchedule);
-
-    List<Booking> bookings = Arrays.asList(cancelledBooking, finishedBooking);
-    tomorrowSchedule.setBookings(bookings);
-
-    when(scheduleRepository.findByDate(any(LocalDate.class))).thenReturn(Collections.singletonList(tomorrowSchedule));
+    when(bookingRepository.findResponsesWithoutReminder(any(LocalDate.class), anyCollection()))
+            .thenReturn(Collections.emptyList());
 
     // When
     scheduleService.sendAppointmentReminders();
 
     // Then
-    verify(scheduleRepository).findByDate(any(LocalDate.class));
-    verify(modelMapper, never()).map(any(Booking.class), eq(BookingResponseDTO.class));
     verify(emailService, never()).sendAppointmentReminder(any(BookingResponseDTO.class));
+    verify(reminderRepository, never()).save(any(AppointmentReminder.class));
   }
 
   @Test
-  void sendAppointmentReminders_HandlesExceptionWhenSendingEmail() {
+  void sendAppointmentReminders_LeavesFailedRemindersOutOfTheLedger() {
     // Given
-    Schedule tomorrowSchedule = new Schedule();
-    tomorrowSchedule.setId(1L);
-    tomorrowSchedule.setDate(LocalDate.now().plusDays(1));
-    tomorrowSchedule.setDentist(testDentist);
-
-    Booking activeBooking = new Booking();
-    activeBooking.setReferenceId("REF1");
-    activeBooking.setStatus(BookingStatus.ACTIVE);
-    activeBooking.setSchedule(tomorrowSchedule);
-    activeBooking.setEmail("active@example.com");
+    BookingResponseDTO failingBookingDTO = reminderBooking("REF1");
+    BookingResponseDTO nextBookingDTO = reminderBooking("REF2");
+    when(bookingRepository.findResponsesWithoutReminder(any(LocalDate.class), anyCollection()))
+            .thenReturn(List.of(failingBookingDTO, nextBookingDTO));
+    doThrow(new EmailSendingException("Template missing")).when(emailService).sendAppointmentReminder(failingBookingDTO);
+    ArgumentCaptor<AppointmentReminder> reminderCaptor = ArgumentCaptor.forClass(AppointmentReminder.class);
 
-    tomorrowSchedule.setBookings(Collections.singletonList(activeBooking));
-
-    BookingResponseDTO activeBookingDTO = new BookingResponseDTO();
-    activeBookingDTO.setReferenceId("REF1");
-    activeBookingDTO.setEmail("active@example.com");
+    // When - Should not throw exception
+    scheduleService.sendAppointmentReminders();
 
-    when(scheduleRepository.findByDate(any(LocalDate.class))).thenReturn(Collections.singletonList(tomorrowSchedule));
+    // Then - the failed booking is retried on the next run, the other one is recorded
+    verify(emailService).sendAppointmentReminder(nextBookingDTO);
+    verify(reminderRepository).save(reminderCaptor.capture());
+    assertEquals("REF2", reminderCaptor.getValue().getBookingReferenceId());
+    assertEquals(1.0, reminderCount("queued"));
+    assertEquals(1.0, reminderCount("failed"));
+  }
 
-    // Important: Mock the scheduleRepository.findById calls
-    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(tomorrowSchedule));
+  @Test
+  void sendAppointmentReminders_SkipsChunkAlreadyQueuedByAnotherRun() {
+    // Given
+    when(bookingRepository.findResponsesWithoutReminder(any(LocalDate.class), anyCollection()))
+            .thenReturn(List.of(reminderBooking("REF1"), reminderBooking("REF2"), reminderBooking("REF3")));
+    when(reminderRepository.save(any(AppointmentReminder.class)))
+            .thenThrow(new DataIntegrityViolationException("uk_appointment_reminders_booking"))
+            .thenAnswer(invocation -> invocation.getArgument(0));
 
-    when(modelMapper.map(eq(activeBooking), eq(BookingResponseDTO.class))).thenReturn(activeBookingDTO);
+    // When
+    scheduleService.sendAppointmentReminders();
 
-    // Simulate an exception during email sending
-    doThrow(new RuntimeException("Email error")).when(emailService).sendAppointmentReminder(any(BookingResponseDTO.class));
+    // Then
+    assertEquals(2.0, reminderCount("conflict"));
+    assertEquals(1.0, reminderCount("queued"));
+  }
 
-    // When - Should not throw exception
-    scheduleService.sendAppointmentReminders();
+  private static BookingResponseDTO reminderBooking(String referenceId) {
+    BookingResponseDTO booking = new BookingResponseDTO();
+    booking.setReferenceId(referenceId);
+    booking.setEmail(referenceId.toLowerCase() + "@example.com");
+    return booking;
+  }
 
-    // Then - Should handle the exception and continue
-    verify(scheduleRepository).findByDate(any(LocalDate.class));
-    verify(modelMapper).map(any(Booking.class), eq(BookingResponseDTO.class));
-    verify(emailService).sendAppointmentReminder(any(BookingResponseDTO.class));
+  private double reminderCount(String result) {
+    return meterRegistry.get("app.schedule.reminders.count").tag("result", result).counter().count();
   }
 
   @Test
@@ -864,57 +1075,57 @@ public class ScheduleServiceImplTest {
     LocalDate today = LocalDate.now();
     LocalDate startDate = today.minusDays(89);
 
-    Schedule schedule1 = new Schedule();
-    schedule1.setId(1L);
-    schedule1.setDate(today.minusDays(5));
-    schedule1.setDentist(testDentist);
-
-    Booking booking1 = new Booking();
-    booking1.setSchedule(schedule1);
-
-    Booking booking2 = new Booking();
-    booking2.setSchedule(schedule1);
-
-    List<Booking> bookings1 = Arrays.asList(booking1, booking2);
-    schedule1.setBookings(bookings1);
-
-    Schedule schedule2 = new Schedule();
-    schedule2.setId(2L);
-    schedule2.setDate(today.minusDays(10));
-    schedule2.setDentist(testDentist);
-
-    Booking booking3 = new Booking();
-    booking3.setSchedule(schedule2);
-
-    List<Booking> bookings2 = Collections.singletonList(booking3);
-    schedule2.setBookings(bookings2);
-
-    List<Schedule> scheduleHistory = Arrays.asList(schedule1, schedule2);
-
-    when(scheduleRepository.findByDateBetweenAndStatusNot(eq(startDate), eq(today), any(ScheduleStatus.class)))
-            .thenReturn(scheduleHistory);
+    when(dailyStatsRepository.sumByDate(startDate, today)).thenReturn(List.of(
+            dailyTotals(today.minusDays(5), 2, 2, 0, 0),
+            dailyTotals(today.minusDays(10), 3, 0, 1, 1)));
 
     // When
-    List<ScheduleHistoryResponse> result = scheduleService.getScheduleHistory();
+    List<ScheduleHistoryResponse> result = scheduleService.getScheduleHistory(null, null);
 
     // Then
-    verify(scheduleRepository).findByDateBetweenAndStatusNot(eq(startDate), eq(today), any(ScheduleStatus.class));
-
     assertNotNull(result);
     assertEquals(90, result.size()); // 90 days history
+    assertEquals(today.toString(), result.get(0).getDate());
+    assertEquals(startDate.toString(), result.get(89).getDate());
 
-    // Verify the booking counts are correct for the dates with schedules
+    // Verify the booking counts are correct for the dates with bookings
     for (ScheduleHistoryResponse response : result) {
       if (response.getDate().equals(today.minusDays(5).toString())) {
         assertEquals(2, response.getAppointmentCount());
+        assertEquals(2, response.getFinishedCount());
       } else if (response.getDate().equals(today.minusDays(10).toString())) {
-        assertEquals(1, response.getAppointmentCount());
+        assertEquals(3, response.getAppointmentCount());
+        assertEquals(1, response.getCancelledCount());
+        assertEquals(1, response.getAbsentCount());
       } else {
         assertEquals(0, response.getAppointmentCount());
       }
     }
   }
 
+  @Test
+  void getScheduleHistory_SupportsLongRanges() {
+    LocalDate from = LocalDate.of(2023, 1, 1);
+    LocalDate to = LocalDate.of(2024, 12, 31);
+    when(dailyStatsRepository.sumByDate(from, to)).thenReturn(List.of(dailyTotals(from, 4, 4, 0, 0)));
+
+    List<ScheduleHistoryResponse> result = scheduleService.getScheduleHistory(from, to);
+
+    assertEquals(731, result.size());
+    assertEquals("2024-12-31", result.get(0).getDate());
+    assertEquals(4, result.get(730).getAppointmentCount());
+    verify(dailyStatsRepository).sumByDate(from, to);
+  }
+
+  @Test
+  void getScheduleHistory_RejectsInvalidRanges() {
+    LocalDate today = LocalDate.now();
+
+    assertThrows(BadRequestException.class, () -> scheduleService.getScheduleHistory(today, today.minusDays(1)));
+    assertThrows(BadRequestException.class, () -> scheduleService.getScheduleHistory(today.minusYears(20), today));
+    verifyNoInteractions(dailyStatsRepository);
+  }
+
   @Test
   void getUpcomingSchedules_RequestsPageableWithCorrectSorting() {
     // Given
@@ -929,6 +1140,8 @@ public class ScheduleServiceImplTest {
     Page<Schedule> schedulePage = new PageImpl<>(Collections.singletonList(schedule));
 
     when(scheduleRepository.findByStatus(eq(ScheduleStatus.AVAILABLE), any(Pageable.class))).thenReturn(schedulePage);
+    when(bookingRepository.countByScheduleIdsAndStatus(List.of(1L)))
+            .thenReturn(List.of(bookingCount(1L, BookingStatus.PENDING, 4)));
 
     // When
     List<UpcomingScheduleResponse> result = scheduleService.getUpcomingSchedules();
@@ -951,6 +1164,7 @@ public class ScheduleServiceImplTest {
 
     assertNotNull(result);
     assertEquals(1, result.size());
+    assertEquals(4, result.get(0).getAppointmentCount());
   }
 
   @Test
@@ -1197,7 +1411,6 @@ public class ScheduleServiceImplTest {
 
     when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
     when(scheduleRepository.save(any(Schedule.class))).thenReturn(schedule);
-    when(modelMapper.map(any(Schedule.class), eq(ScheduleResponseDTO.class))).thenReturn(testScheduleResponseDTO);
 
     // When
     scheduleService.updateScheduleStatus(1L, "FULL");
@@ -1235,7 +1448,8 @@ public class ScheduleServiceImplTest {
 
     when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
     when(scheduleRepository.save(any(Schedule.class))).thenReturn(schedule);
-    when(modelMapper.map(any(Schedule.class), eq(ScheduleResponseDTO.class))).thenReturn(testScheduleResponseDTO);
+    when(bookingRepository.countByScheduleIdsAndStatus(List.of(1L)))
+            .thenReturn(List.of(bookingCount(1L, BookingStatus.PENDING, 1)));
 
     // When
     scheduleService.updateScheduleStatus(1L, "UNAVAILABLE");
@@ -1253,6 +1467,7 @@ public class ScheduleServiceImplTest {
     verify(bookingRepository, never()).save(any(Booking.class));
     verify(emailService, never()).sendBookingCancellation(any(BookingResponseDTO.class));
     verify(emailService, never()).sendBookingActivation(any(BookingResponseDTO.class));
+    verify(eventPublisher).publishEvent(new ScheduleChangedEvent(1L));
   }
 
   @Test
@@ -1276,4 +1491,125 @@ public class ScheduleServiceImplTest {
     verify(scheduleRepository).findById(1L);
     verify(scheduleRepository, never()).save(any(Schedule.class));
   }
-}
\ No newline at end of file
+
+  @Test
+  void getAllSchedules_CountsBookingsInBatches() {
+    // Given
+    List<Schedule> schedules = new ArrayList<>();
+    for (long id = 1; id <= 1500; id++) {
+      Schedule schedule = new Schedule();
+      schedule.setId(id);
+      schedule.setStatus(ScheduleStatus.AVAILABLE);
+      schedules.add(schedule);
+    }
+    when(scheduleRepository.findAll()).thenReturn(schedules);
+    when(bookingRepository.countByScheduleIdsAndStatus(anyCollection()))
+            .thenReturn(List.of())
+            .thenReturn(List.of(bookingCount(1200L, BookingStatus.PENDING, 3)));
+
+    // When
+    List<ScheduleResponseDTO> result = scheduleService.getAllSchedules();
+
+    // Then
+    verify(bookingRepository, times(2)).countByScheduleIdsAndStatus(anyCollection());
+    assertEquals(3, result.get(1199).getNumberOfBookings());
+    assertEquals(0, result.get(0).getNumberOfBookings());
+  }
+
+  private double transitioned(String job, String entity) {
+    return meterRegistry.get("app.schedule.job.transitioned.count").tag("job", job).tag("entity", entity).counter().count();
+  }
+
+  private static ScheduleBookingCount bookingCount(Long scheduleId, BookingStatus status, long total) {
+    return new ScheduleBookingCount() {
+      @Override
+      public Long getScheduleId() {
+        return scheduleId;
+      }
+
+      @Override
+      public BookingStatus getBookingStatus() {
+        return status;
+      }
+
+      @Override
+      public Long getTotal() {
+        return total;
+      }
+    };
+  }
+
+  private static DailyBookingTotals dailyTotals(LocalDate date, long created, long finished, long cancelled, long absent) {
+    return new DailyBookingTotals() {
+      @Override
+      public LocalDate getStatDate() {
+        return date;
+      }
+
+      @Override
+      public Long getCreated() {
+        return created;
+      }
+
+      @Override
+      public Long getFinished() {
+        return finished;
+      }
+
+      @Override
+      public Long getCancelled() {
+        return cancelled;
+      }
+
+      @Override
+      public Long getAbsent() {
+        return absent;
+      }
+    };
+  }
+
+  private static LocalDate nextMonday() {
+    return LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+  }
+
+  private static CreateRecurringSchedulesDTO recurrence(LocalDate startDate, Integer weeks) {
+    return CreateRecurringSchedulesDTO.builder()
+            .dentistId(1L)
+            .daysOfWeek(Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY))
+            .startDate(startDate)
+            .weeks(weeks)
+            .startTime(LocalTime.of(16, 0))
+            .endTime(LocalTime.of(20, 0))
+            .capacity(20)
+            .build();
+  }
+
+  private static ScheduleInterval scheduleInterval(Long id, LocalDate date, LocalTime start, LocalTime end) {
+    return new ScheduleInterval() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Long getDentistId() {
+        return 1L;
+      }
+
+      @Override
+      public LocalDate getDate() {
+        return date;
+      }
+
+      @Override
+      public LocalTime getStartTime() {
+        return start;
+      }
+
+      @Override
+      public LocalTime getEndTime() {
+        return end;
+      }
+    };
+  }
+}
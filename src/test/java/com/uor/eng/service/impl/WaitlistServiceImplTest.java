@@ -0,0 +1,249 @@
+package com.uor.eng.service.impl;
+
+import com.uor.eng.event.BookingStatusChangedEvent;
+import com.uor.eng.event.ScheduleChangedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
+import com.uor.eng.exceptions.BadRequestException;
+import com.uor.eng.exceptions.ResourceNotFoundException;
+import com.uor.eng.model.*;
+import com.uor.eng.payload.booking.BookingResponseDTO;
+import com.uor.eng.payload.booking.CreateBookingDTO;
+import com.uor.eng.payload.booking.WaitlistEntryResponse;
+import com.uor.eng.repository.BookingRepository;
+import com.uor.eng.repository.ReferenceIdBlockRepository;
+import com.uor.eng.repository.ScheduleRepository;
+import com.uor.eng.repository.WaitlistEntryRepository;
+import com.uor.eng.util.EmailService;
+import com.uor.eng.util.ReferenceIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WaitlistServiceImplTest {
+
+  @Mock
+  private WaitlistEntryRepository waitlistRepository;
+
+  @Mock
+  private ScheduleRepository scheduleRepository;
+
+  @Mock
+  private BookingRepository bookingRepository;
+
+  @Mock
+  private EmailService emailService;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  private WaitlistServiceImpl waitlistService;
+  private Schedule schedule;
+  private CreateBookingDTO bookingDTO;
+
+  @BeforeEach
+  public void setUp() {
+    waitlistService = new WaitlistServiceImpl(waitlistRepository, scheduleRepository, bookingRepository, emailService,
+            new ReferenceIdGenerator(0, "test-secret", mock(ReferenceIdBlockRepository.class)), eventPublisher, 2);
+
+    Dentist dentist = new Dentist();
+    dentist.setFirstName("Dr. Smith");
+    schedule = Schedule.builder()
+            .id(1L)
+            .date(LocalDate.now().plusDays(1))
+            .dayOfWeek("MONDAY")
+            .startTime(LocalTime.of(9, 0))
+            .status(ScheduleStatus.FULL)
+            .capacity(10)
+            .availableSlots(0)
+            .dentist(dentist)
+            .build();
+
+    bookingDTO = new CreateBookingDTO();
+    bookingDTO.setScheduleId(1L);
+    bookingDTO.setName("John Doe");
+    bookingDTO.setNic("123456789V");
+    bookingDTO.setContactNumber("0771234567");
+    bookingDTO.setEmail("john@example.com");
+    bookingDTO.setAddress("123 Main St");
+  }
+
+  @Test
+  public void testJoinWaitlist_FullSchedule() {
+    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
+    when(waitlistRepository.countByScheduleIdAndStatus(1L, WaitlistStatus.WAITING)).thenReturn(1L);
+    when(waitlistRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> {
+      WaitlistEntry entry = invocation.getArgument(0);
+      entry.setId(5L);
+      return entry;
+    });
+    when(waitlistRepository.countByScheduleIdAndStatusAndIdLessThan(1L, WaitlistStatus.WAITING, 5L)).thenReturn(1L);
+
+    WaitlistEntryResponse response = waitlistService.joinWaitlist(bookingDTO);
+
+    assertEquals(5L, response.getId());
+    assertEquals(WaitlistStatus.WAITING, response.getStatus());
+    assertEquals(2L, response.getPosition());
+    assertEquals(schedule.getDate(), response.getScheduleDate());
+  }
+
+  @Test
+  public void testJoinWaitlist_RejectsBookableSchedule() {
+    schedule.setStatus(ScheduleStatus.AVAILABLE);
+    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
+
+    BadRequestException exception = assertThrows(BadRequestException.class, () -> waitlistService.joinWaitlist(bookingDTO));
+
+    assertTrue(exception.getMessage().contains("book it directly"));
+    verify(waitlistRepository, never()).save(any());
+  }
+
+  @Test
+  public void testJoinWaitlist_RejectsDuplicateNic() {
+    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
+    when(waitlistRepository.existsByScheduleIdAndNicAndStatus(1L, "123456789V", WaitlistStatus.WAITING)).thenReturn(true);
+
+    assertThrows(BadRequestException.class, () -> waitlistService.joinWaitlist(bookingDTO));
+    verify(waitlistRepository, never()).save(any());
+  }
+
+  @Test
+  public void testJoinWaitlist_RejectsWhenQueueIsFull() {
+    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
+    when(waitlistRepository.countByScheduleIdAndStatus(1L, WaitlistStatus.WAITING)).thenReturn(2L);
+
+    BadRequestException exception = assertThrows(BadRequestException.class, () -> waitlistService.joinWaitlist(bookingDTO));
+
+    assertTrue(exception.getMessage().contains("waitlist"));
+    verify(waitlistRepository, never()).save(any());
+  }
+
+  @Test
+  public void testJoinWaitlist_ScheduleNotFound() {
+    when(scheduleRepository.findById(1L)).thenReturn(Optional.empty());
+
+    assertThrows(ResourceNotFoundException.class, () -> waitlistService.joinWaitlist(bookingDTO));
+  }
+
+  @Test
+  public void testPromoteNext_BooksHeadOfQueueIntoFreedSlot() {
+    WaitlistEntry head = entry(3L);
+    when(waitlistRepository.findFirstByScheduleIdAndStatusOrderByIdAsc(1L, WaitlistStatus.WAITING)).thenReturn(Optional.of(head));
+    when(waitlistRepository.markPromoted(eq(3L), anyString(), any())).thenReturn(1);
+    when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    assertTrue(waitlistService.promoteNext(schedule, 4));
+
+    ArgumentCaptor<Booking> booking = ArgumentCaptor.forClass(Booking.class);
+    verify(bookingRepository).save(booking.capture());
+    assertEquals(4, booking.getValue().getAppointmentNumber());
+    assertEquals("123456789V", booking.getValue().getNic());
+    assertSame(schedule, booking.getValue().getSchedule());
+    assertTrue(ReferenceIdGenerator.isWellFormed(booking.getValue().getReferenceId()));
+    verify(waitlistRepository).markPromoted(eq(3L), eq(booking.getValue().getReferenceId()), any());
+    verify(eventPublisher).publishEvent(any(BookingStatusChangedEvent.class));
+    verify(emailService).sendBookingConfirmation(any(BookingResponseDTO.class));
+  }
+
+  @Test
+  public void testPromoteNext_MovesPastEntriesClaimedConcurrently() {
+    when(waitlistRepository.findFirstByScheduleIdAndStatusOrderByIdAsc(1L, WaitlistStatus.WAITING))
+            .thenReturn(Optional.of(entry(3L))).thenReturn(Optional.of(entry(4L)));
+    when(waitlistRepository.markPromoted(eq(3L), anyString(), any())).thenReturn(0);
+    when(waitlistRepository.markPromoted(eq(4L), anyString(), any())).thenReturn(1);
+    when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    assertTrue(waitlistService.promoteNext(schedule, 4));
+    verify(bookingRepository, times(1)).save(any(Booking.class));
+  }
+
+  @Test
+  public void testPromoteNext_EmptyQueueLeavesSlotFree() {
+    when(waitlistRepository.findFirstByScheduleIdAndStatusOrderByIdAsc(1L, WaitlistStatus.WAITING)).thenReturn(Optional.empty());
+
+    assertFalse(waitlistService.promoteNext(schedule, 4));
+    verifyNoInteractions(bookingRepository, emailService);
+  }
+
+  @Test
+  public void testPromoteNext_SkipsScheduleThatCannotBeBooked() {
+    schedule.setStatus(ScheduleStatus.CANCELLED);
+
+    assertFalse(waitlistService.promoteNext(schedule, 4));
+    verifyNoInteractions(waitlistRepository, bookingRepository);
+  }
+
+  @Test
+  public void testCancelEntry_AlreadyPromoted() {
+    when(waitlistRepository.findByIdAndContactNumber(3L, "0771234567")).thenReturn(Optional.of(entry(3L)));
+    when(waitlistRepository.markCancelled(3L)).thenReturn(0);
+
+    assertThrows(BadRequestException.class, () -> waitlistService.cancelEntry(3L, "0771234567"));
+  }
+
+  @Test
+  public void testGetEntry_WrongContactNumber() {
+    when(waitlistRepository.findByIdAndContactNumber(3L, "0700000000")).thenReturn(Optional.empty());
+
+    assertThrows(ResourceNotFoundException.class, () -> waitlistService.getEntry(3L, "0700000000"));
+  }
+
+  @Test
+  public void testOnScheduleChanged_ExpiresQueueOfClosedSchedule() {
+    schedule.setStatus(ScheduleStatus.CANCELLED);
+    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
+
+    waitlistService.onScheduleChanged(new ScheduleChangedEvent(1L));
+
+    verify(waitlistRepository).expireWaiting(1L);
+  }
+
+  @Test
+  public void testOnScheduleChanged_KeepsQueueOfFullSchedule() {
+    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
+
+    waitlistService.onScheduleChanged(new ScheduleChangedEvent(1L));
+
+    verify(waitlistRepository, never()).expireWaiting(anyLong());
+  }
+
+  @Test
+  public void testOnSchedulesTransitioned_ExpiresQueuesOfFinishedSchedules() {
+    waitlistService.onSchedulesTransitioned(
+            new SchedulesTransitionedEvent(List.of(1L, 2L), ScheduleStatus.FINISHED, BookingStatus.FINISHED));
+
+    verify(waitlistRepository).expireWaitingBySchedules(List.of(1L, 2L));
+  }
+
+  @Test
+  public void testOnSchedulesTransitioned_KeepsQueuesOfOpenedSchedules() {
+    waitlistService.onSchedulesTransitioned(new SchedulesTransitionedEvent(List.of(1L), ScheduleStatus.AVAILABLE, null));
+
+    verify(waitlistRepository, never()).expireWaitingBySchedules(anyCollection());
+  }
+
+  private WaitlistEntry entry(Long id) {
+    return WaitlistEntry.builder()
+            .id(id)
+            .schedule(schedule)
+            .name("John Doe")
+            .nic("123456789V")
+            .contactNumber("0771234567")
+            .email("john@example.com")
+            .address("123 Main St")
+            .build();
+  }
+}
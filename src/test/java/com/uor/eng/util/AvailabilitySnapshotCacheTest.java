@@ -0,0 +1,154 @@
+package com.uor.eng.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uor.eng.event.BookingStatusChangedEvent;
+import com.uor.eng.event.ScheduleChangedEvent;
+import com.uor.eng.event.SchedulesCreatedEvent;
+import com.uor.eng.exceptions.ResourceNotFoundException;
+import com.uor.eng.model.BookingStatus;
+import com.uor.eng.payload.schedule.ScheduleResponseDTO;
+import com.uor.eng.service.IScheduleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AvailabilitySnapshotCacheTest {
+
+  @Mock
+  private IScheduleService scheduleService;
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  private AvailabilitySnapshotCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = new AvailabilitySnapshotCache(scheduleService, objectMapper, 60_000);
+  }
+
+  @Test
+  void getSeven_shouldLoadOnceAndLeaveOutBookingRows() throws Exception {
+    ScheduleResponseDTO schedule = schedule(1L, 5, 2);
+    schedule.setBookings(List.of());
+    when(scheduleService.getNextSevenSchedules()).thenReturn(List.of(schedule));
+
+    AvailabilitySnapshotCache.Feed first = cache.getSeven();
+    AvailabilitySnapshotCache.Feed second = cache.getSeven();
+    cache.getSevenCustom();
+
+    assertSame(first, second);
+    assertTrue(objectMapper.readTree(first.json()).get(0).get("bookings").isNull());
+    verify(scheduleService, times(1)).getNextSevenSchedules();
+  }
+
+  @Test
+  void onBookingStatusChanged_shouldPatchListedScheduleInPlace() throws Exception {
+    when(scheduleService.getNextSevenSchedules()).thenReturn(List.of(schedule(1L, 5, 2), schedule(2L, 5, 0)));
+    String etag = cache.getSeven().etag();
+
+    cache.onBookingStatusChanged(created(1L));
+    cache.onBookingStatusChanged(new BookingStatusChangedEvent("REF2", 1L, 1L, LocalDate.now(), LocalDate.now(),
+        BookingStatus.PENDING, BookingStatus.CANCELLED));
+
+    AvailabilitySnapshotCache.Feed patched = cache.getSeven();
+    JsonNode first = objectMapper.readTree(patched.json()).get(0);
+    assertEquals(4, first.get("availableSlots").asInt());
+    assertEquals(3, first.get("numberOfBookings").asInt());
+    assertNotEquals(etag, patched.etag());
+    assertTrue(patched.matches(patched.etag()));
+    verify(scheduleService, times(1)).getNextSevenSchedules();
+  }
+
+  @Test
+  void onBookingStatusChanged_shouldRebuildWhenListedScheduleFillsUp() {
+    when(scheduleService.getNextSevenSchedules()).thenReturn(List.of(schedule(1L, 1, 0)));
+    cache.getSeven();
+
+    cache.onBookingStatusChanged(created(1L));
+    cache.getSeven();
+
+    verify(scheduleService, times(2)).getNextSevenSchedules();
+  }
+
+  @Test
+  void onBookingStatusChanged_shouldOnlyRebuildForDeletionsOnUnlistedSchedules() {
+    when(scheduleService.getNextSevenSchedules()).thenReturn(List.of(schedule(1L, 5, 0)));
+    cache.getSeven();
+
+    cache.onBookingStatusChanged(created(9L));
+    cache.getSeven();
+    verify(scheduleService, times(1)).getNextSevenSchedules();
+
+    cache.onBookingStatusChanged(new BookingStatusChangedEvent("REF1", 9L, 1L, LocalDate.now(), LocalDate.now(),
+        BookingStatus.PENDING, null));
+    cache.getSeven();
+    verify(scheduleService, times(2)).getNextSevenSchedules();
+  }
+
+  @Test
+  void onScheduleChanged_shouldRebuild() {
+    when(scheduleService.getNextSevenSchedules()).thenReturn(List.of(schedule(1L, 5, 0)));
+    cache.getSeven();
+
+    cache.onScheduleChanged(new ScheduleChangedEvent(1L));
+    cache.getSevenCustom();
+
+    verify(scheduleService, times(2)).getNextSevenSchedules();
+  }
+
+  @Test
+  void onSchedulesCreated_shouldRebuild() {
+    when(scheduleService.getNextSevenSchedules()).thenReturn(List.of(schedule(1L, 5, 0)));
+    cache.getSeven();
+
+    cache.onSchedulesCreated(new SchedulesCreatedEvent(1L, LocalDate.now(), LocalDate.now().plusWeeks(12)));
+    cache.getSeven();
+
+    verify(scheduleService, times(2)).getNextSevenSchedules();
+  }
+
+  @Test
+  void getSeven_shouldCacheEmptyResultAsNotFound() {
+    when(scheduleService.getNextSevenSchedules()).thenThrow(new ResourceNotFoundException("No schedules found for the next 7 days."));
+
+    assertThrows(ResourceNotFoundException.class, () -> cache.getSeven());
+    assertThrows(ResourceNotFoundException.class, () -> cache.getSevenCustom());
+    verify(scheduleService, times(1)).getNextSevenSchedules();
+  }
+
+  @Test
+  void feedMatches_shouldAcceptListsAndWeakTags() {
+    AvailabilitySnapshotCache.Feed feed = new AvailabilitySnapshotCache.Feed(new byte[0], "\"abc\"");
+
+    assertTrue(feed.matches("\"x\", \"abc\""));
+    assertTrue(feed.matches("W/\"abc\""));
+    assertFalse(feed.matches("\"abd\""));
+    assertFalse(feed.matches(null));
+  }
+
+  private static ScheduleResponseDTO schedule(Long id, int availableSlots, int numberOfBookings) {
+    return ScheduleResponseDTO.builder()
+        .id(id)
+        .date(LocalDate.now().plusDays(id))
+        .dayOfWeek("MONDAY")
+        .status("AVAILABLE")
+        .capacity(availableSlots + numberOfBookings)
+        .availableSlots(availableSlots)
+        .numberOfBookings(numberOfBookings)
+        .build();
+  }
+
+  private static BookingStatusChangedEvent created(Long scheduleId) {
+    return new BookingStatusChangedEvent("REF1", scheduleId, 1L, LocalDate.now(), LocalDate.now(), null, BookingStatus.PENDING);
+  }
+}
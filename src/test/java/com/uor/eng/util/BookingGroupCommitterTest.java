@@ -0,0 +1,225 @@
+package com.uor.eng.util;
+
+import com.uor.eng.exceptions.BadRequestException;
+import com.uor.eng.payload.booking.BookingResponseDTO;
+import com.uor.eng.payload.booking.CreateBookingDTO;
+import com.uor.eng.repository.ScheduleRepository;
+import com.uor.eng.service.IBookingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingGroupCommitterTest {
+
+  @Mock
+  private IBookingService bookingService;
+
+  @Mock
+  private ScheduleRepository scheduleRepository;
+
+  private SimpleMeterRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+  }
+
+  private BookingGroupCommitter committer(boolean enabled, int maxBatchSize, long maxLingerMs) {
+    return committer(enabled, maxBatchSize, maxLingerMs, 10_000);
+  }
+
+  private BookingGroupCommitter committer(boolean enabled, int maxBatchSize, long maxLingerMs, long awaitTimeoutMs) {
+    return new BookingGroupCommitter(bookingService, scheduleRepository, new ScheduleSlotAllocator(5000), registry,
+            enabled, maxBatchSize, maxLingerMs, awaitTimeoutMs);
+  }
+
+  private static CreateBookingDTO request(String name) {
+    CreateBookingDTO dto = new CreateBookingDTO();
+    dto.setScheduleId(1L);
+    dto.setName(name);
+    return dto;
+  }
+
+  private static List<BookingResponseDTO> respond(List<CreateBookingDTO> dtos, int limit) {
+    List<BookingResponseDTO> responses = new ArrayList<>();
+    for (int i = 0; i < Math.min(limit, dtos.size()); i++) {
+      BookingResponseDTO response = new BookingResponseDTO();
+      response.setName(dtos.get(i).getName());
+      responses.add(response);
+    }
+    return responses;
+  }
+
+  @Test
+  void testDisabled_DelegatesToSingleBookingPath() {
+    BookingResponseDTO response = new BookingResponseDTO();
+    CreateBookingDTO dto = request("John Doe");
+    when(bookingService.createBooking(dto)).thenReturn(response);
+
+    assertSame(response, committer(false, 32, 5).createBooking(dto));
+    verify(bookingService, never()).createBookingBatch(anyLong(), anyList());
+  }
+
+  @Test
+  void testSingleRequest_IsCommittedAsBatchOfOne() {
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(5));
+    when(bookingService.createBookingBatch(eq(1L), anyList())).thenAnswer(invocation -> respond(invocation.getArgument(1), 5));
+
+    BookingResponseDTO response = committer(true, 32, 0).createBooking(request("John Doe"));
+
+    assertEquals("John Doe", response.getName());
+    verify(bookingService).createBookingBatch(eq(1L), argThat(list -> list.size() == 1));
+  }
+
+  @Test
+  void testFullSchedule_IsRejectedWithoutBatching() {
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(0));
+
+    BadRequestException exception = assertThrows(BadRequestException.class,
+            () -> committer(true, 32, 5).createBooking(request("John Doe")));
+
+    assertTrue(exception.getMessage().contains("currently full"));
+    verifyNoInteractions(bookingService);
+    assertEquals(1.0, registry.get("app.booking.group-commit.rejected.count").counter().count());
+  }
+
+  @Test
+  void testBatchFailure_IsReportedToEveryCaller() {
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(5));
+    when(bookingService.createBookingBatch(eq(1L), anyList()))
+            .thenThrow(new BadRequestException("Cannot create booking. The selected schedule is currently unavailable."));
+
+    BadRequestException exception = assertThrows(BadRequestException.class,
+            () -> committer(true, 32, 0).createBooking(request("John Doe")));
+
+    assertTrue(exception.getMessage().contains("currently unavailable"));
+  }
+
+  @Test
+  void testUnexpectedBatchFailure_FailsOnlyTheOffendingRequest() throws Exception {
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(5));
+    when(bookingService.createBookingBatch(eq(1L), anyList()))
+            .thenThrow(new IllegalStateException("Validation failed for classes [Booking]"));
+    when(bookingService.createBooking(any())).thenAnswer(invocation -> {
+      CreateBookingDTO dto = invocation.getArgument(0);
+      if (dto.getName().equals("Bad")) {
+        throw new BadRequestException("Unable to create booking. Please try again later.");
+      }
+      return respond(List.of(dto), 1).get(0);
+    });
+
+    // The batch closes as soon as both requests are in
+    BookingGroupCommitter committer = committer(true, 2, 5_000);
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    Future<BookingResponseDTO> good = pool.submit(() -> committer.createBooking(request("Good")));
+    Future<BookingResponseDTO> bad = pool.submit(() -> committer.createBooking(request("Bad")));
+
+    assertEquals("Good", good.get(10, TimeUnit.SECONDS).getName());
+    ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(10, TimeUnit.SECONDS));
+    assertInstanceOf(BadRequestException.class, failure.getCause());
+    pool.shutdown();
+    verify(bookingService, times(1)).createBookingBatch(eq(1L), anyList());
+    verify(bookingService, times(2)).createBooking(any());
+  }
+
+  @Test
+  void testTimedOutFollower_IsWithdrawnBeforeTheBatchStarts() throws Exception {
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(5));
+    when(bookingService.createBookingBatch(eq(1L), anyList())).thenAnswer(invocation -> respond(invocation.getArgument(1), 5));
+
+    // The leader lingers well past the followers' timeout
+    BookingGroupCommitter committer = committer(true, 3, 1_000, 100);
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    Future<BookingResponseDTO> leader = pool.submit(() -> committer.createBooking(request("Leader")));
+    Thread.sleep(200);
+    Future<BookingResponseDTO> follower = pool.submit(() -> committer.createBooking(request("Follower")));
+
+    ExecutionException failure = assertThrows(ExecutionException.class, () -> follower.get(10, TimeUnit.SECONDS));
+    assertTrue(failure.getCause().getMessage().contains("high demand"));
+    assertEquals("Leader", leader.get(10, TimeUnit.SECONDS).getName());
+    pool.shutdown();
+    verify(bookingService).createBookingBatch(eq(1L), argThat(dtos -> dtos.size() == 1));
+  }
+
+  @Test
+  void testTimedOutFollower_WaitsForABatchAlreadyCommitting() throws Exception {
+    CountDownLatch committing = new CountDownLatch(1);
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(5));
+    when(bookingService.createBookingBatch(eq(1L), anyList())).thenAnswer(invocation -> {
+      committing.countDown();
+      // Outlast the followers' timeout
+      Thread.sleep(300);
+      return respond(invocation.getArgument(1), 5);
+    });
+
+    BookingGroupCommitter committer = committer(true, 2, 5_000, 100);
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    Future<BookingResponseDTO> first = pool.submit(() -> committer.createBooking(request("First")));
+    Future<BookingResponseDTO> second = pool.submit(() -> committer.createBooking(request("Second")));
+
+    assertTrue(committing.await(10, TimeUnit.SECONDS));
+    assertEquals("First", first.get(10, TimeUnit.SECONDS).getName());
+    assertEquals("Second", second.get(10, TimeUnit.SECONDS).getName());
+    pool.shutdown();
+    verify(bookingService, times(1)).createBookingBatch(eq(1L), anyList());
+  }
+
+  @Test
+  void testConcurrentRequests_AreGroupedAndCappedAtCapacity() throws Exception {
+    int capacity = 10;
+    int callers = 24;
+    AtomicInteger remaining = new AtomicInteger(capacity);
+    List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    when(scheduleRepository.findAvailableSlotsById(1L)).thenReturn(Optional.of(capacity + 5));
+    when(bookingService.createBookingBatch(eq(1L), anyList())).thenAnswer(invocation -> {
+      List<CreateBookingDTO> dtos = invocation.getArgument(1);
+      batchSizes.add(dtos.size());
+      int granted = Math.min(dtos.size(), Math.max(remaining.get(), 0));
+      remaining.addAndGet(-granted);
+      return respond(dtos, granted);
+    });
+
+    BookingGroupCommitter committer = committer(true, 8, 50);
+    ExecutorService pool = Executors.newFixedThreadPool(callers);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Boolean>> results = new ArrayList<>();
+    for (int i = 0; i < callers; i++) {
+      String name = "Patient " + i;
+      results.add(pool.submit(() -> {
+        start.await();
+        try {
+          return committer.createBooking(request(name)) != null;
+        } catch (BadRequestException e) {
+          return false;
+        }
+      }));
+    }
+    start.countDown();
+
+    int booked = 0;
+    for (Future<Boolean> result : results) {
+      if (result.get(10, TimeUnit.SECONDS)) {
+        booked++;
+      }
+    }
+    pool.shutdown();
+
+    assertEquals(capacity, booked);
+    assertTrue(batchSizes.stream().allMatch(size -> size <= 8));
+    assertTrue(batchSizes.size() < capacity + 5, "requests should have been grouped: " + batchSizes);
+  }
+}
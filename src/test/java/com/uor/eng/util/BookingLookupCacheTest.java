@@ -0,0 +1,126 @@
+package com.uor.eng.util;
+
+import com.uor.eng.event.BookingStatusChangedEvent;
+import com.uor.eng.event.ScheduleChangedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
+import com.uor.eng.model.BookingStatus;
+import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.payload.booking.BookingResponseDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookingLookupCacheTest {
+
+  private SimpleMeterRegistry registry;
+  private BookingLookupCache cache;
+  private AtomicInteger loads;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    cache = new BookingLookupCache(registry, 100, 60_000);
+    loads = new AtomicInteger();
+  }
+
+  @Test
+  void get_shouldLoadOnceAndServeRepeatLookupsFromCache() {
+    BookingResponseDTO booking = booking("REF1", 1L);
+
+    assertEquals(Optional.of(booking), cache.get("REF1", "0771234567", loader(booking)));
+    assertEquals(Optional.of(booking), cache.get("REF1", "0771234567", loader(booking)));
+
+    assertEquals(1, loads.get());
+    assertEquals(1.0, registry.get("cache.gets").tag("cache", "booking.lookup").tag("result", "hit").functionCounter().count());
+    assertEquals(1.0, registry.get("cache.gets").tag("cache", "booking.lookup").tag("result", "miss").functionCounter().count());
+  }
+
+  @Test
+  void get_shouldRejectWrongContactNumberForCachedBooking() {
+    BookingResponseDTO booking = booking("REF1", 1L);
+    cache.get("REF1", "0771234567", loader(booking));
+
+    assertTrue(cache.get("REF1", "0700000000", loader(booking)).isEmpty());
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void get_shouldNotCacheMissingBookings() {
+    assertTrue(cache.get("REF1", "0771234567", loader(null)).isEmpty());
+    assertTrue(cache.get("REF1", "0771234567", loader(null)).isEmpty());
+
+    assertEquals(2, loads.get());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void onBookingStatusChanged_shouldEvictTheBooking() {
+    cache.get("REF1", "0771234567", loader(booking("REF1", 1L)));
+    cache.get("REF2", "0771234567", loader(booking("REF2", 1L)));
+
+    cache.onBookingStatusChanged(new BookingStatusChangedEvent("REF1", 1L, 1L, LocalDate.now(), LocalDate.now(),
+        BookingStatus.PENDING, BookingStatus.CANCELLED));
+
+    assertEquals(1, cache.size());
+    cache.get("REF1", "0771234567", loader(booking("REF1", 1L)));
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  void onScheduleChanged_shouldEvictOnlyBookingsOfThatSchedule() {
+    cache.get("REF1", "0771234567", loader(booking("REF1", 1L)));
+    cache.get("REF2", "0771234567", loader(booking("REF2", 1L)));
+    cache.get("REF3", "0771234567", loader(booking("REF3", 2L)));
+
+    cache.onScheduleChanged(new ScheduleChangedEvent(1L));
+
+    assertEquals(1, cache.size());
+    cache.get("REF3", "0771234567", loader(booking("REF3", 2L)));
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  void onSchedulesTransitioned_shouldEvictBookingsOfAllListedSchedules() {
+    cache.get("REF1", "0771234567", loader(booking("REF1", 1L)));
+    cache.get("REF2", "0771234567", loader(booking("REF2", 2L)));
+    cache.get("REF3", "0771234567", loader(booking("REF3", 3L)));
+
+    cache.onSchedulesTransitioned(new SchedulesTransitionedEvent(List.of(1L, 2L), ScheduleStatus.FINISHED,
+        BookingStatus.FINISHED));
+
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void maximumSize_shouldBoundTheCache() {
+    BookingLookupCache small = new BookingLookupCache(registry, 10, 60_000);
+    for (int i = 0; i < 50; i++) {
+      small.get("REF" + i, "0771234567", loader(booking("REF" + i, 1L)));
+    }
+
+    assertTrue(small.size() <= 10);
+  }
+
+  private Supplier<Optional<BookingResponseDTO>> loader(BookingResponseDTO booking) {
+    return () -> {
+      loads.incrementAndGet();
+      return Optional.ofNullable(booking);
+    };
+  }
+
+  private static BookingResponseDTO booking(String referenceId, Long scheduleId) {
+    return BookingResponseDTO.builder()
+        .referenceId(referenceId)
+        .contactNumber("0771234567")
+        .scheduleId(scheduleId)
+        .build();
+  }
+}
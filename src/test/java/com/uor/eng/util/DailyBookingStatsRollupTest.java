@@ -0,0 +1,216 @@
+package com.uor.eng.util;
+
+import com.uor.eng.event.BookingStatusChangedEvent;
+import com.uor.eng.event.ScheduleMovedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
+import com.uor.eng.model.BookingStatus;
+import com.uor.eng.model.DailyBookingStats;
+import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.payload.dashboard.DailyStatusCount;
+import com.uor.eng.repository.BookingRepository;
+import com.uor.eng.repository.DailyBookingStatsRepository;
+import com.uor.eng.repository.ScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DailyBookingStatsRollupTest {
+
+  private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+  @Mock
+  private DailyBookingStatsRepository statsRepository;
+
+  @Mock
+  private BookingRepository bookingRepository;
+
+  @Mock
+  private ScheduleRepository scheduleRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Captor
+  private ArgumentCaptor<Iterable<DailyBookingStats>> rowsCaptor;
+
+  private DailyBookingStatsRollup rollup;
+
+  @BeforeEach
+  void setUp() {
+    rollup = new DailyBookingStatsRollup(statsRepository, bookingRepository, scheduleRepository, transactionManager, 10);
+  }
+
+  @Test
+  void onBookingStatusChanged_shouldCountNewBookings() {
+    when(statsRepository.addCounts(DAY, 1L, 1, 1, 0, 0, 0, 0)).thenReturn(1);
+
+    rollup.onBookingStatusChanged(event(null, BookingStatus.PENDING));
+
+    verify(statsRepository).addCounts(DAY, 1L, 1, 1, 0, 0, 0, 0);
+    verify(statsRepository, never()).saveAndFlush(any());
+  }
+
+  @Test
+  void onBookingStatusChanged_shouldMoveBookingBetweenStatusColumns() {
+    when(statsRepository.addCounts(DAY, 1L, 0, 0, -1, 0, 1, 0)).thenReturn(1);
+
+    rollup.onBookingStatusChanged(event(BookingStatus.ACTIVE, BookingStatus.CANCELLED));
+
+    verify(statsRepository).addCounts(DAY, 1L, 0, 0, -1, 0, 1, 0);
+  }
+
+  @Test
+  void onBookingStatusChanged_shouldUncountDeletedBookings() {
+    when(statsRepository.addCounts(DAY, 1L, -1, 0, 0, -1, 0, 0)).thenReturn(1);
+
+    rollup.onBookingStatusChanged(event(BookingStatus.FINISHED, null));
+
+    verify(statsRepository).addCounts(DAY, 1L, -1, 0, 0, -1, 0, 0);
+  }
+
+  @Test
+  void onBookingStatusChanged_shouldCreateMissingRowThenAdd() {
+    when(statsRepository.addCounts(DAY, 1L, 1, 1, 0, 0, 0, 0)).thenReturn(0, 1);
+
+    rollup.onBookingStatusChanged(event(null, BookingStatus.PENDING));
+
+    verify(statsRepository).saveAndFlush(DailyBookingStats.builder().statDate(DAY).dentistId(1L).build());
+    verify(statsRepository, times(2)).addCounts(DAY, 1L, 1, 1, 0, 0, 0, 0);
+  }
+
+  @Test
+  void onBookingStatusChanged_shouldAddToRowCreatedConcurrently() {
+    when(statsRepository.addCounts(DAY, 1L, 1, 1, 0, 0, 0, 0)).thenReturn(0, 1);
+    when(statsRepository.saveAndFlush(any(DailyBookingStats.class)))
+        .thenThrow(new DataIntegrityViolationException("uk_daily_booking_stats_date_dentist"));
+
+    rollup.onBookingStatusChanged(event(null, BookingStatus.PENDING));
+
+    verify(statsRepository, times(2)).addCounts(DAY, 1L, 1, 1, 0, 0, 0, 0);
+  }
+
+  @Test
+  void onBookingStatusChanged_shouldIgnoreUnchangedStatus() {
+    rollup.onBookingStatusChanged(event(BookingStatus.ACTIVE, BookingStatus.ACTIVE));
+
+    verifyNoInteractions(statsRepository);
+  }
+
+  @Test
+  void rebuild_shouldReplaceRowsFromBookingCounts() {
+    when(bookingRepository.countByAppointmentDateAndDentist(DAY, DAY)).thenReturn(List.of(
+        count(DAY, 1L, BookingStatus.FINISHED, 3),
+        count(DAY, 1L, BookingStatus.ABSENT, 1),
+        count(DAY, 2L, BookingStatus.CANCELLED, 2)));
+
+    assertEquals(2, rollup.rebuild(DAY, DAY));
+
+    verify(statsRepository).deleteByStatDateBetween(DAY, DAY);
+    verify(statsRepository).saveAll(rowsCaptor.capture());
+    assertThat(rowsCaptor.getValue()).containsExactly(
+        DailyBookingStats.builder().statDate(DAY).dentistId(1L).created(4).finished(3).absent(1).build(),
+        DailyBookingStats.builder().statDate(DAY).dentistId(2L).created(2).cancelled(2).build());
+  }
+
+  @Test
+  void rebuild_shouldWorkInChunksOfDays() {
+    LocalDate to = DAY.plusDays(24);
+
+    rollup.rebuild(DAY, to);
+
+    verify(statsRepository).deleteByStatDateBetween(DAY, DAY.plusDays(9));
+    verify(statsRepository).deleteByStatDateBetween(DAY.plusDays(10), DAY.plusDays(19));
+    verify(statsRepository).deleteByStatDateBetween(DAY.plusDays(20), to);
+    verify(transactionManager, times(3)).commit(any());
+  }
+
+  @Test
+  void onSchedulesTransitioned_shouldRebuildAffectedDays() {
+    when(scheduleRepository.findDatesByIds(List.of(1L, 2L))).thenReturn(List.of(DAY));
+
+    rollup.onSchedulesTransitioned(new SchedulesTransitionedEvent(List.of(1L, 2L), ScheduleStatus.FINISHED,
+        BookingStatus.FINISHED));
+
+    verify(statsRepository).deleteByStatDateBetween(DAY, DAY);
+  }
+
+  @Test
+  void onSchedulesTransitioned_shouldIgnoreScheduleOnlyTransitions() {
+    rollup.onSchedulesTransitioned(new SchedulesTransitionedEvent(List.of(1L), ScheduleStatus.FULL, null));
+
+    verifyNoInteractions(scheduleRepository, statsRepository);
+  }
+
+  @Test
+  void onScheduleMoved_shouldRebuildBothDays() {
+    rollup.onScheduleMoved(new ScheduleMovedEvent(1L, DAY, DAY.plusDays(3)));
+
+    verify(statsRepository).deleteByStatDateBetween(DAY, DAY);
+    verify(statsRepository).deleteByStatDateBetween(DAY.plusDays(3), DAY.plusDays(3));
+  }
+
+  @Test
+  void backfillIfEmpty_shouldRebuildAllScheduleDates() {
+    when(statsRepository.count()).thenReturn(0L);
+    when(scheduleRepository.findFirstDate()).thenReturn(Optional.of(DAY));
+    when(scheduleRepository.findLastDate()).thenReturn(Optional.of(DAY.plusDays(4)));
+
+    rollup.backfillIfEmpty();
+
+    verify(statsRepository).deleteByStatDateBetween(DAY, DAY.plusDays(4));
+  }
+
+  @Test
+  void backfillIfEmpty_shouldSkipWhenAlreadyBuilt() {
+    when(statsRepository.count()).thenReturn(12L);
+
+    rollup.backfillIfEmpty();
+
+    verify(statsRepository, never()).deleteByStatDateBetween(any(), any());
+    verifyNoInteractions(scheduleRepository);
+  }
+
+  private static BookingStatusChangedEvent event(BookingStatus previous, BookingStatus next) {
+    return new BookingStatusChangedEvent("REF1", 1L, 1L, DAY.minusDays(7), DAY, previous, next);
+  }
+
+  private static DailyStatusCount count(LocalDate date, Long dentistId, BookingStatus status, long total) {
+    return new DailyStatusCount() {
+      @Override
+      public LocalDate getStatDate() {
+        return date;
+      }
+
+      @Override
+      public Long getDentistId() {
+        return dentistId;
+      }
+
+      @Override
+      public BookingStatus getBookingStatus() {
+        return status;
+      }
+
+      @Override
+      public Long getTotal() {
+        return total;
+      }
+    };
+  }
+}
@@ -0,0 +1,213 @@
+package com.uor.eng.util;
+
+import com.uor.eng.event.ScheduleChangedEvent;
+import com.uor.eng.event.SchedulesCreatedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
+import com.uor.eng.model.BookingStatus;
+import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.payload.schedule.FreeSlotResponse;
+import com.uor.eng.payload.schedule.ScheduleInterval;
+import com.uor.eng.repository.ScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DentistScheduleIndexTest {
+
+  private static final LocalDate DAY = LocalDate.now().plusDays(3);
+
+  @Mock
+  private ScheduleRepository scheduleRepository;
+
+  private DentistScheduleIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new DentistScheduleIndex(scheduleRepository, 60_000, "08:00", "18:00");
+  }
+
+  @Test
+  void findConflict_shouldFindOverlapsButAllowAdjacentSchedules() {
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of(
+        interval(1L, 1L, DAY, 9, 12),
+        interval(2L, 1L, DAY, 14, 16)));
+
+    assertEquals(Optional.of(1L), index.findConflict(1L, DAY, LocalTime.of(11, 0), LocalTime.of(13, 0), null));
+    assertEquals(Optional.of(2L), index.findConflict(1L, DAY, LocalTime.of(13, 0), LocalTime.of(17, 0), null));
+    assertEquals(Optional.empty(), index.findConflict(1L, DAY, LocalTime.of(12, 0), LocalTime.of(14, 0), null));
+    assertEquals(Optional.empty(), index.findConflict(1L, DAY.plusDays(1), LocalTime.of(9, 0), LocalTime.of(12, 0), null));
+    // Loaded once
+    verify(scheduleRepository).findIntervalsByDentist(1L, ScheduleStatus.CANCELLED);
+  }
+
+  @Test
+  void findConflict_shouldFindLongScheduleStartingWellBefore() {
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of(
+        interval(1L, 1L, DAY, 8, 18),
+        interval(2L, 1L, DAY, 10, 11)));
+
+    assertEquals(Optional.of(1L), index.findConflict(1L, DAY, LocalTime.of(15, 0), LocalTime.of(16, 0), null));
+  }
+
+  @Test
+  void findConflict_shouldIgnoreTheScheduleBeingUpdated() {
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of(
+        interval(1L, 1L, DAY, 9, 12)));
+
+    assertEquals(Optional.empty(), index.findConflict(1L, DAY, LocalTime.of(10, 0), LocalTime.of(13, 0), 1L));
+  }
+
+  @Test
+  void findFreeSlots_shouldReturnGapsWithinWorkingHours() {
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of(
+        interval(1L, 1L, DAY, 9, 12),
+        interval(2L, 1L, DAY, 12, 13),
+        interval(3L, 1L, DAY, 16, 17)));
+
+    List<FreeSlotResponse> slots = index.findFreeSlots(1L, DAY, DAY.plusDays(1), Duration.ofMinutes(90));
+
+    assertEquals(List.of(
+        slot(DAY, 13, 16),
+        slot(DAY.plusDays(1), 8, 18)), slots);
+  }
+
+  @Test
+  void findFreeSlots_shouldLeaveOutTimeThatHasPassed() {
+    LocalDate past = LocalDate.now().minusDays(1);
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of());
+
+    assertTrue(index.findFreeSlots(1L, past, past, Duration.ofMinutes(30)).isEmpty());
+  }
+
+  @Test
+  void onScheduleChanged_shouldMoveTheScheduleToItsNewTime() {
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of(
+        interval(1L, 1L, DAY, 9, 12)));
+    index.findConflict(1L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 0), null);
+    when(scheduleRepository.findInterval(1L, ScheduleStatus.CANCELLED))
+        .thenReturn(Optional.of(interval(1L, 1L, DAY, 14, 15)));
+
+    index.onScheduleChanged(new ScheduleChangedEvent(1L));
+
+    assertEquals(Optional.empty(), index.findConflict(1L, DAY, LocalTime.of(9, 0), LocalTime.of(12, 0), null));
+    assertEquals(Optional.of(1L), index.findConflict(1L, DAY, LocalTime.of(14, 30), LocalTime.of(16, 0), null));
+    assertEquals(1, index.size(1L));
+  }
+
+  @Test
+  void onScheduleChanged_shouldMoveTheScheduleToAnotherDentist() {
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of(
+        interval(1L, 1L, DAY, 9, 12)));
+    when(scheduleRepository.findIntervalsByDentist(2L, ScheduleStatus.CANCELLED)).thenReturn(List.of());
+    index.findConflict(1L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 0), null);
+    index.findConflict(2L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 0), null);
+    when(scheduleRepository.findInterval(1L, ScheduleStatus.CANCELLED))
+        .thenReturn(Optional.of(interval(1L, 2L, DAY, 9, 12)));
+
+    index.onScheduleChanged(new ScheduleChangedEvent(1L));
+
+    assertEquals(0, index.size(1L));
+    assertEquals(Optional.of(1L), index.findConflict(2L, DAY, LocalTime.of(10, 0), LocalTime.of(11, 0), null));
+  }
+
+  @Test
+  void onScheduleChanged_shouldDropDeletedOrCancelledSchedules() {
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of(
+        interval(1L, 1L, DAY, 9, 12)));
+    index.findConflict(1L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 0), null);
+    when(scheduleRepository.findInterval(1L, ScheduleStatus.CANCELLED)).thenReturn(Optional.empty());
+
+    index.onScheduleChanged(new ScheduleChangedEvent(1L));
+
+    assertEquals(0, index.size(1L));
+  }
+
+  @Test
+  void onSchedulesTransitioned_shouldDropCancelledSchedules() {
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of(
+        interval(1L, 1L, DAY, 9, 12),
+        interval(2L, 1L, DAY, 13, 15)));
+    index.findConflict(1L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 0), null);
+
+    index.onSchedulesTransitioned(new SchedulesTransitionedEvent(List.of(1L), ScheduleStatus.CANCELLED,
+        BookingStatus.CANCELLED));
+    index.onSchedulesTransitioned(new SchedulesTransitionedEvent(List.of(2L), ScheduleStatus.FINISHED,
+        BookingStatus.FINISHED));
+
+    assertEquals(1, index.size(1L));
+  }
+
+  @Test
+  void onSchedulesCreated_shouldReloadTheDentistOnNextUse() {
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED))
+        .thenReturn(List.of())
+        .thenReturn(List.of(interval(5L, 1L, DAY, 16, 20)));
+    index.findConflict(1L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 0), null);
+
+    index.onSchedulesCreated(new SchedulesCreatedEvent(1L, DAY, DAY));
+
+    assertEquals(0, index.size(1L));
+    assertEquals(Optional.of(5L), index.findConflict(1L, DAY, LocalTime.of(17, 0), LocalTime.of(18, 0), null));
+  }
+
+  @Test
+  void timeline_shouldBeReloadedAfterTtl() {
+    DentistScheduleIndex expiring = new DentistScheduleIndex(scheduleRepository, 0, "08:00", "18:00");
+    when(scheduleRepository.findIntervalsByDentist(1L, ScheduleStatus.CANCELLED)).thenReturn(List.of());
+
+    expiring.findConflict(1L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 0), null);
+    expiring.findConflict(1L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 0), null);
+
+    verify(scheduleRepository, times(2)).findIntervalsByDentist(1L, ScheduleStatus.CANCELLED);
+  }
+
+  private static FreeSlotResponse slot(LocalDate date, int fromHour, int toHour) {
+    return FreeSlotResponse.builder()
+        .date(date)
+        .startTime(LocalTime.of(fromHour, 0))
+        .endTime(LocalTime.of(toHour, 0))
+        .duration((toHour - fromHour) * 60L)
+        .build();
+  }
+
+  private static ScheduleInterval interval(Long id, Long dentistId, LocalDate date, int fromHour, int toHour) {
+    return new ScheduleInterval() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Long getDentistId() {
+        return dentistId;
+      }
+
+      @Override
+      public LocalDate getDate() {
+        return date;
+      }
+
+      @Override
+      public LocalTime getStartTime() {
+        return LocalTime.of(fromHour, 0);
+      }
+
+      @Override
+      public LocalTime getEndTime() {
+        return LocalTime.of(toHour, 0);
+      }
+    };
+  }
+}
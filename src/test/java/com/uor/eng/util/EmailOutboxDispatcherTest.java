@@ -0,0 +1,160 @@
+package com.uor.eng.util;
+
+import com.uor.eng.model.EmailOutbox;
+import com.uor.eng.model.EmailOutboxStatus;
+import com.uor.eng.model.EmailType;
+import com.uor.eng.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailOutboxDispatcherTest {
+
+  @Mock
+  private EmailOutboxRepository outboxRepository;
+
+  @Mock
+  private EmailService emailService;
+
+  private SimpleMeterRegistry registry;
+  private EmailOutboxDispatcher dispatcher;
+  private EmailOutbox email;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    dispatcher = new EmailOutboxDispatcher(outboxRepository, emailService, registry,
+            2, 10, 5, 3, 1000, 4000, 60000, 30);
+
+    email = EmailOutbox.builder()
+            .id(1L)
+            .type(EmailType.BOOKING_CONFIRMATION)
+            .recipient("john.doe@example.com")
+            .subject("Appointment Confirmation - Reference ID: REF123456")
+            .body("<p>Hello</p>")
+            .attempts(1)
+            .build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    dispatcher.shutdown();
+  }
+
+  @Test
+  void testDispatch_Success() {
+    when(outboxRepository.claim(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+    when(outboxRepository.findAllById(List.of(1L))).thenReturn(List.of(email));
+    when(emailService.deliver(List.of(email))).thenReturn(Map.of());
+
+    dispatcher.dispatch(List.of(1L));
+
+    verify(outboxRepository).markSent(eq(1L), any(LocalDateTime.class));
+    assertEquals(1.0, registry.get("app.email.outbox.sent.count").counter().count());
+    assertEquals(1, registry.get("app.email.outbox.send-batch.size").summary().count());
+  }
+
+  @Test
+  void testDispatch_AlreadyClaimed() {
+    when(outboxRepository.claim(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(0);
+
+    dispatcher.dispatch(List.of(1L));
+
+    verify(outboxRepository, never()).findAllById(anyIterable());
+    verify(emailService, never()).deliver(anyList());
+  }
+
+  @Test
+  void testDispatch_SendsClaimedEmailsAsOneBatch() {
+    EmailOutbox second = EmailOutbox.builder()
+            .id(2L)
+            .type(EmailType.APPOINTMENT_REMINDER)
+            .recipient("jane.doe@example.com")
+            .subject("Appointment Reminder - Tomorrow")
+            .body("<p>Reminder</p>")
+            .attempts(1)
+            .build();
+    when(outboxRepository.claim(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1, 0, 1);
+    when(outboxRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(email, second));
+    when(emailService.deliver(List.of(email, second)))
+            .thenReturn(Map.of(2L, new MailSendException("Mailbox unavailable")));
+
+    dispatcher.dispatch(List.of(1L, 3L, 2L));
+
+    verify(emailService, times(1)).deliver(anyList());
+    verify(outboxRepository).markSent(eq(1L), any(LocalDateTime.class));
+    verify(outboxRepository).markFailed(eq(2L), eq(EmailOutboxStatus.PENDING), any(LocalDateTime.class),
+            contains("Mailbox unavailable"));
+    assertEquals(1.0, registry.get("app.email.outbox.sent.count").counter().count());
+    assertEquals(1.0, registry.get("app.email.outbox.retry.count").counter().count());
+  }
+
+  @Test
+  void testDispatch_FailureIsRetriedWithBackoff() {
+    when(outboxRepository.claim(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+    when(outboxRepository.findAllById(List.of(1L))).thenReturn(List.of(email));
+    when(emailService.deliver(List.of(email))).thenThrow(new MailSendException("SMTP timeout"));
+
+    LocalDateTime before = LocalDateTime.now();
+    dispatcher.dispatch(List.of(1L));
+
+    verify(outboxRepository).markFailed(eq(1L), eq(EmailOutboxStatus.PENDING),
+            argThat(next -> !next.isBefore(before.plusSeconds(1))), contains("SMTP timeout"));
+    verify(outboxRepository, never()).markSent(anyLong(), any(LocalDateTime.class));
+    assertEquals(1.0, registry.get("app.email.outbox.retry.count").counter().count());
+  }
+
+  @Test
+  void testDispatch_LastAttemptMovesToDeadLetter() {
+    email.setAttempts(3);
+    when(outboxRepository.claim(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+    when(outboxRepository.findAllById(List.of(1L))).thenReturn(List.of(email));
+    when(emailService.deliver(List.of(email))).thenReturn(Map.of(1L, new MessagingException("Invalid address")));
+
+    dispatcher.dispatch(List.of(1L));
+
+    verify(outboxRepository).markFailed(eq(1L), eq(EmailOutboxStatus.DEAD), any(LocalDateTime.class), contains("Invalid address"));
+    assertEquals(1.0, registry.get("app.email.outbox.dead.count").counter().count());
+  }
+
+  @Test
+  void testBackoff_DoublesUpToMaximum() {
+    assertEquals(Duration.ofSeconds(1), dispatcher.backoff(1));
+    assertEquals(Duration.ofSeconds(2), dispatcher.backoff(2));
+    assertEquals(Duration.ofSeconds(4), dispatcher.backoff(3));
+    assertEquals(Duration.ofSeconds(4), dispatcher.backoff(10));
+  }
+
+  @Test
+  void testPoll_HandsDueEmailsToWorkersInBatches() {
+    List<Long> dueIds = List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+    when(outboxRepository.findDueIds(any(LocalDateTime.class), any(Pageable.class))).thenReturn(dueIds);
+    when(outboxRepository.claim(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+    when(outboxRepository.findAllById(anyIterable())).thenReturn(List.of(email));
+    when(emailService.deliver(anyList())).thenReturn(Map.of());
+
+    dispatcher.poll();
+    dispatcher.shutdown();
+
+    verify(outboxRepository).findAllById(List.of(1L, 2L, 3L, 4L, 5L));
+    verify(outboxRepository).findAllById(List.of(6L, 7L));
+    verify(emailService, times(2)).deliver(anyList());
+  }
+}
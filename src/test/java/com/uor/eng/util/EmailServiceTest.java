@@ -2,14 +2,22 @@ package com.uor.eng.util;
 
 import com.uor.eng.exceptions.EmailSendingException;
 import com.uor.eng.model.BookingStatus;
+import com.uor.eng.model.EmailOutbox;
+import com.uor.eng.model.EmailOutboxStatus;
+import com.uor.eng.model.EmailType;
 import com.uor.eng.payload.booking.BookingResponseDTO;
 import com.uor.eng.payload.other.ContactDTO;
+import com.uor.eng.repository.EmailOutboxRepository;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -17,6 +25,8 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,6 +38,14 @@ public class EmailServiceTest {
   @Mock
   private JavaMailSender mailSender;
 
+  @Mock
+  private EmailOutboxRepository outboxRepository;
+
+  @Captor
+  private ArgumentCaptor<EmailOutbox> outboxCaptor;
+
+  private MimeMessage mimeMessage;
+
   private EmailService emailService;
   private EmailService spyEmailService;
   private BookingResponseDTO bookingDTO;
@@ -35,8 +53,8 @@ public class EmailServiceTest {
 
   @BeforeEach
   void setUp() {
-    // Create EmailService with the mocked JavaMailSender
-    emailService = new EmailService(mailSender);
+    // Create EmailService with the mocked JavaMailSender and outbox
+    emailService = new EmailService(mailSender, outboxRepository);
 
     // Create a spy of the emailService to test specific behaviors
     spyEmailService = spy(emailService);
@@ -46,7 +64,7 @@ public class EmailServiceTest {
     ReflectionTestUtils.setField(spyEmailService, "fromEmail", "test@dentistry.com");
 
     // Create a mock MimeMessage
-    MimeMessage mimeMessage = mock(MimeMessage.class);
+    mimeMessage = mock(MimeMessage.class);
 
     // Set up the mailSender to return our mock MimeMessage
     lenient().when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
@@ -82,64 +100,63 @@ public class EmailServiceTest {
 
   @Test
   void testSendBookingConfirmation() {
-    // Arrange
-    doNothing().when(mailSender).send(any(MimeMessage.class));
-
     // Act & Assert - Check that no exception is thrown
     assertDoesNotThrow(() -> {
       emailService.sendBookingConfirmation(bookingDTO);
     });
 
-    // Verify mailSender.send was called once
-    verify(mailSender, times(1)).send(any(MimeMessage.class));
+    // Verify the email was queued, not sent
+    EmailOutbox queued = captureQueued();
+    assertEquals(EmailType.BOOKING_CONFIRMATION, queued.getType());
+    assertEquals("john.doe@example.com", queued.getRecipient());
+    assertEquals("Appointment Confirmation - Reference ID: REF123456", queued.getSubject());
+    assertTrue(queued.getBody().contains("REF123456"));
+    assertEquals(EmailOutboxStatus.PENDING, queued.getStatus());
+    verify(mailSender, never()).send(any(MimeMessage.class));
   }
 
   @Test
   void testSendBookingCancellation() {
-    // Arrange
-    doNothing().when(mailSender).send(any(MimeMessage.class));
-
     // Act & Assert
     assertDoesNotThrow(() -> {
       emailService.sendBookingCancellation(bookingDTO);
     });
 
     // Verify
-    verify(mailSender, times(1)).send(any(MimeMessage.class));
+    EmailOutbox queued = captureQueued();
+    assertEquals(EmailType.BOOKING_CANCELLATION, queued.getType());
+    assertEquals("Appointment Cancellation - Reference ID: REF123456", queued.getSubject());
   }
 
   @Test
   void testSendBookingActivation() {
-    // Arrange
-    doNothing().when(mailSender).send(any(MimeMessage.class));
-
     // Act & Assert
     assertDoesNotThrow(() -> {
       emailService.sendBookingActivation(bookingDTO);
     });
 
     // Verify
-    verify(mailSender, times(1)).send(any(MimeMessage.class));
+    EmailOutbox queued = captureQueued();
+    assertEquals(EmailType.BOOKING_ACTIVATION, queued.getType());
+    assertEquals("Appointment Activation - Reference ID: REF123456", queued.getSubject());
   }
 
   @Test
   void testSendAppointmentReminder() {
-    // Arrange
-    doNothing().when(mailSender).send(any(MimeMessage.class));
-
     // Act & Assert
     assertDoesNotThrow(() -> {
       emailService.sendAppointmentReminder(bookingDTO);
     });
 
     // Verify
-    verify(mailSender, times(1)).send(any(MimeMessage.class));
+    EmailOutbox queued = captureQueued();
+    assertEquals(EmailType.APPOINTMENT_REMINDER, queued.getType());
+    assertEquals("Appointment Reminder - Tomorrow", queued.getSubject());
   }
 
   @Test
   void testSendResponseForContactUs() {
     // Arrange
-    doNothing().when(mailSender).send(any(MimeMessage.class));
     String reply = "Thank you for your inquiry. We offer comprehensive dental services.";
 
     // Act & Assert
@@ -148,7 +165,65 @@ public class EmailServiceTest {
     });
 
     // Verify
-    verify(mailSender, times(1)).send(any(MimeMessage.class));
+    EmailOutbox queued = captureQueued();
+    assertEquals(EmailType.CONTACT_REPLY, queued.getType());
+    assertEquals("jane.smith@example.com", queued.getRecipient());
+    assertEquals("Contact Us Reply", queued.getSubject());
+    assertTrue(queued.getBody().contains(reply));
+  }
+
+  @Test
+  void testSendPasswordReset() {
+    // Act & Assert
+    assertDoesNotThrow(() -> {
+      emailService.sendPasswordReset("user@example.com", "http://localhost:3000/reset-password?token=abc", 30);
+    });
+
+    // Verify
+    EmailOutbox queued = captureQueued();
+    assertEquals(EmailType.PASSWORD_RESET, queued.getType());
+    assertEquals("user@example.com", queued.getRecipient());
+    assertEquals("Password Reset Request", queued.getSubject());
+    assertTrue(queued.getBody().contains("http://localhost:3000/reset-password?token=abc"));
+  }
+
+  @Test
+  void testDeliver() {
+    // Arrange
+    EmailOutbox email = EmailOutbox.builder()
+            .id(1L)
+            .type(EmailType.BOOKING_CONFIRMATION)
+            .recipient("john.doe@example.com")
+            .subject("Appointment Confirmation - Reference ID: REF123456")
+            .body("<p>Hello</p>")
+            .build();
+
+    // Act
+    Map<Long, Exception> failures = emailService.deliver(List.of(email));
+
+    // Verify
+    assertTrue(failures.isEmpty());
+    verify(mailSender, times(1)).send(new MimeMessage[]{mimeMessage});
+    verifyNoInteractions(outboxRepository);
+  }
+
+  @Test
+  void testDeliver_ReportsFailedMessagesOfTheBatch() {
+    // Arrange
+    MimeMessage secondMessage = mock(MimeMessage.class);
+    when(mailSender.createMimeMessage()).thenReturn(mimeMessage, secondMessage);
+    EmailOutbox first = EmailOutbox.builder().id(1L).type(EmailType.APPOINTMENT_REMINDER)
+            .recipient("john.doe@example.com").subject("Appointment Reminder - Tomorrow").body("<p>1</p>").build();
+    EmailOutbox second = EmailOutbox.builder().id(2L).type(EmailType.APPOINTMENT_REMINDER)
+            .recipient("jane.doe@example.com").subject("Appointment Reminder - Tomorrow").body("<p>2</p>").build();
+    MessagingException rejected = new MessagingException("Mailbox unavailable");
+    doThrow(new MailSendException(Map.of(secondMessage, rejected))).when(mailSender).send(mimeMessage, secondMessage);
+
+    // Act
+    Map<Long, Exception> failures = emailService.deliver(List.of(first, second));
+
+    // Verify - both went over one send call and only the rejected one is reported
+    assertEquals(Map.of(2L, rejected), failures);
   }
 
   @Test
@@ -157,7 +232,7 @@ public class EmailServiceTest {
     EmailSendingException expectedException = new EmailSendingException("Failed to send email");
 
     // Make sendEmail throw our expected exception
-    doThrow(expectedException).when(spyEmailService).sendEmail(anyString(), anyString(), any(BookingResponseDTO.class));
+    doThrow(expectedException).when(spyEmailService).sendEmail(any(EmailType.class), anyString(), anyString(), any(BookingResponseDTO.class));
 
     // Act & Assert - Expect our specific EmailSendingException
     Exception exception = assertThrows(EmailSendingException.class, () -> {
@@ -179,7 +254,8 @@ public class EmailServiceTest {
       spyEmailService.sendBookingConfirmation(bookingDTO);
     });
 
-    // Verify that send was never called
+    // Verify that nothing was queued or sent
+    verify(outboxRepository, never()).save(any(EmailOutbox.class));
     verify(mailSender, never()).send(any(MimeMessage.class));
   }
 
@@ -190,15 +266,13 @@ public class EmailServiceTest {
             .email("john.doe@example.com") // Only email is required for sending
             .build();
 
-    doNothing().when(mailSender).send(any(MimeMessage.class));
-
     // Act & Assert - Check that it handles null values gracefully
     assertDoesNotThrow(() -> {
       emailService.sendBookingConfirmation(nullBooking);
     });
 
-    // Verify send was called
-    verify(mailSender, times(1)).send(any(MimeMessage.class));
+    // Verify the email was queued
+    assertEquals("john.doe@example.com", captureQueued().getRecipient());
   }
 
   @Test
@@ -207,14 +281,17 @@ public class EmailServiceTest {
     ContactDTO nullContact = new ContactDTO();
     nullContact.setEmail("jane@example.com"); // Only email is required
 
-    doNothing().when(mailSender).send(any(MimeMessage.class));
-
     // Act & Assert
     assertDoesNotThrow(() -> {
       emailService.sendResponseForContactUs(nullContact, "Reply");
     });
 
     // Verify
-    verify(mailSender, times(1)).send(any(MimeMessage.class));
+    assertEquals("jane@example.com", captureQueued().getRecipient());
+  }
+
+  private EmailOutbox captureQueued() {
+    verify(outboxRepository, times(1)).save(outboxCaptor.capture());
+    return outboxCaptor.getValue();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package com.uor.eng.util;
+
+import com.uor.eng.exceptions.JobLockLostException;
+import com.uor.eng.model.JobLock;
+import com.uor.eng.repository.JobLockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JobLockManagerTest {
+
+  @Mock
+  private JobLockRepository lockRepository;
+
+  private SimpleMeterRegistry registry;
+  private JobLockManager jobLocks;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    jobLocks = new JobLockManager(lockRepository, registry, "node-a", 900_000, 30_000);
+  }
+
+  @Test
+  void runLocked_shouldRunTaskUnderTheLeaseAndHoldItForTheMinimum() {
+    when(lockRepository.findById("reminders")).thenReturn(Optional.of(lock(4, null)));
+    when(lockRepository.acquire(eq("reminders"), eq(4L), eq("node-a"), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(1);
+    when(lockRepository.findForUpdate("reminders")).thenReturn(Optional.of(lock(5, LocalDateTime.now().plusMinutes(15))));
+    AtomicBoolean held = new AtomicBoolean();
+
+    LocalDateTime before = LocalDateTime.now();
+    boolean ran = jobLocks.runLocked("reminders", () -> {
+      jobLocks.fence();
+      held.set(registry.get("app.job.lock.held").tag("job", "reminders").gauge().value() == 1);
+    });
+
+    assertTrue(ran);
+    assertTrue(held.get());
+    assertEquals(0, registry.get("app.job.lock.held").tag("job", "reminders").gauge().value());
+    assertEquals(1, registry.get("app.job.run.time").tag("job", "reminders").tag("outcome", "success").timer().count());
+    verify(lockRepository).release(eq("reminders"), eq(5L), argThat(until -> !until.isBefore(before.plusSeconds(30))));
+  }
+
+  @Test
+  void runLocked_shouldSkipWhileAnotherNodeHoldsTheLease() {
+    when(lockRepository.findById("reminders")).thenReturn(Optional.of(lock(4, LocalDateTime.now().plusMinutes(5))));
+    Runnable task = mock(Runnable.class);
+
+    assertFalse(jobLocks.runLocked("reminders", task));
+
+    verify(task, never()).run();
+    verify(lockRepository, never()).acquire(anyString(), anyLong(), anyString(), any(), any());
+    assertEquals(1.0, registry.get("app.job.lock.skipped.count").tag("job", "reminders").counter().count());
+  }
+
+  @Test
+  void runLocked_shouldSkipWhenAnotherNodeWinsTheRace() {
+    when(lockRepository.findById("reminders")).thenReturn(Optional.of(lock(4, LocalDateTime.now().minusMinutes(1))));
+    when(lockRepository.acquire(eq("reminders"), eq(4L), eq("node-a"), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(0);
+    Runnable task = mock(Runnable.class);
+
+    assertFalse(jobLocks.runLocked("reminders", task));
+
+    verify(task, never()).run();
+  }
+
+  @Test
+  void runLocked_shouldCreateTheLeaseRowOnFirstUse() {
+    when(lockRepository.findById("reminders")).thenReturn(Optional.empty()).thenReturn(Optional.of(lock(0, null)));
+    when(lockRepository.saveAndFlush(any(JobLock.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+    when(lockRepository.acquire(eq("reminders"), eq(0L), eq("node-a"), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(1);
+
+    assertTrue(jobLocks.runLocked("reminders", Duration.ZERO, () -> { }));
+
+    verify(lockRepository).release(eq("reminders"), eq(1L), any(LocalDateTime.class));
+  }
+
+  @Test
+  void fence_shouldFailOnceTheLeaseHasChangedHands() {
+    when(lockRepository.findById("reminders")).thenReturn(Optional.of(lock(4, null)));
+    when(lockRepository.acquire(eq("reminders"), eq(4L), eq("node-a"), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(1);
+    when(lockRepository.findForUpdate("reminders")).thenReturn(Optional.of(lock(6, LocalDateTime.now().plusMinutes(15))));
+
+    assertThrows(JobLockLostException.class, () -> jobLocks.runLocked("reminders", jobLocks::fence));
+
+    assertEquals(1, registry.get("app.job.run.time").tag("job", "reminders").tag("outcome", "lost").timer().count());
+  }
+
+  @Test
+  void fence_shouldDoNothingOutsideALease() {
+    jobLocks.fence();
+
+    verifyNoInteractions(lockRepository);
+  }
+
+  private static JobLock lock(long token, LocalDateTime lockedUntil) {
+    return JobLock.builder().name("reminders").token(token).lockedUntil(lockedUntil).build();
+  }
+}
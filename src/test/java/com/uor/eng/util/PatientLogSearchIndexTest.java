@@ -0,0 +1,160 @@
+package com.uor.eng.util;
+
+import com.uor.eng.event.PatientChangedEvent;
+import com.uor.eng.event.PatientLogChangedEvent;
+import com.uor.eng.payload.patient.logs.PatientLogSearchEntry;
+import com.uor.eng.repository.PatientLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientLogSearchIndexTest {
+
+  private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 15, 10, 0);
+
+  @Mock
+  private PatientLogRepository logRepository;
+
+  private PatientLogSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new PatientLogSearchIndex(logRepository, 2);
+  }
+
+  @Test
+  void search_shouldReturnLogsWithEveryWordNewestFirst() {
+    load(
+        entry(1L, 10L, 100L, "Root canal", "Tooth 36, first visit", NOW.minusDays(30)),
+        entry(2L, 11L, 100L, "Crown", "Crown on 36 after root canal", NOW.minusDays(2)),
+        entry(3L, 10L, 101L, "Cleaning", "Scaling, no canal issues", NOW.minusDays(1)));
+
+    assertEquals(new PatientLogSearchIndex.Hits(2, List.of(2L, 1L)), index.search("ROOT canal", null, null, 10));
+    assertEquals(new PatientLogSearchIndex.Hits(1, List.of(2L)), index.search("crown 36", null, null, 10));
+    assertEquals(new PatientLogSearchIndex.Hits(3, List.of(3L)), index.search("canal", null, null, 1));
+    assertEquals(0, index.search("implant", null, null, 10).total());
+  }
+
+  @Test
+  void search_shouldFilterByPatientAndDentist() {
+    load(
+        entry(1L, 10L, 100L, "Root canal", null, NOW.minusDays(30)),
+        entry(2L, 11L, 100L, "Root canal", null, NOW.minusDays(2)),
+        entry(3L, 10L, 101L, "Root canal", null, NOW.minusDays(1)));
+
+    assertEquals(List.of(3L, 1L), index.search("canal", 10L, null, 10).logIds());
+    assertEquals(List.of(2L, 1L), index.search("canal", null, 100L, 10).logIds());
+    assertEquals(List.of(1L), index.search("canal", 10L, 100L, 10).logIds());
+    assertEquals(0, index.search("canal", 12L, null, 10).total());
+  }
+
+  @Test
+  void onPatientLogChanged_shouldReindexEditedLogsAndDropDeletedOnes() {
+    load(entry(1L, 10L, 100L, "Filling", "Composite on 46", NOW.minusDays(3)));
+    when(logRepository.findSearchEntry(1L))
+        .thenReturn(Optional.of(entry(1L, 10L, 100L, "Filling", "Amalgam on 46", NOW)))
+        .thenReturn(Optional.empty());
+
+    index.onPatientLogChanged(new PatientLogChangedEvent(1L));
+
+    assertEquals(0, index.search("composite", null, null, 10).total());
+    assertEquals(List.of(1L), index.search("amalgam 46", 10L, null, 10).logIds());
+
+    index.onPatientLogChanged(new PatientLogChangedEvent(1L));
+
+    assertEquals(0, index.size());
+    assertEquals(0, index.search("filling", null, null, 10).total());
+  }
+
+  @Test
+  void onPatientChanged_shouldDropLogsOfDeletedPatients() {
+    load(
+        entry(1L, 10L, 100L, "Extraction", null, NOW.minusDays(3)),
+        entry(2L, 11L, 100L, "Extraction", null, NOW.minusDays(2)));
+    when(logRepository.findIdsByPatientId(10L)).thenReturn(List.of());
+
+    index.onPatientChanged(new PatientChangedEvent(10L));
+
+    assertEquals(1, index.size());
+    assertEquals(List.of(2L), index.search("extraction", null, null, 10).logIds());
+  }
+
+  @Test
+  void rebuild_shouldReadInChunksAndKeepChangesCommittedWhileReading() {
+    when(logRepository.findSearchEntriesAfter(0L, PageRequest.of(0, 2))).thenAnswer(invocation -> {
+      index.onPatientLogChanged(new PatientLogChangedEvent(4L));
+      return List.of(entry(1L, 10L, 100L, "Checkup", null, NOW), entry(2L, 10L, 100L, "Checkup", null, NOW));
+    });
+    when(logRepository.findSearchEntriesAfter(2L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(entry(3L, 10L, 100L, "Checkup", null, NOW)));
+    when(logRepository.findSearchEntry(4L))
+        .thenReturn(Optional.of(entry(4L, 10L, 100L, "Checkup", null, NOW.plusHours(1))));
+
+    index.rebuild();
+
+    assertEquals(4, index.size());
+    assertEquals(List.of(4L, 3L, 2L, 1L), index.search("checkup", null, null, 10).logIds());
+    verify(logRepository, times(2)).findSearchEntriesAfter(any(), any());
+  }
+
+  @Test
+  void words_shouldSplitOnPunctuationAndLowercase() {
+    assertEquals(List.of("crown", "36", "porcelain", "fused"), PatientLogSearchIndex.words("Crown #36: Porcelain-fused"));
+    assertTrue(PatientLogSearchIndex.words(" , ").isEmpty());
+  }
+
+  private void load(PatientLogSearchEntry... entries) {
+    PatientLogSearchIndex loader = new PatientLogSearchIndex(logRepository, entries.length + 1);
+    when(logRepository.findSearchEntriesAfter(0L, PageRequest.of(0, entries.length + 1)))
+        .thenReturn(List.of(entries));
+    loader.rebuild();
+    index = loader;
+  }
+
+  static PatientLogSearchEntry entry(Long id, Long patientId, Long dentistId, String actionType, String description,
+                                     LocalDateTime timestamp) {
+    return new PatientLogSearchEntry() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Long getPatientId() {
+        return patientId;
+      }
+
+      @Override
+      public Long getDentistId() {
+        return dentistId;
+      }
+
+      @Override
+      public String getActionType() {
+        return actionType;
+      }
+
+      @Override
+      public String getDescription() {
+        return description;
+      }
+
+      @Override
+      public LocalDateTime getTimestamp() {
+        return timestamp;
+      }
+    };
+  }
+}
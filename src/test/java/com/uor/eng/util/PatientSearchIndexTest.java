@@ -0,0 +1,176 @@
+package com.uor.eng.util;
+
+import com.uor.eng.event.PatientChangedEvent;
+import com.uor.eng.payload.patient.PatientContactNumber;
+import com.uor.eng.payload.patient.PatientSearchEntry;
+import com.uor.eng.payload.patient.PatientSummaryResponse;
+import com.uor.eng.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientSearchIndexTest {
+
+  @Mock
+  private PatientRepository patientRepository;
+
+  private PatientSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    index = new PatientSearchIndex(patientRepository);
+  }
+
+  @Test
+  void search_shouldRankWholeWordsAbovePrefixesAboveInfixes() {
+    load(List.of(
+        entry(1L, "Johnson Perera", "jp@example.com", "901234567V"),
+        entry(2L, "John Silva", "silva@example.com", "881234567V"),
+        entry(3L, "Ajohn Fernando", "af@example.com", "771234567V")),
+        List.of());
+
+    assertEquals(List.of(2L, 1L, 3L), ids(index.search("john", 10)));
+    assertEquals(List.of(2L), ids(index.search("john", 1)));
+  }
+
+  @Test
+  void search_shouldRequireEveryTermAndIgnoreCase() {
+    load(List.of(
+        entry(1L, "John Perera", "jp@example.com", "901234567V"),
+        entry(2L, "John Silva", "silva@example.com", "881234567V")),
+        List.of());
+
+    assertEquals(List.of(2L), ids(index.search("  JOHN  sil ", 10)));
+    assertTrue(index.search("john fernando", 10).isEmpty());
+  }
+
+  @Test
+  void search_shouldMatchShortTermsByWordPrefixOnly() {
+    load(List.of(
+        entry(1L, "Jo Perera", "jp@example.com", "901234567V"),
+        entry(2L, "Anjo Silva", "silva@example.com", "881234567V")),
+        List.of());
+
+    assertEquals(List.of(1L), ids(index.search("jo", 10)));
+  }
+
+  @Test
+  void search_shouldFindPatientsByPartialPhoneNicOrEmail() {
+    load(List.of(
+        entry(1L, "John Perera", "john.perera@example.com", "901234567V"),
+        entry(2L, "Mary Silva", "mary@example.com", "881234567V")),
+        List.of(number(1L, "0771234567"), number(2L, "0719876543"), number(2L, "0112223334")));
+
+    assertEquals(List.of(2L), ids(index.search("98765", 10)));
+    assertEquals(List.of(2L), ids(index.search("222333", 10)));
+    assertEquals(List.of(1L), ids(index.search("9012345", 10)));
+    assertEquals(List.of(1L), ids(index.search("perera@exa", 10)));
+    assertEquals(List.of("0719876543", "0112223334"), index.search("mary", 10).get(0).getContactNumbers());
+  }
+
+  @Test
+  void search_shouldNotReturnTrigramFalsePositives() {
+    // "abcd" shares every trigram of "abcbcd" but does not contain it
+    load(List.of(entry(1L, "Abcd Bcbcd", "x@example.com", "901234567V")), List.of());
+
+    assertTrue(index.search("abcbcd", 10).isEmpty());
+  }
+
+  @Test
+  void onPatientChanged_shouldReindexOrDropThePatient() {
+    load(List.of(entry(1L, "John Perera", "jp@example.com", "901234567V")), List.of());
+    when(patientRepository.findSearchEntry(1L))
+        .thenReturn(Optional.of(entry(1L, "Jonathan Perera", "jp@example.com", "901234567V")))
+        .thenReturn(Optional.empty());
+    when(patientRepository.findContactNumbers(1L)).thenReturn(List.of("0771234567"));
+
+    index.onPatientChanged(new PatientChangedEvent(1L));
+
+    assertTrue(index.search("john", 10).isEmpty());
+    assertEquals(List.of(1L), ids(index.search("jonathan 0771", 10)));
+
+    index.onPatientChanged(new PatientChangedEvent(1L));
+
+    assertEquals(0, index.size());
+    assertTrue(index.search("perera", 10).isEmpty());
+  }
+
+  @Test
+  void rebuild_shouldKeepChangesCommittedWhileReading() {
+    when(patientRepository.findAllContactNumbers()).thenReturn(List.of());
+    when(patientRepository.findSearchEntries()).thenAnswer(invocation -> {
+      index.onPatientChanged(new PatientChangedEvent(2L));
+      return List.of(entry(1L, "John Perera", "jp@example.com", "901234567V"));
+    });
+    when(patientRepository.findSearchEntry(2L))
+        .thenReturn(Optional.of(entry(2L, "Mary Silva", "mary@example.com", "881234567V")));
+    when(patientRepository.findContactNumbers(2L)).thenReturn(List.of());
+
+    index.rebuild();
+
+    assertEquals(2, index.size());
+    assertEquals(List.of(2L), ids(index.search("mary", 10)));
+  }
+
+  @Test
+  void search_shouldReturnNothingForBlankQuery() {
+    assertTrue(index.search("   ", 10).isEmpty());
+  }
+
+  private void load(List<PatientSearchEntry> entries, List<PatientContactNumber> numbers) {
+    when(patientRepository.findSearchEntries()).thenReturn(entries);
+    when(patientRepository.findAllContactNumbers()).thenReturn(numbers);
+    index.rebuild();
+  }
+
+  private static List<Long> ids(List<PatientSummaryResponse> results) {
+    return results.stream().map(PatientSummaryResponse::getId).toList();
+  }
+
+  private static PatientSearchEntry entry(Long id, String name, String email, String nic) {
+    return new PatientSearchEntry() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @Override
+      public String getEmail() {
+        return email;
+      }
+
+      @Override
+      public String getNic() {
+        return nic;
+      }
+    };
+  }
+
+  private static PatientContactNumber number(Long patientId, String contactNumber) {
+    return new PatientContactNumber() {
+      @Override
+      public Long getPatientId() {
+        return patientId;
+      }
+
+      @Override
+      public String getContactNumber() {
+        return contactNumber;
+      }
+    };
+  }
+}
@@ -0,0 +1,92 @@
+package com.uor.eng.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PhotoUrlCacheTest {
+
+  private static final Duration VALIDITY = Duration.ofMinutes(60);
+
+  @Mock
+  private S3Service s3Service;
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final AtomicInteger signatures = new AtomicInteger();
+  private SimpleMeterRegistry registry;
+  private PhotoUrlCache cache;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    cache = new PhotoUrlCache(s3Service, registry, 2, VALIDITY.toMillis(), Duration.ofMinutes(10).toMillis(), nanos::get);
+    lenient().when(s3Service.generatePresignedDownloadUrl(anyString(), any())).thenAnswer(invocation ->
+        "https://signed/" + invocation.getArgument(0) + "?sig=" + signatures.incrementAndGet());
+  }
+
+  @Test
+  void getUrl_shouldSignOnceAndReuseTheUrl() {
+    assertEquals("https://signed/a.jpg?sig=1", cache.getUrl("a.jpg"));
+    assertEquals("https://signed/a.jpg?sig=1", cache.getUrl("a.jpg"));
+    assertEquals("https://signed/b.jpg?sig=2", cache.getUrl("b.jpg"));
+
+    verify(s3Service, times(2)).generatePresignedDownloadUrl(anyString(), eq(VALIDITY));
+    assertEquals(1.0, registry.get("cache.gets").tag("cache", "s3.photo-url").tag("result", "hit").functionCounter().count());
+    assertEquals(2.0, registry.get("cache.gets").tag("cache", "s3.photo-url").tag("result", "miss").functionCounter().count());
+  }
+
+  @Test
+  void getUrl_shouldSignAgainOnceTooLittleValidityIsLeft() {
+    cache.getUrl("a.jpg");
+
+    advance(Duration.ofMinutes(49));
+    assertEquals("https://signed/a.jpg?sig=1", cache.getUrl("a.jpg"));
+
+    advance(Duration.ofMinutes(1));
+    assertEquals("https://signed/a.jpg?sig=2", cache.getUrl("a.jpg"));
+  }
+
+  @Test
+  void getUrl_shouldKeepTheCacheBounded() {
+    for (int i = 0; i < 10; i++) {
+      cache.getUrl("photo-" + i + ".jpg");
+    }
+
+    assertTrue(cache.size() <= 2);
+    assertTrue(registry.get("cache.evictions").tag("cache", "s3.photo-url").functionCounter().count() >= 8);
+  }
+
+  @Test
+  void evict_shouldDropTheUrl() {
+    cache.getUrl("a.jpg");
+
+    cache.evict("a.jpg");
+
+    assertEquals(0, cache.size());
+    assertEquals("https://signed/a.jpg?sig=2", cache.getUrl("a.jpg"));
+  }
+
+  @Test
+  void constructor_shouldRejectAReuseWindowLongerThanTheValidity() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new PhotoUrlCache(s3Service, registry, 2, 60_000, 60_000, nanos::get));
+  }
+
+  private void advance(Duration duration) {
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(duration.toMillis()));
+  }
+}
@@ -0,0 +1,39 @@
+package com.uor.eng.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RebuildableIndexTest {
+
+  @Test
+  void rebuild_shouldReplayChangesAppliedWhileLoading() {
+    RebuildableIndex<List<String>> index = new RebuildableIndex<>(new ArrayList<>(List.of("old")));
+
+    List<String> rebuilt = index.rebuild(() -> {
+      // Commits after the loader has read its rows
+      index.apply(current -> current.add("changed"));
+      return new ArrayList<>(List.of("loaded"));
+    });
+
+    assertEquals(List.of("loaded", "changed"), rebuilt);
+    assertEquals(List.of("loaded", "changed"), index.read(List::copyOf));
+  }
+
+  @Test
+  void rebuild_shouldKeepTheOldIndexWhenLoadingFails() {
+    RebuildableIndex<List<String>> index = new RebuildableIndex<>(new ArrayList<>(List.of("old")));
+
+    assertThrows(IllegalStateException.class, () -> index.rebuild(() -> {
+      throw new IllegalStateException("database down");
+    }));
+    index.apply(current -> current.add("changed"));
+    List<String> rebuilt = index.rebuild(() -> new ArrayList<>(List.of("loaded")));
+
+    // The change landed before this rebuild started, so it is not replayed onto it
+    assertEquals(List.of("loaded"), rebuilt);
+  }
+}
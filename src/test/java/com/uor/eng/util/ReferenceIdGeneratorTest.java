@@ -0,0 +1,210 @@
+package com.uor.eng.util;
+
+import com.uor.eng.repository.ReferenceIdBlockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class ReferenceIdGeneratorTest {
+
+  private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+  private static final long BLOCK_TICKS = 60L << 10;
+
+  private static ReferenceIdGenerator generator(int nodeId) {
+    return new ReferenceIdGenerator(nodeId, "test-secret", blocks());
+  }
+
+  private static ReferenceIdBlockRepository blocks() {
+    ReferenceIdBlockRepository blocks = mock(ReferenceIdBlockRepository.class);
+    when(blocks.advance(anyInt(), anyLong(), anyLong())).thenReturn(1);
+    return blocks;
+  }
+
+  @Test
+  void next_shouldProduceWellFormedIds() {
+    ReferenceIdGenerator generator = generator(3);
+
+    for (int i = 0; i < 1000; i++) {
+      String id = generator.next();
+      assertEquals(ReferenceIdGenerator.LENGTH, id.length());
+      assertTrue(id.chars().allMatch(c -> ALPHABET.indexOf(c) >= 0), id);
+      assertTrue(ReferenceIdGenerator.isWellFormed(id), id);
+    }
+  }
+
+  @Test
+  void isWellFormed_shouldDetectEverySingleCharacterTypo() {
+    ReferenceIdGenerator generator = generator(0);
+
+    for (int n = 0; n < 200; n++) {
+      String id = generator.next();
+      for (int position = 0; position < id.length(); position++) {
+        for (char replacement : ALPHABET.toCharArray()) {
+          if (replacement == id.charAt(position)) {
+            continue;
+          }
+          String typo = id.substring(0, position) + replacement + id.substring(position + 1);
+          assertFalse(ReferenceIdGenerator.isWellFormed(typo), typo);
+        }
+      }
+    }
+  }
+
+  @Test
+  void isWellFormed_shouldRejectLegacyAndForeignIds() {
+    assertFalse(ReferenceIdGenerator.isWellFormed(null));
+    assertFalse(ReferenceIdGenerator.isWellFormed("AB12CD34"));
+    assertFalse(ReferenceIdGenerator.isWellFormed("ABCDEFGHIU"));
+    assertFalse(ReferenceIdGenerator.isWellFormed("ABCDEFGH-1"));
+  }
+
+  @Test
+  void next_shouldStayUniqueAcrossThreads() throws InterruptedException {
+    ReferenceIdGenerator generator = generator(0);
+    Set<String> ids = ConcurrentHashMap.newKeySet();
+    int threads = 8;
+    int perThread = 5000;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+
+    for (int t = 0; t < threads; t++) {
+      pool.execute(() -> {
+        try {
+          start.await();
+          for (int i = 0; i < perThread; i++) {
+            ids.add(generator.next());
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+    }
+    start.countDown();
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+    // More than 1024 per second forces sequence borrowing from later seconds, which must not repeat an ID
+    assertEquals(threads * perThread, ids.size());
+  }
+
+  @Test
+  void nextTick_shouldNeverGoBackwards() {
+    ReferenceIdGenerator generator = generator(0);
+
+    long first = generator.nextTick(100);
+    long second = generator.nextTick(99);
+    long third = generator.nextTick(200);
+
+    assertEquals(100L << 10, first);
+    assertEquals(first + 1, second);
+    assertEquals(200L << 10, third);
+  }
+
+  @Test
+  void next_shouldDifferBetweenNodesInTheSameSecond() {
+    Set<String> ids = new HashSet<>();
+    for (int node = 0; node < 32; node++) {
+      ReferenceIdGenerator generator = generator(node);
+      for (int i = 0; i < 100; i++) {
+        ids.add(generator.next());
+      }
+    }
+    assertEquals(3200, ids.size());
+  }
+
+  @Test
+  void scramble_shouldBeOneToOne() {
+    Set<Long> seen = new HashSet<>();
+    ReferenceIdGenerator generator = generator(0);
+    for (long value : List.of(0L, 1L, 2L, 1L << 44, (1L << 45) - 1)) {
+      long scrambled = generator.scramble(value);
+      assertTrue(scrambled >= 0 && scrambled < 1L << 45);
+      seen.add(scrambled);
+    }
+    for (long value = 1000; value < 101_000; value++) {
+      seen.add(generator.scramble(value));
+    }
+    assertEquals(100_005, seen.size());
+  }
+
+  @Test
+  void scramble_shouldDependOnTheSecret() {
+    ReferenceIdGenerator first = new ReferenceIdGenerator(0, "first-secret", blocks());
+    ReferenceIdGenerator second = new ReferenceIdGenerator(0, "second-secret", blocks());
+
+    int same = 0;
+    for (long value = 0; value < 1000; value++) {
+      if (first.scramble(value) == second.scramble(value)) {
+        same++;
+      }
+    }
+    assertTrue(same < 5, same + " values scrambled alike");
+  }
+
+  @Test
+  void nextTick_shouldReserveTicksBeforeHandingThemOut() {
+    ReferenceIdBlockRepository blocks = blocks();
+    ReferenceIdGenerator generator = new ReferenceIdGenerator(4, "test-secret", blocks);
+
+    long first = generator.nextTick(100);
+    generator.nextTick(120);
+
+    assertEquals(100L << 10, first);
+    verify(blocks).create(4, (100L << 10) + BLOCK_TICKS);
+    verify(blocks, never()).advance(anyInt(), anyLong(), anyLong());
+
+    // A tick past the first minute extends the stored reservation
+    long later = generator.nextTick(200);
+    verify(blocks).advance(4, (100L << 10) + BLOCK_TICKS, later + BLOCK_TICKS);
+  }
+
+  @Test
+  void nextTick_shouldResumeAboveTheReservationAfterARestart() {
+    ReferenceIdBlockRepository blocks = mock(ReferenceIdBlockRepository.class);
+    when(blocks.findReservedUntil(0)).thenReturn(Optional.of(500L << 10));
+    when(blocks.advance(0, 500L << 10, (500L << 10) + BLOCK_TICKS)).thenReturn(1);
+    ReferenceIdGenerator generator = new ReferenceIdGenerator(0, "test-secret", blocks);
+
+    // The clock now reads an earlier second than the one reserved before the restart
+    assertEquals(500L << 10, generator.nextTick(400));
+    assertEquals((500L << 10) + 1, generator.nextTick(400));
+  }
+
+  @Test
+  void nextTick_shouldFailWhileAnotherInstanceUsesTheNodeId() {
+    ReferenceIdBlockRepository moved = mock(ReferenceIdBlockRepository.class);
+    when(moved.findReservedUntil(0)).thenReturn(Optional.of(500L << 10));
+    ReferenceIdBlockRepository created = mock(ReferenceIdBlockRepository.class);
+    when(created.create(anyInt(), anyLong())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+    assertThrows(IllegalStateException.class, () -> new ReferenceIdGenerator(0, "test-secret", moved).nextTick(600));
+    assertThrows(IllegalStateException.class, () -> new ReferenceIdGenerator(0, "test-secret", created).nextTick(600));
+  }
+
+  @Test
+  void random_shouldProduceWellFormedIds() {
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(ReferenceIdGenerator.isWellFormed(ReferenceIdGenerator.random()));
+    }
+  }
+
+  @Test
+  void constructor_shouldRejectOutOfRangeNodeId() {
+    assertThrows(IllegalArgumentException.class, () -> generator(-1));
+    assertThrows(IllegalArgumentException.class, () -> generator(32));
+  }
+}
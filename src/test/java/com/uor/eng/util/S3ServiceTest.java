@@ -12,9 +12,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
 import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
@@ -23,6 +27,7 @@ import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequ
 import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 import java.io.IOException;
+import java.net.URI;
 import java.net.URL;
 import java.time.Duration;
 
@@ -57,8 +62,6 @@ public class S3ServiceTest {
   @BeforeEach
   void setUp() {
     ReflectionTestUtils.setField(s3Service, "bucketName", BUCKET_NAME);
-    ReflectionTestUtils.setField(s3Service, "region", REGION);
-    ReflectionTestUtils.setField(s3Service, "presigner", presigner);
   }
 
   @Test
@@ -166,15 +169,24 @@ public class S3ServiceTest {
   }
 
   @Test
-  void getFileUrl_ShouldGenerateCorrectUrl() {
-    // Arrange
-    String key = "unique-key_test-file.jpg";
+  void generatePresignedDownloadUrl_ShouldSignForALocalS3CompatibleStore() {
+    // Arrange: signing needs no running server, only the endpoint and credentials
+    S3Presigner localPresigner = S3Presigner.builder()
+            .region(Region.of(REGION))
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("minio", "minio-secret")))
+            .endpointOverride(URI.create("http://localhost:9000"))
+            .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+            .build();
+    S3Service localService = new S3Service(s3Client, localPresigner);
+    ReflectionTestUtils.setField(localService, "bucketName", BUCKET_NAME);
 
     // Act
-    String url = s3Service.getFileUrl(key);
+    String url = localService.generatePresignedDownloadUrl("unique-key_test-file.jpg", Duration.ofMinutes(60));
 
     // Assert
-    assertEquals("https://test-bucket.s3.us-east-1.amazonaws.com/unique-key_test-file.jpg", url);
+    assertTrue(url.startsWith("http://localhost:9000/test-bucket/unique-key_test-file.jpg?"), url);
+    assertTrue(url.contains("X-Amz-Expires=3600"), url);
+    assertTrue(url.contains("X-Amz-Signature="), url);
   }
 
   @Test
@@ -212,17 +224,4 @@ public class S3ServiceTest {
 
     assertTrue(exception.getMessage().contains("Failed to delete file from S3"));
   }
-
-  @Test
-  void initializePresigner_ShouldInitializePresigner() {
-    // Arrange
-    S3Service serviceSpy = spy(new S3Service(s3Client));
-    ReflectionTestUtils.setField(serviceSpy, "region", REGION);
-
-    // Act
-    serviceSpy.initializePresigner();
-
-    // Assert
-    verify(serviceSpy).initializePresigner();
-  }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.uor.eng.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduleSlotAllocatorTest {
+
+  @Test
+  void tryAcquire_shouldSeedOnceAndRejectWhenExhausted() {
+    ScheduleSlotAllocator allocator = new ScheduleSlotAllocator(60_000);
+    AtomicInteger seedCalls = new AtomicInteger();
+
+    assertNotNull(allocator.tryAcquire(1L, () -> {
+      seedCalls.incrementAndGet();
+      return 2;
+    }));
+    assertNotNull(allocator.tryAcquire(1L, () -> {
+      seedCalls.incrementAndGet();
+      return 2;
+    }));
+    assertNull(allocator.tryAcquire(1L, () -> 2));
+    assertEquals(1, seedCalls.get());
+  }
+
+  @Test
+  void permitRelease_shouldReturnSlotOnlyOnce() {
+    ScheduleSlotAllocator allocator = new ScheduleSlotAllocator(60_000);
+
+    ScheduleSlotAllocator.Permit permit = allocator.tryAcquire(1L, () -> 1);
+    assertNotNull(permit);
+    assertNull(allocator.tryAcquire(1L, () -> 1));
+
+    permit.release();
+    permit.release();
+
+    assertNotNull(allocator.tryAcquire(1L, () -> 1));
+    assertNull(allocator.tryAcquire(1L, () -> 1));
+  }
+
+  @Test
+  void evict_shouldReseedFromDatabaseValue() {
+    ScheduleSlotAllocator allocator = new ScheduleSlotAllocator(60_000);
+    assertNotNull(allocator.tryAcquire(1L, () -> 1));
+    assertNull(allocator.tryAcquire(1L, () -> 1));
+
+    allocator.evict(1L);
+
+    assertNotNull(allocator.tryAcquire(1L, () -> 3));
+    assertEquals(1, allocator.trackedSchedules());
+  }
+
+  @Test
+  void tryAcquire_shouldResyncExhaustedCounterAfterInterval() {
+    ScheduleSlotAllocator allocator = new ScheduleSlotAllocator(0);
+    assertNotNull(allocator.tryAcquire(1L, () -> 1));
+
+    // The database now reports a freed slot, e.g. after an admin edit that bypassed the allocator
+    assertNotNull(allocator.tryAcquire(1L, () -> 1));
+  }
+
+  @Test
+  void tryAcquire_shouldNeverAdmitMoreThanCapacityUnderContention() throws InterruptedException {
+    ScheduleSlotAllocator allocator = new ScheduleSlotAllocator(60_000);
+    int capacity = 50;
+    int threads = 16;
+    int attemptsPerThread = 100;
+    AtomicInteger admitted = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    List<Runnable> tasks = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      tasks.add(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for (int i = 0; i < attemptsPerThread; i++) {
+          if (allocator.tryAcquire(7L, () -> capacity) != null) {
+            admitted.incrementAndGet();
+          }
+        }
+      });
+    }
+    tasks.forEach(executor::submit);
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(capacity, admitted.get());
+  }
+}
@@ -4,10 +4,15 @@ import com.uor.eng.service.IScheduleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -16,12 +21,29 @@ public class ScheduleTaskSchedulerTest {
   @Mock
   private IScheduleService scheduleService;
 
-  @InjectMocks
+  @Mock
+  private ScheduleTransitionTimer transitionTimer;
+
+  @Mock
+  private JobLockManager jobLocks;
+
+  @Mock
+  private DailyBookingStatsRollup bookingStats;
+
   private ScheduleTaskScheduler scheduleTaskScheduler;
 
   @BeforeEach
   void setUp() {
-    // No additional setup needed with MockitoExtension
+    scheduleTaskScheduler = new ScheduleTaskScheduler(scheduleService, transitionTimer, jobLocks, bookingStats, 31);
+    // Every lease is free: run the job straight away
+    lenient().when(jobLocks.runLocked(anyString(), any(Runnable.class))).thenAnswer(invocation -> {
+      invocation.<Runnable>getArgument(1).run();
+      return true;
+    });
+    lenient().when(jobLocks.runLocked(anyString(), any(Duration.class), any(Runnable.class))).thenAnswer(invocation -> {
+      invocation.<Runnable>getArgument(2).run();
+      return true;
+    });
   }
 
   @Test
@@ -31,6 +53,7 @@ public class ScheduleTaskSchedulerTest {
 
     // Assert
     verify(scheduleService).updateExpiredSchedules();
+    verify(transitionTimer).reload();
   }
 
   @Test
@@ -87,4 +110,52 @@ public class ScheduleTaskSchedulerTest {
     // Assert
     verify(scheduleService).sendAppointmentReminders();
   }
-}
\ No newline at end of file
+
+  @Test
+  void sendScheduleReminders_shouldSkipWhenAnotherNodeHoldsTheLease() {
+    // Arrange
+    when(jobLocks.runLocked(eq("appointment-reminders"), any(Runnable.class))).thenReturn(false);
+
+    // Act
+    scheduleTaskScheduler.sendScheduleReminders();
+
+    // Assert
+    verify(scheduleService, never()).sendAppointmentReminders();
+  }
+
+  @Test
+  void updateScheduleStatuses_shouldReloadTimerEvenWhenAnotherNodeFinishesSchedules() {
+    // Arrange
+    when(jobLocks.runLocked(eq(ScheduleTransitionTimer.FINISH_JOB), eq(Duration.ZERO), any(Runnable.class)))
+        .thenReturn(false);
+
+    // Act
+    scheduleTaskScheduler.updateScheduleStatuses();
+
+    // Assert
+    verify(scheduleService, never()).updateExpiredSchedules();
+    verify(transitionTimer).reload();
+  }
+
+  @Test
+  void reconcileBookingStats_shouldRebuildDaysAroundToday() {
+    // Act
+    scheduleTaskScheduler.reconcileBookingStats();
+
+    // Assert
+    LocalDate today = LocalDate.now();
+    verify(bookingStats).rebuild(today.minusDays(31), today.plusDays(31));
+  }
+
+  @Test
+  void reconcileBookingStats_shouldHandleExceptions() {
+    // Arrange
+    when(bookingStats.rebuild(any(LocalDate.class), any(LocalDate.class))).thenThrow(new RuntimeException("DB failure"));
+
+    // Act - should not throw exception
+    scheduleTaskScheduler.reconcileBookingStats();
+
+    // Assert
+    verify(bookingStats).rebuild(any(LocalDate.class), any(LocalDate.class));
+  }
+}
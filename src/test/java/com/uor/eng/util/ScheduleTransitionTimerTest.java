@@ -0,0 +1,189 @@
+package com.uor.eng.util;
+
+import com.uor.eng.event.ScheduleChangedEvent;
+import com.uor.eng.event.SchedulesCreatedEvent;
+import com.uor.eng.event.SchedulesTransitionedEvent;
+import com.uor.eng.model.BookingStatus;
+import com.uor.eng.model.Schedule;
+import com.uor.eng.model.ScheduleStatus;
+import com.uor.eng.payload.schedule.ScheduleEndTime;
+import com.uor.eng.repository.ScheduleRepository;
+import com.uor.eng.service.IScheduleService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduleTransitionTimerTest {
+
+  @Mock
+  private IScheduleService scheduleService;
+
+  @Mock
+  private ScheduleRepository scheduleRepository;
+
+  @Mock
+  private JobLockManager jobLocks;
+
+  private SimpleMeterRegistry registry;
+  private ScheduleTransitionTimer timer;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    lenient().when(jobLocks.runLocked(eq(ScheduleTransitionTimer.FINISH_JOB), eq(Duration.ZERO), any(Runnable.class)))
+        .thenAnswer(invocation -> {
+          invocation.<Runnable>getArgument(2).run();
+          return true;
+        });
+    timer = new ScheduleTransitionTimer(scheduleService, scheduleRepository, jobLocks, registry, 48, 0);
+  }
+
+  @AfterEach
+  void tearDown() {
+    timer.shutdown();
+  }
+
+  @Test
+  void reload_shouldFinishSchedulesWhenTheyEnd() {
+    LocalDateTime end = LocalDateTime.now().plusNanos(300_000_000);
+    when(scheduleRepository.findEndTimes(any(LocalDate.class), any(LocalDate.class), eq(ScheduleStatus.FINISHABLE)))
+        .thenReturn(List.of(endTime(1L, end), endTime(2L, end), endTime(3L, LocalDateTime.now().plusDays(3))));
+
+    timer.reload();
+
+    assertEquals(2, timer.pendingCount());
+    verify(scheduleService, timeout(3000)).updateExpiredSchedules();
+    assertEquals(0, timer.pendingCount());
+    // The lag is recorded just after the run returns
+    awaitUntil(() -> registry.get("app.schedule.transitions.lag").timer().count() == 2);
+    assertEquals(2, registry.get("app.schedule.transitions.lag").timer().count());
+  }
+
+  @Test
+  void run_shouldRetryWhenAnotherNodeHoldsTheLease() {
+    when(jobLocks.runLocked(eq(ScheduleTransitionTimer.FINISH_JOB), eq(Duration.ZERO), any(Runnable.class)))
+        .thenReturn(false);
+    when(scheduleRepository.findEndTimes(any(LocalDate.class), any(LocalDate.class), eq(ScheduleStatus.FINISHABLE)))
+        .thenReturn(List.of(endTime(1L, LocalDateTime.now().plusNanos(100_000_000))));
+
+    timer.reload();
+
+    verify(jobLocks, timeout(3000)).runLocked(eq(ScheduleTransitionTimer.FINISH_JOB), eq(Duration.ZERO), any(Runnable.class));
+    // Queued again for a later attempt rather than dropped; the worker re-queues just after the call returns
+    awaitUntil(() -> timer.pendingCount() == 1);
+    assertEquals(1, timer.pendingCount());
+    verify(scheduleService, never()).updateExpiredSchedules();
+  }
+
+  @Test
+  void onSchedulesTransitioned_shouldDropClosedSchedules() throws InterruptedException {
+    when(scheduleRepository.findEndTimes(any(LocalDate.class), any(LocalDate.class), eq(ScheduleStatus.FINISHABLE)))
+        .thenReturn(List.of(endTime(1L, LocalDateTime.now().plusNanos(300_000_000))));
+    timer.reload();
+
+    timer.onSchedulesTransitioned(new SchedulesTransitionedEvent(List.of(1L), ScheduleStatus.CANCELLED,
+        BookingStatus.CANCELLED));
+
+    assertEquals(0, timer.pendingCount());
+    Thread.sleep(600);
+    verify(scheduleService, never()).updateExpiredSchedules();
+  }
+
+  @Test
+  void onSchedulesTransitioned_shouldKeepOpenedSchedules() {
+    when(scheduleRepository.findEndTimes(any(LocalDate.class), any(LocalDate.class), eq(ScheduleStatus.FINISHABLE)))
+        .thenReturn(List.of(endTime(1L, LocalDateTime.now().plusHours(1))));
+    timer.reload();
+
+    timer.onSchedulesTransitioned(new SchedulesTransitionedEvent(List.of(1L), ScheduleStatus.AVAILABLE, null));
+
+    assertEquals(1, timer.pendingCount());
+  }
+
+  @Test
+  void onScheduleChanged_shouldTrackNewEndTimeAndDropDeletedSchedules() {
+    Schedule schedule = new Schedule();
+    schedule.setId(1L);
+    schedule.setStatus(ScheduleStatus.AVAILABLE);
+    schedule.setDate(LocalDate.now().plusDays(1));
+    schedule.setEndTime(LocalTime.of(17, 0));
+    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule)).thenReturn(Optional.empty());
+
+    timer.onScheduleChanged(new ScheduleChangedEvent(1L));
+    assertEquals(1, timer.pendingCount());
+
+    timer.onScheduleChanged(new ScheduleChangedEvent(1L));
+    assertEquals(0, timer.pendingCount());
+  }
+
+  @Test
+  void onScheduleChanged_shouldIgnoreSchedulesBeyondTheHorizon() {
+    Schedule schedule = new Schedule();
+    schedule.setId(1L);
+    schedule.setStatus(ScheduleStatus.AVAILABLE);
+    schedule.setDate(LocalDate.now().plusDays(10));
+    schedule.setEndTime(LocalTime.of(17, 0));
+    when(scheduleRepository.findById(1L)).thenReturn(Optional.of(schedule));
+
+    timer.onScheduleChanged(new ScheduleChangedEvent(1L));
+
+    assertEquals(0, timer.pendingCount());
+  }
+
+  @Test
+  void onSchedulesCreated_shouldReloadOnlyWhenTheRangeStartsWithinTheHorizon() {
+    when(scheduleRepository.findEndTimes(any(LocalDate.class), any(LocalDate.class), eq(ScheduleStatus.FINISHABLE)))
+        .thenReturn(List.of(endTime(1L, LocalDateTime.now().plusHours(1))));
+
+    timer.onSchedulesCreated(new SchedulesCreatedEvent(1L, LocalDate.now().plusDays(10), LocalDate.now().plusDays(90)));
+    assertEquals(0, timer.pendingCount());
+
+    timer.onSchedulesCreated(new SchedulesCreatedEvent(1L, LocalDate.now(), LocalDate.now().plusDays(90)));
+    assertEquals(1, timer.pendingCount());
+    verify(scheduleRepository, times(1)).findEndTimes(any(LocalDate.class), any(LocalDate.class),
+        eq(ScheduleStatus.FINISHABLE));
+  }
+
+  private static void awaitUntil(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + 3000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.onSpinWait();
+    }
+  }
+
+  private static ScheduleEndTime endTime(Long id, LocalDateTime end) {
+    return new ScheduleEndTime() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public LocalDate getDate() {
+        return end.toLocalDate();
+      }
+
+      @Override
+      public LocalTime getEndTime() {
+        return end.toLocalTime();
+      }
+    };
+  }
+}
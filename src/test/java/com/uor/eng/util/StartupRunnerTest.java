@@ -4,10 +4,16 @@ import com.uor.eng.service.IScheduleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -16,12 +22,36 @@ public class StartupRunnerTest {
   @Mock
   private IScheduleService scheduleService;
 
-  @InjectMocks
+  @Mock
+  private ScheduleTransitionTimer transitionTimer;
+
+  @Mock
+  private JobLockManager jobLocks;
+
+  @Mock
+  private DailyBookingStatsRollup bookingStats;
+
+  @Mock
+  private PatientSearchIndex patientSearch;
+
+  @Mock
+  private PatientLogSearchIndex patientLogSearch;
+
   private StartupRunner startupRunner;
 
   @BeforeEach
   void setUp() {
-    // No additional setup needed with MockitoExtension
+    startupRunner = new StartupRunner(scheduleService, transitionTimer, jobLocks, bookingStats, patientSearch,
+        patientLogSearch, Duration.ofMinutes(65).toMillis());
+    // Every lease is free: run the job straight away
+    lenient().when(jobLocks.runLocked(anyString(), any(Runnable.class))).thenAnswer(invocation -> {
+      invocation.<Runnable>getArgument(1).run();
+      return true;
+    });
+    lenient().when(jobLocks.runLocked(anyString(), any(Duration.class), any(Runnable.class))).thenAnswer(invocation -> {
+      invocation.<Runnable>getArgument(2).run();
+      return true;
+    });
   }
 
   @Test
@@ -32,6 +62,34 @@ public class StartupRunnerTest {
     // Assert
     verify(scheduleService).initialUpdaterScheduleOnStartup();
     verify(scheduleService).updateExpiredSchedules();
+    verify(transitionTimer).reload();
+    verify(bookingStats).backfillIfEmpty();
+    verify(patientSearch).rebuild();
+    verify(patientLogSearch).rebuild();
+  }
+
+  @Test
+  void run_shouldCatchUpAfterEveryNodeWasDown() throws Exception {
+    when(jobLocks.lastAcquiredAt(ScheduleTransitionTimer.FINISH_JOB))
+        .thenReturn(Optional.of(LocalDateTime.now().minusHours(3)));
+
+    startupRunner.run();
+
+    verify(scheduleService).initialUpdaterScheduleOnStartup();
+    verify(scheduleService).updateExpiredSchedules();
+  }
+
+  @Test
+  void run_shouldSkipTheCatchUpWhileAnotherNodeIsRunning() throws Exception {
+    when(jobLocks.lastAcquiredAt(ScheduleTransitionTimer.FINISH_JOB))
+        .thenReturn(Optional.of(LocalDateTime.now().minusMinutes(20)));
+
+    startupRunner.run();
+
+    verify(scheduleService, never()).initialUpdaterScheduleOnStartup();
+    verify(jobLocks, never()).runLocked(eq("cancel-missed"), any(Runnable.class));
+    verify(scheduleService).updateExpiredSchedules();
+    verify(transitionTimer).reload();
   }
 
   @Test
@@ -45,6 +103,8 @@ public class StartupRunnerTest {
     // Assert
     verify(scheduleService).initialUpdaterScheduleOnStartup();
     verify(scheduleService, never()).updateExpiredSchedules(); // This should not be called if the first method throws
+    verify(patientSearch).rebuild();
+    verify(patientLogSearch).rebuild();
   }
 
   @Test
@@ -0,0 +1,66 @@
+package com.uor.eng.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketLimiterTest {
+
+  private static final long SECOND = 1_000_000_000L;
+
+  @Test
+  void tryAcquire_shouldAllowBurstThenRefillOverTime() {
+    TokenBucketLimiter limiter = new TokenBucketLimiter(3, 60, 100);
+
+    assertTrue(limiter.tryAcquire("10.0.0.1", 0));
+    assertTrue(limiter.tryAcquire("10.0.0.1", 0));
+    assertTrue(limiter.tryAcquire("10.0.0.1", 0));
+    assertFalse(limiter.tryAcquire("10.0.0.1", 0));
+
+    // 60 per minute is one token per second
+    assertFalse(limiter.tryAcquire("10.0.0.1", SECOND / 2));
+    assertTrue(limiter.tryAcquire("10.0.0.1", SECOND + SECOND / 2));
+    assertFalse(limiter.tryAcquire("10.0.0.1", SECOND + SECOND / 2));
+  }
+
+  @Test
+  void tryAcquire_shouldKeepKeysIndependent() {
+    TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 100);
+
+    assertTrue(limiter.tryAcquire("10.0.0.1", 0));
+    assertFalse(limiter.tryAcquire("10.0.0.1", 0));
+    assertTrue(limiter.tryAcquire("10.0.0.2", 0));
+  }
+
+  @Test
+  void size_shouldStayBoundedUnderManyDistinctKeys() {
+    TokenBucketLimiter limiter = new TokenBucketLimiter(5, 1, 640);
+
+    for (int i = 0; i < 100_000; i++) {
+      limiter.tryAcquire("client-" + i, 0);
+    }
+
+    assertTrue(limiter.size() <= 640, "size was " + limiter.size());
+  }
+
+  @Test
+  void tryAcquire_shouldDropBucketsThatHaveRefilled() {
+    TokenBucketLimiter limiter = new TokenBucketLimiter(2, 60, 6400);
+    for (int i = 0; i < 1000; i++) {
+      limiter.tryAcquire("client-" + i, 0);
+    }
+
+    // Two seconds later every bucket is full again, so each new key pushes an idle one out of its stripe
+    for (int i = 0; i < 1000; i++) {
+      limiter.tryAcquire("later-" + i, 3 * SECOND);
+    }
+
+    assertTrue(limiter.size() < 2000, "size was " + limiter.size());
+  }
+
+  @Test
+  void constructor_shouldRejectNonPositiveLimits() {
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(0, 10, 100));
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(10, 0, 100));
+  }
+}